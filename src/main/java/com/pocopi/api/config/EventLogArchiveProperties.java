@@ -0,0 +1,19 @@
+package com.pocopi.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.event-logs.archive")
+@Component
+public class EventLogArchiveProperties {
+    private boolean enabled = false;
+    private Duration interval = Duration.ofHours(1);
+    private int attemptsPerBatch = 100;
+    private int maxBatchesPerRun = 50;
+}
@@ -0,0 +1,19 @@
+package com.pocopi.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.event-logs.ingestion")
+@Component
+public class EventLogIngestionProperties {
+    private boolean trustedInsert = false;
+    private int multiRowInsertSize = 500;
+    private boolean hoverCoalescingEnabled = false;
+    private Duration hoverCoalescingWindow = Duration.ofMillis(250);
+}
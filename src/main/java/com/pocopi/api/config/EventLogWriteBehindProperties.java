@@ -0,0 +1,22 @@
+package com.pocopi.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.event-logs.write-behind")
+@Component
+public class EventLogWriteBehindProperties {
+    private boolean enabled = false;
+    private int queueCapacity = 20_000;
+    private int flushSize = 1_000;
+    private Duration flushInterval = Duration.ofMillis(500);
+    private Duration enqueueTimeout = Duration.ofMillis(200);
+    private String spoolPath = "./spool/event-logs";
+    private boolean spoolSync = true;
+}
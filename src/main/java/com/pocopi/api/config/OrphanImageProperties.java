@@ -0,0 +1,20 @@
+package com.pocopi.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.images.orphans")
+@Component
+public class OrphanImageProperties {
+    private boolean enabled = false;
+    private Duration gracePeriod = Duration.ofHours(24);
+    private int batchSize = 500;
+    private Duration batchPause = Duration.ofMillis(50);
+    private int maxFilesPerRun = 10_000;
+}
@@ -0,0 +1,18 @@
+package com.pocopi.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "app.results.export")
+@Component
+public class ResultsExportProperties {
+    /**
+     * Threads rendering results into archive entries, or one per available processor if not positive.
+     */
+    private int workers = 0;
+    private int maxInFlight = 64;
+}
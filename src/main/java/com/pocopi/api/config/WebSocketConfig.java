@@ -0,0 +1,52 @@
+package com.pocopi.api.config;
+
+import com.pocopi.api.config.auth.JwtHandshakeInterceptor;
+import com.pocopi.api.controllers.EventLogStreamHandler;
+import com.pocopi.api.dto.event.EventStreamFrame;
+import org.apache.tomcat.websocket.server.Constants;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+    private final EventLogStreamHandler eventLogStreamHandler;
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final AppCorsProperties corsProperties;
+
+    public WebSocketConfig(
+        EventLogStreamHandler eventLogStreamHandler,
+        JwtHandshakeInterceptor jwtHandshakeInterceptor,
+        AppCorsProperties corsProperties
+    ) {
+        this.eventLogStreamHandler = eventLogStreamHandler;
+        this.jwtHandshakeInterceptor = jwtHandshakeInterceptor;
+        this.corsProperties = corsProperties;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(@NonNull WebSocketHandlerRegistry registry) {
+        registry.addHandler(eventLogStreamHandler, "/event-logs/stream")
+            .addInterceptors(jwtHandshakeInterceptor)
+            .setAllowedOrigins(corsProperties.getAllowedOrigins().toArray(String[]::new));
+    }
+
+    /**
+     * Tomcat closes text messages over 8 KiB by default. Its websocket container reads the buffer size from this
+     * context parameter, which (unlike a {@code ServletServerContainerFactoryBean}) also works in mock servlet
+     * environments.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> webSocketBufferCustomizer() {
+        return factory -> factory.addContextCustomizers(context -> context.addParameter(
+            Constants.TEXT_BUFFER_SIZE_SERVLET_CONTEXT_INIT_PARAM,
+            String.valueOf(EventStreamFrame.MAX_MESSAGE_SIZE)
+        ));
+    }
+}
@@ -0,0 +1,88 @@
+package com.pocopi.api.config.auth;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+    public static final String USER_ID_ATTRIBUTE = "userId";
+    public static final String TOKEN_EXPIRATION_ATTRIBUTE = "tokenExpiration";
+
+    /**
+     * Browsers cannot set the Authorization header on a websocket handshake, so they send this subprotocol followed
+     * by the token, e.g. {@code new WebSocket(url, ["bearer", token])}. Only this one is echoed back, never the token.
+     */
+    public static final String BEARER_PROTOCOL = "bearer";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final AuthUserService authUserService;
+
+    public JwtHandshakeInterceptor(JwtUtil jwtUtil, AuthUserService authUserService) {
+        this.jwtUtil = jwtUtil;
+        this.authUserService = authUserService;
+    }
+
+    @Override
+    public boolean beforeHandshake(
+        @NonNull ServerHttpRequest request,
+        @NonNull ServerHttpResponse response,
+        @NonNull WebSocketHandler wsHandler,
+        @NonNull Map<String, Object> attributes
+    ) {
+        final String token = parseToken(request);
+
+        if (token == null || !jwtUtil.validateJwtToken(token)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        try {
+            final AuthUser authUser = (AuthUser) authUserService.loadUserByUsername(jwtUtil.getUserIdFromToken(token));
+            attributes.put(USER_ID_ATTRIBUTE, authUser.getId());
+            attributes.put(TOKEN_EXPIRATION_ATTRIBUTE, jwtUtil.getExpirationFromToken(token));
+            return true;
+        } catch (UsernameNotFoundException e) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(
+        @NonNull ServerHttpRequest request,
+        @NonNull ServerHttpResponse response,
+        @NonNull WebSocketHandler wsHandler,
+        Exception exception
+    ) {
+    }
+
+    private static String parseToken(ServerHttpRequest request) {
+        final String headerAuth = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (headerAuth != null && headerAuth.startsWith(BEARER_PREFIX)) {
+            return headerAuth.substring(BEARER_PREFIX.length());
+        }
+
+        final List<String> protocols = new WebSocketHttpHeaders(request.getHeaders()).getSecWebSocketProtocol();
+        final int bearerIndex = protocols.indexOf(BEARER_PROTOCOL);
+
+        if (bearerIndex < 0 || bearerIndex + 1 >= protocols.size()) {
+            return null;
+        }
+
+        return protocols.get(bearerIndex + 1);
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 
 @Component
@@ -45,6 +46,15 @@ public class JwtUtil {
             .getSubject();
     }
 
+    public Instant getExpirationFromToken(String token) {
+        return Jwts.parser()
+            .verifyWith(key).build()
+            .parseSignedClaims(token)
+            .getPayload()
+            .getExpiration()
+            .toInstant();
+    }
+
     public boolean validateJwtToken(String token) {
         try {
             Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
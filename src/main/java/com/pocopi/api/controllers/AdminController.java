@@ -1,9 +1,13 @@
 package com.pocopi.api.controllers;
 
 import com.pocopi.api.config.auth.AuthUser;
+import com.pocopi.api.dto.cache.CacheStats;
+import com.pocopi.api.dto.config.OrphanImageReport;
 import com.pocopi.api.dto.user.Admin;
 import com.pocopi.api.dto.user.NewAdmin;
 import com.pocopi.api.models.user.UserModel;
+import com.pocopi.api.services.CacheStatsSource;
+import com.pocopi.api.services.OrphanImageCollector;
 import com.pocopi.api.services.UserService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -20,9 +24,17 @@ import java.util.List;
 @Tag(name = "Admins")
 public class AdminController {
     private final UserService userService;
+    private final List<CacheStatsSource> cacheStatsSources;
+    private final OrphanImageCollector orphanImageCollector;
 
-    public AdminController(UserService userService) {
+    public AdminController(
+        UserService userService,
+        List<CacheStatsSource> cacheStatsSources,
+        OrphanImageCollector orphanImageCollector
+    ) {
         this.userService = userService;
+        this.cacheStatsSources = cacheStatsSources;
+        this.orphanImageCollector = orphanImageCollector;
     }
 
     @GetMapping
@@ -46,4 +58,20 @@ public class AdminController {
         userService.createAdmin(newAdmin);
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
+
+    @GetMapping("/caches")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<CacheStats>> getCacheStats() {
+        final List<CacheStats> stats = cacheStatsSources.stream()
+            .map(CacheStatsSource::getCacheStats)
+            .toList();
+        return ResponseEntity.ok(stats);
+    }
+
+    @PostMapping("/images/orphans")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<OrphanImageReport> collectOrphanImages(@RequestParam(defaultValue = "true") boolean dryRun) {
+        final OrphanImageReport report = orphanImageCollector.collect(dryRun);
+        return ResponseEntity.ok(report);
+    }
 }
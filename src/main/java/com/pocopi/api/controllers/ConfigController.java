@@ -9,12 +9,18 @@ import com.pocopi.api.dto.config.FullConfig;
 import com.pocopi.api.dto.config.TrimmedConfig;
 import com.pocopi.api.exception.HttpException;
 import com.pocopi.api.mappers.ApiExceptionMapper;
+import com.pocopi.api.services.ActiveConfigCache;
+import com.pocopi.api.services.ActiveConfigCache.SerializedConfig;
 import com.pocopi.api.services.ConfigService;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -30,17 +36,20 @@ import java.util.Set;
 @Tag(name = "Configurations")
 public class ConfigController {
     private final ConfigService configService;
+    private final ActiveConfigCache activeConfigCache;
     private final ObjectMapper objectMapper;
     private final ApiExceptionMapper apiExceptionMapper;
     private final Validator validator;
 
     public ConfigController(
         ConfigService configService,
+        ActiveConfigCache activeConfigCache,
         ObjectMapper objectMapper,
         ApiExceptionMapper apiExceptionMapper,
         Validator validator
     ) {
         this.configService = configService;
+        this.activeConfigCache = activeConfigCache;
         this.objectMapper = objectMapper;
         this.apiExceptionMapper = apiExceptionMapper;
         this.validator = validator;
@@ -136,10 +145,40 @@ public class ConfigController {
         return new ResponseEntity<>(modified ? HttpStatus.OK : HttpStatus.NOT_MODIFIED);
     }
 
-    @GetMapping("/active")
-    public ResponseEntity<TrimmedConfig> getActiveConfig() {
-        final TrimmedConfig config = configService.getTrimmedActiveConfig();
-        return ResponseEntity.ok(config);
+    @GetMapping(path = "/active", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponse(
+        responseCode = "200",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = TrimmedConfig.class)
+        )
+    )
+    public ResponseEntity<byte[]> getActiveConfig(
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        final SerializedConfig config = activeConfigCache.get(configService::getTrimmedActiveConfig);
+        final boolean gzip = SerializedConfig.acceptsGzip(acceptEncoding);
+
+        if (config.matches(ifNoneMatch, gzip)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(config.eTag(gzip))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(config.eTag(gzip))
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(config.gzipped());
+        }
+
+        return response.body(config.json());
     }
 
     private ConfigUpdate parseUpdateConfigPayload(String json) {
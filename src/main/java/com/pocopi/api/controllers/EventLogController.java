@@ -1,12 +1,16 @@
 package com.pocopi.api.controllers;
 
 import com.pocopi.api.config.auth.AuthUser;
+import com.pocopi.api.converters.EventLogBatchBinaryConverter;
+import com.pocopi.api.dto.event.EventLogBatchResult;
+import com.pocopi.api.dto.event.NewEventLogBatch;
 import com.pocopi.api.dto.event.NewOptionEventLog;
 import com.pocopi.api.dto.event.NewQuestionEventLog;
 import com.pocopi.api.services.EventLogService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -31,8 +35,8 @@ public class EventLogController {
         @RequestBody @Valid NewQuestionEventLog questionEventLog,
         @AuthenticationPrincipal AuthUser authUser
     ) {
-        eventLogService.saveQuestionEventLog(questionEventLog, authUser.getId());
-        return new ResponseEntity<>(HttpStatus.CREATED);
+        final boolean saved = eventLogService.saveQuestionEventLog(questionEventLog, authUser.getId());
+        return new ResponseEntity<>(saved ? HttpStatus.CREATED : HttpStatus.OK);
     }
 
     @PostMapping("/option")
@@ -41,7 +45,20 @@ public class EventLogController {
         @RequestBody @Valid NewOptionEventLog optionEventLog,
         @AuthenticationPrincipal AuthUser authUser
     ) {
-        eventLogService.saveOptionEventLog(optionEventLog, authUser.getId());
-        return new ResponseEntity<>(HttpStatus.CREATED);
+        final boolean saved = eventLogService.saveOptionEventLog(optionEventLog, authUser.getId());
+        return new ResponseEntity<>(saved ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
+    @PostMapping(
+        path = "/batch",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, EventLogBatchBinaryConverter.MEDIA_TYPE_VALUE}
+    )
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<EventLogBatchResult> saveEventLogBatch(
+        @RequestBody @Valid NewEventLogBatch eventLogBatch,
+        @AuthenticationPrincipal AuthUser authUser
+    ) {
+        final EventLogBatchResult result = eventLogService.saveEventLogBatch(eventLogBatch, authUser.getId());
+        return ResponseEntity.ok(result);
     }
 }
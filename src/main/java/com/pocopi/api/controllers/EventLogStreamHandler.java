@@ -0,0 +1,155 @@
+package com.pocopi.api.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pocopi.api.config.auth.JwtHandshakeInterceptor;
+import com.pocopi.api.dto.event.EventLogBatchResult;
+import com.pocopi.api.dto.event.EventStreamFrame;
+import com.pocopi.api.dto.event.EventStreamReply;
+import com.pocopi.api.exception.HttpException;
+import com.pocopi.api.services.ActiveAttemptRegistry;
+import com.pocopi.api.services.ActiveAttemptRegistry.ActiveAttempt;
+import com.pocopi.api.services.EventLogService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Component
+public class EventLogStreamHandler extends TextWebSocketHandler implements SubProtocolCapable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLogStreamHandler.class);
+
+    private static final String ATTEMPT_ID_ATTRIBUTE = "attemptId";
+    private static final String ACKNOWLEDGED_SEQUENCE_ATTRIBUTE = "acknowledgedSequence";
+    private static final CloseStatus ATTEMPT_NOT_ACTIVE = CloseStatus.POLICY_VIOLATION
+        .withReason("Test attempt is not active");
+    private static final CloseStatus TOKEN_EXPIRED = CloseStatus.POLICY_VIOLATION
+        .withReason("Authentication token has expired");
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ActiveAttemptRegistry activeAttemptRegistry;
+    private final EventLogService eventLogService;
+
+    public EventLogStreamHandler(
+        ObjectMapper objectMapper,
+        Validator validator,
+        ActiveAttemptRegistry activeAttemptRegistry,
+        EventLogService eventLogService
+    ) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.activeAttemptRegistry = activeAttemptRegistry;
+        this.eventLogService = eventLogService;
+    }
+
+    @Override
+    public void afterConnectionEstablished(@NonNull WebSocketSession session) throws IOException {
+        final Optional<ActiveAttempt> attempt = activeAttemptRegistry.find(getUserId(session));
+
+        if (attempt.isEmpty()) {
+            session.close(ATTEMPT_NOT_ACTIVE);
+            return;
+        }
+
+        final long attemptId = attempt.get().attemptId();
+        final long acknowledgedSequence = eventLogService.getStreamSequence(attemptId);
+        session.getAttributes().put(ATTEMPT_ID_ATTRIBUTE, attemptId);
+        session.getAttributes().put(ACKNOWLEDGED_SEQUENCE_ATTRIBUTE, acknowledgedSequence);
+
+        send(session, EventStreamReply.resume(acknowledgedSequence));
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(JwtHandshakeInterceptor.BEARER_PROTOCOL);
+    }
+
+    @Override
+    protected void handleTextMessage(@NonNull WebSocketSession session, @NonNull TextMessage message)
+        throws IOException {
+        final int userId = getUserId(session);
+        final long attemptId = (long) session.getAttributes().get(ATTEMPT_ID_ATTRIBUTE);
+        final long acknowledgedSequence = (long) session.getAttributes().get(ACKNOWLEDGED_SEQUENCE_ATTRIBUTE);
+        final Instant tokenExpiration = (Instant) session.getAttributes()
+            .get(JwtHandshakeInterceptor.TOKEN_EXPIRATION_ATTRIBUTE);
+
+        if (tokenExpiration != null && !Instant.now().isBefore(tokenExpiration)) {
+            session.close(TOKEN_EXPIRED);
+            return;
+        }
+
+        final EventStreamFrame frame;
+        try {
+            frame = objectMapper.readValue(message.getPayload(), EventStreamFrame.class);
+        } catch (JsonProcessingException e) {
+            send(session, EventStreamReply.error(null, "Malformed event frame: " + e.getOriginalMessage()));
+            return;
+        }
+
+        final Set<ConstraintViolation<EventStreamFrame>> violations = validator.validate(frame);
+        if (!violations.isEmpty()) {
+            final ConstraintViolation<EventStreamFrame> violation = violations.iterator().next();
+            send(session, EventStreamReply.error(
+                frame.sequence(),
+                violation.getPropertyPath() + " " + violation.getMessage()
+            ));
+            return;
+        }
+
+        final long sequence = frame.sequence();
+
+        // frames re-sent after a reconnect were already persisted, so they are only acknowledged again. This only
+        // covers this session; saveEventStreamFrame checks again against the database and returns no result
+        if (sequence <= acknowledgedSequence) {
+            send(session, EventStreamReply.ack(sequence, null));
+            return;
+        }
+
+        final boolean attemptActive = activeAttemptRegistry.find(userId)
+            .filter(attempt -> attempt.attemptId() == attemptId)
+            .isPresent();
+
+        if (!attemptActive) {
+            session.close(ATTEMPT_NOT_ACTIVE);
+            return;
+        }
+
+        final EventLogBatchResult result;
+        try {
+            result = eventLogService.saveEventStreamFrame(frame, userId);
+        } catch (HttpException e) {
+            send(session, EventStreamReply.error(sequence, e.getMessage()));
+            return;
+        }
+
+        session.getAttributes().put(ACKNOWLEDGED_SEQUENCE_ATTRIBUTE, sequence);
+        send(session, EventStreamReply.ack(sequence, result));
+    }
+
+    @Override
+    public void handleTransportError(@NonNull WebSocketSession session, @NonNull Throwable exception) {
+        LOGGER.warn("Event stream transport error for session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    private void send(WebSocketSession session, EventStreamReply reply) throws IOException {
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(reply)));
+    }
+
+    private static int getUserId(WebSocketSession session) {
+        return (int) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE);
+    }
+}
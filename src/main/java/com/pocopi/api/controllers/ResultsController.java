@@ -1,29 +1,30 @@
 package com.pocopi.api.controllers;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pocopi.api.dto.csv.ResultCsv;
 import com.pocopi.api.dto.results.FormSubmissionsByUser;
 import com.pocopi.api.dto.results.ResultsByUser;
 import com.pocopi.api.dto.results.TestResultsByUser;
+import com.pocopi.api.dto.user.User;
 import com.pocopi.api.mappers.UserResultsMapper;
+import com.pocopi.api.services.ResultsArchiveWriter;
+import com.pocopi.api.services.ResultsExporter;
+import com.pocopi.api.services.ResultsExporter.Entries;
 import com.pocopi.api.services.ResultsService;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
-import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.function.Function;
-import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/results")
@@ -36,69 +37,69 @@ public class ResultsController {
     private final ResultsService resultsService;
     private final ObjectMapper objectMapper;
     private final UserResultsMapper userResultsMapper;
+    private final ResultsExporter resultsExporter;
 
     public ResultsController(
         ResultsService resultsService,
         ObjectMapper objectMapper,
-        UserResultsMapper userResultsMapper
+        UserResultsMapper userResultsMapper,
+        ResultsExporter resultsExporter
     ) {
         this.resultsService = resultsService;
         this.objectMapper = objectMapper;
         this.userResultsMapper = userResultsMapper;
+        this.resultsExporter = resultsExporter;
     }
 
     @GetMapping(produces = {GZIP_MIME_TYPE})
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<byte[]> getAllResults(@RequestParam(defaultValue = "false") boolean csv) {
-        final List<ResultsByUser> userResults = resultsService.getAllResults();
-
-        if (!csv) {
-            return compressResults(
-                userResults,
-                (r) -> r.user().username() + ".json",
-                this::convertToJson,
-                "results"
-            );
-        }
-
-        final List<ResultCsv> resultsCsv = userResults.stream()
-            .flatMap(r -> userResultsMapper.userResultsToCsv(r).stream())
-            .toList();
-
-        return compressResults(
-            resultsCsv,
-            (r) -> r.username() + "-" + r.type() + ".csv",
-            ResultCsv::csv,
-            "results"
-        );
+    public ResponseEntity<StreamingResponseBody> getAllResults(@RequestParam(defaultValue = "false") boolean csv) {
+        return streamArchive("results", archive -> resultsExporter.export(
+            resultsService.streamAllResults(),
+            archive,
+            (result, entries) -> {
+                if (!csv) {
+                    entries.add(result.user().username() + ".json", output -> writeJson(output, result));
+                    return;
+                }
+
+                for (final ResultCsv resultCsv : userResultsMapper.userResultsToCsv(result)) {
+                    entries.add(resultCsv.username() + "-" + resultCsv.type() + ".csv", resultCsv.csv());
+                }
+            }
+        ));
     }
 
     @GetMapping(path = "/forms", produces = {GZIP_MIME_TYPE})
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<byte[]> getAllFormResults(@RequestParam(defaultValue = "false") boolean csv) {
-        final List<FormSubmissionsByUser> userFormResults = resultsService.getAllFormResults();
-        final String extension = csv ? ".csv" : ".json";
-
-        return compressResults(
-            userFormResults,
-            (r) -> r.user().username() + extension,
-            !csv ? this::convertToJson : userResultsMapper::userFormResultsToCsv,
-            "form-results"
-        );
+    public ResponseEntity<StreamingResponseBody> getAllFormResults(@RequestParam(defaultValue = "false") boolean csv) {
+        return streamArchive("form-results", archive -> resultsExporter.export(
+            resultsService.streamAllFormResults(),
+            archive,
+            (result, entries) -> addUserEntry(
+                entries,
+                result.user(),
+                result,
+                csv,
+                userResultsMapper::userFormResultsToCsv
+            )
+        ));
     }
 
     @GetMapping(path = "/tests", produces = {GZIP_MIME_TYPE})
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<byte[]> getAllTestResults(@RequestParam(defaultValue = "false") boolean csv) {
-        final List<TestResultsByUser> userTestResults = resultsService.getAllTestResults();
-        final String extension = csv ? ".csv" : ".json";
-
-        return compressResults(
-            userTestResults,
-            (r) -> r.user().username() + extension,
-            !csv ? this::convertToJson : userResultsMapper::userTestResultsToCsv,
-            "test-results"
-        );
+    public ResponseEntity<StreamingResponseBody> getAllTestResults(@RequestParam(defaultValue = "false") boolean csv) {
+        return streamArchive("test-results", archive -> resultsExporter.export(
+            resultsService.streamAllTestResults(),
+            archive,
+            (result, entries) -> addUserEntry(
+                entries,
+                result.user(),
+                result,
+                csv,
+                userResultsMapper::userTestResultsToCsv
+            )
+        ));
     }
 
     @GetMapping("/attempts/{attemptId}")
@@ -109,16 +110,15 @@ public class ResultsController {
 
     @GetMapping(path = "/attempts/{attemptId}/csv", produces = {GZIP_MIME_TYPE})
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<byte[]> getAttemptResultsCsv(@PathVariable long attemptId) {
+    public ResponseEntity<StreamingResponseBody> getAttemptResultsCsv(@PathVariable long attemptId) {
         final ResultsByUser userResults = resultsService.getAttemptResults(attemptId);
         final List<ResultCsv> resultsCsv = userResultsMapper.userResultsToCsv(userResults);
 
-        return compressResults(
-            resultsCsv,
-            (r) -> r.type() + ".csv",
-            ResultCsv::csv,
-            "results"
-        );
+        return streamArchive("results", archive -> {
+            for (final ResultCsv resultCsv : resultsCsv) {
+                archive.addEntry(resultCsv.type() + ".csv", resultCsv.csv());
+            }
+        });
     }
 
     @GetMapping("/attempts/{attemptId}/forms")
@@ -145,54 +145,47 @@ public class ResultsController {
         return userResultsMapper.userTestResultsToCsv(resultsService.getAttemptTestResults(attemptId));
     }
 
-    private <T> ResponseEntity<byte[]> compressResults(
-        List<T> results,
-        Function<T, String> resultToFileName,
-        Function<T, String> resultToFileContentsString,
-        String compressedFileName
-    ) {
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        try (
-            final GZIPOutputStream gzipOutput = new GZIPOutputStream(baos);
-            final TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(gzipOutput)
-        ) {
-            tarOutput.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
-
-            for (final T result : results) {
-                final String filename = resultToFileName.apply(result);
-                final String content = resultToFileContentsString.apply(result);
-                final byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
-
-                final TarArchiveEntry tarEntry = new TarArchiveEntry(filename);
-                tarEntry.setSize(contentBytes.length);
-                tarEntry.setModTime(System.currentTimeMillis());
-
-                tarOutput.putArchiveEntry(tarEntry);
-                tarOutput.write(contentBytes);
-                tarOutput.closeArchiveEntry();
-            }
-
-            tarOutput.finish();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
-        final byte[] tarballBytes = baos.toByteArray();
+    /**
+     * Streams the archive into the response as it is written, so only the entries still being rendered or written are
+     * ever buffered. Once the first bytes are sent the status can't change anymore, so a failure midway just aborts the
+     * download.
+     */
+    private ResponseEntity<StreamingResponseBody> streamArchive(String compressedFileName, ArchiveContents contents) {
+        final StreamingResponseBody body = output -> {
+            final ResultsArchiveWriter archive = new ResultsArchiveWriter(output);
+            contents.writeTo(archive);
+            archive.finish();
+        };
 
         final HttpHeaders headers = new HttpHeaders();
         headers.setContentType(GZIP_MEDIA_TYPE);
         headers.setContentDisposition(ContentDisposition.attachment().filename(compressedFileName + ".tar.gz").build());
-        headers.setContentLength(tarballBytes.length);
 
-        return ResponseEntity.ok().headers(headers).body(tarballBytes);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
-    private <T> String convertToJson(T result) {
-        try {
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Error converting result to JSON", e);
+    private <T> void addUserEntry(
+        Entries entries,
+        User user,
+        T result,
+        boolean csv,
+        Function<T, String> resultToCsv
+    ) throws IOException {
+        if (csv) {
+            entries.add(user.username() + ".csv", resultToCsv.apply(result));
+        } else {
+            entries.add(user.username() + ".json", output -> writeJson(output, result));
         }
     }
+
+    private void writeJson(OutputStream output, Object result) throws IOException {
+        objectMapper.writerWithDefaultPrettyPrinter()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .writeValue(output, result);
+    }
+
+    @FunctionalInterface
+    private interface ArchiveContents {
+        void writeTo(ResultsArchiveWriter archive) throws IOException;
+    }
 }
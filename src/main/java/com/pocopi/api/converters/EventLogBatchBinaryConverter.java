@@ -0,0 +1,183 @@
+package com.pocopi.api.converters;
+
+import com.pocopi.api.dto.event.NewEventLogBatch;
+import com.pocopi.api.dto.event.NewEventLogBatchItem;
+import com.pocopi.api.dto.event.NewOptionEventLog;
+import com.pocopi.api.dto.event.NewQuestionEventLog;
+import com.pocopi.api.models.test.TestOptionEventType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads event batches in the compact binary format:
+ * <pre>
+ * batch  := version:u8 count:varint [firstSequence:varint] event{count}
+ * event  := header:u8 timestampDelta:zigzag-varint (option | question)
+ * option := optionId:varint x:u8 y:u8        (header = 1 | typeCode << 1)
+ * question := questionId:varint duration:varint  (header = 0)
+ * </pre>
+ * {@code typeCode} is {@link TestOptionEventType#getCode()}. The first timestamp delta is relative to the epoch.
+ * {@code firstSequence} is only present in version 2, where events are numbered consecutively from it. Bodies sent with
+ * {@code Content-Encoding: gzip} are decompressed.
+ */
+@Component
+public class EventLogBatchBinaryConverter extends AbstractHttpMessageConverter<NewEventLogBatch> {
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.pocopi.event-batch";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    public static final int FORMAT_VERSION = 2;
+    public static final int UNSEQUENCED_FORMAT_VERSION = 1;
+    public static final int OPTION_FLAG = 0x01;
+
+    public EventLogBatchBinaryConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return NewEventLogBatch.class == clazz;
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @NonNull
+    protected NewEventLogBatch readInternal(
+        @NonNull Class<? extends NewEventLogBatch> clazz,
+        @NonNull HttpInputMessage inputMessage
+    ) throws IOException, HttpMessageNotReadableException {
+        final List<String> encodings = inputMessage.getHeaders().getOrEmpty(HttpHeaders.CONTENT_ENCODING);
+        final InputStream body = encodings.stream().anyMatch("gzip"::equalsIgnoreCase)
+            ? new GZIPInputStream(inputMessage.getBody())
+            : inputMessage.getBody();
+
+        try (final InputStream input = new BufferedInputStream(body)) {
+            final BatchReader reader = new BatchReader(input, inputMessage);
+
+            final int version = reader.readByte();
+            if (version != FORMAT_VERSION && version != UNSEQUENCED_FORMAT_VERSION) {
+                throw reader.error("Unsupported event batch format version " + version);
+            }
+
+            final int count = reader.readVarInt();
+            if (count < 1 || count > NewEventLogBatch.MAX_SIZE) {
+                throw reader.error("Event batch must contain between 1 and " + NewEventLogBatch.MAX_SIZE + " events");
+            }
+
+            final long firstSequence = version == FORMAT_VERSION ? reader.readVarLong() : 0;
+            if (version == FORMAT_VERSION && (firstSequence < 1 || firstSequence > Long.MAX_VALUE - count)) {
+                throw reader.error("Event batch first sequence out of range");
+            }
+
+            final List<NewEventLogBatchItem> events = new ArrayList<>(count);
+            long timestamp = 0;
+
+            for (int i = 0; i < count; i++) {
+                final int header = reader.readByte();
+                timestamp += reader.readZigZagVarLong();
+                final Long sequence = version == FORMAT_VERSION ? firstSequence + i : null;
+
+                if ((header & OPTION_FLAG) == 0) {
+                    if (header != 0) {
+                        throw reader.error("Invalid event header " + header + " at index " + i);
+                    }
+
+                    final int questionId = reader.readVarInt();
+                    final int duration = reader.readVarInt();
+                    events.add(new NewEventLogBatchItem(
+                        null,
+                        new NewQuestionEventLog(questionId, timestamp, duration, sequence)
+                    ));
+                    continue;
+                }
+
+                final int typeCode = header >>> 1;
+                final TestOptionEventType type;
+                try {
+                    type = TestOptionEventType.fromCode(typeCode);
+                } catch (IllegalArgumentException e) {
+                    throw reader.error("Invalid option event type " + typeCode + " at index " + i);
+                }
+
+                final int optionId = reader.readVarInt();
+                final int x = reader.readByte();
+                final int y = reader.readByte();
+                events.add(new NewEventLogBatchItem(
+                    new NewOptionEventLog(optionId, type, timestamp, x, y, sequence),
+                    null
+                ));
+            }
+
+            if (input.read() != -1) {
+                throw reader.error("Event batch contains trailing data");
+            }
+
+            return new NewEventLogBatch(events);
+        }
+    }
+
+    @Override
+    protected void writeInternal(@NonNull NewEventLogBatch batch, @NonNull HttpOutputMessage outputMessage)
+        throws HttpMessageNotWritableException {
+        throw new HttpMessageNotWritableException("Event batches cannot be written in binary format");
+    }
+
+    private record BatchReader(InputStream input, HttpInputMessage inputMessage) {
+        int readByte() throws IOException {
+            final int value = input.read();
+            if (value == -1) {
+                throw error("Unexpected end of event batch");
+            }
+            return value;
+        }
+
+        int readVarInt() throws IOException {
+            final long value = readVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw error("Event batch varint out of range");
+            }
+            return (int) value;
+        }
+
+        long readZigZagVarLong() throws IOException {
+            final long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int current = readByte();
+                value |= (long) (current & 0x7F) << shift;
+
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw error("Event batch varint is too long");
+        }
+
+        HttpMessageNotReadableException error(String message) {
+            return new HttpMessageNotReadableException(message, inputMessage);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.pocopi.api.converters;
+
+import com.pocopi.api.dto.event.NewEventLogBatch;
+import com.pocopi.api.exception.HttpException;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses event batches sent as JSON with {@code Content-Encoding: gzip}, the same way
+ * {@link EventLogBatchBinaryConverter} does for binary batches.
+ */
+@ControllerAdvice
+public class EventLogBatchGzipAdvice extends RequestBodyAdviceAdapter {
+    /**
+     * Generous for a batch of {@link NewEventLogBatch#MAX_SIZE} events, even pretty printed. The batch is only
+     * validated once parsed, so without this a few kilobytes of gzip could inflate to gigabytes.
+     */
+    public static final int MAX_DECOMPRESSED_SIZE = NewEventLogBatch.MAX_SIZE * 1024;
+
+    @Override
+    public boolean supports(
+        @NonNull MethodParameter methodParameter,
+        @NonNull Type targetType,
+        @NonNull Class<? extends HttpMessageConverter<?>> converterType
+    ) {
+        return NewEventLogBatch.class == targetType && converterType != EventLogBatchBinaryConverter.class;
+    }
+
+    @Override
+    @NonNull
+    public HttpInputMessage beforeBodyRead(
+        @NonNull HttpInputMessage inputMessage,
+        @NonNull MethodParameter parameter,
+        @NonNull Type targetType,
+        @NonNull Class<? extends HttpMessageConverter<?>> converterType
+    ) throws IOException {
+        final boolean gzip = inputMessage.getHeaders()
+            .getOrEmpty(HttpHeaders.CONTENT_ENCODING)
+            .stream()
+            .anyMatch("gzip"::equalsIgnoreCase);
+
+        if (!gzip) {
+            return inputMessage;
+        }
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.putAll(inputMessage.getHeaders());
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+
+        final byte[] body;
+        try (final InputStream input = new GZIPInputStream(inputMessage.getBody())) {
+            body = input.readNBytes(MAX_DECOMPRESSED_SIZE + 1);
+        }
+
+        if (body.length > MAX_DECOMPRESSED_SIZE) {
+            throw HttpException.payloadTooLarge(
+                "Decompressed event batch cannot exceed " + MAX_DECOMPRESSED_SIZE + " bytes"
+            );
+        }
+
+        return new HttpInputMessage() {
+            @Override
+            @NonNull
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            @NonNull
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+}
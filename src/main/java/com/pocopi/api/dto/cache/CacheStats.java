@@ -0,0 +1,18 @@
+package com.pocopi.api.dto.cache;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record CacheStats(
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    String name,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    long size,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    long hits,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    long misses
+) {
+}
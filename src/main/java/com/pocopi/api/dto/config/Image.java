@@ -2,11 +2,19 @@ package com.pocopi.api.dto.config;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.util.Map;
+
 public record Image(
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
     String url,
 
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
-    String alt
+    String alt,
+
+    @Schema(
+        requiredMode = Schema.RequiredMode.REQUIRED,
+        description = "Downscaled copies of the image by width in pixels, only for widths smaller than the original"
+    )
+    Map<Integer, String> variants
 ) {
 }
@@ -0,0 +1,24 @@
+package com.pocopi.api.dto.config;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record OrphanImageReport(
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    boolean dryRun,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    long scannedFiles,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Unreferenced files moved to quarantine")
+    long quarantinedFiles,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Quarantined files referenced again")
+    long restoredFiles,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Quarantined files past the grace period")
+    long deletedFiles,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "Disk space freed by the deleted files")
+    long reclaimedBytes
+) {
+}
@@ -0,0 +1,15 @@
+package com.pocopi.api.dto.event;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record EventLogBatchItemResult(
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    int index,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    EventLogBatchItemStatus status,
+
+    @Schema(requiredMode = Schema.RequiredMode.NOT_REQUIRED, types = {"string", "null"})
+    String message
+) {
+}
@@ -0,0 +1,29 @@
+package com.pocopi.api.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+
+@Getter
+public enum EventLogBatchItemStatus {
+    SAVED("saved"),
+    QUEUED("queued"),
+    COALESCED("coalesced"),
+    DUPLICATE("duplicate"),
+    NOT_FOUND("not_found"),
+    INVALID("invalid");
+
+    private final String name;
+
+    EventLogBatchItemStatus(String name) {
+        this.name = name;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return this.name;
+    }
+
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,20 @@
+package com.pocopi.api.dto.event;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public record EventLogBatchResult(
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    int saved,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    int queued,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    int deduplicated,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    List<EventLogBatchItemResult> results
+) {
+}
@@ -0,0 +1,25 @@
+package com.pocopi.api.dto.event;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record EventStreamFrame(
+    @NotNull
+    @Min(1)
+    Long sequence,
+
+    @NotNull
+    @Size(min = 1, max = NewEventLogBatch.MAX_SIZE)
+    @Valid
+    List<NewEventLogBatchItem> events
+) {
+    /**
+     * Largest text message accepted on the stream, in characters. Fits a frame of {@link NewEventLogBatch#MAX_SIZE}
+     * events with every field at its longest.
+     */
+    public static final int MAX_MESSAGE_SIZE = NewEventLogBatch.MAX_SIZE * 256;
+}
@@ -0,0 +1,23 @@
+package com.pocopi.api.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EventStreamReply(
+    EventStreamReplyType type,
+    Long sequence,
+    EventLogBatchResult result,
+    String message
+) {
+    public static EventStreamReply resume(long lastSequence) {
+        return new EventStreamReply(EventStreamReplyType.RESUME, lastSequence, null, null);
+    }
+
+    public static EventStreamReply ack(long sequence, EventLogBatchResult result) {
+        return new EventStreamReply(EventStreamReplyType.ACK, sequence, result, null);
+    }
+
+    public static EventStreamReply error(Long sequence, String message) {
+        return new EventStreamReply(EventStreamReplyType.ERROR, sequence, null, message);
+    }
+}
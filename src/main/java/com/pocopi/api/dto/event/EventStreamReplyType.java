@@ -0,0 +1,26 @@
+package com.pocopi.api.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+
+@Getter
+public enum EventStreamReplyType {
+    RESUME("resume"),
+    ACK("ack"),
+    ERROR("error");
+
+    private final String name;
+
+    EventStreamReplyType(String name) {
+        this.name = name;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return this.name;
+    }
+
+    public String toString() {
+        return this.name;
+    }
+}
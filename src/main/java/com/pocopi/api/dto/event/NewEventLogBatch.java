@@ -0,0 +1,16 @@
+package com.pocopi.api.dto.event;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record NewEventLogBatch(
+    @NotNull
+    @Size(min = 1, max = NewEventLogBatch.MAX_SIZE)
+    @Valid
+    List<NewEventLogBatchItem> events
+) {
+    public static final int MAX_SIZE = 1000;
+}
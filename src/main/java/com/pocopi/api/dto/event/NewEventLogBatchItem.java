@@ -0,0 +1,12 @@
+package com.pocopi.api.dto.event;
+
+import jakarta.validation.Valid;
+
+public record NewEventLogBatchItem(
+    @Valid
+    NewOptionEventLog option,
+
+    @Valid
+    NewQuestionEventLog question
+) {
+}
@@ -26,6 +26,9 @@ public record NewOptionEventLog(
     @NotNull
     @Min(UserTestOptionLogModel.COORD_MIN)
     @Max(UserTestOptionLogModel.COORD_MAX)
-    int y
+    int y,
+
+    @Min(1)
+    Long sequence
 ) {
 }
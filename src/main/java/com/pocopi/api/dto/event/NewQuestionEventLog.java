@@ -14,6 +14,9 @@ public record NewQuestionEventLog(
 
     @NotNull
     @Min(0)
-    int duration
+    int duration,
+
+    @Min(1)
+    Long sequence
 ) {
 }
@@ -17,6 +17,12 @@ public record OptionEventLog(
     int x,
 
     @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
-    int y
+    int y,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    int hoverCount,
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    int dwell
 ) {
 }
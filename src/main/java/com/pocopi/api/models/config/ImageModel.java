@@ -24,6 +24,20 @@ public class ImageModel {
     @Column(name = "path", nullable = false, length = 512, unique = true)
     private String path;
 
+    @Builder.Default
+    @Size(min = 64, max = 64)
+    @Column(name = "blob_hash", length = 64, columnDefinition = "char(64)")
+    private String blobHash = null;
+
+    @Builder.Default
+    @Column(name = "width", columnDefinition = "int2 unsigned")
+    private Integer width = null;
+
+    @Builder.Default
+    @Size(min = 1, max = 3)
+    @Column(name = "variant_format", columnDefinition = "enum ('png', 'jpg')")
+    private String variantFormat = null;
+
     @Builder.Default
     @Size(min = 1, max = 100)
     @Column(name = "alt", length = 100)
@@ -7,14 +7,21 @@ import java.util.stream.Stream;
 
 @Getter
 public enum TestOptionEventType {
-    DESELECT("deselect"),
-    SELECT("select"),
-    HOVER("hover");
+    DESELECT("deselect", 0),
+    SELECT("select", 1),
+    HOVER("hover", 2);
 
     private final String name;
 
-    TestOptionEventType(String name) {
+    /**
+     * Identifies the type in the binary event batch format. Codes are part of that format, so existing ones must
+     * never change, and new types get the next free code no matter where they are declared.
+     */
+    private final int code;
+
+    TestOptionEventType(String name, int code) {
         this.name = name;
+        this.code = code;
     }
 
     @JsonValue
@@ -29,6 +36,13 @@ public enum TestOptionEventType {
             .orElseThrow(IllegalArgumentException::new);
     }
 
+    public static TestOptionEventType fromCode(int code) {
+        return Stream.of(TestOptionEventType.values())
+            .filter(c -> c.getCode() == code)
+            .findFirst()
+            .orElseThrow(IllegalArgumentException::new);
+    }
+
     public String toString() {
         return this.name;
     }
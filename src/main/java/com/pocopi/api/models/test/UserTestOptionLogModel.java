@@ -61,4 +61,13 @@ public class UserTestOptionLogModel {
     @Max(COORD_MAX)
     @Column(name = "y")
     private Byte y;
+
+    @Builder.Default
+    @Min(1)
+    @Column(name = "hover_count", nullable = false, columnDefinition = "int4 unsigned")
+    private int hoverCount = 1;
+
+    @Builder.Default
+    @Column(name = "dwell", nullable = false, columnDefinition = "int4 unsigned")
+    private int dwell = 0;
 }
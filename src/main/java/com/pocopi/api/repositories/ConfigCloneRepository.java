@@ -0,0 +1,406 @@
+package com.pocopi.api.repositories;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies the contents of a config into another one with {@code insert ... select} statements, one per table. Ids of
+ * copied parents are remapped through temporary {@code clone_*_map} tables, which are filled by pairing the old and new
+ * rows in id order: each copy inserts its rows ordered by the old id, so the new ids come out in the same order.
+ */
+@Repository
+public class ConfigCloneRepository {
+    private static final List<String> MAP_TABLES = List.of(
+        "clone_image_map",
+        "clone_form_map",
+        "clone_form_question_map",
+        "clone_group_map",
+        "clone_phase_map",
+        "clone_question_map"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ConfigCloneRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Every image referenced by the contents of the config, not including its icon.
+     */
+    public List<ImageRow> findContentImages(int configVersion) {
+        return jdbcTemplate.query(
+            """
+                select i.id, i.path, i.blob_hash, i.width, i.variant_format, i.alt
+                    from image i
+                    where i.id in (select c.icon_id
+                                       from home_info_card c
+                                       where c.config_version = ?
+                                   union
+                                   select q.image_id
+                                       from form_question q
+                                           inner join form f on f.id = q.form_id
+                                       where f.config_version = ?
+                                   union
+                                   select o.image_id
+                                       from form_question_option o
+                                           inner join form_question q on q.id = o.form_question_id
+                                           inner join form f on f.id = q.form_id
+                                       where f.config_version = ?
+                                   union
+                                   select g.greeting_image_id
+                                       from test_group g
+                                       where g.config_version = ?
+                                   union
+                                   select q.image_id
+                                       from test_question q
+                                           inner join test_phase p on p.id = q.phase_id
+                                           inner join test_group g on g.id = p.group_id
+                                       where g.config_version = ?
+                                   union
+                                   select o.image_id
+                                       from test_option o
+                                           inner join test_question q on q.id = o.question_id
+                                           inner join test_phase p on p.id = q.phase_id
+                                           inner join test_group g on g.id = p.group_id
+                                       where g.config_version = ?)
+                    order by i.id
+                """,
+            (resultSet, rowNum) -> new ImageRow(
+                resultSet.getInt("id"),
+                resultSet.getString("path"),
+                resultSet.getString("blob_hash"),
+                resultSet.getObject("width", Integer.class),
+                resultSet.getString("variant_format"),
+                resultSet.getString("alt")
+            ),
+            configVersion,
+            configVersion,
+            configVersion,
+            configVersion,
+            configVersion,
+            configVersion
+        );
+    }
+
+    public List<Integer> insertImages(List<ImageRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        final GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(
+                "insert into image (path, blob_hash, width, variant_format, alt) values (?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS
+            ),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    final ImageRow row = rows.get(i);
+
+                    statement.setString(1, row.path());
+                    statement.setString(2, row.blobHash());
+                    statement.setObject(3, row.width(), Types.SMALLINT);
+                    statement.setString(4, row.variantFormat());
+                    statement.setString(5, row.alt());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            },
+            keyHolder
+        );
+
+        final List<Map<String, Object>> keys = keyHolder.getKeyList();
+
+        if (keys.size() != rows.size()) {
+            throw new IllegalStateException("Expected " + rows.size() + " generated ids, got " + keys.size());
+        }
+
+        final ArrayList<Integer> ids = new ArrayList<>(keys.size());
+
+        for (final Map<String, Object> key : keys) {
+            ids.add(((Number) key.values().iterator().next()).intValue());
+        }
+
+        return ids;
+    }
+
+    /**
+     * Copies cards, FAQs, forms, test groups and translations of a config into another one. Image columns are
+     * remapped through {@code imageIds}, which maps the id of every image returned by
+     * {@link #findContentImages(int)} to the id of its copy.
+     */
+    public void cloneContents(int originalVersion, int newVersion, Map<Integer, Integer> imageIds) {
+        dropMapTables();
+
+        for (final String table : MAP_TABLES) {
+            jdbcTemplate.execute(
+                "create temporary table " + table
+                    + " (old_id int4 unsigned primary key not null, new_id int4 unsigned not null)"
+            );
+        }
+
+        try {
+            fillImageMap(imageIds);
+            cloneTranslations(originalVersion, newVersion);
+            cloneHome(originalVersion, newVersion);
+            cloneForms(originalVersion, newVersion);
+            cloneTest(originalVersion, newVersion);
+        } finally {
+            dropMapTables();
+        }
+    }
+
+    private void fillImageMap(Map<Integer, Integer> imageIds) {
+        if (imageIds.isEmpty()) {
+            return;
+        }
+
+        final List<Object[]> rows = imageIds.entrySet().stream()
+            .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+            .toList();
+
+        jdbcTemplate.batchUpdate("insert into clone_image_map (old_id, new_id) values (?, ?)", rows);
+
+        // the copies share the blobs of the original images
+        jdbcTemplate.update(
+            """
+                update image_blob b
+                    inner join (select i.blob_hash, count(*) as copies
+                                    from clone_image_map im
+                                        inner join image i on i.id = im.new_id
+                                    where i.blob_hash is not null
+                                    group by i.blob_hash) c on c.blob_hash = b.hash
+                    set b.ref_count = b.ref_count + c.copies
+                """
+        );
+    }
+
+    private void cloneTranslations(int originalVersion, int newVersion) {
+        jdbcTemplate.update(
+            """
+                insert into translation_value (config_version, key_id, value)
+                    select ?, t.key_id, t.value
+                        from translation_value t
+                        where t.config_version = ?
+                        order by t.id
+                """,
+            newVersion,
+            originalVersion
+        );
+    }
+
+    private void cloneHome(int originalVersion, int newVersion) {
+        jdbcTemplate.update(
+            """
+                insert into home_info_card (config_version, `order`, title, description, icon_id, color)
+                    select ?, c.`order`, c.title, c.description, im.new_id, c.color
+                        from home_info_card c
+                            left join clone_image_map im on im.old_id = c.icon_id
+                        where c.config_version = ?
+                        order by c.id
+                """,
+            newVersion,
+            originalVersion
+        );
+
+        jdbcTemplate.update(
+            """
+                insert into home_faq (config_version, `order`, question, answer)
+                    select ?, f.`order`, f.question, f.answer
+                        from home_faq f
+                        where f.config_version = ?
+                        order by f.id
+                """,
+            newVersion,
+            originalVersion
+        );
+    }
+
+    private void cloneForms(int originalVersion, int newVersion) {
+        jdbcTemplate.update(
+            """
+                insert into form (config_version, type, title)
+                    select ?, f.type, f.title
+                        from form f
+                        where f.config_version = ?
+                        order by f.id
+                """,
+            newVersion,
+            originalVersion
+        );
+
+        fillMap(
+            "clone_form_map",
+            "select f.id from form f where f.config_version = ?",
+            originalVersion,
+            newVersion
+        );
+
+        jdbcTemplate.update(
+            """
+                insert into form_question (form_id, `order`, category, text, image_id, required, type, min, max, step,
+                                           other, min_length, max_length, placeholder)
+                    select fm.new_id, q.`order`, q.category, q.text, im.new_id, q.required, q.type, q.min, q.max,
+                           q.step, q.other, q.min_length, q.max_length, q.placeholder
+                        from form_question q
+                            inner join clone_form_map fm on fm.old_id = q.form_id
+                            left join clone_image_map im on im.old_id = q.image_id
+                        order by q.id
+                """
+        );
+
+        fillMap(
+            "clone_form_question_map",
+            """
+                select q.id
+                    from form_question q
+                        inner join form f on f.id = q.form_id
+                    where f.config_version = ?
+                """,
+            originalVersion,
+            newVersion
+        );
+
+        jdbcTemplate.update(
+            """
+                insert into form_question_option (form_question_id, `order`, text, image_id)
+                    select qm.new_id, o.`order`, o.text, im.new_id
+                        from form_question_option o
+                            inner join clone_form_question_map qm on qm.old_id = o.form_question_id
+                            left join clone_image_map im on im.old_id = o.image_id
+                        order by o.id
+                """
+        );
+
+        jdbcTemplate.update(
+            """
+                insert into form_question_slider_label (form_question_id, number, label)
+                    select qm.new_id, l.number, l.label
+                        from form_question_slider_label l
+                            inner join clone_form_question_map qm on qm.old_id = l.form_question_id
+                        order by l.id
+                """
+        );
+    }
+
+    private void cloneTest(int originalVersion, int newVersion) {
+        jdbcTemplate.update(
+            """
+                insert into test_group (config_version, label, probability, greeting, greeting_image_id,
+                                        allow_previous_phase, allow_previous_question, allow_skip_question,
+                                        randomize_phases)
+                    select ?, g.label, g.probability, g.greeting, im.new_id, g.allow_previous_phase,
+                           g.allow_previous_question, g.allow_skip_question, g.randomize_phases
+                        from test_group g
+                            left join clone_image_map im on im.old_id = g.greeting_image_id
+                        where g.config_version = ?
+                        order by g.id
+                """,
+            newVersion,
+            originalVersion
+        );
+
+        fillMap(
+            "clone_group_map",
+            "select g.id from test_group g where g.config_version = ?",
+            originalVersion,
+            newVersion
+        );
+
+        jdbcTemplate.update(
+            """
+                insert into test_phase (group_id, `order`, randomize_questions)
+                    select gm.new_id, p.`order`, p.randomize_questions
+                        from test_phase p
+                            inner join clone_group_map gm on gm.old_id = p.group_id
+                        order by p.id
+                """
+        );
+
+        fillMap(
+            "clone_phase_map",
+            """
+                select p.id
+                    from test_phase p
+                        inner join test_group g on g.id = p.group_id
+                    where g.config_version = ?
+                """,
+            originalVersion,
+            newVersion
+        );
+
+        jdbcTemplate.update(
+            """
+                insert into test_question (phase_id, `order`, text, image_id, randomize_options)
+                    select pm.new_id, q.`order`, q.text, im.new_id, q.randomize_options
+                        from test_question q
+                            inner join clone_phase_map pm on pm.old_id = q.phase_id
+                            left join clone_image_map im on im.old_id = q.image_id
+                        order by q.id
+                """
+        );
+
+        fillMap(
+            "clone_question_map",
+            """
+                select q.id
+                    from test_question q
+                        inner join test_phase p on p.id = q.phase_id
+                        inner join test_group g on g.id = p.group_id
+                    where g.config_version = ?
+                """,
+            originalVersion,
+            newVersion
+        );
+
+        jdbcTemplate.update(
+            """
+                insert into test_option (question_id, `order`, text, image_id, correct)
+                    select qm.new_id, o.`order`, o.text, im.new_id, o.correct
+                        from test_option o
+                            inner join clone_question_map qm on qm.old_id = o.question_id
+                            left join clone_image_map im on im.old_id = o.image_id
+                        order by o.id
+                """
+        );
+    }
+
+    /**
+     * Pairs the rows selected by {@code idsQuery} for the original config with the ones selected for the new config.
+     * The query must select a single {@code id} column and take the config version as its only parameter.
+     */
+    private void fillMap(String mapTable, String idsQuery, int originalVersion, int newVersion) {
+        jdbcTemplate.update(
+            "insert into " + mapTable + " (old_id, new_id)"
+                + " select o.id, n.id"
+                + " from (select ids.id, row_number() over (order by ids.id) as rn from (" + idsQuery + ") ids) o"
+                + " inner join (select ids.id, row_number() over (order by ids.id) as rn from (" + idsQuery + ") ids) n"
+                + " on n.rn = o.rn",
+            originalVersion,
+            newVersion
+        );
+    }
+
+    private void dropMapTables() {
+        jdbcTemplate.execute("drop temporary table if exists " + String.join(", ", MAP_TABLES));
+    }
+
+    public record ImageRow(int id, String path, String blobHash, Integer width, String variantFormat, String alt) {
+    }
+}
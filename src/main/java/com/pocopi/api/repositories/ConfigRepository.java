@@ -2,7 +2,10 @@ package com.pocopi.api.repositories;
 
 import com.pocopi.api.models.config.ConfigModel;
 import com.pocopi.api.models.user.UserModel;
+import com.pocopi.api.repositories.projections.ConfigRevisionProjection;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.stereotype.Repository;
 
@@ -13,30 +16,81 @@ import java.util.Optional;
 public interface ConfigRepository extends JpaRepository<ConfigModel, String> {
     @NativeQuery(
         """
-            select *
-                from config
-                where version = coalesce(
-                    (
-                        select version
-                            from config
-                            where active = true
-                            order by version desc
-                            limit 1
-                        ),
-                    (
-                        select version
-                            from config
-                            order by version desc
-                            limit 1
-                        )
+            select coalesce(
+                (
+                    select version
+                        from config
+                        where active = true
+                        order by version desc
+                        limit 1
+                    ),
+                (
+                    select version
+                        from config
+                        order by version desc
+                        limit 1
                     )
-                limit 1;
+                )
             """
     )
-    ConfigModel getLastConfig();
+    int findActiveVersion();
+
+    @NativeQuery("select version, revision from config")
+    List<ConfigRevisionProjection> findAllRevisions();
+
+    @Modifying
+    @NativeQuery("update config set revision = revision + 1 where version = :version")
+    void incrementRevision(int version);
+
+    /**
+     * Bumps the revision of every config with an image stored in the given blob. The union makes the derived table
+     * materialized, which MySQL needs to read config while updating it.
+     */
+    @Modifying
+    @NativeQuery(
+        """
+            update config
+                set revision = revision + 1
+                where version in (select u.config_version
+                                      from (select c.version as config_version, c.icon_id as image_id
+                                                from config c
+                                            union all
+                                            select h.config_version, h.icon_id
+                                                from home_info_card h
+                                            union all
+                                            select f.config_version, q.image_id
+                                                from form_question q
+                                                    inner join form f on f.id = q.form_id
+                                            union all
+                                            select f.config_version, o.image_id
+                                                from form_question_option o
+                                                    inner join form_question q on q.id = o.form_question_id
+                                                    inner join form f on f.id = q.form_id
+                                            union all
+                                            select g.config_version, g.greeting_image_id
+                                                from test_group g
+                                            union all
+                                            select g.config_version, q.image_id
+                                                from test_question q
+                                                    inner join test_phase p on p.id = q.phase_id
+                                                    inner join test_group g on g.id = p.group_id
+                                            union all
+                                            select g.config_version, o.image_id
+                                                from test_option o
+                                                    inner join test_question q on q.id = o.question_id
+                                                    inner join test_phase p on p.id = q.phase_id
+                                                    inner join test_group g on g.id = p.group_id) u
+                                          inner join image i on i.id = u.image_id
+                                      where i.blob_hash = :hash)
+            """
+    )
+    void incrementRevisionsUsingBlob(String hash);
 
     Optional<ConfigModel> findByVersion(int version);
 
+    @EntityGraph(attributePaths = "usernamePattern")
+    Optional<ConfigModel> findWithUsernamePatternByVersion(int version);
+
     @NativeQuery(
         """
             select u.*
@@ -0,0 +1,77 @@
+package com.pocopi.api.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public class ImageBlobRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public ImageBlobRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void acquire(String hash, long size) {
+        jdbcTemplate.update(
+            """
+                insert into image_blob (hash, size, ref_count)
+                    values (?, ?, 1)
+                    on duplicate key update ref_count = ref_count + 1
+                """,
+            hash,
+            size
+        );
+    }
+
+    public Set<String> findExistingHashes(Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return Set.of();
+        }
+
+        final String placeholders = String.join(", ", Collections.nCopies(hashes.size(), "?"));
+
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "select hash from image_blob where hash in (" + placeholders + ")",
+            String.class,
+            hashes.toArray()
+        ));
+    }
+
+    public void addReference(String hash) {
+        jdbcTemplate.update("update image_blob set ref_count = ref_count + 1 where hash = ?", hash);
+    }
+
+    /**
+     * Drops one reference to the blob. The row is kept when the count reaches zero, it's left for
+     * {@link #deleteUnreferenced(String)} to delete while holding its lock.
+     *
+     * @return whether the blob isn't referenced anymore
+     */
+    public boolean release(String hash) {
+        jdbcTemplate.update(
+            "update image_blob set ref_count = ref_count - 1 where hash = ? and ref_count > 0",
+            hash
+        );
+
+        final List<Integer> refCounts = jdbcTemplate.queryForList(
+            "select ref_count from image_blob where hash = ?",
+            Integer.class,
+            hash
+        );
+
+        return !refCounts.isEmpty() && refCounts.getFirst() == 0;
+    }
+
+    /**
+     * @return whether the blob was deleted, which it isn't if it was referenced again since it was released
+     */
+    public boolean deleteUnreferenced(String hash) {
+        return jdbcTemplate.update("delete from image_blob where hash = ? and ref_count = 0", hash) > 0;
+    }
+}
@@ -1,36 +1,46 @@
 package com.pocopi.api.repositories;
 
 import com.pocopi.api.models.config.ImageModel;
+import com.pocopi.api.repositories.projections.ImageBlobWithoutVariantsProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.NativeQuery;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ImageRepository extends JpaRepository<ImageModel, Integer> {
     Optional<ImageModel> findByPath(String path);
 
+    @NativeQuery("select i.path from image i where i.path in (:paths)")
+    List<String> findExistingPaths(Collection<String> paths);
+
+    /**
+     * Number of rows referencing the image, kept up to date by the triggers on each table with an image column.
+     */
     @NativeQuery(
         """
-            select count(i.id)
-                from image                         i
-                    left join config               c on c.icon_id = i.id
-                    left join home_info_card       hc on hc.icon_id = i.id
-                    left join form_question        fq on fq.image_id = i.id
-                    left join form_question_option fo on fo.image_id = i.id
-                    left join test_question        tq on tq.image_id = i.id
-                    left join test_option          o on o.image_id = i.id
-                where i.id = :imageId
-                  and (c.icon_id = i.id
-                    or hc.icon_id = i.id
-                    or fq.image_id = i.id
-                    or fo.image_id = i.id
-                    or tq.image_id = i.id
-                    or o.image_id = i.id
-                    )
+            select coalesce((select u.usage_count from image_usage u where u.image_id = :imageId), 0)
             """
     )
     long countImageUsages(int imageId);
 
+    @Modifying
+    @NativeQuery("update image set width = :width, variant_format = :format where blob_hash = :hash")
+    void updateVariants(String hash, int width, String format);
+
+    @NativeQuery(
+        """
+            select i.blob_hash as blobHash, min(substring_index(i.path, '.', -1)) as extension
+                from image i
+                where i.blob_hash is not null
+                  and i.width is null
+                group by i.blob_hash
+            """
+    )
+    List<ImageBlobWithoutVariantsProjection> findBlobsWithoutVariants();
+
     default boolean isImageUsed(int imageId) {
         return countImageUsages(imageId) > 0;
     }
@@ -0,0 +1,68 @@
+package com.pocopi.api.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Compares the usage counts maintained by triggers in {@code image_usage} against the actual references, counted with
+ * a join over every table with an image column.
+ */
+@Repository
+public class ImageUsageRepository {
+    private static final String MISMATCHES_QUERY = """
+        select i.id as image_id, coalesce(u.usage_count, 0) as recorded, coalesce(a.usages, 0) as actual
+            from image i
+                left join image_usage u on u.image_id = i.id
+                left join (select r.image_id, count(*) as usages
+                               from (select icon_id as image_id from config
+                                     union all
+                                     select icon_id from home_info_card
+                                     union all
+                                     select image_id from form_question
+                                     union all
+                                     select image_id from form_question_option
+                                     union all
+                                     select greeting_image_id from test_group
+                                     union all
+                                     select image_id from test_question
+                                     union all
+                                     select image_id from test_option) r
+                               where r.image_id is not null
+                               group by r.image_id) a on a.image_id = i.id
+            where coalesce(u.usage_count, 0) != coalesce(a.usages, 0)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ImageUsageRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<UsageMismatch> findMismatches() {
+        return jdbcTemplate.query(
+            MISMATCHES_QUERY,
+            (resultSet, rowNum) -> new UsageMismatch(
+                resultSet.getInt("image_id"),
+                resultSet.getLong("recorded"),
+                resultSet.getLong("actual")
+            )
+        );
+    }
+
+    /**
+     * Overwrites every mismatched count with the actual one. The counts are recomputed in the same statement, so
+     * references added or removed since {@link #findMismatches()} are taken into account.
+     */
+    public void repairMismatches() {
+        jdbcTemplate.update(
+            "insert into image_usage (image_id, usage_count)"
+                + " select m.image_id, m.actual from (" + MISMATCHES_QUERY + ") m"
+                + " on duplicate key update usage_count = m.actual"
+        );
+    }
+
+    public record UsageMismatch(int imageId, long recorded, long actual) {
+    }
+}
@@ -1,17 +1,29 @@
 package com.pocopi.api.repositories;
 
 import com.pocopi.api.models.test.TestOptionModel;
+import com.pocopi.api.repositories.projections.OptionTopologyProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
 
 import java.util.List;
-import java.util.Optional;
 
 public interface TestOptionRepository extends JpaRepository<TestOptionModel, Integer> {
     List<TestOptionModel> findAllByQuestionId(int questionId);
 
-    Optional<TestOptionModel> findByIdAndQuestionPhaseGroupId(int id, int questionPhaseGroupId);
-
     List<TestOptionModel> findAllByQuestionPhaseGroupConfigVersionOrderByOrder(int questionPhaseGroupConfigVersion);
 
     List<TestOptionModel> findAllByQuestionPhaseGroupIdOrderByOrder(int questionPhaseGroupId);
+
+    @NativeQuery(
+        """
+            select o.id          as option_id,
+                   o.question_id as question_id
+                from test_option             o
+                    inner join test_question q on q.id = o.question_id
+                    inner join test_phase    p on p.id = q.phase_id
+                    inner join test_group    g on g.id = p.group_id
+                where g.config_version = :configVersion
+            """
+    )
+    List<OptionTopologyProjection> findAllTopologyByConfigVersion(int configVersion);
 }
@@ -1,17 +1,29 @@
 package com.pocopi.api.repositories;
 
 import com.pocopi.api.models.test.TestQuestionModel;
+import com.pocopi.api.repositories.projections.QuestionTopologyProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
 
 import java.util.List;
-import java.util.Optional;
 
 public interface TestQuestionRepository extends JpaRepository<TestQuestionModel, Integer> {
-    Optional<TestQuestionModel> findByIdAndPhaseGroupId(int id, int phaseGroupId);
-
     List<TestQuestionModel> findAllByPhaseId(int phaseId);
 
     List<TestQuestionModel> findAllByPhaseGroupConfigVersionOrderByOrder(int phaseGroupConfigVersion);
 
     List<TestQuestionModel> findAllByPhaseGroupIdOrderByOrder(int phaseGroupId);
+
+    @NativeQuery(
+        """
+            select q.id       as question_id,
+                   q.phase_id as phase_id,
+                   p.group_id as group_id
+                from test_question        q
+                    inner join test_phase p on p.id = q.phase_id
+                    inner join test_group g on g.id = p.group_id
+                where g.config_version = :configVersion
+            """
+    )
+    List<QuestionTopologyProjection> findAllTopologyByConfigVersion(int configVersion);
 }
@@ -0,0 +1,172 @@
+package com.pocopi.api.repositories;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class TestTreeBatchRepository {
+    private static final int MULTI_ROW_INSERT_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TestTreeBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Integer> insertGroups(List<GroupRow> rows) {
+        return insertReturningIds(
+            """
+                insert into test_group (config_version, label, probability, greeting, greeting_image_id,
+                                        allow_previous_phase, allow_previous_question, allow_skip_question,
+                                        randomize_phases)
+                    values\s""",
+            "(?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            rows,
+            (statement, index, row) -> {
+                statement.setInt(index++, row.configVersion());
+                statement.setString(index++, row.label());
+                statement.setByte(index++, row.probability());
+                statement.setString(index++, row.greeting());
+                statement.setObject(index++, row.greetingImageId(), Types.INTEGER);
+                statement.setBoolean(index++, row.allowPreviousPhase());
+                statement.setBoolean(index++, row.allowPreviousQuestion());
+                statement.setBoolean(index++, row.allowSkipQuestion());
+                statement.setBoolean(index++, row.randomizePhases());
+                return index;
+            }
+        );
+    }
+
+    public List<Integer> insertPhases(List<PhaseRow> rows) {
+        return insertReturningIds(
+            """
+                insert into test_phase (group_id, `order`, randomize_questions)
+                    values\s""",
+            "(?, ?, ?)",
+            rows,
+            (statement, index, row) -> {
+                statement.setInt(index++, row.groupId());
+                statement.setShort(index++, row.order());
+                statement.setBoolean(index++, row.randomizeQuestions());
+                return index;
+            }
+        );
+    }
+
+    public List<Integer> insertQuestions(List<QuestionRow> rows) {
+        return insertReturningIds(
+            """
+                insert into test_question (phase_id, `order`, text, image_id, randomize_options)
+                    values\s""",
+            "(?, ?, ?, ?, ?)",
+            rows,
+            (statement, index, row) -> {
+                statement.setInt(index++, row.phaseId());
+                statement.setShort(index++, row.order());
+                statement.setString(index++, row.text());
+                statement.setObject(index++, row.imageId(), Types.INTEGER);
+                statement.setBoolean(index++, row.randomizeOptions());
+                return index;
+            }
+        );
+    }
+
+    public List<Integer> insertOptions(List<OptionRow> rows) {
+        return insertReturningIds(
+            """
+                insert into test_option (question_id, `order`, text, image_id, correct)
+                    values\s""",
+            "(?, ?, ?, ?, ?)",
+            rows,
+            (statement, index, row) -> {
+                statement.setInt(index++, row.questionId());
+                statement.setShort(index++, row.order());
+                statement.setString(index++, row.text());
+                statement.setObject(index++, row.imageId(), Types.INTEGER);
+                statement.setBoolean(index++, row.correct());
+                return index;
+            }
+        );
+    }
+
+    /**
+     * Inserts the rows with explicit multi-row statements, for which the driver reports one generated id per row in
+     * insertion order. Rewriting is kept out of the driver settings since it hides the per-row update counts that
+     * other batches, like the event logs' {@code insert ignore}, rely on.
+     */
+    private <R> List<Integer> insertReturningIds(
+        String insertPrefix,
+        String rowPlaceholder,
+        List<R> rows,
+        RowBinder<R> binder
+    ) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.execute((ConnectionCallback<List<Integer>>) connection -> {
+            final ArrayList<Integer> ids = new ArrayList<>(rows.size());
+
+            for (int start = 0; start < rows.size(); start += MULTI_ROW_INSERT_SIZE) {
+                final List<R> chunk = rows.subList(start, Math.min(start + MULTI_ROW_INSERT_SIZE, rows.size()));
+                final String sql = insertPrefix + String.join(", ", Collections.nCopies(chunk.size(), rowPlaceholder));
+
+                try (final PreparedStatement statement = connection.prepareStatement(
+                    sql,
+                    Statement.RETURN_GENERATED_KEYS
+                )) {
+                    int index = 1;
+                    for (final R row : chunk) {
+                        index = binder.bind(statement, index, row);
+                    }
+                    statement.executeUpdate();
+
+                    try (final ResultSet keys = statement.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getInt(1));
+                        }
+                    }
+                }
+            }
+
+            if (ids.size() != rows.size()) {
+                throw new IllegalStateException("Expected " + rows.size() + " generated ids, got " + ids.size());
+            }
+
+            return ids;
+        });
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<R> {
+        int bind(PreparedStatement statement, int index, R row) throws SQLException;
+    }
+
+    public record GroupRow(
+        int configVersion,
+        String label,
+        byte probability,
+        String greeting,
+        Integer greetingImageId,
+        boolean allowPreviousPhase,
+        boolean allowPreviousQuestion,
+        boolean allowSkipQuestion,
+        boolean randomizePhases
+    ) {
+    }
+
+    public record PhaseRow(int groupId, short order, boolean randomizeQuestions) {
+    }
+
+    public record QuestionRow(int phaseId, short order, String text, Integer imageId, boolean randomizeOptions) {
+    }
+
+    public record OptionRow(int questionId, short order, String text, Integer imageId, boolean correct) {
+    }
+}
@@ -2,6 +2,7 @@ package com.pocopi.api.repositories;
 
 import com.pocopi.api.models.form.UserFormAnswerModel;
 import com.pocopi.api.repositories.projections.UserFormAnswerProjection;
+import com.pocopi.api.repositories.projections.UserFormAnswerWithUserIdProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.stereotype.Repository;
@@ -30,6 +31,27 @@ public interface UserFormAnswerRepository extends JpaRepository<UserFormAnswerMo
     )
     List<UserFormAnswerProjection> findAllByUserId(int userId);
 
+    @NativeQuery(
+        """
+            select ta.user_id,
+                   fs.attempt_id,
+                   f.config_version,
+                   f.type                                                as form_type,
+                   cast(unix_timestamp(fs.timestamp) * 1000 as unsigned) as timestamp,
+                   fa.question_id,
+                   fa.option_id,
+                   fa.value,
+                   fa.answer
+                from user_form_answer               fa
+                    inner join user_form_submission fs on fs.id = fa.form_sub_id
+                    inner join user_test_attempt    ta on ta.id = fs.attempt_id
+                    inner join form                 f on f.id = fs.form_id
+                where ta.user_id in :userIds
+                  and ta.end is not null
+            """
+    )
+    List<UserFormAnswerWithUserIdProjection> findAllByUserIds(List<Integer> userIds);
+
     @NativeQuery(
         """
             select fs.attempt_id,
@@ -37,4 +37,7 @@ public interface UserRepository extends JpaRepository<UserModel, Integer> {
     List<UserModel> findAllByAttemptIds(List<Long> attemptIds);
 
     List<UserModel> findAllByRole(Role role);
+
+    @NativeQuery("select u.id from user u order by u.id")
+    List<Integer> findAllIds();
 }
@@ -70,6 +70,23 @@ public interface UserTestAttemptRepository extends JpaRepository<UserTestAttempt
     )
     List<UserTestAttemptWithGroupProjection> findFinishedAttemptsByUserId(int userId);
 
+    @NativeQuery(
+        """
+            select ta.id,
+                   g.config_version as config_version,
+                   g.label          as `group`,
+                   ta.user_id,
+                   cast(unix_timestamp(ta.start) * 1000 as unsigned) as start,
+                   cast(unix_timestamp(ta.end) * 1000 as unsigned) as end
+                from user_test_attempt    ta
+                    inner join test_group g on g.id = ta.group_id
+                where ta.user_id in :userIds
+                  and ta.end is not null
+                order by ta.start
+            """
+    )
+    List<UserTestAttemptWithGroupProjection> findFinishedAttemptsByUserIds(List<Integer> userIds);
+
     @NativeQuery(
         """
             select ta.id,
@@ -123,6 +140,13 @@ public interface UserTestAttemptRepository extends JpaRepository<UserTestAttempt
     )
     List<TestAnswerProjection> getTestAnswers(long attemptId);
 
+    @NativeQuery("select count(*) from user_test_attempt where id = :attemptId and end is null")
+    long countUnfinished(long attemptId);
+
+    default boolean isUnfinished(long attemptId) {
+        return countUnfinished(attemptId) > 0;
+    }
+
     default boolean hasUnfinishedAttempt(int configVersion, int userId) {
         return findUnfinishedAttempt(configVersion, userId).isPresent();
     }
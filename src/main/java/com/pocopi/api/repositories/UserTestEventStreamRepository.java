@@ -0,0 +1,59 @@
+package com.pocopi.api.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class UserTestEventStreamRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserTestEventStreamRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long findLastSequence(long attemptId) {
+        final List<Long> sequences = jdbcTemplate.queryForList(
+            "select last_sequence from user_test_event_stream where attempt_id = ?",
+            Long.class,
+            attemptId
+        );
+
+        return sequences.isEmpty() ? 0 : sequences.getFirst();
+    }
+
+    /**
+     * Returns the last stream frame stored for the attempt and locks its row until the transaction ends, so frames of
+     * the same attempt are stored one at a time, even across nodes.
+     */
+    public long lockLastSequence(long attemptId) {
+        jdbcTemplate.update(
+            """
+                insert into user_test_event_stream (attempt_id, last_sequence)
+                    values (?, 0)
+                    on duplicate key update attempt_id = attempt_id
+                """,
+            attemptId
+        );
+
+        return jdbcTemplate.queryForObject(
+            "select last_sequence from user_test_event_stream where attempt_id = ? for update",
+            Long.class,
+            attemptId
+        );
+    }
+
+    public void advance(long attemptId, long sequence) {
+        jdbcTemplate.update(
+            """
+                insert into user_test_event_stream (attempt_id, last_sequence)
+                    values (?, ?) as new
+                    on duplicate key update last_sequence = greatest(user_test_event_stream.last_sequence,
+                                                                     new.last_sequence)
+                """,
+            attemptId,
+            sequence
+        );
+    }
+}
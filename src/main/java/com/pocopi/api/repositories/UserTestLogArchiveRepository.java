@@ -0,0 +1,120 @@
+package com.pocopi.api.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class UserTestLogArchiveRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserTestLogArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Long> findArchivableAttemptIds(int limit) {
+        return jdbcTemplate.queryForList(
+            """
+                select ta.id
+                    from user_test_attempt    ta
+                        inner join test_group g on g.id = ta.group_id
+                        inner join config     c on c.version = g.config_version
+                    where not c.active
+                      and ta.end is not null
+                      and (
+                          exists (select 1 from user_test_option_log ol where ol.attempt_id = ta.id)
+                          or exists (select 1 from user_test_question_log ql where ql.attempt_id = ta.id)
+                      )
+                    order by ta.id
+                    limit ?
+                """,
+            Long.class,
+            limit
+        );
+    }
+
+    public ArchivedLogs archiveAttempts(List<Long> attemptIds) {
+        if (attemptIds.isEmpty()) {
+            return new ArchivedLogs(0, 0);
+        }
+
+        final String placeholders = String.join(", ", Collections.nCopies(attemptIds.size(), "?"));
+        final Object[] args = attemptIds.toArray();
+
+        jdbcTemplate.update(
+            """
+                insert ignore into user_test_option_log_archive
+                    (attempt_id, option_id, type, timestamp, x, y, hover_count, dwell, config_version)
+                select ol.attempt_id, ol.option_id, ol.type, ol.timestamp, ol.x, ol.y, ol.hover_count, ol.dwell,
+                       g.config_version
+                    from user_test_option_log      ol
+                        inner join user_test_attempt ta on ta.id = ol.attempt_id
+                        inner join test_group        g on g.id = ta.group_id
+                    where ol.attempt_id in (%s)
+                """.formatted(placeholders),
+            args
+        );
+
+        jdbcTemplate.update(
+            """
+                insert ignore into user_test_question_log_archive
+                    (attempt_id, question_id, timestamp, duration, config_version)
+                select ql.attempt_id, ql.question_id, ql.timestamp, ql.duration, g.config_version
+                    from user_test_question_log    ql
+                        inner join user_test_attempt ta on ta.id = ql.attempt_id
+                        inner join test_group        g on g.id = ta.group_id
+                    where ql.attempt_id in (%s)
+                """.formatted(placeholders),
+            args
+        );
+
+        final int optionLogs = jdbcTemplate.update(
+            "delete from user_test_option_log where attempt_id in (%s)".formatted(placeholders),
+            args
+        );
+        final int questionLogs = jdbcTemplate.update(
+            "delete from user_test_question_log where attempt_id in (%s)".formatted(placeholders),
+            args
+        );
+
+        return new ArchivedLogs(optionLogs, questionLogs);
+    }
+
+    public boolean existsByOptionId(int optionId) {
+        return exists("select 1 from user_test_option_log_archive where option_id = ? limit 1", optionId);
+    }
+
+    public boolean existsByQuestionId(int questionId) {
+        return exists("select 1 from user_test_question_log_archive where question_id = ? limit 1", questionId);
+    }
+
+    public boolean existsByPhaseId(int phaseId) {
+        return exists(
+            """
+                select 1
+                    from test_question q
+                    where q.phase_id = ?
+                      and (
+                          exists (select 1 from user_test_question_log_archive ql where ql.question_id = q.id)
+                          or exists (
+                              select 1
+                                  from user_test_option_log_archive ol
+                                      inner join test_option      o on o.id = ol.option_id
+                                  where o.question_id = q.id
+                          )
+                      )
+                    limit 1
+                """,
+            phaseId
+        );
+    }
+
+    private boolean exists(String sql, Object... args) {
+        return !jdbcTemplate.queryForList(sql, Integer.class, args).isEmpty();
+    }
+
+    public record ArchivedLogs(int optionLogs, int questionLogs) {
+    }
+}
@@ -0,0 +1,321 @@
+package com.pocopi.api.repositories;
+
+import com.pocopi.api.config.EventLogIngestionProperties;
+import com.pocopi.api.models.test.TestOptionEventType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+
+@Repository
+public class UserTestLogBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final EventLogIngestionProperties properties;
+
+    public UserTestLogBatchRepository(JdbcTemplate jdbcTemplate, EventLogIngestionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public boolean[] insertOptionLogs(List<OptionLogRow> rows) {
+        return properties.isTrustedInsert() ? insertTrustedOptionLogs(rows) : insertValidatedOptionLogs(rows);
+    }
+
+    public boolean[] insertQuestionLogs(List<QuestionLogRow> rows) {
+        return properties.isTrustedInsert() ? insertTrustedQuestionLogs(rows) : insertValidatedQuestionLogs(rows);
+    }
+
+    public boolean[] insertValidatedOptionLogs(List<OptionLogRow> rows) {
+        if (rows.isEmpty()) {
+            return new boolean[0];
+        }
+
+        final int[] counts = jdbcTemplate.batchUpdate(
+            """
+                insert ignore into user_test_option_log (attempt_id, option_id, type, timestamp, x, y, hover_count, dwell)
+                    values (?, ?, ?, ?, ?, ?, ?, ?)
+                """,
+            rows,
+            rows.size(),
+            (statement, row) -> bindOptionLogRow(statement, 1, row)
+        )[0];
+
+        return toInsertedFlags(counts);
+    }
+
+    public boolean[] insertValidatedQuestionLogs(List<QuestionLogRow> rows) {
+        if (rows.isEmpty()) {
+            return new boolean[0];
+        }
+
+        final int[] counts = jdbcTemplate.batchUpdate(
+            """
+                insert ignore into user_test_question_log (attempt_id, question_id, timestamp, duration)
+                    values (?, ?, ?, ?)
+                """,
+            rows,
+            rows.size(),
+            (statement, row) -> bindQuestionLogRow(statement, 1, row)
+        )[0];
+
+        return toInsertedFlags(counts);
+    }
+
+    public boolean[] insertTrustedOptionLogs(List<OptionLogRow> rows) {
+        if (rows.isEmpty()) {
+            return new boolean[0];
+        }
+
+        return withEventLogTriggersSkipped(connection -> insertMultiRow(
+            connection,
+            rows,
+            OptionLogKey::of,
+            chunk -> findExistingOptionLogKeys(connection, chunk),
+            """
+                insert ignore into user_test_option_log (attempt_id, option_id, type, timestamp, x, y, hover_count, dwell)
+                    values\s""",
+            "(?, ?, ?, ?, ?, ?, ?, ?)",
+            UserTestLogBatchRepository::bindOptionLogRow
+        ));
+    }
+
+    public boolean[] insertTrustedQuestionLogs(List<QuestionLogRow> rows) {
+        if (rows.isEmpty()) {
+            return new boolean[0];
+        }
+
+        return withEventLogTriggersSkipped(connection -> insertMultiRow(
+            connection,
+            rows,
+            QuestionLogKey::of,
+            chunk -> findExistingQuestionLogKeys(connection, chunk),
+            """
+                insert ignore into user_test_question_log (attempt_id, question_id, timestamp, duration)
+                    values\s""",
+            "(?, ?, ?, ?)",
+            UserTestLogBatchRepository::bindQuestionLogRow
+        ));
+    }
+
+    private <R, K> boolean[] insertMultiRow(
+        Connection connection,
+        List<R> rows,
+        Function<R, K> keyMapper,
+        ExistingKeysFinder<R, K> existingKeysFinder,
+        String insertPrefix,
+        String rowPlaceholder,
+        RowBinder<R> binder
+    ) throws SQLException {
+        final boolean[] inserted = new boolean[rows.size()];
+        final Set<K> seenKeys = new HashSet<>();
+        final int chunkSize = properties.getMultiRowInsertSize();
+
+        for (int start = 0; start < rows.size(); start += chunkSize) {
+            final List<R> chunk = rows.subList(start, Math.min(start + chunkSize, rows.size()));
+            final List<R> newRows = new ArrayList<>(chunk.size());
+
+            seenKeys.addAll(existingKeysFinder.find(chunk));
+
+            for (int i = 0; i < chunk.size(); i++) {
+                if (seenKeys.add(keyMapper.apply(chunk.get(i)))) {
+                    inserted[start + i] = true;
+                    newRows.add(chunk.get(i));
+                }
+            }
+
+            if (newRows.isEmpty()) {
+                continue;
+            }
+
+            final String sql = insertPrefix + String.join(", ", Collections.nCopies(newRows.size(), rowPlaceholder));
+
+            try (final PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                for (final R row : newRows) {
+                    index = binder.bind(statement, index, row);
+                }
+                statement.executeUpdate();
+            }
+        }
+
+        return inserted;
+    }
+
+    private static Set<OptionLogKey> findExistingOptionLogKeys(
+        Connection connection,
+        List<OptionLogRow> rows
+    ) throws SQLException {
+        final String sql = """
+            select attempt_id, option_id, type, timestamp
+                from user_test_option_log
+                where (attempt_id, option_id, type, timestamp) in (%s)
+            """.formatted(String.join(", ", Collections.nCopies(rows.size(), "(?, ?, ?, ?)")));
+
+        try (final PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (final OptionLogRow row : rows) {
+                statement.setLong(index++, row.attemptId());
+                statement.setInt(index++, row.optionId());
+                statement.setString(index++, row.type().getName());
+                statement.setTimestamp(index++, Timestamp.from(row.timestamp()));
+            }
+
+            final Set<OptionLogKey> keys = new HashSet<>();
+
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    keys.add(new OptionLogKey(
+                        resultSet.getLong("attempt_id"),
+                        resultSet.getInt("option_id"),
+                        resultSet.getString("type"),
+                        resultSet.getTimestamp("timestamp").toInstant().toEpochMilli()
+                    ));
+                }
+            }
+
+            return keys;
+        }
+    }
+
+    private static Set<QuestionLogKey> findExistingQuestionLogKeys(
+        Connection connection,
+        List<QuestionLogRow> rows
+    ) throws SQLException {
+        final String sql = """
+            select attempt_id, question_id, timestamp
+                from user_test_question_log
+                where (attempt_id, question_id, timestamp) in (%s)
+            """.formatted(String.join(", ", Collections.nCopies(rows.size(), "(?, ?, ?)")));
+
+        try (final PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (final QuestionLogRow row : rows) {
+                statement.setLong(index++, row.attemptId());
+                statement.setInt(index++, row.questionId());
+                statement.setTimestamp(index++, Timestamp.from(row.timestamp()));
+            }
+
+            final Set<QuestionLogKey> keys = new HashSet<>();
+
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    keys.add(new QuestionLogKey(
+                        resultSet.getLong("attempt_id"),
+                        resultSet.getInt("question_id"),
+                        resultSet.getTimestamp("timestamp").toInstant().toEpochMilli()
+                    ));
+                }
+            }
+
+            return keys;
+        }
+    }
+
+    private <T> T withEventLogTriggersSkipped(ConnectionCallback<T> action) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            try (final Statement statement = connection.createStatement()) {
+                statement.execute("set @skip_event_log_triggers = 1");
+            }
+
+            try {
+                return action.doInConnection(connection);
+            } finally {
+                // pooled connections are reused, so the trigger bypass must never outlive this insert
+                try (final Statement statement = connection.createStatement()) {
+                    statement.execute("set @skip_event_log_triggers = null");
+                }
+            }
+        });
+    }
+
+    private static int bindOptionLogRow(PreparedStatement statement, int index, OptionLogRow row)
+        throws SQLException {
+        statement.setLong(index++, row.attemptId());
+        statement.setInt(index++, row.optionId());
+        statement.setString(index++, row.type().getName());
+        statement.setTimestamp(index++, Timestamp.from(row.timestamp()));
+        statement.setByte(index++, row.x());
+        statement.setByte(index++, row.y());
+        statement.setInt(index++, row.hoverCount());
+        statement.setInt(index++, row.dwell());
+        return index;
+    }
+
+    private static int bindQuestionLogRow(PreparedStatement statement, int index, QuestionLogRow row)
+        throws SQLException {
+        statement.setLong(index++, row.attemptId());
+        statement.setInt(index++, row.questionId());
+        statement.setTimestamp(index++, Timestamp.from(row.timestamp()));
+        statement.setInt(index++, row.duration());
+        return index;
+    }
+
+    private static boolean[] toInsertedFlags(int[] counts) {
+        final boolean[] inserted = new boolean[counts.length];
+
+        for (int i = 0; i < counts.length; i++) {
+            // a rewritten batch can't tell an inserted row from an ignored duplicate
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("Event log batch returned no per-row update counts");
+            }
+
+            inserted[i] = counts[i] > 0;
+        }
+
+        return inserted;
+    }
+
+    @FunctionalInterface
+    private interface ExistingKeysFinder<R, K> {
+        Set<K> find(List<R> rows) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<R> {
+        int bind(PreparedStatement statement, int index, R row) throws SQLException;
+    }
+
+    private record OptionLogKey(long attemptId, int optionId, String type, long timestamp) {
+        static OptionLogKey of(OptionLogRow row) {
+            return new OptionLogKey(
+                row.attemptId(),
+                row.optionId(),
+                row.type().getName(),
+                row.timestamp().toEpochMilli()
+            );
+        }
+    }
+
+    private record QuestionLogKey(long attemptId, int questionId, long timestamp) {
+        static QuestionLogKey of(QuestionLogRow row) {
+            return new QuestionLogKey(row.attemptId(), row.questionId(), row.timestamp().toEpochMilli());
+        }
+    }
+
+    public record OptionLogRow(
+        long attemptId,
+        int optionId,
+        TestOptionEventType type,
+        Instant timestamp,
+        byte x,
+        byte y,
+        int hoverCount,
+        int dwell
+    ) {
+        public OptionLogRow(long attemptId, int optionId, TestOptionEventType type, Instant timestamp, byte x, byte y) {
+            this(attemptId, optionId, type, timestamp, x, y, 1, 0);
+        }
+    }
+
+    public record QuestionLogRow(
+        long attemptId,
+        int questionId,
+        Instant timestamp,
+        int duration
+    ) {
+    }
+}
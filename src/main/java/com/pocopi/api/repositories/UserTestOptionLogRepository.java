@@ -21,7 +21,7 @@ public interface UserTestOptionLogRepository extends JpaRepository<UserTestOptio
                            ol.type,
                            o.correct,
                            row_number() over (partition by o.question_id order by ol.timestamp desc) as first
-                        from user_test_option_log        ol
+                        from user_test_option_log_all    ol
                             inner join test_option       o on o.id = ol.option_id
                         where ol.attempt_id = :attemptId
                           and ol.type in ('select', 'deselect')
@@ -43,7 +43,7 @@ public interface UserTestOptionLogRepository extends JpaRepository<UserTestOptio
                            ol.type,
                            o.correct,
                            row_number() over (partition by o.question_id order by ol.timestamp desc) as first
-                        from user_test_option_log        ol
+                        from user_test_option_log_all    ol
                             inner join user_test_attempt ta on ta.id = ol.attempt_id
                             inner join test_option       o on o.id = ol.option_id
                         where ol.attempt_id in :attemptIds
@@ -69,11 +69,13 @@ public interface UserTestOptionLogRepository extends JpaRepository<UserTestOptio
                    ol.option_id,
                    cast(unix_timestamp(ol.timestamp) * 1000 as unsigned) as timestamp,
                    ol.x,
-                   ol.y
-                from user_test_option_log  ol
-                    join user_test_attempt ta on ta.id = ol.attempt_id
-                    join test_option       o  on o.id = ol.option_id
-                    join test_group        tg on tg.id = ta.group_id
+                   ol.y,
+                   ol.hover_count,
+                   ol.dwell
+                from user_test_option_log_all ol
+                    join user_test_attempt    ta on ta.id = ol.attempt_id
+                    join test_option          o  on o.id = ol.option_id
+                    join test_group           tg on tg.id = ta.group_id
                 where ol.attempt_id in :attemptIds
                 order by o.question_id, ol.timestamp
             """
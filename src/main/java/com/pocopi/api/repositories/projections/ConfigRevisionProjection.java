@@ -0,0 +1,7 @@
+package com.pocopi.api.repositories.projections;
+
+public interface ConfigRevisionProjection {
+    int getVersion();
+
+    int getRevision();
+}
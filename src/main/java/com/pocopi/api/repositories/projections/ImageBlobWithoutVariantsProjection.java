@@ -0,0 +1,7 @@
+package com.pocopi.api.repositories.projections;
+
+public interface ImageBlobWithoutVariantsProjection {
+    String getBlobHash();
+
+    String getExtension();
+}
@@ -16,4 +16,8 @@ public interface OptionEventProjection {
     int getX();
 
     int getY();
+
+    int getHoverCount();
+
+    int getDwell();
 }
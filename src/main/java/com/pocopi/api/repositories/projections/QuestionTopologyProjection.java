@@ -0,0 +1,9 @@
+package com.pocopi.api.repositories.projections;
+
+public interface QuestionTopologyProjection {
+    int getQuestionId();
+
+    int getPhaseId();
+
+    int getGroupId();
+}
@@ -0,0 +1,5 @@
+package com.pocopi.api.repositories.projections;
+
+public interface UserFormAnswerWithUserIdProjection extends UserFormAnswerProjection {
+    int getUserId();
+}
@@ -0,0 +1,140 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.dto.cache.CacheStats;
+import com.pocopi.api.exception.HttpException;
+import com.pocopi.api.models.test.UserTestAttemptModel;
+import com.pocopi.api.repositories.UserTestAttemptRepository;
+import com.pocopi.api.services.ActiveConfigVersion.ActiveConfigChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ActiveAttemptRegistry implements CacheStatsSource {
+    private final ActiveConfigVersion activeConfigVersion;
+    private final UserTestAttemptRepository userTestAttemptRepository;
+
+    private final ConcurrentHashMap<Integer, ActiveAttempt> attempts = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong(0);
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    public ActiveAttemptRegistry(
+        ActiveConfigVersion activeConfigVersion,
+        UserTestAttemptRepository userTestAttemptRepository
+    ) {
+        this.activeConfigVersion = activeConfigVersion;
+        this.userTestAttemptRepository = userTestAttemptRepository;
+    }
+
+    public ActiveAttempt get(int userId) {
+        return find(userId).orElseThrow(() -> HttpException.notFound("User has not started an attempt yet"));
+    }
+
+    public ActiveAttempt getVerified(int userId) {
+        return findVerified(userId).orElseThrow(() -> HttpException.notFound("User has not started an attempt yet"));
+    }
+
+    /**
+     * Same as {@link #find(int)}, but a cached attempt is checked against the database first, since another node may
+     * have ended or discarded it. Meant for write paths.
+     */
+    public Optional<ActiveAttempt> findVerified(int userId) {
+        final ActiveAttempt cached = attempts.get(userId);
+
+        if (cached != null && !userTestAttemptRepository.isUnfinished(cached.attemptId())) {
+            invalidate(() -> attempts.remove(userId, cached));
+        }
+
+        return find(userId);
+    }
+
+    public Optional<ActiveAttempt> find(int userId) {
+        final ActiveAttempt cached = attempts.get(userId);
+
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+
+        misses.incrementAndGet();
+
+        final long invalidationsBefore = invalidations.get();
+        final int configVersion = activeConfigVersion.get();
+
+        final Optional<ActiveAttempt> loaded = userTestAttemptRepository
+            .findUnfinishedAttempt(configVersion, userId)
+            .map(attempt -> new ActiveAttempt(attempt.getId(), attempt.getGroup().getId(), configVersion));
+
+        loaded.ifPresent(activeAttempt -> runAfterCommit(() -> {
+            // an attempt ended or discarded while loading must not be cached again
+            if (invalidations.get() == invalidationsBefore) {
+                attempts.putIfAbsent(userId, activeAttempt);
+            }
+        }));
+
+        return loaded;
+    }
+
+    public void register(int userId, UserTestAttemptModel attempt, int configVersion) {
+        final ActiveAttempt activeAttempt = new ActiveAttempt(attempt.getId(), attempt.getGroup().getId(), configVersion);
+        runAfterCommit(() -> attempts.put(userId, activeAttempt));
+    }
+
+    public void remove(int userId) {
+        invalidate(() -> attempts.remove(userId));
+    }
+
+    public void clear() {
+        invalidate(attempts::clear);
+    }
+
+    @EventListener
+    public void onActiveConfigChanged(ActiveConfigChangedEvent event) {
+        clear();
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+        return new CacheStats("active-attempts", attempts.size(), hits.get(), misses.get());
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void invalidate(Runnable invalidation) {
+        invalidations.incrementAndGet();
+        invalidation.run();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidations.incrementAndGet();
+                invalidation.run();
+            }
+        });
+    }
+
+    public record ActiveAttempt(long attemptId, int groupId, int configVersion) {
+    }
+}
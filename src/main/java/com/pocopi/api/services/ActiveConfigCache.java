@@ -0,0 +1,192 @@
+package com.pocopi.api.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pocopi.api.dto.cache.CacheStats;
+import com.pocopi.api.dto.config.TrimmedConfig;
+import com.pocopi.api.services.ActiveConfigVersion.ActiveConfigChangedEvent;
+import com.pocopi.api.services.ActiveConfigVersion.ConfigModifiedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class ActiveConfigCache implements CacheStatsSource {
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicLong invalidations = new AtomicLong(0);
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private volatile SerializedConfig cached;
+
+    public ActiveConfigCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public SerializedConfig get(Supplier<TrimmedConfig> loader) {
+        final SerializedConfig current = cached;
+
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+
+        // participants arrive in bursts, so only one of them renders the config
+        loadLock.lock();
+        try {
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+
+            misses.incrementAndGet();
+
+            final long invalidationsBefore = invalidations.get();
+            final SerializedConfig loaded = serialize(loader.get());
+
+            if (invalidations.get() == invalidationsBefore) {
+                cached = loaded;
+            }
+
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        cached = null;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidations.incrementAndGet();
+                cached = null;
+            }
+        });
+    }
+
+    @EventListener
+    public void onActiveConfigChanged(ActiveConfigChangedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onConfigModified(ConfigModifiedEvent event) {
+        invalidate();
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+        return new CacheStats("active-config", cached != null ? 1 : 0, hits.get(), misses.get());
+    }
+
+    private SerializedConfig serialize(TrimmedConfig config) {
+        try {
+            final byte[] json = objectMapper.writeValueAsBytes(config);
+
+            final ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+            try (final GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(json);
+            }
+
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            final String eTag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+
+            return new SerializedConfig(json, gzipped.toByteArray(), eTag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize active config", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Holds both encodings of the active config. Each encoding gets its own strong ETag, since their bodies differ
+     * byte for byte and caches must not hand one out for the other.
+     */
+    public record SerializedConfig(byte[] json, byte[] gzipped, String eTag) {
+        public String eTag(boolean gzip) {
+            return gzip ? eTag.substring(0, eTag.length() - 1) + "-gz\"" : eTag;
+        }
+
+        public boolean matches(String ifNoneMatch, boolean gzip) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+
+            final String eTag = eTag(gzip);
+
+            for (final String candidate : ifNoneMatch.split(",")) {
+                final String tag = candidate.trim();
+
+                if (tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Whether an Accept-Encoding header allows gzip, i.e. lists gzip, or else {@code *}, with a non-zero quality.
+         */
+        public static boolean acceptsGzip(String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return false;
+            }
+
+            Boolean gzip = null;
+            boolean wildcard = false;
+
+            for (final String candidate : acceptEncoding.split(",")) {
+                final String[] parts = candidate.split(";");
+                final String coding = parts[0].trim().toLowerCase();
+
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    gzip = quality(parts) > 0;
+                } else if (coding.equals("*")) {
+                    wildcard = quality(parts) > 0;
+                }
+            }
+
+            return gzip != null ? gzip : wildcard;
+        }
+
+        private static double quality(String[] parts) {
+            for (int i = 1; i < parts.length; i++) {
+                final String parameter = parts[i].trim();
+
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.repositories.ConfigRepository;
+import com.pocopi.api.repositories.projections.ConfigRevisionProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the version of the active config so requests don't have to look it up. Local config changes invalidate it,
+ * while changes made by other nodes are picked up by a periodic check, which publishes an
+ * {@link ActiveConfigChangedEvent} so node-local caches can drop their stale entries. The same check compares the
+ * revision of every config, bumped on each update, and publishes a {@link ConfigModifiedEvent} for configs that were
+ * edited or deleted since the last check.
+ */
+@Service
+public class ActiveConfigVersion {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActiveConfigVersion.class);
+    private static final int UNKNOWN = 0;
+
+    private final ConfigRepository configRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicInteger version = new AtomicInteger(UNKNOWN);
+    private final AtomicLong invalidations = new AtomicLong(0);
+    // empty until the first check, which then evicts whatever was cached before there was anything to compare with
+    private Map<Integer, Integer> revisions = Map.of();
+
+    public ActiveConfigVersion(ConfigRepository configRepository, ApplicationEventPublisher eventPublisher) {
+        this.configRepository = configRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public int get() {
+        final int current = version.get();
+
+        if (current != UNKNOWN) {
+            return current;
+        }
+
+        final long invalidationsBefore = invalidations.get();
+        final int loaded = configRepository.findActiveVersion();
+
+        // a version read while a config change was committing must not be kept
+        if (invalidations.get() == invalidationsBefore) {
+            version.compareAndSet(UNKNOWN, loaded);
+        }
+
+        return loaded;
+    }
+
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        version.set(UNKNOWN);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidations.incrementAndGet();
+                version.set(UNKNOWN);
+            }
+        });
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.configs.active-version-check-interval:PT30S}",
+        fixedDelayString = "${app.configs.active-version-check-interval:PT30S}"
+    )
+    public void checkForRemoteChanges() {
+        checkActiveVersion();
+        checkRevisions();
+    }
+
+    private void checkActiveVersion() {
+        try {
+            final long invalidationsBefore = invalidations.get();
+            final int loaded = configRepository.findActiveVersion();
+
+            if (invalidations.get() != invalidationsBefore) {
+                return;
+            }
+
+            final int previous = version.getAndSet(loaded);
+
+            if (previous != UNKNOWN && previous != loaded) {
+                LOGGER.info("Active config changed from version {} to {}", previous, loaded);
+                eventPublisher.publishEvent(new ActiveConfigChangedEvent(previous, loaded));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to check the active config version", e);
+        }
+    }
+
+    private void checkRevisions() {
+        try {
+            final HashMap<Integer, Integer> loaded = new HashMap<>();
+
+            for (final ConfigRevisionProjection config : configRepository.findAllRevisions()) {
+                loaded.put(config.getVersion(), config.getRevision());
+            }
+
+            final Map<Integer, Integer> previous = revisions;
+            revisions = loaded;
+
+            for (final Map.Entry<Integer, Integer> config : loaded.entrySet()) {
+                if (!Objects.equals(previous.get(config.getKey()), config.getValue())) {
+                    eventPublisher.publishEvent(new ConfigModifiedEvent(config.getKey()));
+                }
+            }
+
+            for (final Integer version : previous.keySet()) {
+                if (!loaded.containsKey(version)) {
+                    eventPublisher.publishEvent(new ConfigModifiedEvent(version));
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to check the config revisions", e);
+        }
+    }
+
+    public record ActiveConfigChangedEvent(int previousVersion, int version) {
+    }
+
+    public record ConfigModifiedEvent(int version) {
+    }
+}
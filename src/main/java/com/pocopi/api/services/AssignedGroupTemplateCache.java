@@ -0,0 +1,288 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.dto.cache.CacheStats;
+import com.pocopi.api.dto.config.Image;
+import com.pocopi.api.dto.test.AssignedTestGroup;
+import com.pocopi.api.dto.test.AssignedTestOption;
+import com.pocopi.api.dto.test.AssignedTestPhase;
+import com.pocopi.api.dto.test.AssignedTestQuestion;
+import com.pocopi.api.models.test.TestGroupModel;
+import com.pocopi.api.models.test.TestOptionModel;
+import com.pocopi.api.models.test.TestPhaseModel;
+import com.pocopi.api.models.test.TestQuestionModel;
+import com.pocopi.api.repositories.TestOptionRepository;
+import com.pocopi.api.repositories.TestPhaseRepository;
+import com.pocopi.api.repositories.TestQuestionRepository;
+import com.pocopi.api.services.ActiveConfigVersion.ConfigModifiedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+@Service
+public class AssignedGroupTemplateCache implements CacheStatsSource {
+    private final TestPhaseRepository testPhaseRepository;
+    private final TestQuestionRepository testQuestionRepository;
+    private final TestOptionRepository testOptionRepository;
+    private final ImageService imageService;
+
+    private final ConcurrentHashMap<Integer, GroupTemplate> templates = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong(0);
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    public AssignedGroupTemplateCache(
+        TestPhaseRepository testPhaseRepository,
+        TestQuestionRepository testQuestionRepository,
+        TestOptionRepository testOptionRepository,
+        ImageService imageService
+    ) {
+        this.testPhaseRepository = testPhaseRepository;
+        this.testQuestionRepository = testQuestionRepository;
+        this.testOptionRepository = testOptionRepository;
+        this.imageService = imageService;
+    }
+
+    public GroupTemplate get(TestGroupModel groupModel) {
+        final GroupTemplate cached = templates.get(groupModel.getId());
+
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+
+        final long invalidationsBefore = invalidations.get();
+        final GroupTemplate loaded = load(groupModel);
+
+        // a template rebuilt while loading must not be replaced by the stale one
+        if (invalidations.get() == invalidationsBefore) {
+            templates.putIfAbsent(groupModel.getId(), loaded);
+        }
+
+        return loaded;
+    }
+
+    public void evictConfig(int configVersion) {
+        invalidations.incrementAndGet();
+        templates.values().removeIf(template -> template.configVersion == configVersion);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidations.incrementAndGet();
+                templates.values().removeIf(template -> template.configVersion == configVersion);
+            }
+        });
+    }
+
+    @EventListener
+    public void onConfigModified(ConfigModifiedEvent event) {
+        evictConfig(event.version());
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+        return new CacheStats("assigned-group-templates", templates.size(), hits.get(), misses.get());
+    }
+
+    private GroupTemplate load(TestGroupModel groupModel) {
+        final List<TestPhaseModel> phasesList = testPhaseRepository.findAllByGroupIdOrderByOrder(groupModel.getId());
+        final List<TestQuestionModel> questionsList = testQuestionRepository
+            .findAllByPhaseGroupIdOrderByOrder(groupModel.getId());
+        final List<TestOptionModel> optionsList = testOptionRepository
+            .findAllByQuestionPhaseGroupIdOrderByOrder(groupModel.getId());
+
+        final ArrayList<Integer> imageIds = new ArrayList<>();
+
+        if (groupModel.getGreetingImage() != null) {
+            imageIds.add(groupModel.getGreetingImage().getId());
+        }
+
+        for (final TestQuestionModel questionModel : questionsList) {
+            if (questionModel.getImage() != null) {
+                imageIds.add(questionModel.getImage().getId());
+            }
+        }
+
+        for (final TestOptionModel optionModel : optionsList) {
+            if (optionModel.getImage() != null) {
+                imageIds.add(optionModel.getImage().getId());
+            }
+        }
+
+        final Map<Integer, Image> images = imageIds.isEmpty() ? Map.of() : imageService.getImagesByIds(imageIds);
+
+        final HashMap<Integer, ArrayList<QuestionTemplate>> phaseIdToQuestionsMap = new HashMap<>();
+        final HashMap<Integer, ArrayList<AssignedTestOption>> questionIdToOptionsMap = new HashMap<>();
+
+        for (final TestOptionModel optionModel : optionsList) {
+            final Image optionImage = optionModel.getImage() != null
+                ? images.get(optionModel.getImage().getId())
+                : null;
+
+            questionIdToOptionsMap
+                .computeIfAbsent(optionModel.getQuestion().getId(), id -> new ArrayList<>())
+                .add(new AssignedTestOption(optionModel.getId(), optionModel.getText(), optionImage));
+        }
+
+        for (final TestQuestionModel questionModel : questionsList) {
+            final Image questionImage = questionModel.getImage() != null
+                ? images.get(questionModel.getImage().getId())
+                : null;
+
+            final List<AssignedTestOption> options = questionIdToOptionsMap
+                .getOrDefault(questionModel.getId(), new ArrayList<>());
+
+            phaseIdToQuestionsMap
+                .computeIfAbsent(questionModel.getPhase().getId(), id -> new ArrayList<>())
+                .add(new QuestionTemplate(
+                    questionModel.getId(),
+                    questionModel.getText(),
+                    questionImage,
+                    questionModel.isRandomizeOptions(),
+                    options.toArray(AssignedTestOption[]::new)
+                ));
+        }
+
+        final PhaseTemplate[] phases = phasesList.stream()
+            .map(phaseModel -> new PhaseTemplate(
+                phaseModel.isRandomizeQuestions(),
+                phaseIdToQuestionsMap.getOrDefault(phaseModel.getId(), new ArrayList<>())
+                    .toArray(QuestionTemplate[]::new)
+            ))
+            .toArray(PhaseTemplate[]::new);
+
+        final Image greetingImage = groupModel.getGreetingImage() != null
+            ? images.get(groupModel.getGreetingImage().getId())
+            : null;
+
+        return new GroupTemplate(
+            groupModel.getConfig().getVersion(),
+            groupModel.getLabel(),
+            groupModel.getGreeting(),
+            greetingImage,
+            groupModel.isAllowPreviousPhase(),
+            groupModel.isAllowPreviousQuestion(),
+            groupModel.isAllowSkipQuestion(),
+            phases
+        );
+    }
+
+    public static final class GroupTemplate {
+        private final int configVersion;
+        private final String label;
+        private final String greeting;
+        private final Image greetingImage;
+        private final boolean allowPreviousPhase;
+        private final boolean allowPreviousQuestion;
+        private final boolean allowSkipQuestion;
+        private final PhaseTemplate[] phases;
+
+        private GroupTemplate(
+            int configVersion,
+            String label,
+            String greeting,
+            Image greetingImage,
+            boolean allowPreviousPhase,
+            boolean allowPreviousQuestion,
+            boolean allowSkipQuestion,
+            PhaseTemplate[] phases
+        ) {
+            this.configVersion = configVersion;
+            this.label = label;
+            this.greeting = greeting;
+            this.greetingImage = greetingImage;
+            this.allowPreviousPhase = allowPreviousPhase;
+            this.allowPreviousQuestion = allowPreviousQuestion;
+            this.allowSkipQuestion = allowSkipQuestion;
+            this.phases = phases;
+        }
+
+        public AssignedTestGroup instantiate(RandomGenerator random) {
+            final ArrayList<AssignedTestPhase> assignedPhases = new ArrayList<>(phases.length);
+
+            for (final PhaseTemplate phase : phases) {
+                final QuestionTemplate[] questions = phase.questions;
+                final int[] questionOrder = order(questions.length, phase.randomizeQuestions, random);
+                final ArrayList<AssignedTestQuestion> assignedQuestions = new ArrayList<>(questions.length);
+
+                for (final int questionIndex : questionOrder) {
+                    final QuestionTemplate question = questions[questionIndex];
+                    final AssignedTestOption[] options = question.options;
+                    final int[] optionOrder = order(options.length, question.randomizeOptions, random);
+                    final ArrayList<AssignedTestOption> assignedOptions = new ArrayList<>(options.length);
+
+                    for (final int optionIndex : optionOrder) {
+                        assignedOptions.add(options[optionIndex]);
+                    }
+
+                    assignedQuestions.add(new AssignedTestQuestion(
+                        question.id,
+                        question.text,
+                        question.image,
+                        assignedOptions
+                    ));
+                }
+
+                assignedPhases.add(new AssignedTestPhase(assignedQuestions));
+            }
+
+            return new AssignedTestGroup(
+                label,
+                greeting,
+                greetingImage,
+                allowPreviousPhase,
+                allowPreviousQuestion,
+                allowSkipQuestion,
+                assignedPhases
+            );
+        }
+
+        private static int[] order(int length, boolean shuffle, RandomGenerator random) {
+            final int[] order = new int[length];
+
+            for (int i = 0; i < length; i++) {
+                order[i] = i;
+            }
+
+            if (!shuffle) {
+                return order;
+            }
+
+            for (int i = length - 1; i > 0; i--) {
+                final int j = random.nextInt(i + 1);
+                final int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            return order;
+        }
+    }
+
+    private record PhaseTemplate(boolean randomizeQuestions, QuestionTemplate[] questions) {
+    }
+
+    private record QuestionTemplate(
+        int id,
+        String text,
+        Image image,
+        boolean randomizeOptions,
+        AssignedTestOption[] options
+    ) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.dto.cache.CacheStats;
+
+public interface CacheStatsSource {
+    CacheStats getCacheStats();
+}
@@ -0,0 +1,56 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.repositories.ConfigCloneRepository;
+import com.pocopi.api.repositories.ConfigCloneRepository.ImageRow;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Copies everything a config contains into another config with a fixed number of set-based statements, no matter how
+ * many groups, questions or images it has. Every image gets its own row so both configs can be edited independently,
+ * but the rows share the blobs of the original images and the files are hard linked instead of copied.
+ */
+@Service
+public class ConfigCloner {
+    private final ConfigCloneRepository configCloneRepository;
+    private final ImageService imageService;
+
+    public ConfigCloner(ConfigCloneRepository configCloneRepository, ImageService imageService) {
+        this.configCloneRepository = configCloneRepository;
+        this.imageService = imageService;
+    }
+
+    @Transactional
+    public void cloneContents(int originalVersion, int newVersion) {
+        final List<ImageRow> images = configCloneRepository.findContentImages(originalVersion);
+        final List<String> newPaths = imageService.cloneImageFiles(images.stream().map(ImageRow::path).toList());
+
+        final ArrayList<ImageRow> newImages = new ArrayList<>(images.size());
+
+        for (int i = 0; i < images.size(); i++) {
+            final ImageRow image = images.get(i);
+
+            newImages.add(new ImageRow(
+                0,
+                newPaths.get(i),
+                image.blobHash(),
+                image.width(),
+                image.variantFormat(),
+                image.alt()
+            ));
+        }
+
+        final List<Integer> newImageIds = configCloneRepository.insertImages(newImages);
+        final HashMap<Integer, Integer> imageIds = new HashMap<>();
+
+        for (int i = 0; i < images.size(); i++) {
+            imageIds.put(images.get(i).id(), newImageIds.get(i));
+        }
+
+        configCloneRepository.cloneContents(originalVersion, newVersion, imageIds);
+    }
+}
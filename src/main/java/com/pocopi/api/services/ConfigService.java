@@ -2,7 +2,6 @@ package com.pocopi.api.services;
 
 import com.pocopi.api.dto.config.*;
 import com.pocopi.api.dto.form.Form;
-import com.pocopi.api.dto.test.TestGroup;
 import com.pocopi.api.exception.HttpException;
 import com.pocopi.api.models.config.ConfigModel;
 import com.pocopi.api.models.config.ImageModel;
@@ -27,6 +26,13 @@ public class ConfigService {
     private final TestGroupService testGroupService;
     private final PatternService patternService;
     private final TranslationService translationService;
+    private final ActiveConfigVersion activeConfigVersion;
+    private final ActiveAttemptRegistry activeAttemptRegistry;
+    private final TestTopologyIndex testTopologyIndex;
+    private final AssignedGroupTemplateCache assignedGroupTemplateCache;
+    private final ActiveConfigCache activeConfigCache;
+    private final FullConfigLoader fullConfigLoader;
+    private final ConfigCloner configCloner;
 
     public ConfigService(
         ConfigRepository configRepository,
@@ -36,7 +42,14 @@ public class ConfigService {
         ImageService imageService,
         TestGroupService testGroupService,
         PatternService patternService,
-        TranslationService translationService
+        TranslationService translationService,
+        ActiveConfigVersion activeConfigVersion,
+        ActiveAttemptRegistry activeAttemptRegistry,
+        TestTopologyIndex testTopologyIndex,
+        AssignedGroupTemplateCache assignedGroupTemplateCache,
+        ActiveConfigCache activeConfigCache,
+        FullConfigLoader fullConfigLoader,
+        ConfigCloner configCloner
     ) {
         this.configRepository = configRepository;
         this.formService = formService;
@@ -46,15 +59,30 @@ public class ConfigService {
         this.testGroupService = testGroupService;
         this.patternService = patternService;
         this.translationService = translationService;
+        this.activeConfigVersion = activeConfigVersion;
+        this.activeAttemptRegistry = activeAttemptRegistry;
+        this.testTopologyIndex = testTopologyIndex;
+        this.assignedGroupTemplateCache = assignedGroupTemplateCache;
+        this.activeConfigCache = activeConfigCache;
+        this.fullConfigLoader = fullConfigLoader;
+        this.configCloner = configCloner;
     }
 
     @Transactional
     public List<ConfigPreview> getAllConfigs() {
-        final int lastConfigVersion = configRepository.getLastConfig().getVersion();
+        final int lastConfigVersion = activeConfigVersion.get();
 
-        return configRepository.findAll().stream().map(config -> new ConfigPreview(
+        final List<ConfigModel> configs = configRepository.findAll();
+
+        final Map<Integer, Image> icons = imageService.getImagesByIds(configs.stream()
+            .filter(config -> config.getIcon() != null)
+            .map(config -> config.getIcon().getId())
+            .toList()
+        );
+
+        return configs.stream().map(config -> new ConfigPreview(
             config.getVersion(),
-            config.getIcon() != null ? imageService.getImageById(config.getIcon().getId()) : null,
+            config.getIcon() != null ? icons.get(config.getIcon().getId()) : null,
             config.getTitle(),
             config.getSubtitle(),
             config.getDescription(),
@@ -69,7 +97,8 @@ public class ConfigService {
         configRepository.findByVersion(version)
             .orElseThrow(() -> HttpException.notFound("Config with version " + version + " not found"));
 
-        final int lastConfigVersion = configRepository.getLastConfig().getVersion();
+        // admin writes check the database, the cached version may lag behind other nodes
+        final int lastConfigVersion = configRepository.findActiveVersion();
 
         if (lastConfigVersion == version) {
             throw HttpException.conflict("Current configuration cannot be deleted");
@@ -80,6 +109,10 @@ public class ConfigService {
         }
 
         configRepository.deleteByVersion(version);
+        activeConfigVersion.invalidate();
+        testTopologyIndex.evict(version);
+        assignedGroupTemplateCache.evictConfig(version);
+        activeConfigCache.invalidate();
     }
 
     @Transactional
@@ -87,23 +120,29 @@ public class ConfigService {
         final ConfigModel newActiveConfig = configRepository.findByVersion(version)
             .orElseThrow(() -> HttpException.notFound("Config with version " + version + " not found"));
 
-        final ConfigModel activeConfig = configRepository.getLastConfig();
+        final int activeVersion = configRepository.findActiveVersion();
 
-        if (activeConfig.getVersion() == version) {
+        if (activeVersion == version) {
             return;
         }
 
+        final ConfigModel activeConfig = findActiveConfig(activeVersion);
+
         activeConfig.setActive(false);
         newActiveConfig.setActive(true);
 
         configRepository.save(newActiveConfig);
         configRepository.save(activeConfig);
+
+        activeConfigVersion.invalidate();
+        activeAttemptRegistry.clear();
+        activeConfigCache.invalidate();
     }
 
     @Transactional
     public TrimmedConfig getTrimmedActiveConfig() {
-        final ConfigModel configModel = configRepository.getLastConfig();
-        final int configVersion = configModel.getVersion();
+        final int configVersion = activeConfigVersion.get();
+        final ConfigModel configModel = findActiveConfig(configVersion);
 
         final Image icon = configModel.getIcon() != null
             ? imageService.getImageById(configModel.getIcon().getId())
@@ -142,56 +181,9 @@ public class ConfigService {
         );
     }
 
-    @Transactional
     public FullConfig getFullConfigByVersion(int version) {
-        final ConfigModel config = configRepository.findByVersion(version)
+        return fullConfigLoader.load(version)
             .orElseThrow(() -> HttpException.notFound("Config with version " + version + " not found"));
-        return getFullConfig(config);
-    }
-
-    @Transactional
-    public FullConfig getFullConfig(ConfigModel configModel) {
-        final int configVersion = configModel.getVersion();
-
-        final Image icon = configModel.getIcon() != null
-            ? imageService.getImageById(configModel.getIcon().getId())
-            : null;
-
-        final Pattern usernamePattern = configModel.getUsernamePattern() != null ? new Pattern(
-            configModel.getUsernamePattern().getId(),
-            configModel.getUsernamePattern().getName(),
-            configModel.getUsernamePattern().getRegex()
-        ) : null;
-
-        final List<Translation> translations = translationService.getAllTranslations(configVersion);
-
-        final Map<FormType, Form> forms = formService.getFormsByConfigVersion(configVersion);
-        final Form preTest = forms.get(FormType.PRE);
-        final Form postTest = forms.get(FormType.POST);
-
-        final List<TestGroup> groups = testGroupService.getGroupsByConfigVersion(configVersion);
-
-        final List<InformationCard> informationCards = homeInfoCardService.getCardsByConfigVersion(configVersion);
-        final List<FrequentlyAskedQuestion> frequentlyAskedQuestions = homeFaqService
-            .getFaqsByConfigVersion(configVersion);
-
-        return new FullConfig(
-            configVersion,
-            icon,
-            configModel.getTitle(),
-            configModel.getSubtitle(),
-            configModel.getDescription(),
-            configModel.isAnonymous(),
-            usernamePattern,
-            configModel.getTimer(),
-            informationCards,
-            configModel.getInformedConsent(),
-            frequentlyAskedQuestions,
-            preTest,
-            postTest,
-            groups,
-            translations
-        );
     }
 
     @Transactional
@@ -285,12 +277,18 @@ public class ConfigService {
             configUpdate.groups(),
             groupImageFiles
         );
+
+        if (modifiedGroups) {
+            testTopologyIndex.evict(version);
+            assignedGroupTemplateCache.evictConfig(version);
+        }
+
         final boolean modifiedTranslations = translationService.updateTranslations(
             savedConfig,
             configUpdate.translations()
         );
 
-        return modifiedGeneral
+        final boolean modified = modifiedGeneral
             || modifiedUsernamePattern
             || modifiedCards
             || modifiedFaq
@@ -298,6 +296,15 @@ public class ConfigService {
             || modifiedPostTestForm
             || modifiedGroups
             || modifiedTranslations;
+
+        if (modified) {
+            // other nodes compare revisions to find out their cached copies of this config are stale
+            configRepository.incrementRevision(version);
+            activeConfigVersion.invalidate();
+            activeConfigCache.invalidate();
+        }
+
+        return modified;
     }
 
     @Transactional
@@ -309,7 +316,8 @@ public class ConfigService {
             ? imageService.cloneImage(config.getIcon())
             : null;
 
-        final ConfigModel newConfig = configRepository.save(ConfigModel.builder()
+        // the contents are copied straight through JDBC, so the new config row has to be written first
+        final ConfigModel newConfig = configRepository.saveAndFlush(ConfigModel.builder()
             .active(false)
             .icon(newIcon)
             .title(config.getTitle())
@@ -322,10 +330,14 @@ public class ConfigService {
             .build()
         );
 
-        homeInfoCardService.cloneCards(version, newConfig);
-        homeFaqService.cloneFaqs(version, newConfig);
-        formService.cloneForms(version, newConfig);
-        testGroupService.cloneGroups(version, newConfig);
-        translationService.cloneTranslations(version, newConfig);
+        configCloner.cloneContents(version, newConfig.getVersion());
+
+        activeConfigVersion.invalidate();
+        activeAttemptRegistry.clear();
+    }
+
+    private ConfigModel findActiveConfig(int activeVersion) {
+        return configRepository.findByVersion(activeVersion)
+            .orElseThrow(() -> HttpException.notFound("Active config with version " + activeVersion + " not found"));
     }
 }
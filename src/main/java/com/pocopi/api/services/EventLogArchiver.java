@@ -0,0 +1,79 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.config.EventLogArchiveProperties;
+import com.pocopi.api.repositories.UserTestLogArchiveRepository;
+import com.pocopi.api.repositories.UserTestLogArchiveRepository.ArchivedLogs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves the event logs of finished attempts from inactive configs into the compressed, attempt-partitioned archive
+ * tables. Results are read through views spanning both live and archived logs.
+ */
+@Service
+public class EventLogArchiver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLogArchiver.class);
+
+    private final EventLogArchiveProperties properties;
+    private final UserTestLogArchiveRepository userTestLogArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public EventLogArchiver(
+        EventLogArchiveProperties properties,
+        UserTestLogArchiveRepository userTestLogArchiveRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.properties = properties;
+        this.userTestLogArchiveRepository = userTestLogArchiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.event-logs.archive.interval:PT1H}",
+        fixedDelayString = "${app.event-logs.archive.interval:PT1H}"
+    )
+    public void archiveScheduled() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to archive event logs", e);
+        }
+    }
+
+    public ArchivedLogs archive() {
+        int optionLogs = 0;
+        int questionLogs = 0;
+
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            final ArchivedLogs archived = transactionTemplate.execute(status -> {
+                final List<Long> attemptIds = userTestLogArchiveRepository
+                    .findArchivableAttemptIds(properties.getAttemptsPerBatch());
+
+                return attemptIds.isEmpty() ? null : userTestLogArchiveRepository.archiveAttempts(attemptIds);
+            });
+
+            if (archived == null) {
+                break;
+            }
+
+            optionLogs += archived.optionLogs();
+            questionLogs += archived.questionLogs();
+        }
+
+        if (optionLogs + questionLogs > 0) {
+            LOGGER.info("Archived {} option logs and {} question logs", optionLogs, questionLogs);
+        }
+
+        return new ArchivedLogs(optionLogs, questionLogs);
+    }
+}
@@ -1,85 +1,130 @@
 package com.pocopi.api.services;
 
-import com.pocopi.api.dto.event.NewOptionEventLog;
-import com.pocopi.api.dto.event.NewQuestionEventLog;
+import com.pocopi.api.dto.event.*;
 import com.pocopi.api.exception.HttpException;
 import com.pocopi.api.models.test.*;
 import com.pocopi.api.repositories.*;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.OptionLogRow;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.QuestionLogRow;
+import com.pocopi.api.services.ActiveAttemptRegistry.ActiveAttempt;
+import com.pocopi.api.services.HoverEventCoalescer.CoalescedOptionLogs;
+import com.pocopi.api.services.TestTopologyIndex.Topology;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 
 @Service
 public class EventLogService {
-    private final ConfigRepository configRepository;
+    private final ActiveAttemptRegistry activeAttemptRegistry;
+    private final TestTopologyIndex testTopologyIndex;
     private final TestQuestionRepository testQuestionRepository;
     private final TestOptionRepository testOptionRepository;
     private final UserTestAttemptRepository userTestAttemptRepository;
     private final UserTestQuestionLogRepository userTestQuestionLogRepository;
     private final UserTestOptionLogRepository userTestOptionLogRepository;
+    private final UserTestLogBatchRepository userTestLogBatchRepository;
+    private final UserTestEventStreamRepository userTestEventStreamRepository;
+    private final EventLogWriteBuffer eventLogWriteBuffer;
+    private final HoverEventCoalescer hoverEventCoalescer;
+    private final EventSequenceTracker eventSequenceTracker;
 
     public EventLogService(
-        ConfigRepository configRepository,
+        ActiveAttemptRegistry activeAttemptRegistry,
+        TestTopologyIndex testTopologyIndex,
         TestQuestionRepository testQuestionRepository,
         TestOptionRepository testOptionRepository,
         UserTestAttemptRepository userTestAttemptRepository,
         UserTestQuestionLogRepository userTestQuestionLogRepository,
-        UserTestOptionLogRepository userTestOptionLogRepository
+        UserTestOptionLogRepository userTestOptionLogRepository,
+        UserTestLogBatchRepository userTestLogBatchRepository,
+        UserTestEventStreamRepository userTestEventStreamRepository,
+        EventLogWriteBuffer eventLogWriteBuffer,
+        HoverEventCoalescer hoverEventCoalescer,
+        EventSequenceTracker eventSequenceTracker
     ) {
-        this.configRepository = configRepository;
+        this.activeAttemptRegistry = activeAttemptRegistry;
+        this.testTopologyIndex = testTopologyIndex;
         this.testQuestionRepository = testQuestionRepository;
         this.testOptionRepository = testOptionRepository;
         this.userTestAttemptRepository = userTestAttemptRepository;
         this.userTestQuestionLogRepository = userTestQuestionLogRepository;
         this.userTestOptionLogRepository = userTestOptionLogRepository;
+        this.userTestLogBatchRepository = userTestLogBatchRepository;
+        this.userTestEventStreamRepository = userTestEventStreamRepository;
+        this.eventLogWriteBuffer = eventLogWriteBuffer;
+        this.hoverEventCoalescer = hoverEventCoalescer;
+        this.eventSequenceTracker = eventSequenceTracker;
     }
 
     @Transactional
-    public void saveQuestionEventLog(NewQuestionEventLog questionEventLog, int userId) {
-        final int configVersion = configRepository.getLastConfig().getVersion();
+    public boolean saveQuestionEventLog(NewQuestionEventLog questionEventLog, int userId) {
+        final ActiveAttempt testAttempt = activeAttemptRegistry.getVerified(userId);
+        final int groupId = testAttempt.groupId();
+        final int questionId = questionEventLog.questionId();
 
-        final UserTestAttemptModel testAttempt = userTestAttemptRepository
-            .findUnfinishedAttempt(configVersion, userId)
-            .orElseThrow(() -> HttpException.notFound("User has not started an attempt yet"));
+        if (!testTopologyIndex.get(testAttempt.configVersion()).containsQuestion(questionId, groupId)) {
+            throw HttpException.notFound("Test question with id " + questionId + " not found in group " + groupId);
+        }
 
-        final int groupId = testAttempt.getGroup().getId();
+        if (!acceptSequence(testAttempt.attemptId(), questionEventLog.sequence())) {
+            return false;
+        }
 
-        final TestQuestionModel question = testQuestionRepository
-            .findByIdAndPhaseGroupId(questionEventLog.questionId(), groupId)
-            .orElseThrow(() -> HttpException.notFound(
-                "Test question with id " + questionEventLog.questionId() + " not found in group " + groupId
-            ));
+        if (eventLogWriteBuffer.isEnabled()) {
+            eventLogWriteBuffer.enqueue(List.of(), List.of(new QuestionLogRow(
+                testAttempt.attemptId(),
+                questionId,
+                Instant.ofEpochMilli(questionEventLog.timestamp()),
+                questionEventLog.duration()
+            )));
+            return true;
+        }
 
         final UserTestQuestionLogModel newQuestionLog = UserTestQuestionLogModel.builder()
-            .attempt(testAttempt)
-            .question(question)
+            .attempt(userTestAttemptRepository.getReferenceById(testAttempt.attemptId()))
+            .question(testQuestionRepository.getReferenceById(questionId))
             .timestamp(Instant.ofEpochMilli(questionEventLog.timestamp()))
             .duration(questionEventLog.duration())
             .build();
 
         userTestQuestionLogRepository.save(newQuestionLog);
+        return true;
     }
 
     @Transactional
-    public void saveOptionEventLog(NewOptionEventLog optionEventLog, int userId) {
-        final int configVersion = configRepository.getLastConfig().getVersion();
+    public boolean saveOptionEventLog(NewOptionEventLog optionEventLog, int userId) {
+        final ActiveAttempt testAttempt = activeAttemptRegistry.getVerified(userId);
+        final int groupId = testAttempt.groupId();
+        final int optionId = optionEventLog.optionId();
 
-        final UserTestAttemptModel testAttempt = userTestAttemptRepository
-            .findUnfinishedAttempt(configVersion, userId)
-            .orElseThrow(() -> HttpException.notFound("User has not started an attempt yet"));
+        if (!testTopologyIndex.get(testAttempt.configVersion()).containsOption(optionId, groupId)) {
+            throw HttpException.notFound("Test option with id " + optionId + " not found in group " + groupId);
+        }
 
-        final int groupId = testAttempt.getGroup().getId();
+        if (!acceptSequence(testAttempt.attemptId(), optionEventLog.sequence())) {
+            return false;
+        }
 
-        final TestOptionModel option = testOptionRepository
-            .findByIdAndQuestionPhaseGroupId(optionEventLog.optionId(), groupId)
-            .orElseThrow(() -> HttpException.notFound(
-                "Test option with id " + optionEventLog.optionId() + " not found in group " + groupId
-            ));
+        if (eventLogWriteBuffer.isEnabled()) {
+            eventLogWriteBuffer.enqueue(List.of(new OptionLogRow(
+                testAttempt.attemptId(),
+                optionId,
+                optionEventLog.type(),
+                Instant.ofEpochMilli(optionEventLog.timestamp()),
+                (byte) optionEventLog.x(),
+                (byte) optionEventLog.y()
+            )), List.of());
+            return true;
+        }
 
         final UserTestOptionLogModel newOptionLog = UserTestOptionLogModel.builder()
-            .attempt(testAttempt)
-            .option(option)
+            .attempt(userTestAttemptRepository.getReferenceById(testAttempt.attemptId()))
+            .option(testOptionRepository.getReferenceById(optionId))
             .type(optionEventLog.type())
             .timestamp(Instant.ofEpochMilli(optionEventLog.timestamp()))
             .x((byte) optionEventLog.x())
@@ -87,5 +132,235 @@ public class EventLogService {
             .build();
 
         userTestOptionLogRepository.save(newOptionLog);
+        return true;
+    }
+
+    @Transactional
+    public EventLogBatchResult saveEventLogBatch(NewEventLogBatch batch, int userId) {
+        return saveEventLogBatch(batch, activeAttemptRegistry.getVerified(userId));
+    }
+
+    private EventLogBatchResult saveEventLogBatch(NewEventLogBatch batch, ActiveAttempt testAttempt) {
+        final long attemptId = testAttempt.attemptId();
+        final int groupId = testAttempt.groupId();
+        final List<NewEventLogBatchItem> events = batch.events();
+
+        final Topology topology = testTopologyIndex.get(testAttempt.configVersion());
+        final long highWaterMark = eventSequenceTracker.getHighWaterMark(attemptId);
+        final HashSet<Long> sequences = new HashSet<>();
+        long maxSequence = highWaterMark;
+        int deduplicated = 0;
+
+        final EventLogBatchItemResult[] results = new EventLogBatchItemResult[events.size()];
+
+        final List<OptionLogRow> optionRows = new ArrayList<>();
+        final List<Integer> optionRowIndexes = new ArrayList<>();
+        final List<QuestionLogRow> questionRows = new ArrayList<>();
+        final List<Integer> questionRowIndexes = new ArrayList<>();
+
+        for (int i = 0; i < events.size(); i++) {
+            final NewOptionEventLog optionEvent = events.get(i).option();
+            final NewQuestionEventLog questionEvent = events.get(i).question();
+
+            if ((optionEvent == null) == (questionEvent == null)) {
+                results[i] = new EventLogBatchItemResult(
+                    i,
+                    EventLogBatchItemStatus.INVALID,
+                    "Batch item must contain exactly one of option or question"
+                );
+                continue;
+            }
+
+            final Long sequence = optionEvent != null ? optionEvent.sequence() : questionEvent.sequence();
+
+            if (sequence != null) {
+                if (sequence <= highWaterMark || !sequences.add(sequence)) {
+                    results[i] = new EventLogBatchItemResult(
+                        i,
+                        EventLogBatchItemStatus.DUPLICATE,
+                        "Event has already been received"
+                    );
+                    deduplicated++;
+                    continue;
+                }
+            }
+
+            if (optionEvent != null) {
+                if (!topology.containsOption(optionEvent.optionId(), groupId)) {
+                    results[i] = new EventLogBatchItemResult(
+                        i,
+                        EventLogBatchItemStatus.NOT_FOUND,
+                        "Test option with id " + optionEvent.optionId() + " not found in group " + groupId
+                    );
+                    continue;
+                }
+
+                optionRows.add(new OptionLogRow(
+                    attemptId,
+                    optionEvent.optionId(),
+                    optionEvent.type(),
+                    Instant.ofEpochMilli(optionEvent.timestamp()),
+                    (byte) optionEvent.x(),
+                    (byte) optionEvent.y()
+                ));
+                optionRowIndexes.add(i);
+                maxSequence = maxAccepted(maxSequence, sequence);
+                continue;
+            }
+
+            if (!topology.containsQuestion(questionEvent.questionId(), groupId)) {
+                results[i] = new EventLogBatchItemResult(
+                    i,
+                    EventLogBatchItemStatus.NOT_FOUND,
+                    "Test question with id " + questionEvent.questionId() + " not found in group " + groupId
+                );
+                continue;
+            }
+
+            questionRows.add(new QuestionLogRow(
+                attemptId,
+                questionEvent.questionId(),
+                Instant.ofEpochMilli(questionEvent.timestamp()),
+                questionEvent.duration()
+            ));
+            questionRowIndexes.add(i);
+            maxSequence = maxAccepted(maxSequence, sequence);
+        }
+
+        final CoalescedOptionLogs coalescedOptions = hoverEventCoalescer.coalesce(optionRows);
+        final List<OptionLogRow> optionLogs = coalescedOptions.rows();
+        final List<Integer> optionLogIndexes = fillCoalescedResults(
+            results,
+            optionRowIndexes,
+            coalescedOptions.rowBySource(),
+            optionLogs.size()
+        );
+
+        if (maxSequence > highWaterMark) {
+            eventSequenceTracker.advance(attemptId, maxSequence);
+        }
+
+        if (eventLogWriteBuffer.isEnabled()) {
+            eventLogWriteBuffer.enqueue(optionLogs, questionRows);
+
+            optionLogIndexes.forEach(index -> results[index] = new EventLogBatchItemResult(
+                index,
+                EventLogBatchItemStatus.QUEUED,
+                null
+            ));
+            questionRowIndexes.forEach(index -> results[index] = new EventLogBatchItemResult(
+                index,
+                EventLogBatchItemStatus.QUEUED,
+                null
+            ));
+
+            return new EventLogBatchResult(
+                0,
+                optionLogs.size() + questionRows.size(),
+                deduplicated,
+                Arrays.asList(results)
+            );
+        }
+
+        final boolean[] insertedOptions = userTestLogBatchRepository.insertOptionLogs(optionLogs);
+        final boolean[] insertedQuestions = userTestLogBatchRepository.insertQuestionLogs(questionRows);
+
+        final int savedOptions = fillInsertResults(results, optionLogIndexes, insertedOptions);
+        final int savedQuestions = fillInsertResults(results, questionRowIndexes, insertedQuestions);
+
+        final int saved = savedOptions + savedQuestions;
+        deduplicated += insertedOptions.length + insertedQuestions.length - saved;
+
+        return new EventLogBatchResult(saved, 0, deduplicated, Arrays.asList(results));
+    }
+
+    /**
+     * Returns the last stream frame stored for the attempt. It's kept in the database so a client that reconnects to
+     * another node resumes from the same point.
+     */
+    public long getStreamSequence(long attemptId) {
+        return userTestEventStreamRepository.findLastSequence(attemptId);
+    }
+
+    /**
+     * Stores a stream frame, or returns {@code null} without storing anything if a frame with the same or a later
+     * sequence was already stored, which happens when a client re-sends frames after reconnecting.
+     */
+    @Transactional
+    public EventLogBatchResult saveEventStreamFrame(EventStreamFrame frame, int userId) {
+        final ActiveAttempt testAttempt = activeAttemptRegistry.getVerified(userId);
+
+        if (frame.sequence() <= userTestEventStreamRepository.lockLastSequence(testAttempt.attemptId())) {
+            return null;
+        }
+
+        final EventLogBatchResult result = saveEventLogBatch(new NewEventLogBatch(frame.events()), testAttempt);
+
+        userTestEventStreamRepository.advance(testAttempt.attemptId(), frame.sequence());
+        return result;
+    }
+
+    private boolean acceptSequence(long attemptId, Long sequence) {
+        if (sequence == null) {
+            return true;
+        }
+
+        if (sequence <= eventSequenceTracker.getHighWaterMark(attemptId)) {
+            return false;
+        }
+
+        eventSequenceTracker.advance(attemptId, sequence);
+        return true;
+    }
+
+    private static long maxAccepted(long maxSequence, Long sequence) {
+        return sequence != null ? Math.max(maxSequence, sequence) : maxSequence;
+    }
+
+    private static List<Integer> fillCoalescedResults(
+        EventLogBatchItemResult[] results,
+        List<Integer> indexes,
+        int[] rowBySource,
+        int rowCount
+    ) {
+        final Integer[] rowIndexes = new Integer[rowCount];
+
+        for (int i = 0; i < indexes.size(); i++) {
+            final int index = indexes.get(i);
+            final int row = rowBySource[i];
+
+            if (rowIndexes[row] == null) {
+                rowIndexes[row] = index;
+            } else {
+                results[index] = new EventLogBatchItemResult(index, EventLogBatchItemStatus.COALESCED, null);
+            }
+        }
+
+        return Arrays.asList(rowIndexes);
+    }
+
+    private static int fillInsertResults(
+        EventLogBatchItemResult[] results,
+        List<Integer> indexes,
+        boolean[] inserted
+    ) {
+        int saved = 0;
+
+        for (int i = 0; i < indexes.size(); i++) {
+            final int index = indexes.get(i);
+
+            if (inserted[i]) {
+                results[index] = new EventLogBatchItemResult(index, EventLogBatchItemStatus.SAVED, null);
+                saved++;
+            } else {
+                results[index] = new EventLogBatchItemResult(
+                    index,
+                    EventLogBatchItemStatus.DUPLICATE,
+                    "Event has already been logged"
+                );
+            }
+        }
+
+        return saved;
     }
 }
@@ -0,0 +1,461 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.config.EventLogWriteBehindProperties;
+import com.pocopi.api.exception.HttpException;
+import com.pocopi.api.models.test.TestOptionEventType;
+import com.pocopi.api.repositories.UserTestLogBatchRepository;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.OptionLogRow;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.QuestionLogRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Service
+public class EventLogWriteBuffer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLogWriteBuffer.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String DEAD_LETTER_FILE = "dead-letter.log";
+    private static final String OPTION_RECORD = "O";
+    private static final String QUESTION_RECORD = "Q";
+
+    private final EventLogWriteBehindProperties properties;
+    private final UserTestLogBatchRepository userTestLogBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushRequested = lock.newCondition();
+    private final Semaphore capacity;
+
+    private ArrayList<OptionLogRow> pendingOptionLogs = new ArrayList<>();
+    private ArrayList<QuestionLogRow> pendingQuestionLogs = new ArrayList<>();
+    private long segmentIndex = 0;
+    private Path segmentPath;
+    private FileChannel segmentChannel;
+    private Thread flusher;
+    private volatile boolean running = false;
+
+    public EventLogWriteBuffer(
+        EventLogWriteBehindProperties properties,
+        UserTestLogBatchRepository userTestLogBatchRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.properties = properties;
+        this.userTestLogBatchRepository = userTestLogBatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = new Semaphore(properties.getQueueCapacity());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        final Path spoolDirectory = Paths.get(properties.getSpoolPath());
+        Files.createDirectories(spoolDirectory);
+
+        for (final Path segment : listSegments(spoolDirectory)) {
+            segmentIndex = Math.max(segmentIndex, parseSegmentIndex(segment));
+            replaySegment(segment);
+        }
+
+        openNextSegment();
+
+        running = true;
+        flusher = Thread.ofPlatform().name("event-log-flusher").start(this::runFlusher);
+
+        LOGGER.info("Event log write-behind buffer started with spool at {}", spoolDirectory.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!running) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            running = false;
+            flushRequested.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        flusher.join();
+
+        segmentChannel.close();
+        Files.deleteIfExists(segmentPath);
+    }
+
+    public void enqueue(List<OptionLogRow> optionLogs, List<QuestionLogRow> questionLogs) {
+        final int count = optionLogs.size() + questionLogs.size();
+
+        if (count == 0) {
+            return;
+        }
+
+        if (!running) {
+            throw HttpException.internalServerError("Event log write-behind buffer is not running");
+        }
+
+        if (count > properties.getQueueCapacity()) {
+            throw HttpException.payloadTooLarge(
+                "Cannot enqueue more than " + properties.getQueueCapacity() + " events at once"
+            );
+        }
+
+        try {
+            if (!capacity.tryAcquire(count, properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw HttpException.tooManyRequests("Event log queue is full, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HttpException.tooManyRequests("Event log queue is full, try again later");
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            spool(optionLogs, questionLogs, count);
+            return;
+        }
+
+        // spooling right before commit keeps events of a rolled back request out of the spool, and a failed write
+        // still rolls the request back, so the client's retry isn't dropped as a replay of events that were lost
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean spoolAttempted = false;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                spoolAttempted = true;
+                spool(optionLogs, questionLogs, count);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // a failed spool write already released it
+                if (!spoolAttempted) {
+                    capacity.release(count);
+                }
+            }
+        });
+    }
+
+    private void spool(List<OptionLogRow> optionLogs, List<QuestionLogRow> questionLogs, int count) {
+        lock.lock();
+        try {
+            appendToSpool(optionLogs, questionLogs);
+
+            pendingOptionLogs.addAll(optionLogs);
+            pendingQuestionLogs.addAll(questionLogs);
+
+            if (pendingCount() >= properties.getFlushSize()) {
+                flushRequested.signal();
+            }
+        } catch (IOException e) {
+            capacity.release(count);
+            LOGGER.error("Could not write event logs to spool", e);
+            throw HttpException.internalServerError("Could not write event logs to spool", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            final List<OptionLogRow> optionLogs;
+            final List<QuestionLogRow> questionLogs;
+            final Path flushedSegment;
+
+            lock.lock();
+            try {
+                if (running && pendingCount() < properties.getFlushSize()) {
+                    flushRequested.await(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+                }
+
+                if (pendingCount() == 0) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+
+                flushedSegment = segmentPath;
+                segmentChannel.close();
+                openNextSegment();
+
+                optionLogs = pendingOptionLogs;
+                questionLogs = pendingQuestionLogs;
+                pendingOptionLogs = new ArrayList<>();
+                pendingQuestionLogs = new ArrayList<>();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                LOGGER.error("Could not rotate event log spool segment", e);
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            if (!writeUntilPersisted(optionLogs, questionLogs)) {
+                LOGGER.warn("Keeping unflushed event logs in spool segment {}", flushedSegment);
+                continue;
+            }
+
+            try {
+                Files.deleteIfExists(flushedSegment);
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete flushed spool segment {}", flushedSegment, e);
+            }
+
+            capacity.release(optionLogs.size() + questionLogs.size());
+        }
+    }
+
+    private boolean writeUntilPersisted(List<OptionLogRow> optionLogs, List<QuestionLogRow> questionLogs) {
+        while (true) {
+            try {
+                persist(optionLogs, questionLogs);
+                return true;
+            } catch (TransientDataAccessException
+                     | DataAccessResourceFailureException
+                     | CannotCreateTransactionException e) {
+                LOGGER.warn("Could not flush event logs, retrying", e);
+
+                if (!running) {
+                    return false;
+                }
+
+                try {
+                    Thread.sleep(properties.getFlushInterval().toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            } catch (DataAccessException e) {
+                LOGGER.error("Could not flush event logs batch, falling back to single inserts", e);
+                return persistIndividually(optionLogs, questionLogs);
+            }
+        }
+    }
+
+    private void persist(List<OptionLogRow> optionLogs, List<QuestionLogRow> questionLogs) {
+        final int flushSize = properties.getFlushSize();
+
+        for (int i = 0; i < optionLogs.size(); i += flushSize) {
+            final List<OptionLogRow> chunk = optionLogs.subList(i, Math.min(i + flushSize, optionLogs.size()));
+            transactionTemplate.executeWithoutResult(status -> userTestLogBatchRepository.insertOptionLogs(chunk));
+        }
+
+        for (int i = 0; i < questionLogs.size(); i += flushSize) {
+            final List<QuestionLogRow> chunk = questionLogs.subList(i, Math.min(i + flushSize, questionLogs.size()));
+            transactionTemplate.executeWithoutResult(status -> userTestLogBatchRepository.insertQuestionLogs(chunk));
+        }
+    }
+
+    /**
+     * Inserts the rows one by one and moves the ones that still fail to the dead-letter file next to the spool
+     * segments, where they are kept for manual recovery instead of being replayed. Returns false when even that file
+     * can't be written, so the caller keeps the whole segment.
+     */
+    private boolean persistIndividually(List<OptionLogRow> optionLogs, List<QuestionLogRow> questionLogs) {
+        final List<OptionLogRow> failedOptionLogs = new ArrayList<>();
+        final List<QuestionLogRow> failedQuestionLogs = new ArrayList<>();
+
+        for (final OptionLogRow row : optionLogs) {
+            try {
+                userTestLogBatchRepository.insertOptionLogs(List.of(row));
+            } catch (DataAccessException e) {
+                LOGGER.error("Could not insert option event log {}, moving it to the dead-letter file", row, e);
+                failedOptionLogs.add(row);
+            }
+        }
+
+        for (final QuestionLogRow row : questionLogs) {
+            try {
+                userTestLogBatchRepository.insertQuestionLogs(List.of(row));
+            } catch (DataAccessException e) {
+                LOGGER.error("Could not insert question event log {}, moving it to the dead-letter file", row, e);
+                failedQuestionLogs.add(row);
+            }
+        }
+
+        if (failedOptionLogs.isEmpty() && failedQuestionLogs.isEmpty()) {
+            return true;
+        }
+
+        final Path deadLetterPath = Paths.get(properties.getSpoolPath(), DEAD_LETTER_FILE);
+
+        try (final FileChannel deadLetter = FileChannel.open(
+            deadLetterPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND
+        )) {
+            writeRecords(deadLetter, failedOptionLogs, failedQuestionLogs);
+            deadLetter.force(false);
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Could not write event logs to dead-letter file {}", deadLetterPath, e);
+            return false;
+        }
+    }
+
+    private int pendingCount() {
+        return pendingOptionLogs.size() + pendingQuestionLogs.size();
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentIndex++;
+        segmentPath = Paths.get(properties.getSpoolPath(), String.format(
+            "%s%019d%s",
+            SEGMENT_PREFIX,
+            segmentIndex,
+            SEGMENT_SUFFIX
+        ));
+        segmentChannel = FileChannel.open(
+            segmentPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND
+        );
+    }
+
+    private void appendToSpool(List<OptionLogRow> optionLogs, List<QuestionLogRow> questionLogs) throws IOException {
+        writeRecords(segmentChannel, optionLogs, questionLogs);
+
+        if (properties.isSpoolSync()) {
+            segmentChannel.force(false);
+        }
+    }
+
+    private static void writeRecords(
+        FileChannel channel,
+        List<OptionLogRow> optionLogs,
+        List<QuestionLogRow> questionLogs
+    ) throws IOException {
+        final StringBuilder lines = new StringBuilder();
+
+        for (final OptionLogRow row : optionLogs) {
+            lines.append(OPTION_RECORD).append(',')
+                .append(row.attemptId()).append(',')
+                .append(row.optionId()).append(',')
+                .append(row.type().getName()).append(',')
+                .append(row.timestamp().toEpochMilli()).append(',')
+                .append(row.x()).append(',')
+                .append(row.y()).append(',')
+                .append(row.hoverCount()).append(',')
+                .append(row.dwell()).append('\n');
+        }
+
+        for (final QuestionLogRow row : questionLogs) {
+            lines.append(QUESTION_RECORD).append(',')
+                .append(row.attemptId()).append(',')
+                .append(row.questionId()).append(',')
+                .append(row.timestamp().toEpochMilli()).append(',')
+                .append(row.duration()).append('\n');
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void replaySegment(Path segment) throws IOException {
+        final List<OptionLogRow> optionLogs = new ArrayList<>();
+        final List<QuestionLogRow> questionLogs = new ArrayList<>();
+
+        final String content = Files.readString(segment, StandardCharsets.UTF_8);
+        // a crash mid-append can leave an unterminated last record, which is never acknowledged
+        final String completeRecords = content.substring(0, content.lastIndexOf('\n') + 1);
+
+        for (final String line : completeRecords.lines().toList()) {
+            try {
+                final String[] fields = line.split(",");
+
+                switch (fields[0]) {
+                    case OPTION_RECORD -> optionLogs.add(new OptionLogRow(
+                        Long.parseLong(fields[1]),
+                        Integer.parseInt(fields[2]),
+                        TestOptionEventType.fromValue(fields[3]),
+                        Instant.ofEpochMilli(Long.parseLong(fields[4])),
+                        Byte.parseByte(fields[5]),
+                        Byte.parseByte(fields[6]),
+                        // segments spooled before hover coalescing have no count or dwell
+                        fields.length > 7 ? Integer.parseInt(fields[7]) : 1,
+                        fields.length > 8 ? Integer.parseInt(fields[8]) : 0
+                    ));
+                    case QUESTION_RECORD -> questionLogs.add(new QuestionLogRow(
+                        Long.parseLong(fields[1]),
+                        Integer.parseInt(fields[2]),
+                        Instant.ofEpochMilli(Long.parseLong(fields[3])),
+                        Integer.parseInt(fields[4])
+                    ));
+                    default -> throw new IllegalArgumentException("Unknown record type " + fields[0]);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Skipping malformed spool record in {}: {}", segment, line);
+            }
+        }
+
+        if (!writeUntilPersisted(optionLogs, questionLogs)) {
+            return;
+        }
+
+        Files.deleteIfExists(segment);
+
+        LOGGER.info("Replayed {} event logs from spool segment {}", optionLogs.size() + questionLogs.size(), segment);
+    }
+
+    private static List<Path> listSegments(Path spoolDirectory) throws IOException {
+        try (final Stream<Path> files = Files.list(spoolDirectory)) {
+            return files
+                .filter(file -> {
+                    final String name = file.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted(Comparator.comparingLong(EventLogWriteBuffer::parseSegmentIndex))
+                .toList();
+        }
+    }
+
+    private static long parseSegmentIndex(Path segment) {
+        final String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
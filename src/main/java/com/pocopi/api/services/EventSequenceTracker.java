@@ -0,0 +1,52 @@
+package com.pocopi.api.services;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the highest client sequence number persisted for each active attempt, so retried events can be dropped
+ * before reaching the database. Marks only advance after the transaction that stored the events commits; after a
+ * restart the unique keys on the log tables still reject any replay.
+ */
+@Service
+public class EventSequenceTracker {
+    private final ConcurrentHashMap<Long, AtomicLong> highWaterMarks = new ConcurrentHashMap<>();
+
+    public long getHighWaterMark(long attemptId) {
+        final AtomicLong highWaterMark = highWaterMarks.get(attemptId);
+        return highWaterMark != null ? highWaterMark.get() : 0;
+    }
+
+    public void advance(long attemptId, long sequence) {
+        runAfterCommit(() -> highWaterMarks
+            .computeIfAbsent(attemptId, id -> new AtomicLong(0))
+            .accumulateAndGet(sequence, Math::max)
+        );
+    }
+
+    public void forget(long attemptId) {
+        runAfterCommit(() -> highWaterMarks.remove(attemptId));
+    }
+
+    public int size() {
+        return highWaterMarks.size();
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
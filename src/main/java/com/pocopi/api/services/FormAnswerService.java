@@ -10,6 +10,8 @@ import com.pocopi.api.models.form.*;
 import com.pocopi.api.models.test.UserTestAttemptModel;
 import com.pocopi.api.repositories.*;
 import com.pocopi.api.repositories.projections.UserFormAnswerProjection;
+import com.pocopi.api.repositories.projections.UserFormAnswerWithUserIdProjection;
+import com.pocopi.api.services.ActiveAttemptRegistry.ActiveAttempt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,30 +20,30 @@ import java.util.*;
 
 @Service
 public class FormAnswerService {
-    private final ConfigRepository configRepository;
     private final FormRepository formRepository;
     private final FormQuestionRepository formQuestionRepository;
     private final FormQuestionOptionRepository formQuestionOptionRepository;
     private final UserFormSubmissionRepository userFormSubmissionRepository;
     private final UserFormAnswerRepository userFormAnswerRepository;
     private final UserTestAttemptRepository userTestAttemptRepository;
+    private final ActiveAttemptRegistry activeAttemptRegistry;
 
     public FormAnswerService(
-        ConfigRepository configRepository,
         FormRepository formRepository,
         FormQuestionRepository formQuestionRepository,
         FormQuestionOptionRepository formQuestionOptionRepository,
         UserFormSubmissionRepository userFormSubmissionRepository,
         UserFormAnswerRepository userFormAnswerRepository,
-        UserTestAttemptRepository userTestAttemptRepository
+        UserTestAttemptRepository userTestAttemptRepository,
+        ActiveAttemptRegistry activeAttemptRegistry
     ) {
-        this.configRepository = configRepository;
         this.formRepository = formRepository;
         this.formQuestionRepository = formQuestionRepository;
         this.formQuestionOptionRepository = formQuestionOptionRepository;
         this.userFormSubmissionRepository = userFormSubmissionRepository;
         this.userFormAnswerRepository = userFormAnswerRepository;
         this.userTestAttemptRepository = userTestAttemptRepository;
+        this.activeAttemptRegistry = activeAttemptRegistry;
     }
 
     @Transactional
@@ -50,6 +52,35 @@ public class FormAnswerService {
         return parseFormAnswerProjections(userFormAnswers);
     }
 
+    /**
+     * Form answers of several users, loaded with a single query.
+     *
+     * @return the answers keyed by user id, without entries for users who have none
+     */
+    @Transactional
+    public Map<Integer, List<FormSubmissionsByConfig>> getUsersFormAnswers(List<Integer> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        final HashMap<Integer, List<UserFormAnswerProjection>> userFormAnswersByUser = new HashMap<>();
+
+        for (final UserFormAnswerWithUserIdProjection userFormAnswer : userFormAnswerRepository
+            .findAllByUserIds(userIds)
+        ) {
+            userFormAnswersByUser.computeIfAbsent(userFormAnswer.getUserId(), id -> new ArrayList<>())
+                .add(userFormAnswer);
+        }
+
+        final HashMap<Integer, List<FormSubmissionsByConfig>> formAnswersByUser = new HashMap<>();
+
+        userFormAnswersByUser.forEach((userId, userFormAnswers) ->
+            formAnswersByUser.put(userId, parseFormAnswerProjections(userFormAnswers))
+        );
+
+        return formAnswersByUser;
+    }
+
     @Transactional
     public List<FormSubmissionsByConfig> getAttemptFormAnswers(long attemptId) {
         final List<UserFormAnswerProjection> userFormAnswers = userFormAnswerRepository.findAllByAttemptId(attemptId);
@@ -58,11 +89,11 @@ public class FormAnswerService {
 
     @Transactional
     public void saveUserFormAnswers(int userId, FormType formType, NewFormAnswers formAnswers) {
-        final int configVersion = configRepository.getLastConfig().getVersion();
+        final ActiveAttempt activeAttempt = activeAttemptRegistry.getVerified(userId);
+        final int configVersion = activeAttempt.configVersion();
 
         final UserTestAttemptModel unfinishedAttempt = userTestAttemptRepository
-            .findUnfinishedAttempt(configVersion, userId)
-            .orElseThrow(() -> HttpException.notFound("User has not started an attempt yet"));
+            .getReferenceById(activeAttempt.attemptId());
 
         final FormModel form = formRepository.findByTypeAndConfigVersion(formType, configVersion)
             .orElseThrow(() -> HttpException.notFound("Form of type " + formType + " not found"));
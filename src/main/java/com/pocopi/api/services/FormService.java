@@ -49,37 +49,50 @@ public class FormService {
 
     @Transactional
     public Map<FormType, Form> getFormsByConfigVersion(int configVersion) {
-        final Map<FormType, Form> formsMap = formRepository.findAllByConfigVersion(configVersion).stream()
+        final FormRows rows = loadFormRows(configVersion);
+        return buildForms(rows, imageService.getImagesByIds(rows.imageIds()));
+    }
+
+    /**
+     * Loads both forms of a config along with all their questions, options and slider labels, with one query per
+     * table.
+     */
+    public FormRows loadFormRows(int configVersion) {
+        final List<FormModel> formsList = formRepository.findAllByConfigVersion(configVersion);
+
+        if (formsList.isEmpty()) {
+            return new FormRows(List.of(), List.of(), List.of(), List.of());
+        }
+
+        return new FormRows(
+            formsList,
+            formQuestionRepository.findAllByFormConfigVersionOrderByOrder(configVersion),
+            formQuestionOptionRepository.findAllByFormQuestionFormConfigVersionOrderByOrder(configVersion),
+            formQuestionSliderLabelRepository.findAllByFormQuestionFormConfigVersion(configVersion)
+        );
+    }
+
+    public Map<FormType, Form> buildForms(FormRows rows, Map<Integer, Image> images) {
+        final Map<FormType, Form> formsMap = rows.forms().stream()
             .collect(Collectors.toMap(
                 FormModel::getType,
                 (form) -> new Form(form.getId(), new ArrayList<>()),
                 (a, b) -> b
             ));
 
-        if (formsMap.isEmpty()) {
-            return formsMap;
-        }
-
-        final List<FormQuestionModel> questionsList = formQuestionRepository
-            .findAllByFormConfigVersionOrderByOrder(configVersion);
-        final List<FormQuestionOptionModel> optionsList = formQuestionOptionRepository
-            .findAllByFormQuestionFormConfigVersionOrderByOrder(configVersion);
-        final List<FormQuestionSliderLabelModel> sliderLabelsList = formQuestionSliderLabelRepository
-            .findAllByFormQuestionFormConfigVersion(configVersion);
-
         final HashMap<Integer, FormQuestion> questionsMap = new HashMap<>();
 
-        for (final FormQuestionModel questionModel : questionsList) {
-            final FormQuestion question = parseFormQuestion(questionModel);
+        for (final FormQuestionModel questionModel : rows.questions()) {
+            final FormQuestion question = parseFormQuestion(questionModel, images);
             questionsMap.put(questionModel.getId(), question);
 
             final Form form = formsMap.get(questionModel.getForm().getType());
             form.questions().add(question);
         }
 
-        for (final FormQuestionOptionModel optionModel : optionsList) {
+        for (final FormQuestionOptionModel optionModel : rows.options()) {
             final Image optionImage = optionModel.getImage() != null
-                ? imageService.getImageById(optionModel.getImage().getId())
+                ? images.get(optionModel.getImage().getId())
                 : null;
 
             final FormOption option = new FormOption(optionModel.getId(), optionModel.getText(), optionImage);
@@ -95,7 +108,7 @@ public class FormService {
             }
         }
 
-        for (final FormQuestionSliderLabelModel sliderLabelModel : sliderLabelsList) {
+        for (final FormQuestionSliderLabelModel sliderLabelModel : rows.sliderLabels()) {
             final SliderLabel sliderLabel = new SliderLabel(
                 sliderLabelModel.getId(),
                 sliderLabelModel.getNumber(),
@@ -114,22 +127,6 @@ public class FormService {
         return formsMap;
     }
 
-    @Transactional
-    public void cloneForms(int originalConfigVersion, ConfigModel config) {
-        final List<FormModel> forms = formRepository.findAllByConfigVersion(originalConfigVersion);
-
-        for (final FormModel form : forms) {
-            final FormModel newForm = formRepository.save(FormModel.builder()
-                .config(config)
-                .type(form.getType())
-                .title(form.getTitle())
-                .build()
-            );
-
-            formQuestionService.cloneQuestions(form.getId(), newForm);
-        }
-    }
-
     @Transactional
     public boolean updateForm(
         ConfigModel config,
@@ -301,9 +298,9 @@ public class FormService {
         return modified.get();
     }
 
-    private FormQuestion parseFormQuestion(FormQuestionModel questionModel) {
+    private FormQuestion parseFormQuestion(FormQuestionModel questionModel, Map<Integer, Image> images) {
         final Image questionImage = questionModel.getImage() != null
-            ? imageService.getImageById(questionModel.getImage().getId())
+            ? images.get(questionModel.getImage().getId())
             : null;
 
         final FormQuestion question;
@@ -370,4 +367,29 @@ public class FormService {
 
         return question;
     }
+
+    public record FormRows(
+        List<FormModel> forms,
+        List<FormQuestionModel> questions,
+        List<FormQuestionOptionModel> options,
+        List<FormQuestionSliderLabelModel> sliderLabels
+    ) {
+        public List<Integer> imageIds() {
+            final ArrayList<Integer> imageIds = new ArrayList<>();
+
+            for (final FormQuestionModel questionModel : questions) {
+                if (questionModel.getImage() != null) {
+                    imageIds.add(questionModel.getImage().getId());
+                }
+            }
+
+            for (final FormQuestionOptionModel optionModel : options) {
+                if (optionModel.getImage() != null) {
+                    imageIds.add(optionModel.getImage().getId());
+                }
+            }
+
+            return imageIds;
+        }
+    }
 }
@@ -0,0 +1,118 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.dto.config.*;
+import com.pocopi.api.dto.form.Form;
+import com.pocopi.api.dto.test.TestGroup;
+import com.pocopi.api.models.config.ConfigModel;
+import com.pocopi.api.models.config.HomeInfoCardModel;
+import com.pocopi.api.models.form.FormType;
+import com.pocopi.api.repositories.ConfigRepository;
+import com.pocopi.api.repositories.HomeInfoCardRepository;
+import com.pocopi.api.services.FormService.FormRows;
+import com.pocopi.api.services.TestGroupService.GroupRows;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds the {@link FullConfig} shown in the admin editor. Every table of the config tree is read with a single
+ * set-based query and all of its images are resolved at once, so the number of statements doesn't grow with the
+ * amount of groups, questions or options.
+ */
+@Service
+public class FullConfigLoader {
+    private final ConfigRepository configRepository;
+    private final TranslationService translationService;
+    private final FormService formService;
+    private final TestGroupService testGroupService;
+    private final HomeInfoCardRepository homeInfoCardRepository;
+    private final HomeInfoCardService homeInfoCardService;
+    private final HomeFaqService homeFaqService;
+    private final ImageService imageService;
+
+    public FullConfigLoader(
+        ConfigRepository configRepository,
+        TranslationService translationService,
+        FormService formService,
+        TestGroupService testGroupService,
+        HomeInfoCardRepository homeInfoCardRepository,
+        HomeInfoCardService homeInfoCardService,
+        HomeFaqService homeFaqService,
+        ImageService imageService
+    ) {
+        this.configRepository = configRepository;
+        this.translationService = translationService;
+        this.formService = formService;
+        this.testGroupService = testGroupService;
+        this.homeInfoCardRepository = homeInfoCardRepository;
+        this.homeInfoCardService = homeInfoCardService;
+        this.homeFaqService = homeFaqService;
+        this.imageService = imageService;
+    }
+
+    @Transactional
+    public Optional<FullConfig> load(int version) {
+        final Optional<ConfigModel> config = configRepository.findWithUsernamePatternByVersion(version);
+
+        if (config.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final ConfigModel configModel = config.get();
+
+        final FormRows formRows = formService.loadFormRows(version);
+        final GroupRows groupRows = testGroupService.loadGroupRows(version);
+        final List<HomeInfoCardModel> cards = homeInfoCardRepository.findAllByConfigVersion(version);
+
+        final ArrayList<Integer> imageIds = new ArrayList<>();
+
+        if (configModel.getIcon() != null) {
+            imageIds.add(configModel.getIcon().getId());
+        }
+
+        imageIds.addAll(formRows.imageIds());
+        imageIds.addAll(groupRows.imageIds());
+        imageIds.addAll(homeInfoCardService.getIconIds(cards));
+
+        final Map<Integer, Image> images = imageService.getImagesByIds(imageIds);
+
+        final Image icon = configModel.getIcon() != null
+            ? images.get(configModel.getIcon().getId())
+            : null;
+
+        final Pattern usernamePattern = configModel.getUsernamePattern() != null ? new Pattern(
+            configModel.getUsernamePattern().getId(),
+            configModel.getUsernamePattern().getName(),
+            configModel.getUsernamePattern().getRegex()
+        ) : null;
+
+        final Map<FormType, Form> forms = formService.buildForms(formRows, images);
+        final List<TestGroup> groups = testGroupService.buildGroups(groupRows, images);
+        final List<InformationCard> informationCards = homeInfoCardService.buildCards(cards, images);
+
+        final List<FrequentlyAskedQuestion> frequentlyAskedQuestions = homeFaqService.getFaqsByConfigVersion(version);
+        final List<Translation> translations = translationService.getAllTranslations(version);
+
+        return Optional.of(new FullConfig(
+            version,
+            icon,
+            configModel.getTitle(),
+            configModel.getSubtitle(),
+            configModel.getDescription(),
+            configModel.isAnonymous(),
+            usernamePattern,
+            configModel.getTimer(),
+            informationCards,
+            configModel.getInformedConsent(),
+            frequentlyAskedQuestions,
+            forms.get(FormType.PRE),
+            forms.get(FormType.POST),
+            groups,
+            translations
+        ));
+    }
+}
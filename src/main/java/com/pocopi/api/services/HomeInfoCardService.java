@@ -27,12 +27,22 @@ public class HomeInfoCardService {
     }
 
     public List<InformationCard> getCardsByConfigVersion(int configVersion) {
-        return homeInfoCardRepository
-            .findAllByConfigVersion(configVersion)
-            .stream()
+        final List<HomeInfoCardModel> cards = homeInfoCardRepository.findAllByConfigVersion(configVersion);
+        return buildCards(cards, imageService.getImagesByIds(getIconIds(cards)));
+    }
+
+    public List<Integer> getIconIds(List<HomeInfoCardModel> cards) {
+        return cards.stream()
+            .filter(card -> card.getIcon() != null)
+            .map(card -> card.getIcon().getId())
+            .toList();
+    }
+
+    public List<InformationCard> buildCards(List<HomeInfoCardModel> cards, Map<Integer, Image> icons) {
+        return cards.stream()
             .map(card -> {
                 final Image iconByInfoCard = card.getIcon() != null
-                    ? imageService.getImageById(card.getIcon().getId())
+                    ? icons.get(card.getIcon().getId())
                     : null;
 
                 return new InformationCard(
@@ -46,27 +56,6 @@ public class HomeInfoCardService {
             .collect(Collectors.toList());
     }
 
-    @Transactional
-    public void cloneCards(int originalConfigVersion, ConfigModel config) {
-        final List<HomeInfoCardModel> cards = homeInfoCardRepository
-            .findAllByConfigVersion(originalConfigVersion);
-
-        for (final HomeInfoCardModel card : cards) {
-            final ImageModel newIcon = card.getIcon() != null ? imageService.cloneImage(card.getIcon()) : null;
-
-            final HomeInfoCardModel newCard = HomeInfoCardModel.builder()
-                .config(config)
-                .order(card.getOrder())
-                .title(card.getTitle())
-                .description(card.getDescription())
-                .icon(newIcon)
-                .color(card.getColor())
-                .build();
-
-            homeInfoCardRepository.save(newCard);
-        }
-    }
-
     @Transactional
     public boolean updateCards(
         ConfigModel config,
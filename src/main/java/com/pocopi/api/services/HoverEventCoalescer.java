@@ -0,0 +1,90 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.config.EventLogIngestionProperties;
+import com.pocopi.api.models.test.TestOptionEventType;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.OptionLogRow;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+public class HoverEventCoalescer {
+    private final EventLogIngestionProperties properties;
+
+    public HoverEventCoalescer(EventLogIngestionProperties properties) {
+        this.properties = properties;
+    }
+
+    public CoalescedOptionLogs coalesce(List<OptionLogRow> rows) {
+        final int[] rowBySource = new int[rows.size()];
+
+        if (!properties.isHoverCoalescingEnabled()) {
+            Arrays.setAll(rowBySource, i -> i);
+            return new CoalescedOptionLogs(rows, rowBySource);
+        }
+
+        final long window = properties.getHoverCoalescingWindow().toMillis();
+
+        final Integer[] order = new Integer[rows.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(i -> rows.get(i).timestamp()));
+
+        final List<OptionLogRow> coalesced = new ArrayList<>(rows.size());
+        final HashMap<Long, Burst> openBursts = new HashMap<>();
+
+        for (final int source : order) {
+            final OptionLogRow row = rows.get(source);
+
+            if (row.type() != TestOptionEventType.HOVER) {
+                openBursts.remove(row.attemptId());
+                rowBySource[source] = coalesced.size();
+                coalesced.add(row);
+                continue;
+            }
+
+            final long start = row.timestamp().toEpochMilli();
+            final Burst burst = openBursts.get(row.attemptId());
+
+            if (burst != null && burst.optionId == row.optionId() && start - burst.lastHover <= window) {
+                final OptionLogRow head = coalesced.get(burst.row);
+                final long end = Math.max(burst.lastHover, start + row.dwell());
+
+                coalesced.set(burst.row, new OptionLogRow(
+                    head.attemptId(),
+                    head.optionId(),
+                    head.type(),
+                    head.timestamp(),
+                    head.x(),
+                    head.y(),
+                    head.hoverCount() + row.hoverCount(),
+                    (int) (end - head.timestamp().toEpochMilli())
+                ));
+
+                burst.lastHover = end;
+                rowBySource[source] = burst.row;
+                continue;
+            }
+
+            openBursts.put(row.attemptId(), new Burst(coalesced.size(), row.optionId(), start + row.dwell()));
+            rowBySource[source] = coalesced.size();
+            coalesced.add(row);
+        }
+
+        return new CoalescedOptionLogs(coalesced, rowBySource);
+    }
+
+    private static final class Burst {
+        private final int row;
+        private final int optionId;
+        private long lastHover;
+
+        private Burst(int row, int optionId, long lastHover) {
+            this.row = row;
+            this.optionId = optionId;
+            this.lastHover = lastHover;
+        }
+    }
+
+    public record CoalescedOptionLogs(List<OptionLogRow> rows, int[] rowBySource) {
+    }
+}
@@ -0,0 +1,262 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.config.ImageConfig;
+import com.pocopi.api.repositories.ImageBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content addressed storage for image files. Every distinct file is kept once under {@code .blobs}, named by the
+ * SHA-256 of its contents, and the public path of each image is a hard link to its blob. Image rows reference their
+ * blob through {@code image.blob_hash}, and {@code image_blob.ref_count} tracks how many of them do.
+ * <p>
+ * The blob row is the lock that keeps writes and deletes of the same file apart: a write takes its reference before
+ * checking whether the file exists, and the last release only deletes the file while holding the deleted row.
+ */
+@Service
+public class ImageBlobStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageBlobStore.class);
+
+    static final String BLOBS_DIR = ".blobs";
+    static final String TMP_DIR = "tmp";
+    static final String VARIANTS_DIR = "variants";
+
+    private final ImageConfig imageConfig;
+    private final ImageBlobRepository imageBlobRepository;
+    private final TransactionTemplate deleteTransaction;
+
+    public ImageBlobStore(
+        ImageConfig imageConfig,
+        ImageBlobRepository imageBlobRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.imageConfig = imageConfig;
+        this.imageBlobRepository = imageBlobRepository;
+        this.deleteTransaction = new TransactionTemplate(transactionManager);
+        // runs from afterCommit, where the finished transaction's resources are still bound
+        this.deleteTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Streams the input into a temporary file, hashing it on the way, takes a reference to the blob and atomically
+     * moves the file into place. Nothing is kept if a blob with the same contents already exists. The reference is
+     * dropped again if the transaction rolls back, otherwise it has to be released once the image stops using it.
+     */
+    public StoredBlob write(InputStream input) throws IOException {
+        final Path tmpDir = blobsRoot().resolve(TMP_DIR);
+        Files.createDirectories(tmpDir);
+
+        final Path tmpFile = Files.createTempFile(tmpDir, "upload", ".tmp");
+        final MessageDigest digest = newDigest();
+        final long size;
+
+        try (
+            final DigestInputStream digestInput = new DigestInputStream(input, digest);
+            final OutputStream output = Files.newOutputStream(tmpFile)
+        ) {
+            size = digestInput.transferTo(output);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+
+        final String hash = HexFormat.of().formatHex(digest.digest());
+        final Path blobPath = blobPath(hash);
+
+        try {
+            // locks the blob row, so a release that already checked the file can't delete it after the check below
+            imageBlobRepository.acquire(hash, size);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+
+        if (Files.exists(blobPath)) {
+            Files.deleteIfExists(tmpFile);
+        } else {
+            Files.createDirectories(blobPath.getParent());
+            Files.move(tmpFile, blobPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        return new StoredBlob(hash, size);
+    }
+
+    public String hash(Path file) throws IOException {
+        final MessageDigest digest = newDigest();
+
+        try (final DigestInputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Makes the blob available at {@code target}, which is where the image is served from.
+     */
+    public void link(String hash, Path target) throws IOException {
+        linkOrCopy(blobPath(hash), target);
+    }
+
+    public Path blobFile(String hash) {
+        return blobPath(hash);
+    }
+
+    /**
+     * Where the downscaled copy of the blob with the given width is served from. Variants belong to the blob rather
+     * than to an image row, so every image sharing the blob shares its variants too.
+     */
+    public Path variantFile(String hash, int width, String format) {
+        return variantsDir(hash).resolve(variantFileName(hash, width, format));
+    }
+
+    /**
+     * Writes a variant into a temporary file next to its final location and atomically moves it into place, so a
+     * half written variant is never served.
+     */
+    public void writeVariant(String hash, int width, String format, RenderedImage image) throws IOException {
+        final Path target = variantFile(hash, width, format);
+        Files.createDirectories(target.getParent());
+
+        final Path tmpFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+        try {
+            if (!ImageIO.write(image, format.equals("jpg") ? "jpeg" : format, tmpFile.toFile())) {
+                throw new IOException("No image writer for " + format);
+            }
+
+            Files.move(tmpFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+    }
+
+    public void addReference(String hash) {
+        imageBlobRepository.addReference(hash);
+    }
+
+    /**
+     * Drops a reference to the blob. Once the last one is gone the blob is deleted, after the transaction commits if
+     * there is one, unless a concurrent write referenced it again in the meantime.
+     */
+    public void release(String hash) {
+        if (!imageBlobRepository.release(hash)) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteIfUnreferenced(hash);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteIfUnreferenced(hash);
+            }
+        });
+    }
+
+    public static String variantPath(String hash, int width, String format) {
+        return "images/" + VARIANTS_DIR + "/" + hash.substring(0, 2) + "/" + variantFileName(hash, width, format);
+    }
+
+    public static void linkOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // no hard links on this file system, or the target is on another device
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path blobsRoot() {
+        return Paths.get(imageConfig.getBasePath(), BLOBS_DIR);
+    }
+
+    private Path blobPath(String hash) {
+        return blobsRoot().resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path variantsDir(String hash) {
+        return Paths.get(imageConfig.getBasePath(), VARIANTS_DIR, hash.substring(0, 2));
+    }
+
+    private static String variantFileName(String hash, int width, String format) {
+        return hash + "_" + width + "w." + format;
+    }
+
+    /**
+     * Deletes the blob row and then its files in one transaction, so a write of the same contents waits on the row
+     * until the files are gone and then writes them again.
+     */
+    private void deleteIfUnreferenced(String hash) {
+        try {
+            deleteTransaction.executeWithoutResult(status -> {
+                if (imageBlobRepository.deleteUnreferenced(hash)) {
+                    deleteBlobFiles(hash);
+                }
+            });
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not delete image blob {}", hash, e);
+        }
+    }
+
+    private void deleteBlobFiles(String hash) {
+        final Path blobPath = blobPath(hash);
+
+        try {
+            Files.deleteIfExists(blobPath);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete image blob {}", blobPath, e);
+        }
+
+        final Path variantsDir = variantsDir(hash);
+
+        if (!Files.isDirectory(variantsDir)) {
+            return;
+        }
+
+        try (final DirectoryStream<Path> variants = Files.newDirectoryStream(variantsDir, hash + "_*")) {
+            for (final Path variant : variants) {
+                Files.deleteIfExists(variant);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete variants of image blob {}", hash, e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record StoredBlob(String hash, long size) {
+    }
+}
@@ -1,38 +1,53 @@
 package com.pocopi.api.services;
 
 import com.pocopi.api.config.ImageConfig;
+import com.pocopi.api.dto.cache.CacheStats;
 import com.pocopi.api.dto.config.Image;
 import com.pocopi.api.exception.HttpException;
 import com.pocopi.api.models.config.ImageModel;
 import com.pocopi.api.repositories.ImageRepository;
+import com.pocopi.api.services.ActiveConfigVersion.ConfigModifiedEvent;
+import com.pocopi.api.services.ImageBlobStore.StoredBlob;
 import org.apache.tika.Tika;
 import org.apache.tika.mime.MimeTypeException;
 import org.apache.tika.mime.MimeTypes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
-public class ImageService {
+public class ImageService implements CacheStatsSource {
     private static final Logger LOGGER = LoggerFactory.getLogger(ImageService.class);
 
     private static final int MAX_FILE_SIZE = 5_000_000;
     private static final String MAX_FILE_SIZE_STR = MAX_FILE_SIZE / 1_000_000 + " MB";
+    private static final int MAX_CACHED_IMAGES = 10_000;
     private static final Pattern FILE_TIMESTAMP_PATTERN = Pattern.compile("^\\d{8}_\\d{6}");
 
     private static final List<String> SUPPORTED_IMAGE_TYPES = List.of("image/gif", "image/png", "image/jpeg");
@@ -41,24 +56,41 @@ public class ImageService {
 
     private final ImageRepository imageRepository;
     private final ImageConfig imageConfig;
-
-    public ImageService(ImageRepository imageRepository, ImageConfig imageConfig) {
+    private final ImageBlobStore imageBlobStore;
+    private final ImageVariantGenerator imageVariantGenerator;
+
+    private final ImageCache cache = new ImageCache(MAX_CACHED_IMAGES);
+    private final AtomicLong invalidations = new AtomicLong(0);
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    public ImageService(
+        ImageRepository imageRepository,
+        ImageConfig imageConfig,
+        ImageBlobStore imageBlobStore,
+        ImageVariantGenerator imageVariantGenerator
+    ) {
         this.imageRepository = imageRepository;
         this.imageConfig = imageConfig;
+        this.imageBlobStore = imageBlobStore;
+        this.imageVariantGenerator = imageVariantGenerator;
     }
 
     public ImageModel saveImageFile(ImageCategory category, MultipartFile file, String alt) {
-        final String extension = validateFileAndGetExtension(file);
+        validateFile(file);
+
+        final UploadedImage upload = writeUpload(file);
+        final StoredBlob blob = upload.blob();
 
         final String relativePath = generateUniquePath(
             category.dir,
-            file.getOriginalFilename() != null ? file.getOriginalFilename() : "file" + extension
+            file.getOriginalFilename() != null ? file.getOriginalFilename() : "file" + upload.extension()
         );
         final Path fullPath = resolveFullPath(relativePath);
 
         try {
             createDirectoriesIfMissing(fullPath.getParent());
-            Files.write(fullPath, file.getBytes());
+            imageBlobStore.link(blob.hash(), fullPath);
         } catch (IOException e) {
             LOGGER.error("Could not save image file", e);
             throw HttpException.internalServerError("Could not save image file", e);
@@ -66,69 +98,110 @@ public class ImageService {
 
         final ImageModel imageModel = new ImageModel();
         imageModel.setPath(relativePath);
+        imageModel.setBlobHash(blob.hash());
         imageModel.setAlt(alt);
 
-        return imageRepository.save(imageModel);
+        final ImageModel savedImage = imageRepository.save(imageModel);
+        imageVariantGenerator.generateAfterCommit(blob.hash(), upload.mimeType());
+
+        return savedImage;
     }
 
     @Transactional
     public ImageModel cloneImage(ImageModel image) {
-        final Path oldPath = resolveFullPath(image.getPath());
-        final String newRelativePath = updatePathTimestamp(image.getPath());
-        final Path newPath = resolveFullPath(newRelativePath);
+        final String newRelativePath = cloneImageFiles(List.of(image.getPath())).getFirst();
 
         final ImageModel newImage = ImageModel.builder()
             .path(newRelativePath)
+            .blobHash(image.getBlobHash())
+            .width(image.getWidth())
+            .variantFormat(image.getVariantFormat())
             .alt(image.getAlt())
             .build();
 
+        if (image.getBlobHash() != null) {
+            imageBlobStore.addReference(image.getBlobHash());
+        }
+
+        return imageRepository.save(newImage);
+    }
+
+    /**
+     * Copies every given image file to a new unique path, returned in the same order. Copies are hard links wherever
+     * the file system allows it, so no bytes are duplicated, and they are removed again if the transaction rolls back.
+     */
+    public List<String> cloneImageFiles(List<String> paths) {
+        final HashSet<String> takenPaths = new HashSet<>();
+        final ArrayList<String> newPaths = new ArrayList<>(paths.size());
+        final ArrayList<Path> createdFiles = new ArrayList<>(paths.size());
+
         try {
-            Files.copy(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
+            for (final String path : paths) {
+                final String newRelativePath = generateClonePath(path, takenPaths);
+                final Path newPath = resolveFullPath(newRelativePath);
+
+                ImageBlobStore.linkOrCopy(resolveFullPath(path), newPath);
+
+                newPaths.add(newRelativePath);
+                createdFiles.add(newPath);
+            }
         } catch (IOException e) {
-            LOGGER.error("Could not update image file", e);
-            throw HttpException.internalServerError("Could not update image file", e);
+            deleteFilesQuietly(createdFiles);
+            LOGGER.error("Could not clone image file", e);
+            throw HttpException.internalServerError("Could not clone image file", e);
         }
 
-        return imageRepository.save(newImage);
+        deleteFilesOnRollback(createdFiles);
+        return newPaths;
     }
 
     public void updateImageFile(ImageCategory category, ImageModel image, MultipartFile newFile) {
-        final String extension = validateFileAndGetExtension(newFile);
+        validateFile(newFile);
 
         if (image.getId() < 1) {
             throw HttpException.badRequest("Cannot update an image with no id");
         }
 
         final Path oldPath = resolveFullPath(image.getPath());
+        final UploadedImage upload = writeUpload(newFile);
+        final StoredBlob blob = upload.blob();
 
-        try {
-            final byte[] oldBytes = Files.readAllBytes(oldPath);
-            final byte[] newBytes = newFile.getBytes();
-
-            if (Arrays.equals(oldBytes, newBytes)) {
-                return;
-            }
-        } catch (IOException e) {
-            LOGGER.warn("Could not read old image file", e);
+        if (blob.hash().equals(currentBlobHash(image, oldPath))) {
+            imageBlobStore.release(blob.hash());
+            return;
         }
 
         final String newPath = generateUniquePath(
             category.dir,
-            newFile.getOriginalFilename() != null ? newFile.getOriginalFilename() : "file" + extension
+            newFile.getOriginalFilename() != null ? newFile.getOriginalFilename() : "file" + upload.extension()
         );
         final Path newAbsolutePath = resolveFullPath(newPath);
 
         try {
             createDirectoriesIfMissing(newAbsolutePath.getParent());
-            Files.deleteIfExists(oldPath);
-            Files.write(newAbsolutePath, newFile.getBytes());
+            imageBlobStore.link(blob.hash(), newAbsolutePath);
         } catch (IOException e) {
             LOGGER.error("Could not update image file", e);
             throw HttpException.internalServerError("Could not update image file", e);
         }
 
+        // the old file stays until the new path is committed, since a rollback keeps pointing the image at it
+        deleteFilesOnRollback(List.of(newAbsolutePath));
+        deleteFileAfterCommit(oldPath);
+
+        final String oldBlobHash = image.getBlobHash();
+
         image.setPath(newPath);
+        image.setBlobHash(blob.hash());
+        image.setWidth(null);
+        image.setVariantFormat(null);
         imageRepository.save(image);
+        imageVariantGenerator.generateAfterCommit(blob.hash(), upload.mimeType());
+        evict(image.getId());
+
+        if (oldBlobHash != null) {
+            releaseBlob(oldBlobHash);
+        }
     }
 
     public void deleteImageIfUnused(ImageModel image) {
@@ -136,24 +209,161 @@ public class ImageService {
             return;
         }
 
-        final Path fullPath = resolveFullPath(image.getPath());
+        imageRepository.delete(image);
+        deleteFileAfterCommit(resolveFullPath(image.getPath()));
+        evict(image.getId());
 
-        try {
-            Files.deleteIfExists(fullPath);
-        } catch (IOException e) {
-            LOGGER.error("Could not delete image file", e);
-            throw HttpException.internalServerError("Could not delete image file", e);
+        if (image.getBlobHash() != null) {
+            releaseBlob(image.getBlobHash());
         }
-
-        imageRepository.delete(image);
     }
 
     public Image getImageById(int id) {
+        final Image cached = cache.get(id);
+
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+
+        final long invalidationsBefore = invalidations.get();
         final ImageModel imageModel = imageRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Image not found with id: " + id));
 
-        final String url = buildPublicUrl(imageModel.getPath());
-        return new Image(url, imageModel.getAlt());
+        final Image image = toDto(imageModel);
+
+        if (invalidations.get() == invalidationsBefore) {
+            cache.put(id, image);
+        }
+
+        return image;
+    }
+
+    /**
+     * Resolves all the given image ids at once, querying the database only for the ones that are not cached.
+     */
+    public Map<Integer, Image> getImagesByIds(Collection<Integer> ids) {
+        final HashMap<Integer, Image> images = new HashMap<>();
+        final HashSet<Integer> missingIds = new HashSet<>();
+
+        for (final Integer id : ids) {
+            if (images.containsKey(id)) {
+                continue;
+            }
+
+            final Image cached = cache.get(id);
+
+            if (cached != null) {
+                images.put(id, cached);
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        hits.addAndGet(images.size());
+
+        if (missingIds.isEmpty()) {
+            return images;
+        }
+
+        misses.addAndGet(missingIds.size());
+
+        final long invalidationsBefore = invalidations.get();
+        final HashMap<Integer, Image> loaded = new HashMap<>();
+
+        for (final ImageModel imageModel : imageRepository.findAllById(missingIds)) {
+            loaded.put(imageModel.getId(), toDto(imageModel));
+        }
+
+        for (final Integer id : missingIds) {
+            if (!loaded.containsKey(id)) {
+                throw new RuntimeException("Image not found with id: " + id);
+            }
+        }
+
+        if (invalidations.get() == invalidationsBefore) {
+            cache.putAll(loaded);
+        }
+
+        images.putAll(loaded);
+        return images;
+    }
+
+    /**
+     * Image files are only replaced while updating a config, so an edit made on another node drops the whole cache.
+     * Cached images aren't tracked per config, and config edits are rare enough for that not to matter.
+     */
+    @EventListener
+    public void onConfigModified(ConfigModifiedEvent event) {
+        invalidations.incrementAndGet();
+        cache.clear();
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+        return new CacheStats("images", cache.size(), hits.get(), misses.get());
+    }
+
+    private void evict(int id) {
+        invalidations.incrementAndGet();
+        cache.remove(id);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidations.incrementAndGet();
+                cache.remove(id);
+            }
+        });
+    }
+
+    /**
+     * Images stored before the blob store existed have no hash yet, so theirs is computed from the file.
+     */
+    private String currentBlobHash(ImageModel image, Path path) {
+        if (image.getBlobHash() != null) {
+            return image.getBlobHash();
+        }
+
+        try {
+            return imageBlobStore.hash(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read old image file", e);
+            return null;
+        }
+    }
+
+    private void releaseBlob(String hash) {
+        // the image row has to stop referencing the blob before the blob row can go
+        imageRepository.flush();
+        imageBlobStore.release(hash);
+    }
+
+    private Image toDto(ImageModel imageModel) {
+        return new Image(buildPublicUrl(imageModel.getPath()), imageModel.getAlt(), buildVariantUrls(imageModel));
+    }
+
+    private Map<Integer, String> buildVariantUrls(ImageModel imageModel) {
+        final String hash = imageModel.getBlobHash();
+        final String format = imageModel.getVariantFormat();
+
+        if (hash == null || format == null || imageModel.getWidth() == null) {
+            return Map.of();
+        }
+
+        final LinkedHashMap<Integer, String> urls = new LinkedHashMap<>();
+
+        for (final int width : ImageVariantGenerator.widthsFor(imageModel.getWidth())) {
+            urls.put(width, buildPublicUrl(ImageBlobStore.variantPath(hash, width, format)));
+        }
+
+        return urls;
     }
 
     private String generateUniquePath(String category, String originalFilename) {
@@ -178,6 +388,62 @@ public class ImageService {
         return String.join("/", parts);
     }
 
+    private String generateClonePath(String path, Set<String> takenPaths) {
+        final String basePath = updatePathTimestamp(path);
+        final int extensionIndex = basePath.lastIndexOf('.') > basePath.lastIndexOf('/')
+            ? basePath.lastIndexOf('.')
+            : basePath.length();
+
+        String newPath = basePath;
+
+        // files cloned within the same second would otherwise end up with the same timestamp and name
+        for (int i = 1; takenPaths.contains(newPath) || Files.exists(resolveFullPath(newPath)); i++) {
+            newPath = basePath.substring(0, extensionIndex) + "_" + i + basePath.substring(extensionIndex);
+        }
+
+        takenPaths.add(newPath);
+        return newPath;
+    }
+
+    private static void deleteFileAfterCommit(Path file) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteFilesQuietly(List.of(file));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteFilesQuietly(List.of(file));
+            }
+        });
+    }
+
+    private static void deleteFilesOnRollback(List<Path> files) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    deleteFilesQuietly(files);
+                }
+            }
+        });
+    }
+
+    private static void deleteFilesQuietly(List<Path> files) {
+        for (final Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete image file {}", file, e);
+            }
+        }
+    }
+
     private String buildPublicUrl(String relativePath) {
         String normalizedPath = relativePath.replaceFirst("^/", "");
 
@@ -201,27 +467,39 @@ public class ImageService {
         }
     }
 
-    private String validateFileAndGetExtension(MultipartFile file) {
+    private static void validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw HttpException.badRequest("File cannot be empty");
         }
 
-        final String mimeType;
-        try (final InputStream inputStream = file.getInputStream()) {
-            mimeType = TIKA.detect(inputStream);
+        if (file.getSize() > MAX_FILE_SIZE) {
+            throw HttpException.payloadTooLarge("File size cannot exceed " + MAX_FILE_SIZE_STR);
+        }
+    }
+
+    /**
+     * Streams the upload into the blob store in a single pass: the type is detected from the first buffered bytes and
+     * the size limit is enforced while copying, so the file is never held in memory as a whole.
+     */
+    private UploadedImage writeUpload(MultipartFile file) {
+        try (final InputStream input = new BufferedInputStream(file.getInputStream())) {
+            // tika marks and resets the stream, so the bytes it reads are still written below
+            final String mimeType = TIKA.detect(input);
 
             if (mimeType == null || !SUPPORTED_IMAGE_TYPES.contains(mimeType)) {
                 throw HttpException.badRequest("File must be an image");
             }
-        } catch (IOException e) {
-            LOGGER.error("Could not analyze file", e);
-            throw HttpException.internalServerError("Could not analyze file", e);
-        }
 
-        if (file.getSize() > MAX_FILE_SIZE) {
-            throw HttpException.payloadTooLarge("File size cannot exceed " + MAX_FILE_SIZE_STR);
+            final StoredBlob blob = imageBlobStore.write(new SizeLimitedInputStream(input, MAX_FILE_SIZE));
+
+            return new UploadedImage(blob, mimeType, extensionOf(mimeType));
+        } catch (IOException e) {
+            LOGGER.error("Could not save image file", e);
+            throw HttpException.internalServerError("Could not save image file", e);
         }
+    }
 
+    private static String extensionOf(String mimeType) {
         try {
             return MimeTypes.getDefaultMimeTypes().forName(mimeType).getExtension();
         } catch (MimeTypeException e) {
@@ -229,6 +507,100 @@ public class ImageService {
         }
     }
 
+    private record UploadedImage(StoredBlob blob, String mimeType, String extension) {
+    }
+
+    /**
+     * Fails the upload as soon as more than {@code maxSize} bytes have been read, regardless of its declared size.
+     */
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+        private final long maxSize;
+        private long count = 0;
+
+        private SizeLimitedInputStream(InputStream input, long maxSize) {
+            super(input);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value = super.read();
+
+            if (value != -1) {
+                addRead(1);
+            }
+
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+
+            if (read > 0) {
+                addRead(read);
+            }
+
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long skipped = super.skip(n);
+            addRead(skipped);
+            return skipped;
+        }
+
+        private void addRead(long read) {
+            count += read;
+
+            if (count > maxSize) {
+                throw HttpException.payloadTooLarge("File size cannot exceed " + MAX_FILE_SIZE_STR);
+            }
+        }
+    }
+
+    /**
+     * Least recently used map of image id to its public DTO, bounded so configs with lots of images can't grow it
+     * indefinitely.
+     */
+    private static final class ImageCache {
+        private final LinkedHashMap<Integer, Image> entries;
+
+        private ImageCache(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Image> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private synchronized Image get(int id) {
+            return entries.get(id);
+        }
+
+        private synchronized void put(int id, Image image) {
+            entries.put(id, image);
+        }
+
+        private synchronized void putAll(Map<Integer, Image> images) {
+            entries.putAll(images);
+        }
+
+        private synchronized void remove(int id) {
+            entries.remove(id);
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+
     public enum ImageCategory {
         ICON("icon"),
         INFO_CARD("cards"),
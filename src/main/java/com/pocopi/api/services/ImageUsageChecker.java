@@ -0,0 +1,58 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.repositories.ImageUsageRepository;
+import com.pocopi.api.repositories.ImageUsageRepository.UsageMismatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Periodically verifies the trigger maintained image usage counts against the actual references and corrects any
+ * drift, e.g. from rows changed while the triggers were missing or by hand.
+ */
+@Service
+public class ImageUsageChecker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageUsageChecker.class);
+    private static final int MAX_LOGGED_MISMATCHES = 20;
+
+    private final ImageUsageRepository imageUsageRepository;
+
+    public ImageUsageChecker(ImageUsageRepository imageUsageRepository) {
+        this.imageUsageRepository = imageUsageRepository;
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.images.usage-check-interval:PT24H}",
+        fixedDelayString = "${app.images.usage-check-interval:PT24H}"
+    )
+    public void checkScheduled() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to check image usage counts", e);
+        }
+    }
+
+    /**
+     * @return the mismatches found, all of which have been corrected
+     */
+    public List<UsageMismatch> check() {
+        final List<UsageMismatch> mismatches = imageUsageRepository.findMismatches();
+
+        if (mismatches.isEmpty()) {
+            return mismatches;
+        }
+
+        LOGGER.warn(
+            "Found {} images with wrong usage counts, first ones: {}",
+            mismatches.size(),
+            mismatches.subList(0, Math.min(mismatches.size(), MAX_LOGGED_MISMATCHES))
+        );
+
+        imageUsageRepository.repairMismatches();
+        return mismatches;
+    }
+}
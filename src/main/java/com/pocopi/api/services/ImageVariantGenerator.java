@@ -0,0 +1,313 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.repositories.ConfigRepository;
+import com.pocopi.api.repositories.ImageRepository;
+import com.pocopi.api.repositories.projections.ImageBlobWithoutVariantsProjection;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates downscaled copies of uploaded images once, after the upload commits, so clients on small screens can fetch
+ * a file close to the size they display instead of the full original on every request. Decoding a large image takes
+ * hundreds of megabytes and seconds of CPU, so it happens on a single background worker instead of in the request.
+ */
+@Service
+public class ImageVariantGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageVariantGenerator.class);
+
+    public static final List<Integer> VARIANT_WIDTHS = List.of(160, 320, 640, 1280);
+
+    // animated gifs would lose every frame but the first, so they are always served as is
+    private static final Map<String, String> VARIANT_FORMATS = Map.of(
+        "image/png", "png",
+        "image/jpeg", "jpg"
+    );
+
+    // a few kilobytes of compressed input can declare dimensions that take gigabytes to decode
+    private static final long MAX_SOURCE_PIXELS = 40_000_000;
+
+    private static final int MAX_QUEUED_IMAGES = 100;
+
+    private final ImageBlobStore imageBlobStore;
+    private final ImageRepository imageRepository;
+    private final ConfigRepository configRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor worker;
+
+    private final Set<String> pendingBlobs = ConcurrentHashMap.newKeySet();
+    // blobs that can't have variants, e.g. too large or corrupt, so the backfill doesn't retry them on every run
+    private final Set<String> failedBlobs = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantGenerator(
+        ImageBlobStore imageBlobStore,
+        ImageRepository imageRepository,
+        ConfigRepository configRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.imageBlobStore = imageBlobStore;
+        this.imageRepository = imageRepository;
+        this.configRepository = configRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.worker = new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_IMAGES),
+            Thread.ofPlatform().name("image-variants").daemon().factory()
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Queues the generation of the blob's variants once the current transaction commits, and then stores them on every
+     * image with the blob. Until then those images are served without variants.
+     */
+    public void generateAfterCommit(String hash, String mimeType) {
+        if (!VARIANT_FORMATS.containsKey(mimeType)) {
+            return;
+        }
+
+        final Runnable task = () -> queue(hash, mimeType);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.images.variants.backfill-interval:PT15M}",
+        fixedDelayString = "${app.images.variants.backfill-interval:PT15M}"
+    )
+    public void backfillScheduled() {
+        try {
+            backfill();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to backfill image variants", e);
+        }
+    }
+
+    /**
+     * Queues the blobs still without variants, e.g. because the queue was full when they were uploaded or the node
+     * stopped before getting to them, as long as there is room in the queue.
+     *
+     * @return the number of blobs queued
+     */
+    public int backfill() {
+        int queued = 0;
+
+        for (final ImageBlobWithoutVariantsProjection blob : imageRepository.findBlobsWithoutVariants()) {
+            final String mimeType = mimeTypeOf(blob.getExtension());
+
+            if (mimeType == null || failedBlobs.contains(blob.getBlobHash())) {
+                continue;
+            }
+
+            if (worker.getQueue().remainingCapacity() == 0) {
+                break;
+            }
+
+            if (queue(blob.getBlobHash(), mimeType)) {
+                queued++;
+            }
+        }
+
+        return queued;
+    }
+
+    /**
+     * Writes a variant of the blob for every width in {@link #VARIANT_WIDTHS} smaller than the image itself, skipping
+     * the ones an earlier upload of the same contents already wrote. Failing to generate them doesn't fail the upload.
+     *
+     * @return the variants that can be served for the blob, or {@code null} if there are none
+     */
+    public ImageVariants generate(String hash, String mimeType) {
+        final String format = VARIANT_FORMATS.get(mimeType);
+
+        if (format == null) {
+            return null;
+        }
+
+        try {
+            final BufferedImage source = readSource(hash);
+
+            if (source == null) {
+                return null;
+            }
+
+            for (final int width : VARIANT_WIDTHS) {
+                if (width >= source.getWidth()) {
+                    break;
+                }
+
+                if (Files.exists(imageBlobStore.variantFile(hash, width, format))) {
+                    continue;
+                }
+
+                imageBlobStore.writeVariant(hash, width, format, scale(source, width, format.equals("png")));
+            }
+
+            return new ImageVariants(source.getWidth(), format);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not generate variants of image blob {}", hash, e);
+            return null;
+        }
+    }
+
+    private boolean queue(String hash, String mimeType) {
+        if (!pendingBlobs.add(hash)) {
+            return false;
+        }
+
+        try {
+            worker.execute(() -> {
+                try {
+                    generateAndStore(hash, mimeType);
+                } finally {
+                    pendingBlobs.remove(hash);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendingBlobs.remove(hash);
+            LOGGER.warn("Too many images waiting for variants, blob {} will be picked up by the backfill", hash);
+            return false;
+        }
+    }
+
+    private void generateAndStore(String hash, String mimeType) {
+        final ImageVariants variants = generate(hash, mimeType);
+
+        if (variants == null) {
+            failedBlobs.add(hash);
+            return;
+        }
+
+        // images are cached without variants on every node, and a new revision of the configs using them makes
+        // each node drop those
+        transactionTemplate.executeWithoutResult(status -> {
+            imageRepository.updateVariants(hash, variants.width(), variants.format());
+            configRepository.incrementRevisionsUsingBlob(hash);
+        });
+    }
+
+    /**
+     * Widths of the variants available for an image of the given width.
+     */
+    public static List<Integer> widthsFor(int width) {
+        return VARIANT_WIDTHS.stream().filter(variantWidth -> variantWidth < width).toList();
+    }
+
+    private static String mimeTypeOf(String extension) {
+        return VARIANT_FORMATS.entrySet().stream()
+            .filter(entry -> entry.getValue().equalsIgnoreCase(extension))
+            .map(Map.Entry::getKey)
+            .findFirst()
+            .orElse(null);
+    }
+
+    private BufferedImage readSource(String hash) throws IOException {
+        try (final ImageInputStream input = ImageIO.createImageInputStream(imageBlobStore.blobFile(hash).toFile())) {
+            if (input == null) {
+                return null;
+            }
+
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            final ImageReader reader = readers.next();
+
+            try {
+                reader.setInput(input, true, true);
+
+                // the header is enough to know the dimensions, so this check happens before decoding anything
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    LOGGER.warn("Image blob {} is too large to generate variants of", hash);
+                    return null;
+                }
+
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Halves the image until it is less than twice the target width before the final resize, since a single bicubic
+     * pass over a much larger image skips most source pixels and aliases.
+     */
+    private static BufferedImage scale(BufferedImage source, int width, boolean alpha) {
+        final int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+
+        while (current.getWidth() / 2 >= width) {
+            current = resize(current, current.getWidth() / 2, type);
+        }
+
+        return resize(current, width, type);
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int type) {
+        final int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        final BufferedImage resized = new BufferedImage(width, height, type);
+        final Graphics2D graphics = resized.createGraphics();
+
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        return resized;
+    }
+
+    /**
+     * @param width  width of the original image in pixels
+     * @param format file extension of the variants
+     */
+    public record ImageVariants(int width, String format) {
+    }
+}
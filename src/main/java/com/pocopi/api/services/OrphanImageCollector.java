@@ -0,0 +1,396 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.config.ImageConfig;
+import com.pocopi.api.config.OrphanImageProperties;
+import com.pocopi.api.dto.config.OrphanImageReport;
+import com.pocopi.api.exception.HttpException;
+import com.pocopi.api.repositories.ImageBlobRepository;
+import com.pocopi.api.repositories.ImageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Removes files under the image directory that nothing in the database references, e.g. left behind by uploads whose
+ * transaction failed. Unreferenced files older than the grace period are first moved into {@code .quarantine}, and
+ * only deleted once they have stayed there for another grace period. A quarantined file referenced again by then is
+ * put back instead.
+ * <p>
+ * Files are looked up against the database in batches while the directory is walked, so memory doesn't grow with the
+ * number of images, and each run pauses between batches and stops after a bounded number of changes.
+ */
+@Service
+public class OrphanImageCollector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrphanImageCollector.class);
+
+    static final String QUARANTINE_DIR = ".quarantine";
+
+    private final ImageConfig imageConfig;
+    private final OrphanImageProperties properties;
+    private final ImageRepository imageRepository;
+    private final ImageBlobRepository imageBlobRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public OrphanImageCollector(
+        ImageConfig imageConfig,
+        OrphanImageProperties properties,
+        ImageRepository imageRepository,
+        ImageBlobRepository imageBlobRepository
+    ) {
+        this.imageConfig = imageConfig;
+        this.properties = properties;
+        this.imageRepository = imageRepository;
+        this.imageBlobRepository = imageBlobRepository;
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.images.orphans.interval:PT6H}",
+        fixedDelayString = "${app.images.orphans.interval:PT6H}"
+    )
+    public void collectScheduled() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        try {
+            final OrphanImageReport report = collect(false);
+
+            if (report.quarantinedFiles() + report.restoredFiles() + report.deletedFiles() > 0) {
+                LOGGER.info(
+                    "Quarantined {} orphan images, restored {} and deleted {}, reclaiming {} bytes",
+                    report.quarantinedFiles(),
+                    report.restoredFiles(),
+                    report.deletedFiles(),
+                    report.reclaimedBytes()
+                );
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to collect orphan images", e);
+        }
+    }
+
+    /**
+     * @param dryRun only report what would be quarantined, restored and deleted, without touching any file
+     */
+    public OrphanImageReport collect(boolean dryRun) {
+        if (!lock.tryLock()) {
+            throw HttpException.conflict("Orphan image collection is already running");
+        }
+
+        try {
+            final Run run = new Run(Paths.get(imageConfig.getBasePath()), dryRun);
+
+            if (Files.isDirectory(run.root)) {
+                walk(run, run.quarantineRoot, run::purgeQuarantined);
+                walk(run, run.root, run::quarantineUnreferenced);
+            }
+
+            return run.report();
+        } catch (IOException e) {
+            LOGGER.error("Could not walk image directory", e);
+            throw HttpException.internalServerError("Could not collect orphan images", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void walk(Run run, Path directory, Consumer<List<Candidate>> handler) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        final Path relativeTo = directory.equals(run.quarantineRoot) ? run.quarantineRoot : run.root;
+        final ArrayList<Candidate> batch = new ArrayList<>(properties.getBatchSize());
+
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                return dir.equals(run.quarantineRoot) && !directory.equals(run.quarantineRoot)
+                    ? FileVisitResult.SKIP_SUBTREE
+                    : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (!attributes.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                batch.add(Candidate.of(file, relativeTo.relativize(file)));
+
+                if (batch.size() < properties.getBatchSize()) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                handler.accept(batch);
+                batch.clear();
+
+                return run.isExhausted() || !pause() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                LOGGER.warn("Could not visit image file {}", file, e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        if (!batch.isEmpty() && !run.isExhausted()) {
+            handler.accept(batch);
+        }
+    }
+
+    private boolean pause() {
+        if (properties.getBatchPause().isZero()) {
+            return true;
+        }
+
+        try {
+            Thread.sleep(properties.getBatchPause());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Files of the batch which are still referenced by an image row, or by a blob row for blob and variant files.
+     */
+    private Set<Candidate> findReferenced(List<Candidate> candidates) {
+        final HashSet<String> paths = new HashSet<>();
+        final HashSet<String> hashes = new HashSet<>();
+
+        for (final Candidate candidate : candidates) {
+            if (candidate.blobHash() != null) {
+                hashes.add(candidate.blobHash());
+            } else if (!candidate.temporary()) {
+                // paths are resolved with the leading "images/" stripped, so rows may have it or not
+                paths.add("images/" + candidate.relativePath());
+                paths.add(candidate.relativePath());
+            }
+        }
+
+        final Set<String> existingPaths = paths.isEmpty()
+            ? Set.of()
+            : new HashSet<>(imageRepository.findExistingPaths(paths));
+        final Set<String> existingHashes = imageBlobRepository.findExistingHashes(hashes);
+
+        final HashSet<Candidate> referenced = new HashSet<>();
+
+        for (final Candidate candidate : candidates) {
+            final boolean isReferenced = candidate.blobHash() != null
+                ? existingHashes.contains(candidate.blobHash())
+                : existingPaths.contains("images/" + candidate.relativePath())
+                    || existingPaths.contains(candidate.relativePath());
+
+            if (isReferenced) {
+                referenced.add(candidate);
+            }
+        }
+
+        return referenced;
+    }
+
+    /**
+     * Uploads hard link their path to an existing blob, which keeps the modification time of the blob, so the change
+     * time is used where the file system exposes it.
+     */
+    private static Instant changedAt(Path file) throws IOException {
+        final Instant modified = Files.getLastModifiedTime(file).toInstant();
+
+        try {
+            final Instant changed = ((FileTime) Files.getAttribute(file, "unix:ctime")).toInstant();
+            return changed.isAfter(modified) ? changed : modified;
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return modified;
+        }
+    }
+
+    /**
+     * Deleting one of several hard links to the same file frees nothing.
+     */
+    private static long reclaimableSize(Path file) throws IOException {
+        try {
+            if ((Integer) Files.getAttribute(file, "unix:nlink") > 1) {
+                return 0;
+            }
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // no link count on this file system
+        }
+
+        return Files.size(file);
+    }
+
+    /**
+     * @param relativePath path relative to the image or quarantine directory, with forward slashes
+     * @param blobHash     hash of the blob the file belongs to, if it's a blob or one of its variants
+     * @param temporary    whether it's a temporary upload file, which is never referenced
+     */
+    private record Candidate(Path file, String relativePath, String blobHash, boolean temporary) {
+        private static Candidate of(Path file, Path relativePath) {
+            final String path = relativePath.toString().replace('\\', '/');
+            final String[] parts = path.split("/");
+
+            if (parts[0].equals(ImageBlobStore.BLOBS_DIR)) {
+                return parts.length == 3 && !parts[1].equals(ImageBlobStore.TMP_DIR)
+                    ? new Candidate(file, path, parts[2], false)
+                    : new Candidate(file, path, null, true);
+            }
+
+            if (parts[0].equals(ImageBlobStore.VARIANTS_DIR) && parts.length == 3 && parts[2].indexOf('_') > 0) {
+                return new Candidate(file, path, parts[2].substring(0, parts[2].indexOf('_')), false);
+            }
+
+            return new Candidate(file, path, null, false);
+        }
+    }
+
+    private final class Run {
+        private final Path root;
+        private final Path quarantineRoot;
+        private final boolean dryRun;
+        private final Instant cutoff;
+
+        private long scannedFiles = 0;
+        private long quarantinedFiles = 0;
+        private long restoredFiles = 0;
+        private long deletedFiles = 0;
+        private long reclaimedBytes = 0;
+
+        private Run(Path root, boolean dryRun) {
+            this.root = root;
+            this.quarantineRoot = root.resolve(QUARANTINE_DIR);
+            this.dryRun = dryRun;
+            this.cutoff = Instant.now().minus(properties.getGracePeriod());
+        }
+
+        private boolean isExhausted() {
+            return quarantinedFiles + restoredFiles + deletedFiles >= properties.getMaxFilesPerRun();
+        }
+
+        private OrphanImageReport report() {
+            return new OrphanImageReport(
+                dryRun,
+                scannedFiles,
+                quarantinedFiles,
+                restoredFiles,
+                deletedFiles,
+                reclaimedBytes
+            );
+        }
+
+        private List<Candidate> pastGracePeriod(List<Candidate> batch) {
+            scannedFiles += batch.size();
+
+            final ArrayList<Candidate> candidates = new ArrayList<>(batch.size());
+
+            for (final Candidate candidate : batch) {
+                try {
+                    if (!changedAt(candidate.file()).isAfter(cutoff)) {
+                        candidates.add(candidate);
+                    }
+                } catch (IOException e) {
+                    // removed since it was visited
+                    LOGGER.debug("Could not read image file {}", candidate.file(), e);
+                }
+            }
+
+            return candidates;
+        }
+
+        private void quarantineUnreferenced(List<Candidate> batch) {
+            final List<Candidate> candidates = pastGracePeriod(batch);
+            final Set<Candidate> referenced = findReferenced(candidates);
+
+            for (final Candidate candidate : candidates) {
+                if (isExhausted()) {
+                    return;
+                }
+
+                if (referenced.contains(candidate)) {
+                    continue;
+                }
+
+                try {
+                    if (!dryRun) {
+                        final Path target = quarantineRoot.resolve(candidate.relativePath());
+                        Files.createDirectories(target.getParent());
+                        Files.move(candidate.file(), target, StandardCopyOption.REPLACE_EXISTING);
+                        // the grace period in quarantine starts now
+                        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    }
+
+                    quarantinedFiles++;
+                } catch (IOException e) {
+                    LOGGER.warn("Could not quarantine image file {}", candidate.file(), e);
+                }
+            }
+        }
+
+        private void purgeQuarantined(List<Candidate> batch) {
+            final List<Candidate> candidates = pastGracePeriod(batch);
+            final Set<Candidate> referenced = findReferenced(candidates);
+
+            for (final Candidate candidate : candidates) {
+                if (isExhausted()) {
+                    return;
+                }
+
+                try {
+                    if (referenced.contains(candidate)) {
+                        restore(candidate);
+                        restoredFiles++;
+                        continue;
+                    }
+
+                    final long size = reclaimableSize(candidate.file());
+
+                    if (!dryRun) {
+                        Files.delete(candidate.file());
+                    }
+
+                    deletedFiles++;
+                    reclaimedBytes += size;
+                } catch (IOException e) {
+                    LOGGER.warn("Could not purge quarantined image file {}", candidate.file(), e);
+                }
+            }
+        }
+
+        private void restore(Candidate candidate) throws IOException {
+            if (dryRun) {
+                return;
+            }
+
+            final Path target = root.resolve(candidate.relativePath());
+
+            if (Files.exists(target)) {
+                Files.delete(candidate.file());
+                return;
+            }
+
+            Files.createDirectories(target.getParent());
+            Files.move(candidate.file(), target);
+        }
+    }
+}
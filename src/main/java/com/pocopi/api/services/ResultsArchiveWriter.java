@@ -0,0 +1,204 @@
+package com.pocopi.api.services;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a gzipped tarball straight into an output stream, one entry at a time. Tar headers need the size of an entry
+ * before its contents, so each entry is first written into a buffer that spills to a temporary file once it grows past
+ * a threshold, keeping memory bounded by the threshold instead of by the archive.
+ */
+public class ResultsArchiveWriter {
+    public static final int DEFAULT_SPILL_THRESHOLD = 1024 * 1024;
+
+    private final GZIPOutputStream gzipOutput;
+    private final TarArchiveOutputStream tarOutput;
+    private final int spillThreshold;
+    private final long modTime = System.currentTimeMillis();
+
+    public ResultsArchiveWriter(OutputStream output) throws IOException {
+        this(output, DEFAULT_SPILL_THRESHOLD);
+    }
+
+    public ResultsArchiveWriter(OutputStream output, int spillThreshold) throws IOException {
+        this.gzipOutput = new GZIPOutputStream(output, 64 * 1024);
+        this.tarOutput = new TarArchiveOutputStream(gzipOutput);
+        this.tarOutput.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        this.spillThreshold = spillThreshold;
+    }
+
+    public void addEntry(String name, String content) throws IOException {
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+        putEntry(name, bytes.length);
+        tarOutput.write(bytes);
+        tarOutput.closeArchiveEntry();
+    }
+
+    /**
+     * Adds an entry with whatever {@code contents} writes into the stream it's given.
+     */
+    public void addEntry(String name, EntryContents contents) throws IOException {
+        addEntry(render(name, contents));
+    }
+
+    /**
+     * Adds an entry rendered earlier with {@link #render(String, EntryContents)}, discarding its buffer afterwards.
+     */
+    public void addEntry(RenderedEntry entry) throws IOException {
+        try {
+            putEntry(entry.name, entry.buffer.size());
+            entry.buffer.writeTo(tarOutput);
+            tarOutput.closeArchiveEntry();
+        } finally {
+            entry.discard();
+        }
+    }
+
+    /**
+     * Renders an entry without adding it to the archive yet. Unlike adding entries, this is safe to call from several
+     * threads at once, so entries can be rendered concurrently and then added in order.
+     */
+    public RenderedEntry render(String name, EntryContents contents) throws IOException {
+        final SpillBuffer buffer = new SpillBuffer(spillThreshold);
+
+        try {
+            contents.writeTo(buffer);
+            buffer.close();
+        } catch (IOException | RuntimeException e) {
+            buffer.discard();
+            throw e;
+        }
+
+        return new RenderedEntry(name, buffer);
+    }
+
+    /**
+     * Writes the end of the archive and flushes it, leaving the underlying stream open.
+     */
+    public void finish() throws IOException {
+        tarOutput.finish();
+        gzipOutput.finish();
+        gzipOutput.flush();
+    }
+
+    private void putEntry(String name, long size) throws IOException {
+        final TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(size);
+        entry.setModTime(modTime);
+
+        tarOutput.putArchiveEntry(entry);
+    }
+
+    @FunctionalInterface
+    public interface EntryContents {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    /**
+     * An entry whose contents are buffered, possibly in a temporary file, until it's added to the archive or
+     * discarded.
+     */
+    public static final class RenderedEntry {
+        private final String name;
+        private final SpillBuffer buffer;
+
+        private RenderedEntry(String name, SpillBuffer buffer) {
+            this.name = name;
+            this.buffer = buffer;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void discard() throws IOException {
+            buffer.discard();
+        }
+    }
+
+    /**
+     * Keeps written bytes in memory up to a threshold and moves them to a temporary file past it.
+     */
+    private static final class SpillBuffer extends OutputStream {
+        private final int threshold;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path file = null;
+        private OutputStream fileOutput = null;
+        private long size = 0;
+
+        private SpillBuffer(int threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            spillIfNeeded(1);
+            output().write(b);
+            size++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            spillIfNeeded(length);
+            output().write(buffer, offset, length);
+            size += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            output().flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOutput != null) {
+                fileOutput.close();
+            }
+        }
+
+        private long size() {
+            return size;
+        }
+
+        private void writeTo(OutputStream output) throws IOException {
+            if (file == null) {
+                memory.writeTo(output);
+            } else {
+                Files.copy(file, output);
+            }
+        }
+
+        private void discard() throws IOException {
+            close();
+
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        private OutputStream output() {
+            return fileOutput != null ? fileOutput : memory;
+        }
+
+        private void spillIfNeeded(int length) throws IOException {
+            if (file != null || size + length <= threshold) {
+                return;
+            }
+
+            file = Files.createTempFile("results", ".tmp");
+            fileOutput = new BufferedOutputStream(Files.newOutputStream(file));
+            memory.writeTo(fileOutput);
+            memory = null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.config.ResultsExportProperties;
+import com.pocopi.api.services.ResultsArchiveWriter.EntryContents;
+import com.pocopi.api.services.ResultsArchiveWriter.RenderedEntry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Renders results into archive entries on a shared pool of workers while the calling thread keeps loading the next
+ * results and adds finished entries to the archive in the same order as the results. At most a fixed number of results
+ * per export are loaded but not yet written, which caps the memory an export can take.
+ */
+@Service
+public class ResultsExporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultsExporter.class);
+
+    private final ExecutorService workers;
+    private final int maxInFlight;
+
+    public ResultsExporter(ResultsExportProperties properties) {
+        final int workerCount = properties.getWorkers() > 0
+            ? properties.getWorkers()
+            : Runtime.getRuntime().availableProcessors();
+
+        this.workers = Executors.newFixedThreadPool(
+            workerCount,
+            Thread.ofPlatform().name("results-export-", 0).daemon().factory()
+        );
+        this.maxInFlight = Math.max(1, properties.getMaxInFlight());
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    public <T> void export(Stream<T> results, ResultsArchiveWriter archive, ResultRenderer<T> renderer)
+        throws IOException {
+        final ArrayDeque<Future<List<RenderedEntry>>> inFlight = new ArrayDeque<>();
+
+        try (results) {
+            final Iterator<T> iterator = results.iterator();
+
+            while (iterator.hasNext()) {
+                if (inFlight.size() >= maxInFlight) {
+                    writeNext(inFlight, archive);
+                }
+
+                final T result = iterator.next();
+                inFlight.add(workers.submit(() -> render(result, archive, renderer)));
+            }
+
+            while (!inFlight.isEmpty()) {
+                writeNext(inFlight, archive);
+            }
+        } finally {
+            discardInFlight(inFlight);
+        }
+    }
+
+    private static <T> List<RenderedEntry> render(T result, ResultsArchiveWriter archive, ResultRenderer<T> renderer)
+        throws IOException {
+        final ArrayList<RenderedEntry> entries = new ArrayList<>();
+
+        try {
+            renderer.render(result, (name, contents) -> entries.add(archive.render(name, contents)));
+        } catch (IOException | RuntimeException e) {
+            discard(entries);
+            throw e;
+        }
+
+        return entries;
+    }
+
+    private static void writeNext(ArrayDeque<Future<List<RenderedEntry>>> inFlight, ResultsArchiveWriter archive)
+        throws IOException {
+        final List<RenderedEntry> entries = await(inFlight.poll());
+
+        try {
+            for (final RenderedEntry entry : entries) {
+                archive.addEntry(entry);
+            }
+        } finally {
+            discard(entries);
+        }
+    }
+
+    private static List<RenderedEntry> await(Future<List<RenderedEntry>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for results to render");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+
+            throw new IOException("Failed to render results", e.getCause());
+        }
+    }
+
+    /**
+     * Cancels the results that haven't started rendering yet and waits for the rest, so none of their temporary files
+     * are left behind when an export fails midway.
+     */
+    private static void discardInFlight(ArrayDeque<Future<List<RenderedEntry>>> inFlight) {
+        inFlight.forEach(future -> future.cancel(false));
+
+        for (final Future<List<RenderedEntry>> future : inFlight) {
+            if (future.isCancelled()) {
+                continue;
+            }
+
+            try {
+                discard(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | IOException e) {
+                LOGGER.debug("Discarded results that failed to render", e);
+            }
+        }
+    }
+
+    private static void discard(List<RenderedEntry> entries) throws IOException {
+        for (final RenderedEntry entry : entries) {
+            entry.discard();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ResultRenderer<T> {
+        void render(T result, Entries entries) throws IOException;
+    }
+
+    /**
+     * Collects the entries rendered for a single result, which end up next to each other in the archive.
+     */
+    @FunctionalInterface
+    public interface Entries {
+        void add(String name, EntryContents contents) throws IOException;
+
+        default void add(String name, String content) throws IOException {
+            final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            add(name, output -> output.write(bytes));
+        }
+    }
+}
@@ -22,14 +22,18 @@ import com.pocopi.api.repositories.projections.UserTestAttemptWithGroupProjectio
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 public class ResultsService {
     private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    public static final int RESULTS_CHUNK_SIZE = 200;
+
     private final UserRepository userRepository;
     private final FormAnswerService formAnswerService;
     private final UserTestQuestionLogRepository userTestQuestionLogRepository;
@@ -50,24 +54,64 @@ public class ResultsService {
         this.userTestAttemptRepository = userTestAttemptRepository;
     }
 
+    /**
+     * Results of every user, loaded in chunks of {@link #RESULTS_CHUNK_SIZE} users as the stream is consumed, so
+     * exports never hold all of them at once.
+     */
+    public Stream<ResultsByUser> streamAllResults() {
+        return streamUserIdChunks().flatMap(userIds -> getUsersResults(userIds).stream());
+    }
+
+    public Stream<FormSubmissionsByUser> streamAllFormResults() {
+        return streamUserIdChunks().flatMap(userIds -> getUsersFormResults(userIds).stream());
+    }
+
+    public Stream<TestResultsByUser> streamAllTestResults() {
+        return streamUserIdChunks().flatMap(userIds -> getUsersTestResults(userIds).stream());
+    }
+
+    /**
+     * Results of several users, assembled in memory from a fixed number of queries regardless of how many users,
+     * attempts or events there are.
+     *
+     * @return the results in the same order as {@code userIds}, skipping users that don't exist
+     */
     @Transactional
-    public List<ResultsByUser> getAllResults() {
-        return userRepository.findAll().stream()
-            .map(user -> getUserResults(user.getId()))
+    public List<ResultsByUser> getUsersResults(List<Integer> userIds) {
+        final Map<Integer, User> users = findUsers(userIds);
+        final Map<Integer, List<FormSubmissionsByConfig>> formAnswersByUser = formAnswerService
+            .getUsersFormAnswers(userIds);
+        final Map<Integer, List<TestResultsByConfig>> testResultsByUser = getTestResultsByUser(userIds);
+
+        return users.values().stream()
+            .map(user -> new ResultsByUser(
+                user,
+                groupResultsByConfig(
+                    formAnswersByUser.getOrDefault(user.id(), List.of()),
+                    testResultsByUser.getOrDefault(user.id(), List.of())
+                )
+            ))
             .toList();
     }
 
     @Transactional
-    public List<FormSubmissionsByUser> getAllFormResults() {
-        return userRepository.findAll().stream()
-            .map(user -> getUserFormResults(user.getId()))
+    public List<FormSubmissionsByUser> getUsersFormResults(List<Integer> userIds) {
+        final Map<Integer, User> users = findUsers(userIds);
+        final Map<Integer, List<FormSubmissionsByConfig>> formAnswersByUser = formAnswerService
+            .getUsersFormAnswers(userIds);
+
+        return users.values().stream()
+            .map(user -> new FormSubmissionsByUser(user, formAnswersByUser.getOrDefault(user.id(), List.of())))
             .toList();
     }
 
     @Transactional
-    public List<TestResultsByUser> getAllTestResults() {
-        return userRepository.findAll().stream()
-            .map(user -> getUserTestResults(user.getId()))
+    public List<TestResultsByUser> getUsersTestResults(List<Integer> userIds) {
+        final Map<Integer, User> users = findUsers(userIds);
+        final Map<Integer, List<TestResultsByConfig>> testResultsByUser = getTestResultsByUser(userIds);
+
+        return users.values().stream()
+            .map(user -> new TestResultsByUser(user, testResultsByUser.getOrDefault(user.id(), List.of())))
             .toList();
     }
 
@@ -205,6 +249,126 @@ public class ResultsService {
         final List<OptionEventProjection> optionEvents = userTestOptionLogRepository
             .findAllOptionEventsByAttemptIds(attemptIds);
 
+        return assembleTestResults(testAttempts, questionEvents, optionEvents);
+    }
+
+    public List<ResultsByConfig> groupResultsByConfig(
+        List<FormSubmissionsByConfig> formAnswers,
+        List<TestResultsByConfig> testResults
+    ) {
+        final HashMap<Integer, ResultsByConfig> resultsByConfigMap = new HashMap<>();
+
+        for (final FormSubmissionsByConfig formAnswer : formAnswers) {
+            resultsByConfigMap.putIfAbsent(
+                formAnswer.configVersion(),
+                new ResultsByConfig(formAnswer.configVersion(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>())
+            );
+
+            final ResultsByConfig resultsByConfig = resultsByConfigMap.get(formAnswer.configVersion());
+
+            resultsByConfig.preTestForm().addAll(formAnswer.preTestForm());
+            resultsByConfig.postTestForm().addAll(formAnswer.postTestForm());
+        }
+
+        for (final TestResultsByConfig testResult : testResults) {
+            resultsByConfigMap.putIfAbsent(
+                testResult.configVersion(),
+                new ResultsByConfig(testResult.configVersion(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>())
+            );
+
+            final ResultsByConfig resultsByConfig = resultsByConfigMap.get(testResult.configVersion());
+
+            resultsByConfig.attemptsResults().addAll(testResult.attemptsResults());
+        }
+
+        return resultsByConfigMap.values().stream().toList();
+    }
+
+    private Stream<List<Integer>> streamUserIdChunks() {
+        final List<Integer> userIds = userRepository.findAllIds();
+        final int chunks = (userIds.size() + RESULTS_CHUNK_SIZE - 1) / RESULTS_CHUNK_SIZE;
+
+        return IntStream.range(0, chunks).mapToObj(chunk -> userIds.subList(
+            chunk * RESULTS_CHUNK_SIZE,
+            Math.min((chunk + 1) * RESULTS_CHUNK_SIZE, userIds.size())
+        ));
+    }
+
+    private Map<Integer, User> findUsers(List<Integer> userIds) {
+        final Map<Integer, UserModel> userModels = userRepository.findAllById(userIds).stream()
+            .collect(Collectors.toMap(UserModel::getId, Function.identity()));
+
+        final LinkedHashMap<Integer, User> users = new LinkedHashMap<>();
+
+        for (final int userId : userIds) {
+            final UserModel user = userModels.get(userId);
+
+            if (user != null) {
+                users.put(userId, new User(
+                    user.getId(),
+                    user.getUsername(),
+                    user.isAnonymous(),
+                    user.getName(),
+                    user.getEmail(),
+                    user.getAge() != null ? user.getAge().intValue() : null
+                ));
+            }
+        }
+
+        return users;
+    }
+
+    /**
+     * Loads the finished attempts of every user along with all their question and option events in three queries, then
+     * splits them up by user.
+     */
+    private Map<Integer, List<TestResultsByConfig>> getTestResultsByUser(List<Integer> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        final List<UserTestAttemptWithGroupProjection> testAttempts = userTestAttemptRepository
+            .findFinishedAttemptsByUserIds(userIds);
+
+        if (testAttempts.isEmpty()) {
+            return Map.of();
+        }
+
+        final List<Long> attemptIds = testAttempts.stream().map(UserTestAttemptWithGroupProjection::getId).toList();
+
+        final Map<Long, List<QuestionEventProjection>> questionEventsByAttempt = userTestQuestionLogRepository
+            .findAllQuestionEventsByAttemptIds(attemptIds)
+            .stream()
+            .collect(Collectors.groupingBy(QuestionEventProjection::getAttemptId));
+        final Map<Long, List<OptionEventProjection>> optionEventsByAttempt = userTestOptionLogRepository
+            .findAllOptionEventsByAttemptIds(attemptIds)
+            .stream()
+            .collect(Collectors.groupingBy(OptionEventProjection::getAttemptId));
+
+        final Map<Integer, List<UserTestAttemptWithGroupProjection>> testAttemptsByUser = testAttempts.stream()
+            .collect(Collectors.groupingBy(UserTestAttemptWithGroupProjection::getUserId));
+
+        final HashMap<Integer, List<TestResultsByConfig>> testResultsByUser = new HashMap<>();
+
+        testAttemptsByUser.forEach((userId, userTestAttempts) -> {
+            final List<QuestionEventProjection> questionEvents = userTestAttempts.stream()
+                .flatMap(attempt -> questionEventsByAttempt.getOrDefault(attempt.getId(), List.of()).stream())
+                .toList();
+            final List<OptionEventProjection> optionEvents = userTestAttempts.stream()
+                .flatMap(attempt -> optionEventsByAttempt.getOrDefault(attempt.getId(), List.of()).stream())
+                .toList();
+
+            testResultsByUser.put(userId, assembleTestResults(userTestAttempts, questionEvents, optionEvents));
+        });
+
+        return testResultsByUser;
+    }
+
+    private static List<TestResultsByConfig> assembleTestResults(
+        List<UserTestAttemptWithGroupProjection> testAttempts,
+        List<QuestionEventProjection> questionEvents,
+        List<OptionEventProjection> optionEvents
+    ) {
         // configVersion -> attemptId
         final HashMap<Integer, HashMap<Long, TempTestResult>> groupedTempTestResults = new HashMap<>();
 
@@ -244,38 +408,6 @@ public class ResultsService {
             .toList();
     }
 
-    public List<ResultsByConfig> groupResultsByConfig(
-        List<FormSubmissionsByConfig> formAnswers,
-        List<TestResultsByConfig> testResults
-    ) {
-        final HashMap<Integer, ResultsByConfig> resultsByConfigMap = new HashMap<>();
-
-        for (final FormSubmissionsByConfig formAnswer : formAnswers) {
-            resultsByConfigMap.putIfAbsent(
-                formAnswer.configVersion(),
-                new ResultsByConfig(formAnswer.configVersion(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>())
-            );
-
-            final ResultsByConfig resultsByConfig = resultsByConfigMap.get(formAnswer.configVersion());
-
-            resultsByConfig.preTestForm().addAll(formAnswer.preTestForm());
-            resultsByConfig.postTestForm().addAll(formAnswer.postTestForm());
-        }
-
-        for (final TestResultsByConfig testResult : testResults) {
-            resultsByConfigMap.putIfAbsent(
-                testResult.configVersion(),
-                new ResultsByConfig(testResult.configVersion(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>())
-            );
-
-            final ResultsByConfig resultsByConfig = resultsByConfigMap.get(testResult.configVersion());
-
-            resultsByConfig.attemptsResults().addAll(testResult.attemptsResults());
-        }
-
-        return resultsByConfigMap.values().stream().toList();
-    }
-
     private static List<QuestionTimestamp> parseJsonTimestampArray(String json) {
         if (json == null || json.isBlank()) {
             return List.of();
@@ -338,7 +470,9 @@ public class ResultsService {
                 TestOptionEventType.fromValue(optionEvent.getType()),
                 optionEvent.getTimestamp(),
                 optionEvent.getX(),
-                optionEvent.getY()
+                optionEvent.getY(),
+                optionEvent.getHoverCount(),
+                optionEvent.getDwell()
             );
 
             final QuestionEventLog questionEventLog = questionEventLogsMap.get(optionEvent.getQuestionId());
@@ -6,7 +6,6 @@ import com.pocopi.api.dto.user.User;
 import com.pocopi.api.exception.HttpException;
 import com.pocopi.api.models.test.UserTestAttemptModel;
 import com.pocopi.api.models.user.UserModel;
-import com.pocopi.api.repositories.ConfigRepository;
 import com.pocopi.api.repositories.UserRepository;
 import com.pocopi.api.repositories.UserTestAttemptRepository;
 import com.pocopi.api.repositories.UserTestOptionLogRepository;
@@ -21,18 +20,18 @@ import java.util.stream.Collectors;
 
 @Service
 public class SummaryService {
-    private final ConfigRepository configRepository;
+    private final ActiveConfigVersion activeConfigVersion;
     private final UserTestOptionLogRepository userTestOptionLogRepository;
     private final UserRepository userRepository;
     private final UserTestAttemptRepository userTestAttemptRepository;
 
     public SummaryService(
-        ConfigRepository configRepository,
+        ActiveConfigVersion activeConfigVersion,
         UserTestOptionLogRepository userTestOptionLogRepository,
         UserRepository userRepository,
         UserTestAttemptRepository userTestAttemptRepository
     ) {
-        this.configRepository = configRepository;
+        this.activeConfigVersion = activeConfigVersion;
         this.userTestOptionLogRepository = userTestOptionLogRepository;
         this.userRepository = userRepository;
         this.userTestAttemptRepository = userTestAttemptRepository;
@@ -101,7 +100,7 @@ public class SummaryService {
         final UserModel user = userRepository.findById(userId)
             .orElseThrow(() -> HttpException.notFound("User " + userId + " not found"));
 
-        final int configVersion = configRepository.getLastConfig().getVersion();
+        final int configVersion = activeConfigVersion.get();
 
         final UserTestAttemptModel attempt = userTestAttemptRepository
             .findLatestFinishedAttempt(configVersion, userId)
@@ -23,42 +23,51 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Service
 public class TestGroupService {
     private final TestGroupRepository testGroupRepository;
-    private final ConfigRepository configRepository;
+    private final ActiveConfigVersion activeConfigVersion;
     private final TestPhaseService testPhaseService;
     private final TestPhaseRepository testPhaseRepository;
     private final TestQuestionRepository testQuestionRepository;
     private final TestOptionRepository testOptionRepository;
     private final ImageService imageService;
+    private final AssignedGroupTemplateCache assignedGroupTemplateCache;
     private final UserTestOptionLogRepository userTestOptionLogRepository;
     private final UserTestQuestionLogRepository userTestQuestionLogRepository;
+    private final UserTestLogArchiveRepository userTestLogArchiveRepository;
     private final UserTestAttemptRepository userTestAttemptRepository;
+    private final TestTreeWriter testTreeWriter;
 
     public TestGroupService(
         TestGroupRepository testGroupRepository,
-        ConfigRepository configRepository,
+        ActiveConfigVersion activeConfigVersion,
         TestPhaseService testPhaseService,
         TestPhaseRepository testPhaseRepository,
         TestQuestionRepository testQuestionRepository,
         TestOptionRepository testOptionRepository,
         ImageService imageService,
+        AssignedGroupTemplateCache assignedGroupTemplateCache,
         UserTestOptionLogRepository userTestOptionLogRepository,
         UserTestQuestionLogRepository userTestQuestionLogRepository,
-        UserTestAttemptRepository userTestAttemptRepository
+        UserTestLogArchiveRepository userTestLogArchiveRepository,
+        UserTestAttemptRepository userTestAttemptRepository,
+        TestTreeWriter testTreeWriter
     ) {
         this.testGroupRepository = testGroupRepository;
-        this.configRepository = configRepository;
+        this.activeConfigVersion = activeConfigVersion;
         this.testPhaseService = testPhaseService;
         this.testPhaseRepository = testPhaseRepository;
         this.testQuestionRepository = testQuestionRepository;
         this.testOptionRepository = testOptionRepository;
         this.imageService = imageService;
+        this.assignedGroupTemplateCache = assignedGroupTemplateCache;
         this.userTestOptionLogRepository = userTestOptionLogRepository;
         this.userTestQuestionLogRepository = userTestQuestionLogRepository;
+        this.userTestLogArchiveRepository = userTestLogArchiveRepository;
         this.userTestAttemptRepository = userTestAttemptRepository;
+        this.testTreeWriter = testTreeWriter;
     }
 
     public TestGroupModel sampleGroup() {
-        final int configVersion = configRepository.getLastConfig().getVersion();
+        final int configVersion = activeConfigVersion.get();
 
         final List<TestGroupModel> groups = testGroupRepository.findAllByConfigVersion(configVersion);
 
@@ -88,119 +97,41 @@ public class TestGroupService {
 
     @Transactional
     public AssignedTestGroup getAssignedGroup(TestGroupModel groupModel) {
-        final List<TestPhaseModel> phasesList = testPhaseRepository.findAllByGroupIdOrderByOrder(groupModel.getId());
-        final List<TestQuestionModel> questionsList = testQuestionRepository
-            .findAllByPhaseGroupIdOrderByOrder(groupModel.getId());
-        final List<TestOptionModel> optionsList = testOptionRepository
-            .findAllByQuestionPhaseGroupIdOrderByOrder(groupModel.getId());
-
-        final HashMap<Integer, ArrayList<TestQuestionModel>> phaseIdToQuestionsMap = new HashMap<>();
-        final HashMap<Integer, ArrayList<TestOptionModel>> questionIdToOptionsMap = new HashMap<>();
-
-        for (final TestQuestionModel question : questionsList) {
-            final int phaseId = question.getPhase().getId();
-            final ArrayList<TestQuestionModel> questions = phaseIdToQuestionsMap
-                .getOrDefault(phaseId, new ArrayList<>());
-
-            questions.add(question);
-            phaseIdToQuestionsMap.put(phaseId, questions);
-        }
-
-        for (final TestOptionModel option : optionsList) {
-            final int questionId = option.getQuestion().getId();
-            final ArrayList<TestOptionModel> options = questionIdToOptionsMap
-                .getOrDefault(questionId, new ArrayList<>());
-
-            options.add(option);
-            questionIdToOptionsMap.put(questionId, options);
-        }
-
-        final Image greetingImage = groupModel.getGreetingImage() != null
-            ? imageService.getImageById(groupModel.getGreetingImage().getId())
-            : null;
-
-        final AssignedTestGroup group = new AssignedTestGroup(
-            groupModel.getLabel(),
-            groupModel.getGreeting(),
-            greetingImage,
-            groupModel.isAllowPreviousPhase(),
-            groupModel.isAllowPreviousQuestion(),
-            groupModel.isAllowSkipQuestion(),
-            new ArrayList<>()
-        );
-
-        for (final TestPhaseModel phaseModel : phasesList) {
-            final AssignedTestPhase phase = new AssignedTestPhase(new ArrayList<>());
-
-            group.phases().add(phase);
-
-            final ArrayList<TestQuestionModel> questions = phaseIdToQuestionsMap.get(phaseModel.getId());
-
-            if (phaseModel.isRandomizeQuestions()) {
-                Collections.shuffle(questions, new SecureRandom());
-            }
-
-            for (final TestQuestionModel questionModel : questions) {
-                final Image questionImage = questionModel.getImage() != null
-                    ? imageService.getImageById(questionModel.getImage().getId())
-                    : null;
-
-                final AssignedTestQuestion question = new AssignedTestQuestion(
-                    questionModel.getId(),
-                    questionModel.getText(),
-                    questionImage,
-                    new ArrayList<>()
-                );
-
-                phase.questions().add(question);
-
-                final ArrayList<TestOptionModel> options = questionIdToOptionsMap.get(questionModel.getId());
-
-                if (questionModel.isRandomizeOptions()) {
-                    Collections.shuffle(options, new SecureRandom());
-                }
-
-                for (final TestOptionModel optionModel : options) {
-                    final Image optionImage = optionModel.getImage() != null
-                        ? imageService.getImageById(optionModel.getImage().getId())
-                        : null;
-
-                    final AssignedTestOption option = new AssignedTestOption(
-                        optionModel.getId(),
-                        optionModel.getText(),
-                        optionImage
-                    );
-
-                    question.options().add(option);
-                }
-            }
-        }
-
-        return group;
+        return assignedGroupTemplateCache.get(groupModel).instantiate(new SecureRandom());
     }
 
     @Transactional
     public List<TestGroup> getGroupsByConfigVersion(int configVersion) {
+        final GroupRows rows = loadGroupRows(configVersion);
+        return buildGroups(rows, imageService.getImagesByIds(rows.imageIds()));
+    }
+
+    /**
+     * Loads every group, phase, question and option of a config with one query per table.
+     */
+    public GroupRows loadGroupRows(int configVersion) {
         final List<TestGroupModel> groupsList = testGroupRepository.findAllByConfigVersion(configVersion);
 
         if (groupsList.isEmpty()) {
-            return List.of();
+            return new GroupRows(List.of(), List.of(), List.of(), List.of());
         }
 
-        final List<TestPhaseModel> phasesList = testPhaseRepository
-            .findAllByGroupConfigVersionOrderByOrder(configVersion);
-        final List<TestQuestionModel> questionsList = testQuestionRepository
-            .findAllByPhaseGroupConfigVersionOrderByOrder(configVersion);
-        final List<TestOptionModel> optionsList = testOptionRepository
-            .findAllByQuestionPhaseGroupConfigVersionOrderByOrder(configVersion);
+        return new GroupRows(
+            groupsList,
+            testPhaseRepository.findAllByGroupConfigVersionOrderByOrder(configVersion),
+            testQuestionRepository.findAllByPhaseGroupConfigVersionOrderByOrder(configVersion),
+            testOptionRepository.findAllByQuestionPhaseGroupConfigVersionOrderByOrder(configVersion)
+        );
+    }
 
+    public List<TestGroup> buildGroups(GroupRows rows, Map<Integer, Image> images) {
         final HashMap<Integer, TestGroup> groupsMap = new HashMap<>();
         final HashMap<Integer, TestPhase> phasesMap = new HashMap<>();
         final HashMap<Integer, TestQuestion> questionsMap = new HashMap<>();
 
-        for (final TestGroupModel groupModel : groupsList) {
+        for (final TestGroupModel groupModel : rows.groups()) {
             final Image greetingImage = groupModel.getGreetingImage() != null
-                ? imageService.getImageById(groupModel.getGreetingImage().getId())
+                ? images.get(groupModel.getGreetingImage().getId())
                 : null;
 
             final TestGroup group = new TestGroup(
@@ -219,7 +150,7 @@ public class TestGroupService {
             groupsMap.put(group.id(), group);
         }
 
-        for (final TestPhaseModel phaseModel : phasesList) {
+        for (final TestPhaseModel phaseModel : rows.phases()) {
             final TestGroup group = groupsMap.get(phaseModel.getGroup().getId());
             if (group == null) {
                 continue;
@@ -235,14 +166,14 @@ public class TestGroupService {
             phasesMap.put(phase.id(), phase);
         }
 
-        for (final TestQuestionModel questionModel : questionsList) {
+        for (final TestQuestionModel questionModel : rows.questions()) {
             final TestPhase phase = phasesMap.get(questionModel.getPhase().getId());
             if (phase == null) {
                 continue;
             }
 
             final Image questionImage = questionModel.getImage() != null
-                ? imageService.getImageById(questionModel.getImage().getId())
+                ? images.get(questionModel.getImage().getId())
                 : null;
 
             final TestQuestion question = new TestQuestion(
@@ -257,14 +188,14 @@ public class TestGroupService {
             questionsMap.put(question.id(), question);
         }
 
-        for (final TestOptionModel optionModel : optionsList) {
+        for (final TestOptionModel optionModel : rows.options()) {
             final TestQuestion question = questionsMap.get(optionModel.getQuestion().getId());
             if (question == null) {
                 continue;
             }
 
             final Image optionImage = optionModel.getImage() != null
-                ? imageService.getImageById(optionModel.getImage().getId())
+                ? images.get(optionModel.getImage().getId())
                 : null;
 
             final TestOption option = new TestOption(
@@ -280,27 +211,6 @@ public class TestGroupService {
         return groupsMap.values().stream().toList();
     }
 
-    @Transactional
-    public void cloneGroups(int originalConfigVersion, ConfigModel config) {
-        final List<TestGroupModel> groups = testGroupRepository.findAllByConfigVersion(originalConfigVersion);
-
-        for (final TestGroupModel group : groups) {
-            final TestGroupModel newGroup = testGroupRepository.save(TestGroupModel.builder()
-                .config(config)
-                .label(group.getLabel())
-                .probability(group.getProbability())
-                .greeting(group.getGreeting())
-                .allowPreviousPhase(group.isAllowPreviousPhase())
-                .allowPreviousQuestion(group.isAllowPreviousQuestion())
-                .allowSkipQuestion(group.isAllowSkipQuestion())
-                .randomizePhases(group.isRandomizePhases())
-                .build()
-            );
-
-            testPhaseService.clonePhases(group.getId(), newGroup);
-        }
-    }
-
     @Transactional
     public boolean updateGroups(
         ConfigModel config,
@@ -348,6 +258,7 @@ public class TestGroupService {
         }
 
         final AtomicInteger imageIndex = new AtomicInteger(0);
+        final TestTreeChanges changes = new TestTreeChanges();
 
         for (final TestGroupUpdate groupUpdate : groupsUpdates != null ? groupsUpdates : List.<TestGroupUpdate>of()) {
             final MultipartFile greetingImageFile = imageFiles.get(imageIndex.getAndIncrement());
@@ -375,10 +286,10 @@ public class TestGroupService {
                     .randomizePhases(groupUpdate.randomizePhases())
                     .build();
 
-                final TestGroupModel savedGroup = testGroupRepository.save(newGroup);
+                changes.insert(newGroup);
 
                 testPhaseService.updatePhases(
-                    savedGroup,
+                    newGroup,
                     groupUpdate.phases(),
                     storedPhasesMap,
                     storedQuestionsMap,
@@ -387,7 +298,8 @@ public class TestGroupService {
                     processedQuestions,
                     processedOptions,
                     imageIndex,
-                    imageFiles
+                    imageFiles,
+                    changes
                 );
 
                 modified.set(true);
@@ -419,7 +331,8 @@ public class TestGroupService {
                     processedQuestions,
                     processedOptions,
                     imageIndex,
-                    imageFiles
+                    imageFiles,
+                    changes
                 );
 
                 modified.set(modifiedPhases || modified.get());
@@ -454,7 +367,7 @@ public class TestGroupService {
             final TestGroupModel updatedGroup = testGroupRepository.save(storedGroup);
 
             if (storedGreetingImage != null && storedGroup.getGreetingImage() == null) {
-                imageService.deleteImageIfUnused(storedGreetingImage);
+                changes.releaseImage(storedGreetingImage);
             }
 
             testPhaseService.updatePhases(
@@ -467,7 +380,8 @@ public class TestGroupService {
                 processedQuestions,
                 processedOptions,
                 imageIndex,
-                imageFiles
+                imageFiles,
+                changes
             );
 
             modified.set(true);
@@ -478,19 +392,21 @@ public class TestGroupService {
                 return;
             }
 
-            if (userTestOptionLogRepository.existsByOptionId(optionId)) {
+            if (
+                userTestOptionLogRepository.existsByOptionId(optionId)
+                || userTestLogArchiveRepository.existsByOptionId(optionId)
+            ) {
                 throw HttpException.conflict(
                     "Test option with id " + optionId + " has user data related to it and cannot be deleted"
                 );
             }
 
             final TestOptionModel option = storedOptionsMap.get(optionId);
-            final ImageModel image = option.getImage();
 
-            testOptionRepository.delete(option);
+            changes.delete(option);
 
-            if (image != null) {
-                imageService.deleteImageIfUnused(image);
+            if (option.getImage() != null) {
+                changes.releaseImage(option.getImage());
             }
 
             modified.set(true);
@@ -501,19 +417,21 @@ public class TestGroupService {
                 return;
             }
 
-            if (userTestQuestionLogRepository.existsByQuestionId(questionId)) {
+            if (
+                userTestQuestionLogRepository.existsByQuestionId(questionId)
+                || userTestLogArchiveRepository.existsByQuestionId(questionId)
+            ) {
                 throw HttpException.conflict(
                     "Test question with id " + questionId + " has user data related to it and cannot be deleted"
                 );
             }
 
             final TestQuestionModel question = storedQuestionsMap.get(questionId);
-            final ImageModel image = question.getImage();
 
-            testQuestionRepository.delete(question);
+            changes.delete(question);
 
-            if (image != null) {
-                imageService.deleteImageIfUnused(image);
+            if (question.getImage() != null) {
+                changes.releaseImage(question.getImage());
             }
 
             modified.set(true);
@@ -527,15 +445,14 @@ public class TestGroupService {
             if (
                 userTestOptionLogRepository.existsByOptionQuestionPhaseId(phaseId)
                 || userTestQuestionLogRepository.existsByQuestionPhaseId(phaseId)
+                || userTestLogArchiveRepository.existsByPhaseId(phaseId)
             ) {
                 throw HttpException.conflict(
                     "Test phase with id " + phaseId + " has user data related to it and cannot be deleted"
                 );
             }
 
-            final TestPhaseModel phase = storedPhasesMap.get(phaseId);
-
-            testPhaseRepository.delete(phase);
+            changes.delete(storedPhasesMap.get(phaseId));
             modified.set(true);
         });
 
@@ -550,12 +467,43 @@ public class TestGroupService {
                 );
             }
 
-            final TestGroupModel group = storedGroupsMap.get(groupId);
-
-            testGroupRepository.delete(group);
+            changes.delete(storedGroupsMap.get(groupId));
             modified.set(true);
         });
 
+        testTreeWriter.apply(changes);
+
         return modified.get();
     }
+
+    public record GroupRows(
+        List<TestGroupModel> groups,
+        List<TestPhaseModel> phases,
+        List<TestQuestionModel> questions,
+        List<TestOptionModel> options
+    ) {
+        public List<Integer> imageIds() {
+            final ArrayList<Integer> imageIds = new ArrayList<>();
+
+            for (final TestGroupModel groupModel : groups) {
+                if (groupModel.getGreetingImage() != null) {
+                    imageIds.add(groupModel.getGreetingImage().getId());
+                }
+            }
+
+            for (final TestQuestionModel questionModel : questions) {
+                if (questionModel.getImage() != null) {
+                    imageIds.add(questionModel.getImage().getId());
+                }
+            }
+
+            for (final TestOptionModel optionModel : options) {
+                if (optionModel.getImage() != null) {
+                    imageIds.add(optionModel.getImage().getId());
+                }
+            }
+
+            return imageIds;
+        }
+    }
 }
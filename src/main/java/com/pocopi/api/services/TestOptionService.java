@@ -7,7 +7,6 @@ import com.pocopi.api.models.test.TestQuestionModel;
 import com.pocopi.api.repositories.TestOptionRepository;
 import com.pocopi.api.services.ImageService.ImageCategory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -25,33 +24,14 @@ public class TestOptionService {
         this.imageService = imageService;
     }
 
-    @Transactional
-    public void cloneOptions(int originalQuestionId, TestQuestionModel question) {
-        final List<TestOptionModel> options = testOptionRepository.findAllByQuestionId(originalQuestionId);
-
-        for (final TestOptionModel option : options) {
-            final ImageModel newImage = option.getImage() != null ? imageService.cloneImage(option.getImage()) : null;
-
-            final TestOptionModel newOption = TestOptionModel.builder()
-                .question(question)
-                .order(option.getOrder())
-                .text(option.getText())
-                .image(newImage)
-                .correct(option.isCorrect())
-                .build();
-
-            testOptionRepository.save(newOption);
-        }
-    }
-
-    @Transactional
     public boolean updateOptions(
         TestQuestionModel question,
         List<TestOptionUpdate> optionsUpdates,
         Map<Integer, TestOptionModel> storedOptionsMap,
         Map<Integer, Boolean> processedOptions,
         AtomicInteger imageIndex,
-        List<MultipartFile> imageFiles
+        List<MultipartFile> imageFiles,
+        TestTreeChanges changes
     ) {
         if (optionsUpdates == null || optionsUpdates.isEmpty()) {
             return true;
@@ -80,7 +60,7 @@ public class TestOptionService {
                     .correct(optionUpdate.correct())
                     .build();
 
-                testOptionRepository.save(newOption);
+                changes.insert(newOption);
                 modified = true;
                 continue;
             }
@@ -124,7 +104,7 @@ public class TestOptionService {
             testOptionRepository.save(storedOption);
 
             if (storedImage != null && storedOption.getImage() == null) {
-                imageService.deleteImageIfUnused(storedImage);
+                changes.releaseImage(storedImage);
             }
 
             modified = true;
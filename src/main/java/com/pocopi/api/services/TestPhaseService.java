@@ -7,7 +7,6 @@ import com.pocopi.api.models.test.TestPhaseModel;
 import com.pocopi.api.models.test.TestQuestionModel;
 import com.pocopi.api.repositories.TestPhaseRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -24,23 +23,6 @@ public class TestPhaseService {
         this.testQuestionService = testQuestionService;
     }
 
-    @Transactional
-    public void clonePhases(int originalGroupId, TestGroupModel group) {
-        final List<TestPhaseModel> phases = testPhaseRepository.findAllByGroupId(originalGroupId);
-
-        for (final TestPhaseModel phase : phases) {
-            final TestPhaseModel newPhase = testPhaseRepository.save(TestPhaseModel.builder()
-                .group(group)
-                .order(phase.getOrder())
-                .randomizeQuestions(phase.isRandomizeQuestions())
-                .build()
-            );
-
-            testQuestionService.cloneQuestions(phase.getId(), newPhase);
-        }
-    }
-
-    @Transactional
     public boolean updatePhases(
         TestGroupModel group,
         List<TestPhaseUpdate> phasesUpdates,
@@ -51,7 +33,8 @@ public class TestPhaseService {
         Map<Integer, Boolean> processedQuestions,
         Map<Integer, Boolean> processedOptions,
         AtomicInteger imageIndex,
-        List<MultipartFile> imageFiles
+        List<MultipartFile> imageFiles,
+        TestTreeChanges changes
     ) {
         if (phasesUpdates == null || phasesUpdates.isEmpty()) {
             return true;
@@ -72,17 +55,18 @@ public class TestPhaseService {
                     .randomizeQuestions(phaseUpdate.randomizeQuestions())
                     .build();
 
-                final TestPhaseModel savedPhase = testPhaseRepository.save(newPhase);
+                changes.insert(newPhase);
 
                 testQuestionService.updateQuestions(
-                    savedPhase,
+                    newPhase,
                     phaseUpdate.questions(),
                     storedQuestionsMap,
                     storedOptionsMap,
                     processedQuestions,
                     processedOptions,
                     imageIndex,
-                    imageFiles
+                    imageFiles,
+                    changes
                 );
 
                 modified = true;
@@ -106,7 +90,8 @@ public class TestPhaseService {
                     processedQuestions,
                     processedOptions,
                     imageIndex,
-                    imageFiles
+                    imageFiles,
+                    changes
                 );
 
                 modified = modifiedQuestions || modified;
@@ -127,7 +112,8 @@ public class TestPhaseService {
                 processedQuestions,
                 processedOptions,
                 imageIndex,
-                imageFiles
+                imageFiles,
+                changes
             );
 
             modified = true;
@@ -8,7 +8,6 @@ import com.pocopi.api.models.test.TestQuestionModel;
 import com.pocopi.api.repositories.TestQuestionRepository;
 import com.pocopi.api.services.ImageService.ImageCategory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -32,29 +31,6 @@ public class TestQuestionService {
         this.imageService = imageService;
     }
 
-    @Transactional
-    public void cloneQuestions(int originalPhaseId, TestPhaseModel phase) {
-        final List<TestQuestionModel> questions = testQuestionRepository.findAllByPhaseId(originalPhaseId);
-
-        for (final TestQuestionModel question : questions) {
-            final ImageModel newImage = question.getImage() != null
-                ? imageService.cloneImage(question.getImage())
-                : null;
-
-            final TestQuestionModel newQuestion = testQuestionRepository.save(TestQuestionModel.builder()
-                .phase(phase)
-                .order(question.getOrder())
-                .text(question.getText())
-                .image(newImage)
-                .randomizeOptions(question.isRandomizeOptions())
-                .build()
-            );
-
-            testOptionService.cloneOptions(question.getId(), newQuestion);
-        }
-    }
-
-    @Transactional
     public boolean updateQuestions(
         TestPhaseModel phase,
         List<TestQuestionUpdate> questionsUpdates,
@@ -63,7 +39,8 @@ public class TestQuestionService {
         Map<Integer, Boolean> processedQuestions,
         Map<Integer, Boolean> processedOptions,
         AtomicInteger imageIndex,
-        List<MultipartFile> imageFiles
+        List<MultipartFile> imageFiles,
+        TestTreeChanges changes
     ) {
         if (questionsUpdates == null || questionsUpdates.isEmpty()) {
             return true;
@@ -92,15 +69,16 @@ public class TestQuestionService {
                     .randomizeOptions(questionUpdate.randomizeOptions())
                     .build();
 
-                final TestQuestionModel savedQuestion = testQuestionRepository.save(newQuestion);
+                changes.insert(newQuestion);
 
                 testOptionService.updateOptions(
-                    savedQuestion,
+                    newQuestion,
                     questionUpdate.options(),
                     storedOptionsMap,
                     processedOptions,
                     imageIndex,
-                    imageFiles
+                    imageFiles,
+                    changes
                 );
 
                 modified = true;
@@ -124,7 +102,8 @@ public class TestQuestionService {
                     storedOptionsMap,
                     processedOptions,
                     imageIndex,
-                    imageFiles
+                    imageFiles,
+                    changes
                 );
 
                 modified = modifiedOptions || modified;
@@ -156,7 +135,7 @@ public class TestQuestionService {
             final TestQuestionModel savedQuestion = testQuestionRepository.save(storedQuestion);
 
             if (storedImage != null && storedQuestion.getImage() == null) {
-                imageService.deleteImageIfUnused(storedImage);
+                changes.releaseImage(storedImage);
             }
 
             testOptionService.updateOptions(
@@ -165,7 +144,8 @@ public class TestQuestionService {
                 storedOptionsMap,
                 processedOptions,
                 imageIndex,
-                imageFiles
+                imageFiles,
+                changes
             );
 
             modified = true;
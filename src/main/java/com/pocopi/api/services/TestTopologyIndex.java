@@ -0,0 +1,182 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.dto.cache.CacheStats;
+import com.pocopi.api.repositories.TestOptionRepository;
+import com.pocopi.api.repositories.TestQuestionRepository;
+import com.pocopi.api.repositories.projections.OptionTopologyProjection;
+import com.pocopi.api.repositories.projections.QuestionTopologyProjection;
+import com.pocopi.api.services.ActiveConfigVersion.ConfigModifiedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class TestTopologyIndex implements CacheStatsSource {
+    private final TestQuestionRepository testQuestionRepository;
+    private final TestOptionRepository testOptionRepository;
+
+    private final ConcurrentHashMap<Integer, Topology> topologies = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong(0);
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    public TestTopologyIndex(TestQuestionRepository testQuestionRepository, TestOptionRepository testOptionRepository) {
+        this.testQuestionRepository = testQuestionRepository;
+        this.testOptionRepository = testOptionRepository;
+    }
+
+    public Topology get(int configVersion) {
+        final Topology cached = topologies.get(configVersion);
+
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+
+        final long invalidationsBefore = invalidations.get();
+        final Topology loaded = Topology.build(
+            testQuestionRepository.findAllTopologyByConfigVersion(configVersion),
+            testOptionRepository.findAllTopologyByConfigVersion(configVersion)
+        );
+
+        // a topology rebuilt while loading must not be replaced by the stale one
+        if (invalidations.get() == invalidationsBefore) {
+            topologies.putIfAbsent(configVersion, loaded);
+        }
+
+        return loaded;
+    }
+
+    public void evict(int configVersion) {
+        invalidations.incrementAndGet();
+        topologies.remove(configVersion);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidations.incrementAndGet();
+                topologies.remove(configVersion);
+            }
+        });
+    }
+
+    @EventListener
+    public void onConfigModified(ConfigModifiedEvent event) {
+        evict(event.version());
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+        return new CacheStats("test-topologies", topologies.size(), hits.get(), misses.get());
+    }
+
+    public static final class Topology {
+        private static final int MISSING = -1;
+
+        private final IntMap optionToQuestion;
+        private final IntMap questionToPhase;
+        private final IntMap phaseToGroup;
+
+        private Topology(IntMap optionToQuestion, IntMap questionToPhase, IntMap phaseToGroup) {
+            this.optionToQuestion = optionToQuestion;
+            this.questionToPhase = questionToPhase;
+            this.phaseToGroup = phaseToGroup;
+        }
+
+        public static Topology build(
+            List<QuestionTopologyProjection> questions,
+            List<OptionTopologyProjection> options
+        ) {
+            final int[] questionIds = new int[questions.size()];
+            final int[] phaseIds = new int[questions.size()];
+            final int[] groupIds = new int[questions.size()];
+
+            for (int i = 0; i < questions.size(); i++) {
+                final QuestionTopologyProjection question = questions.get(i);
+                questionIds[i] = question.getQuestionId();
+                phaseIds[i] = question.getPhaseId();
+                groupIds[i] = question.getGroupId();
+            }
+
+            final int[] optionIds = new int[options.size()];
+            final int[] optionQuestionIds = new int[options.size()];
+
+            for (int i = 0; i < options.size(); i++) {
+                final OptionTopologyProjection option = options.get(i);
+                optionIds[i] = option.getOptionId();
+                optionQuestionIds[i] = option.getQuestionId();
+            }
+
+            return new Topology(
+                IntMap.of(optionIds, optionQuestionIds),
+                IntMap.of(questionIds, phaseIds),
+                IntMap.of(phaseIds, groupIds)
+            );
+        }
+
+        public boolean containsOption(int optionId, int groupId) {
+            final int questionId = optionToQuestion.get(optionId, MISSING);
+            return questionId != MISSING && containsQuestion(questionId, groupId);
+        }
+
+        public boolean containsQuestion(int questionId, int groupId) {
+            final int phaseId = questionToPhase.get(questionId, MISSING);
+            return phaseId != MISSING && phaseToGroup.get(phaseId, MISSING) == groupId;
+        }
+    }
+
+    private static final class IntMap {
+        private final int[] keys;
+        private final int[] values;
+
+        private IntMap(int[] keys, int[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        static IntMap of(int[] keys, int[] values) {
+            final long[] entries = new long[keys.length];
+
+            for (int i = 0; i < keys.length; i++) {
+                entries[i] = ((long) keys[i] << 32) | (values[i] & 0xFFFFFFFFL);
+            }
+
+            Arrays.sort(entries);
+
+            int size = 0;
+            final int[] sortedKeys = new int[entries.length];
+            final int[] sortedValues = new int[entries.length];
+
+            for (final long entry : entries) {
+                final int key = (int) (entry >>> 32);
+
+                if (size > 0 && sortedKeys[size - 1] == key) {
+                    continue;
+                }
+
+                sortedKeys[size] = key;
+                sortedValues[size] = (int) entry;
+                size++;
+            }
+
+            return new IntMap(Arrays.copyOf(sortedKeys, size), Arrays.copyOf(sortedValues, size));
+        }
+
+        int get(int key, int defaultValue) {
+            final int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? values[index] : defaultValue;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.models.config.ImageModel;
+import com.pocopi.api.models.test.TestGroupModel;
+import com.pocopi.api.models.test.TestOptionModel;
+import com.pocopi.api.models.test.TestPhaseModel;
+import com.pocopi.api.models.test.TestQuestionModel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Rows of a config's test tree that have to be inserted or deleted, gathered while diffing an update so
+ * {@link TestTreeWriter} can write each table with a few multi-row statements instead of one per row. Updated rows
+ * are not listed, they stay managed by the persistence context and are flushed together.
+ */
+@Getter
+public class TestTreeChanges {
+    private final List<TestGroupModel> newGroups = new ArrayList<>();
+    private final List<TestPhaseModel> newPhases = new ArrayList<>();
+    private final List<TestQuestionModel> newQuestions = new ArrayList<>();
+    private final List<TestOptionModel> newOptions = new ArrayList<>();
+
+    private final List<TestGroupModel> deletedGroups = new ArrayList<>();
+    private final List<TestPhaseModel> deletedPhases = new ArrayList<>();
+    private final List<TestQuestionModel> deletedQuestions = new ArrayList<>();
+    private final List<TestOptionModel> deletedOptions = new ArrayList<>();
+
+    private final LinkedHashMap<Integer, ImageModel> releasedImages = new LinkedHashMap<>();
+
+    public void insert(TestGroupModel group) {
+        newGroups.add(group);
+    }
+
+    public void insert(TestPhaseModel phase) {
+        newPhases.add(phase);
+    }
+
+    public void insert(TestQuestionModel question) {
+        newQuestions.add(question);
+    }
+
+    public void insert(TestOptionModel option) {
+        newOptions.add(option);
+    }
+
+    public void delete(TestGroupModel group) {
+        deletedGroups.add(group);
+    }
+
+    public void delete(TestPhaseModel phase) {
+        deletedPhases.add(phase);
+    }
+
+    public void delete(TestQuestionModel question) {
+        deletedQuestions.add(question);
+    }
+
+    public void delete(TestOptionModel option) {
+        deletedOptions.add(option);
+    }
+
+    /**
+     * Marks an image that is no longer referenced by the updated row. It is only deleted once every write has been
+     * applied and nothing else uses it.
+     */
+    public void releaseImage(ImageModel image) {
+        releasedImages.putIfAbsent(image.getId(), image);
+    }
+
+    public Collection<ImageModel> getReleasedImages() {
+        return releasedImages.values();
+    }
+}
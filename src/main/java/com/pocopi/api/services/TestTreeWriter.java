@@ -0,0 +1,142 @@
+package com.pocopi.api.services;
+
+import com.pocopi.api.models.config.ImageModel;
+import com.pocopi.api.models.test.TestGroupModel;
+import com.pocopi.api.models.test.TestOptionModel;
+import com.pocopi.api.models.test.TestPhaseModel;
+import com.pocopi.api.models.test.TestQuestionModel;
+import com.pocopi.api.repositories.*;
+import com.pocopi.api.repositories.TestTreeBatchRepository.GroupRow;
+import com.pocopi.api.repositories.TestTreeBatchRepository.OptionRow;
+import com.pocopi.api.repositories.TestTreeBatchRepository.PhaseRow;
+import com.pocopi.api.repositories.TestTreeBatchRepository.QuestionRow;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+@Service
+public class TestTreeWriter {
+    private final TestTreeBatchRepository testTreeBatchRepository;
+    private final TestGroupRepository testGroupRepository;
+    private final TestPhaseRepository testPhaseRepository;
+    private final TestQuestionRepository testQuestionRepository;
+    private final TestOptionRepository testOptionRepository;
+    private final ImageService imageService;
+
+    public TestTreeWriter(
+        TestTreeBatchRepository testTreeBatchRepository,
+        TestGroupRepository testGroupRepository,
+        TestPhaseRepository testPhaseRepository,
+        TestQuestionRepository testQuestionRepository,
+        TestOptionRepository testOptionRepository,
+        ImageService imageService
+    ) {
+        this.testTreeBatchRepository = testTreeBatchRepository;
+        this.testGroupRepository = testGroupRepository;
+        this.testPhaseRepository = testPhaseRepository;
+        this.testQuestionRepository = testQuestionRepository;
+        this.testOptionRepository = testOptionRepository;
+        this.imageService = imageService;
+    }
+
+    /**
+     * Applies the changes in three steps: deletes and dirty rows are flushed together as per-table batches, then new
+     * rows are inserted with multi-row statements one tree level at a time, and finally released images are cleaned
+     * up.
+     * <p>
+     * Only the test tree is written this way. Every entity uses identity ids, which makes Hibernate insert new rows one
+     * statement at a time, so forms, cards, FAQs and translations still pay a round trip per new row; only their
+     * updates and deletes are batched through {@code hibernate.jdbc.batch_size}.
+     */
+    @Transactional
+    public void apply(TestTreeChanges changes) {
+        testOptionRepository.deleteAll(changes.getDeletedOptions());
+        testQuestionRepository.deleteAll(changes.getDeletedQuestions());
+        testPhaseRepository.deleteAll(changes.getDeletedPhases());
+        testGroupRepository.deleteAll(changes.getDeletedGroups());
+
+        testGroupRepository.flush();
+
+        // new rows aren't managed by the persistence context, so ids are tracked here to resolve their children
+        final IdentityHashMap<Object, Integer> insertedIds = new IdentityHashMap<>();
+
+        final List<TestGroupModel> newGroups = changes.getNewGroups();
+        registerIds(insertedIds, newGroups, testTreeBatchRepository.insertGroups(newGroups.stream()
+            .map(group -> new GroupRow(
+                group.getConfig().getVersion(),
+                group.getLabel(),
+                group.getProbability(),
+                group.getGreeting(),
+                imageId(group.getGreetingImage()),
+                group.isAllowPreviousPhase(),
+                group.isAllowPreviousQuestion(),
+                group.isAllowSkipQuestion(),
+                group.isRandomizePhases()
+            ))
+            .toList()
+        ));
+
+        final List<TestPhaseModel> newPhases = changes.getNewPhases();
+        registerIds(insertedIds, newPhases, testTreeBatchRepository.insertPhases(newPhases.stream()
+            .map(phase -> new PhaseRow(
+                idOf(phase.getGroup(), phase.getGroup().getId(), insertedIds),
+                phase.getOrder(),
+                phase.isRandomizeQuestions()
+            ))
+            .toList()
+        ));
+
+        final List<TestQuestionModel> newQuestions = changes.getNewQuestions();
+        registerIds(insertedIds, newQuestions, testTreeBatchRepository.insertQuestions(newQuestions.stream()
+            .map(question -> new QuestionRow(
+                idOf(question.getPhase(), question.getPhase().getId(), insertedIds),
+                question.getOrder(),
+                question.getText(),
+                imageId(question.getImage()),
+                question.isRandomizeOptions()
+            ))
+            .toList()
+        ));
+
+        testTreeBatchRepository.insertOptions(changes.getNewOptions().stream()
+            .map(option -> new OptionRow(
+                idOf(option.getQuestion(), option.getQuestion().getId(), insertedIds),
+                option.getOrder(),
+                option.getText(),
+                imageId(option.getImage()),
+                option.isCorrect()
+            ))
+            .toList()
+        );
+
+        for (final ImageModel image : changes.getReleasedImages()) {
+            imageService.deleteImageIfUnused(image);
+        }
+    }
+
+    private static void registerIds(IdentityHashMap<Object, Integer> insertedIds, List<?> rows, List<Integer> ids) {
+        for (int i = 0; i < rows.size(); i++) {
+            insertedIds.put(rows.get(i), ids.get(i));
+        }
+    }
+
+    private static int idOf(Object parent, int storedId, IdentityHashMap<Object, Integer> insertedIds) {
+        final Integer insertedId = insertedIds.get(parent);
+
+        if (insertedId != null) {
+            return insertedId;
+        }
+
+        if (storedId < 1) {
+            throw new IllegalStateException("Parent row of a new test tree row was never inserted");
+        }
+
+        return storedId;
+    }
+
+    private static Integer imageId(ImageModel image) {
+        return image != null ? image.getId() : null;
+    }
+}
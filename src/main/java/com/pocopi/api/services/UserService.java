@@ -31,6 +31,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final ConfigRepository configRepository;
+    private final ActiveConfigVersion activeConfigVersion;
     private final Validator validator;
     private final ApiExceptionMapper apiExceptionMapper;
 
@@ -38,12 +39,14 @@ public class UserService {
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         ConfigRepository configRepository,
+        ActiveConfigVersion activeConfigVersion,
         Validator validator,
         ApiExceptionMapper apiExceptionMapper
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.configRepository = configRepository;
+        this.activeConfigVersion = activeConfigVersion;
         this.validator = validator;
         this.apiExceptionMapper = apiExceptionMapper;
     }
@@ -81,7 +84,9 @@ public class UserService {
 
     @Transactional
     public void createUser(NewUser user) {
-        final ConfigModel config = configRepository.getLastConfig();
+        final int configVersion = activeConfigVersion.get();
+        final ConfigModel config = configRepository.findByVersion(configVersion)
+            .orElseThrow(() -> HttpException.notFound("Active config with version " + configVersion + " not found"));
         final boolean anonymous = config.isAnonymous();
         final PatternModel usernamePattern = config.getUsernamePattern();
 
@@ -7,9 +7,9 @@ import com.pocopi.api.exception.HttpException;
 import com.pocopi.api.models.test.TestGroupModel;
 import com.pocopi.api.models.test.UserTestAttemptModel;
 import com.pocopi.api.models.user.UserModel;
-import com.pocopi.api.repositories.ConfigRepository;
 import com.pocopi.api.repositories.UserTestAttemptRepository;
 import com.pocopi.api.repositories.projections.FormsCompletionStatusProjection;
+import com.pocopi.api.services.ActiveAttemptRegistry.ActiveAttempt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,34 +18,36 @@ import java.util.List;
 
 @Service
 public class UserTestAttemptService {
-    private final ConfigRepository configRepository;
+    private final ActiveConfigVersion activeConfigVersion;
     private final TestGroupService testGroupService;
     private final UserTestAttemptRepository userTestAttemptRepository;
+    private final ActiveAttemptRegistry activeAttemptRegistry;
+    private final EventSequenceTracker eventSequenceTracker;
 
     public UserTestAttemptService(
-        ConfigRepository configRepository,
+        ActiveConfigVersion activeConfigVersion,
         TestGroupService testGroupService,
-        UserTestAttemptRepository userTestAttemptRepository
+        UserTestAttemptRepository userTestAttemptRepository,
+        ActiveAttemptRegistry activeAttemptRegistry,
+        EventSequenceTracker eventSequenceTracker
     ) {
-        this.configRepository = configRepository;
+        this.activeConfigVersion = activeConfigVersion;
         this.testGroupService = testGroupService;
         this.userTestAttemptRepository = userTestAttemptRepository;
+        this.activeAttemptRegistry = activeAttemptRegistry;
+        this.eventSequenceTracker = eventSequenceTracker;
     }
 
     @Transactional
     public void assertActiveAttempt(UserModel user) {
-        final int configVersion = configRepository.getLastConfig().getVersion();
-
-        if (!userTestAttemptRepository.hasUnfinishedAttempt(configVersion, user.getId())) {
+        if (activeAttemptRegistry.findVerified(user.getId()).isEmpty()) {
             throw HttpException.notFound("User has not started an attempt");
         }
     }
 
     @Transactional
     public UserTestAttempt beginAttempt(UserModel user) {
-        final int configVersion = configRepository.getLastConfig().getVersion();
-
-        if (userTestAttemptRepository.hasUnfinishedAttempt(configVersion, user.getId())) {
+        if (activeAttemptRegistry.findVerified(user.getId()).isPresent()) {
             throw HttpException.conflict("User has already started an attempt");
         }
 
@@ -58,7 +60,10 @@ public class UserTestAttemptService {
             .start(Instant.now())
             .build();
 
-        userTestAttemptRepository.save(newAttempt);
+        final UserTestAttemptModel savedAttempt = userTestAttemptRepository.save(newAttempt);
+        final int configVersion = activeConfigVersion.get();
+
+        activeAttemptRegistry.register(user.getId(), savedAttempt, configVersion);
 
         return new UserTestAttempt(
             false,
@@ -71,11 +76,7 @@ public class UserTestAttemptService {
 
     @Transactional
     public UserTestAttempt continueAttempt(int userId) {
-        final int configVersion = configRepository.getLastConfig().getVersion();
-
-        final UserTestAttemptModel unfinishedAttempt = userTestAttemptRepository
-            .findUnfinishedAttempt(configVersion, userId)
-            .orElseThrow(() -> HttpException.notFound("User has not started an attempt yet"));
+        final UserTestAttemptModel unfinishedAttempt = findUnfinishedAttempt(userId);
 
         final AssignedTestGroup assignedGroup = testGroupService.getAssignedGroup(unfinishedAttempt.getGroup());
 
@@ -103,24 +104,31 @@ public class UserTestAttemptService {
 
     @Transactional
     public void discardAttempt(int userId) {
-        final int configVersion = configRepository.getLastConfig().getVersion();
-
-        final UserTestAttemptModel unfinishedAttempt = userTestAttemptRepository
-            .findUnfinishedAttempt(configVersion, userId)
-            .orElseThrow(() -> HttpException.notFound("User has not started an attempt yet"));
+        final UserTestAttemptModel unfinishedAttempt = findUnfinishedAttempt(userId);
 
         userTestAttemptRepository.delete(unfinishedAttempt);
+        activeAttemptRegistry.remove(userId);
+        eventSequenceTracker.forget(unfinishedAttempt.getId());
     }
 
     @Transactional
     public void endAttempt(int userId) {
-        final int configVersion = configRepository.getLastConfig().getVersion();
-
-        final UserTestAttemptModel unfinishedAttempt = userTestAttemptRepository
-            .findUnfinishedAttempt(configVersion, userId)
-            .orElseThrow(() -> HttpException.notFound("User has not started an attempt yet"));
+        final UserTestAttemptModel unfinishedAttempt = findUnfinishedAttempt(userId);
 
         unfinishedAttempt.setEnd(Instant.now());
         userTestAttemptRepository.save(unfinishedAttempt);
+        activeAttemptRegistry.remove(userId);
+        eventSequenceTracker.forget(unfinishedAttempt.getId());
+    }
+
+    private UserTestAttemptModel findUnfinishedAttempt(int userId) {
+        final ActiveAttempt activeAttempt = activeAttemptRegistry.get(userId);
+
+        return userTestAttemptRepository.findById(activeAttempt.attemptId())
+            .filter(attempt -> attempt.getEnd() == null)
+            .orElseThrow(() -> {
+                activeAttemptRegistry.remove(userId);
+                return HttpException.notFound("User has not started an attempt yet");
+            });
     }
 }
@@ -0,0 +1,3 @@
+alter table user_test_option_log
+    add hover_count int4 unsigned not null default 1 check (hover_count >= 1) after y,
+    add dwell       int4 unsigned not null default 0 after hover_count;
@@ -0,0 +1,45 @@
+create table user_test_question_log_archive (
+    attempt_id     int8 unsigned not null,
+    question_id    int4 unsigned not null,
+    timestamp      datetime(3)   not null,
+    duration       int4 unsigned not null,
+    config_version int4 unsigned not null,
+    primary key (attempt_id, question_id, timestamp),
+    index (question_id),
+    index (config_version)
+)
+    row_format = compressed
+    key_block_size = 8
+    partition by key (attempt_id) partitions 16;
+
+create table user_test_option_log_archive (
+    attempt_id     int8 unsigned                        not null,
+    option_id      int4 unsigned                        not null,
+    type           enum ('deselect', 'select', 'hover') not null,
+    timestamp      datetime(3)                          not null,
+    x              tinyint unsigned                     null,
+    y              tinyint unsigned                     null,
+    hover_count    int4 unsigned                        not null default 1,
+    dwell          int4 unsigned                        not null default 0,
+    config_version int4 unsigned                        not null,
+    primary key (attempt_id, option_id, type, timestamp),
+    index (option_id),
+    index (config_version)
+)
+    row_format = compressed
+    key_block_size = 8
+    partition by key (attempt_id) partitions 16;
+
+create view user_test_question_log_all as
+select attempt_id, question_id, timestamp, duration
+    from user_test_question_log
+union all
+select attempt_id, question_id, timestamp, duration
+    from user_test_question_log_archive;
+
+create view user_test_option_log_all as
+select attempt_id, option_id, type, timestamp, x, y, hover_count, dwell
+    from user_test_option_log
+union all
+select attempt_id, option_id, type, timestamp, x, y, hover_count, dwell
+    from user_test_option_log_archive;
@@ -0,0 +1,9 @@
+create table image_blob (
+    hash      char(64) primary key not null check (hash regexp '^[0-9a-f]{64}$'),
+    size      int8 unsigned        not null,
+    ref_count int4 unsigned        not null default 0
+);
+
+alter table image
+    add column blob_hash char(64) null after path,
+    add foreign key (blob_hash) references image_blob (hash) on delete restrict;
@@ -0,0 +1,3 @@
+alter table image
+    add column width          int2 unsigned       null after blob_hash,
+    add column variant_format enum ('png', 'jpg') null after width;
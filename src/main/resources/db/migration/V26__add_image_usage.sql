@@ -0,0 +1,375 @@
+create table image_usage (
+    image_id    int4 unsigned primary key not null,
+    usage_count int4                      not null default 0,
+    foreign key (image_id) references image (id) on delete cascade
+);
+
+insert into image_usage (image_id, usage_count)
+select u.image_id, count(*)
+    from (select icon_id as image_id from config
+          union all
+          select icon_id from home_info_card
+          union all
+          select image_id from form_question
+          union all
+          select image_id from form_question_option
+          union all
+          select greeting_image_id from test_group
+          union all
+          select image_id from test_question
+          union all
+          select image_id from test_option) u
+    where u.image_id is not null
+    group by u.image_id;
+
+create procedure add_image_usage(in p_image_id int4 unsigned, in p_delta int4)
+begin
+    if (p_image_id is not null) then
+        insert into image_usage (image_id, usage_count)
+            values (p_image_id, p_delta)
+            on duplicate key update usage_count = usage_count + p_delta;
+    end if;
+end;
+
+-- config
+
+create trigger after_insert_config
+    after insert
+    on config
+    for each row
+begin
+    call add_image_usage(new.icon_id, 1);
+end;
+
+create trigger after_update_config
+    after update
+    on config
+    for each row
+begin
+    if (not (old.icon_id <=> new.icon_id)) then
+        call add_image_usage(old.icon_id, -1);
+        call add_image_usage(new.icon_id, 1);
+    end if;
+end;
+
+-- rows removed by on delete cascade don't fire their own triggers, so each parent releases the images of its
+-- descendants before they go
+
+create trigger before_delete_config
+    before delete
+    on config
+    for each row
+begin
+    update image_usage u
+        inner join (select d.image_id, count(*) as usages
+                        from (select c.icon_id as image_id
+                                  from home_info_card c
+                                  where c.config_version = old.version
+                              union all
+                              select q.image_id
+                                  from form_question q
+                                      inner join form f on f.id = q.form_id
+                                  where f.config_version = old.version
+                              union all
+                              select o.image_id
+                                  from form_question_option o
+                                      inner join form_question q on q.id = o.form_question_id
+                                      inner join form f on f.id = q.form_id
+                                  where f.config_version = old.version
+                              union all
+                              select g.greeting_image_id
+                                  from test_group g
+                                  where g.config_version = old.version
+                              union all
+                              select q.image_id
+                                  from test_question q
+                                      inner join test_phase p on p.id = q.phase_id
+                                      inner join test_group g on g.id = p.group_id
+                                  where g.config_version = old.version
+                              union all
+                              select o.image_id
+                                  from test_option o
+                                      inner join test_question q on q.id = o.question_id
+                                      inner join test_phase p on p.id = q.phase_id
+                                      inner join test_group g on g.id = p.group_id
+                                  where g.config_version = old.version) d
+                        where d.image_id is not null
+                        group by d.image_id) r on r.image_id = u.image_id
+        set u.usage_count = u.usage_count - r.usages;
+end;
+
+create trigger after_delete_config
+    after delete
+    on config
+    for each row
+begin
+    call add_image_usage(old.icon_id, -1);
+end;
+
+-- home_info_card
+
+create trigger after_insert_home_info_card
+    after insert
+    on home_info_card
+    for each row
+begin
+    call add_image_usage(new.icon_id, 1);
+end;
+
+create trigger after_update_home_info_card
+    after update
+    on home_info_card
+    for each row
+begin
+    if (not (old.icon_id <=> new.icon_id)) then
+        call add_image_usage(old.icon_id, -1);
+        call add_image_usage(new.icon_id, 1);
+    end if;
+end;
+
+create trigger after_delete_home_info_card
+    after delete
+    on home_info_card
+    for each row
+begin
+    call add_image_usage(old.icon_id, -1);
+end;
+
+-- form
+
+create trigger before_delete_form
+    before delete
+    on form
+    for each row
+begin
+    update image_usage u
+        inner join (select d.image_id, count(*) as usages
+                        from (select q.image_id
+                                  from form_question q
+                                  where q.form_id = old.id
+                              union all
+                              select o.image_id
+                                  from form_question_option o
+                                      inner join form_question q on q.id = o.form_question_id
+                                  where q.form_id = old.id) d
+                        where d.image_id is not null
+                        group by d.image_id) r on r.image_id = u.image_id
+        set u.usage_count = u.usage_count - r.usages;
+end;
+
+-- form_question
+
+create trigger after_insert_form_question
+    after insert
+    on form_question
+    for each row
+begin
+    call add_image_usage(new.image_id, 1);
+end;
+
+create trigger after_update_form_question
+    after update
+    on form_question
+    for each row
+begin
+    if (not (old.image_id <=> new.image_id)) then
+        call add_image_usage(old.image_id, -1);
+        call add_image_usage(new.image_id, 1);
+    end if;
+end;
+
+create trigger before_delete_form_question
+    before delete
+    on form_question
+    for each row
+begin
+    update image_usage u
+        inner join (select o.image_id, count(*) as usages
+                        from form_question_option o
+                        where o.form_question_id = old.id
+                          and o.image_id is not null
+                        group by o.image_id) r on r.image_id = u.image_id
+        set u.usage_count = u.usage_count - r.usages;
+end;
+
+create trigger after_delete_form_question
+    after delete
+    on form_question
+    for each row
+begin
+    call add_image_usage(old.image_id, -1);
+end;
+
+-- form_question_option
+
+create trigger after_insert_form_question_option
+    after insert
+    on form_question_option
+    for each row
+begin
+    call add_image_usage(new.image_id, 1);
+end;
+
+create trigger after_update_form_question_option
+    after update
+    on form_question_option
+    for each row
+begin
+    if (not (old.image_id <=> new.image_id)) then
+        call add_image_usage(old.image_id, -1);
+        call add_image_usage(new.image_id, 1);
+    end if;
+end;
+
+create trigger after_delete_form_question_option
+    after delete
+    on form_question_option
+    for each row
+begin
+    call add_image_usage(old.image_id, -1);
+end;
+
+-- test_group
+
+create trigger after_insert_test_group
+    after insert
+    on test_group
+    for each row
+begin
+    call add_image_usage(new.greeting_image_id, 1);
+end;
+
+create trigger after_update_test_group
+    after update
+    on test_group
+    for each row
+begin
+    if (not (old.greeting_image_id <=> new.greeting_image_id)) then
+        call add_image_usage(old.greeting_image_id, -1);
+        call add_image_usage(new.greeting_image_id, 1);
+    end if;
+end;
+
+create trigger before_delete_test_group
+    before delete
+    on test_group
+    for each row
+begin
+    update image_usage u
+        inner join (select d.image_id, count(*) as usages
+                        from (select q.image_id
+                                  from test_question q
+                                      inner join test_phase p on p.id = q.phase_id
+                                  where p.group_id = old.id
+                              union all
+                              select o.image_id
+                                  from test_option o
+                                      inner join test_question q on q.id = o.question_id
+                                      inner join test_phase p on p.id = q.phase_id
+                                  where p.group_id = old.id) d
+                        where d.image_id is not null
+                        group by d.image_id) r on r.image_id = u.image_id
+        set u.usage_count = u.usage_count - r.usages;
+end;
+
+create trigger after_delete_test_group
+    after delete
+    on test_group
+    for each row
+begin
+    call add_image_usage(old.greeting_image_id, -1);
+end;
+
+-- test_phase
+
+create trigger before_delete_test_phase
+    before delete
+    on test_phase
+    for each row
+begin
+    update image_usage u
+        inner join (select d.image_id, count(*) as usages
+                        from (select q.image_id
+                                  from test_question q
+                                  where q.phase_id = old.id
+                              union all
+                              select o.image_id
+                                  from test_option o
+                                      inner join test_question q on q.id = o.question_id
+                                  where q.phase_id = old.id) d
+                        where d.image_id is not null
+                        group by d.image_id) r on r.image_id = u.image_id
+        set u.usage_count = u.usage_count - r.usages;
+end;
+
+-- test_question
+
+create trigger after_insert_test_question
+    after insert
+    on test_question
+    for each row
+begin
+    call add_image_usage(new.image_id, 1);
+end;
+
+create trigger after_update_test_question
+    after update
+    on test_question
+    for each row
+begin
+    if (not (old.image_id <=> new.image_id)) then
+        call add_image_usage(old.image_id, -1);
+        call add_image_usage(new.image_id, 1);
+    end if;
+end;
+
+create trigger before_delete_test_question
+    before delete
+    on test_question
+    for each row
+begin
+    update image_usage u
+        inner join (select o.image_id, count(*) as usages
+                        from test_option o
+                        where o.question_id = old.id
+                          and o.image_id is not null
+                        group by o.image_id) r on r.image_id = u.image_id
+        set u.usage_count = u.usage_count - r.usages;
+end;
+
+create trigger after_delete_test_question
+    after delete
+    on test_question
+    for each row
+begin
+    call add_image_usage(old.image_id, -1);
+end;
+
+-- test_option
+
+create trigger after_insert_test_option
+    after insert
+    on test_option
+    for each row
+begin
+    call add_image_usage(new.image_id, 1);
+end;
+
+create trigger after_update_test_option
+    after update
+    on test_option
+    for each row
+begin
+    if (not (old.image_id <=> new.image_id)) then
+        call add_image_usage(old.image_id, -1);
+        call add_image_usage(new.image_id, 1);
+    end if;
+end;
+
+create trigger after_delete_test_option
+    after delete
+    on test_option
+    for each row
+begin
+    call add_image_usage(old.image_id, -1);
+end;
@@ -0,0 +1,2 @@
+alter table config
+    add column revision int4 unsigned not null default 0;
@@ -0,0 +1,5 @@
+create table user_test_event_stream (
+    attempt_id    int8 unsigned primary key not null,
+    last_sequence int8 unsigned             not null,
+    foreign key (attempt_id) references user_test_attempt (id) on delete cascade
+);
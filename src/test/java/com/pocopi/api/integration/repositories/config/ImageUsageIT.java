@@ -0,0 +1,170 @@
+package com.pocopi.api.integration.repositories.config;
+
+import com.pocopi.api.models.config.ConfigModel;
+import com.pocopi.api.models.config.HomeInfoCardModel;
+import com.pocopi.api.models.config.ImageModel;
+import com.pocopi.api.models.test.TestGroupModel;
+import com.pocopi.api.models.test.TestOptionModel;
+import com.pocopi.api.models.test.TestPhaseModel;
+import com.pocopi.api.models.test.TestQuestionModel;
+import com.pocopi.api.repositories.*;
+import com.pocopi.api.repositories.ImageUsageRepository.UsageMismatch;
+import com.pocopi.api.services.ImageUsageChecker;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("integration")
+class ImageUsageIT {
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ImageUsageChecker imageUsageChecker;
+
+    @Autowired
+    private ConfigRepository configRepository;
+
+    @Autowired
+    private HomeInfoCardRepository homeInfoCardRepository;
+
+    @Autowired
+    private TestGroupRepository testGroupRepository;
+
+    @Autowired
+    private TestPhaseRepository testPhaseRepository;
+
+    @Autowired
+    private TestQuestionRepository testQuestionRepository;
+
+    @Autowired
+    private TestOptionRepository testOptionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ConfigModel createConfig() {
+        return configRepository.save(ConfigModel.builder()
+            .title("Usage")
+            .description("desc")
+            .informedConsent("consent")
+            .build());
+    }
+
+    private ImageModel createImage() {
+        return imageRepository.save(ImageModel.builder()
+            .path("images/usage/" + System.nanoTime() + "_image.png")
+            .alt("alt")
+            .build());
+    }
+
+    private HomeInfoCardModel createCard(ConfigModel config, short order, ImageModel icon) {
+        return homeInfoCardRepository.save(HomeInfoCardModel.builder()
+            .config(config)
+            .order(order)
+            .title("Card")
+            .description("Card description")
+            .icon(icon)
+            .build());
+    }
+
+    @Test
+    @Transactional
+    void countImageUsages_ShouldFollowInsertsUpdatesAndDeletes() {
+        // Arrange
+        ConfigModel config = createConfig();
+        ImageModel image = createImage();
+
+        // Act & Assert
+        HomeInfoCardModel first = createCard(config, (short) 0, image);
+        HomeInfoCardModel second = createCard(config, (short) 1, image);
+        assertEquals(2, imageRepository.countImageUsages(image.getId()));
+
+        first.setIcon(null);
+        homeInfoCardRepository.save(first);
+        assertEquals(1, imageRepository.countImageUsages(image.getId()));
+
+        homeInfoCardRepository.delete(second);
+        assertEquals(0, imageRepository.countImageUsages(image.getId()));
+        assertFalse(imageRepository.isImageUsed(image.getId()));
+    }
+
+    @Test
+    @Transactional
+    void countImageUsages_WhenParentIsDeleted_ShouldReleaseCascadedImages() {
+        // Arrange
+        ConfigModel config = createConfig();
+        ImageModel greeting = createImage();
+        ImageModel questionImage = createImage();
+        ImageModel optionImage = createImage();
+
+        TestGroupModel group = testGroupRepository.save(TestGroupModel.builder()
+            .config(config)
+            .label("G")
+            .probability((byte) 100)
+            .greetingImage(greeting)
+            .build());
+        TestPhaseModel phase = testPhaseRepository.save(TestPhaseModel.builder()
+            .group(group)
+            .order((short) 0)
+            .build());
+        TestQuestionModel question = testQuestionRepository.save(TestQuestionModel.builder()
+            .phase(phase)
+            .order((short) 0)
+            .image(questionImage)
+            .build());
+
+        for (short o = 0; o < 2; o++) {
+            testOptionRepository.save(TestOptionModel.builder()
+                .question(question)
+                .order(o)
+                .image(optionImage)
+                .correct(o == 0)
+                .build());
+        }
+
+        entityManager.flush();
+        assertEquals(2, imageRepository.countImageUsages(optionImage.getId()));
+
+        // Act
+        jdbcTemplate.update("delete from config where version = ?", config.getVersion());
+
+        // Assert
+        assertEquals(0, imageRepository.countImageUsages(greeting.getId()));
+        assertEquals(0, imageRepository.countImageUsages(questionImage.getId()));
+        assertEquals(0, imageRepository.countImageUsages(optionImage.getId()));
+    }
+
+    @Test
+    @Transactional
+    void check_WithDriftedCount_ShouldReportAndRepairIt() {
+        // Arrange
+        ConfigModel config = createConfig();
+        ImageModel image = createImage();
+        createCard(config, (short) 0, image);
+        entityManager.flush();
+
+        jdbcTemplate.update("update image_usage set usage_count = 5 where image_id = ?", image.getId());
+
+        // Act
+        List<UsageMismatch> mismatches = imageUsageChecker.check();
+
+        // Assert
+        assertTrue(mismatches.contains(new UsageMismatch(image.getId(), 5, 1)));
+        assertEquals(1, imageRepository.countImageUsages(image.getId()));
+        assertTrue(imageUsageChecker.check().isEmpty());
+    }
+}
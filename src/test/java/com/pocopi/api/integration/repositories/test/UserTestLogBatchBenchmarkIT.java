@@ -0,0 +1,177 @@
+package com.pocopi.api.integration.repositories.test;
+
+import com.pocopi.api.models.config.ConfigModel;
+import com.pocopi.api.models.test.*;
+import com.pocopi.api.models.user.Role;
+import com.pocopi.api.models.user.UserModel;
+import com.pocopi.api.repositories.*;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.OptionLogRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("integration")
+@Tag("benchmark")
+class UserTestLogBatchBenchmarkIT {
+
+    private static final Logger log = LoggerFactory.getLogger(UserTestLogBatchBenchmarkIT.class);
+
+    private static final int WARMUP_ROWS = 1_000;
+    private static final int MEASURED_ROWS = 20_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private ConfigRepository configRepository;
+
+    @Autowired
+    private TestGroupRepository testGroupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTestAttemptRepository userTestAttemptRepository;
+
+    @Autowired
+    private TestPhaseRepository testPhaseRepository;
+
+    @Autowired
+    private TestQuestionRepository testQuestionRepository;
+
+    @Autowired
+    private TestOptionRepository testOptionRepository;
+
+    @Autowired
+    private UserTestLogBatchRepository userTestLogBatchRepository;
+
+    @Test
+    @Transactional
+    void compareOptionLogInsertThroughputWithAndWithoutTriggers() {
+        ConfigModel config = configRepository.save(ConfigModel.builder()
+            .title("Config benchmark")
+            .subtitle("Subtítulo benchmark")
+            .description("Config para medir inserciones de logs.")
+            .informedConsent("Consentimiento informado benchmark.")
+            .anonymous(false)
+            .build());
+
+        TestGroupModel group = testGroupRepository.save(TestGroupModel.builder()
+            .config(config)
+            .label("GRUPO-BENCH")
+            .probability((byte) 100)
+            .greeting("Grupo benchmark.")
+            .build());
+
+        UserModel user = userRepository.save(UserModel.builder()
+            .username("bench_user")
+            .role(Role.USER)
+            .anonymous(false)
+            .name("Benchmark User")
+            .email("bench@example.com")
+            .age((byte) 30)
+            .password("x".repeat(UserModel.ENCRYPTED_PASSWORD_LEN))
+            .build());
+
+        UserTestAttemptModel attempt = userTestAttemptRepository.save(UserTestAttemptModel.builder()
+            .user(user)
+            .group(group)
+            .start(Instant.parse("2025-01-01T00:00:00Z"))
+            .build());
+
+        TestPhaseModel phase = testPhaseRepository.save(TestPhaseModel.builder()
+            .group(group)
+            .order((short) 1)
+            .randomizeQuestions(false)
+            .build());
+
+        TestQuestionModel question = testQuestionRepository.save(TestQuestionModel.builder()
+            .phase(phase)
+            .order((short) 1)
+            .text("Pregunta benchmark")
+            .randomizeOptions(false)
+            .build());
+
+        TestOptionModel option = testOptionRepository.save(TestOptionModel.builder()
+            .question(question)
+            .order((short) 1)
+            .text("Opción benchmark")
+            .correct(true)
+            .build());
+
+        testOptionRepository.flush();
+
+        long timestamp = Instant.parse("2025-01-01T00:00:01Z").toEpochMilli();
+
+        measure("warmup triggers", generateRows(attempt.getId(), option.getId(), timestamp, WARMUP_ROWS),
+            userTestLogBatchRepository::insertValidatedOptionLogs);
+        timestamp += WARMUP_ROWS;
+        measure("warmup trusted", generateRows(attempt.getId(), option.getId(), timestamp, WARMUP_ROWS),
+            userTestLogBatchRepository::insertTrustedOptionLogs);
+        timestamp += WARMUP_ROWS;
+
+        double withTriggers = measure(
+            "with triggers",
+            generateRows(attempt.getId(), option.getId(), timestamp, MEASURED_ROWS),
+            userTestLogBatchRepository::insertValidatedOptionLogs
+        );
+        timestamp += MEASURED_ROWS;
+
+        double withoutTriggers = measure(
+            "without triggers (multi-row)",
+            generateRows(attempt.getId(), option.getId(), timestamp, MEASURED_ROWS),
+            userTestLogBatchRepository::insertTrustedOptionLogs
+        );
+
+        log.info("Trusted multi-row insert speedup: {}x", String.format("%.2f", withoutTriggers / withTriggers));
+    }
+
+    private double measure(String label, List<OptionLogRow> rows, Function<List<OptionLogRow>, boolean[]> insert) {
+        long startNanos = System.nanoTime();
+        int inserted = 0;
+
+        for (int i = 0; i < rows.size(); i += BATCH_SIZE) {
+            for (boolean flag : insert.apply(rows.subList(i, Math.min(i + BATCH_SIZE, rows.size())))) {
+                inserted += flag ? 1 : 0;
+            }
+        }
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        double rowsPerSecond = rows.size() / seconds;
+
+        assertEquals(rows.size(), inserted, "Todas las filas del benchmark deben insertarse");
+        log.info("Option log insert {}: {} rows in {} s ({} rows/s)",
+            label, rows.size(), String.format("%.3f", seconds), String.format("%.0f", rowsPerSecond));
+
+        return rowsPerSecond;
+    }
+
+    private static List<OptionLogRow> generateRows(long attemptId, int optionId, long firstTimestamp, int count) {
+        List<OptionLogRow> rows = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            rows.add(new OptionLogRow(
+                attemptId,
+                optionId,
+                TestOptionEventType.HOVER,
+                Instant.ofEpochMilli(firstTimestamp + i),
+                (byte) (i % 100),
+                (byte) (i % 100)
+            ));
+        }
+
+        return rows;
+    }
+}
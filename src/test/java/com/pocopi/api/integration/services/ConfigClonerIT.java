@@ -0,0 +1,345 @@
+package com.pocopi.api.integration.services;
+
+import com.pocopi.api.config.ImageConfig;
+import com.pocopi.api.dto.config.FullConfig;
+import com.pocopi.api.dto.config.Image;
+import com.pocopi.api.dto.form.FormQuestion;
+import com.pocopi.api.dto.test.TestGroup;
+import com.pocopi.api.models.config.ConfigModel;
+import com.pocopi.api.models.config.HomeFaqModel;
+import com.pocopi.api.models.config.HomeInfoCardModel;
+import com.pocopi.api.models.config.ImageModel;
+import com.pocopi.api.models.form.*;
+import com.pocopi.api.models.test.TestGroupModel;
+import com.pocopi.api.models.test.TestOptionModel;
+import com.pocopi.api.models.test.TestPhaseModel;
+import com.pocopi.api.models.test.TestQuestionModel;
+import com.pocopi.api.repositories.*;
+import com.pocopi.api.services.ConfigCloner;
+import com.pocopi.api.services.FullConfigLoader;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("integration")
+class ConfigClonerIT {
+
+    @Autowired
+    private ConfigCloner configCloner;
+
+    @Autowired
+    private FullConfigLoader fullConfigLoader;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ImageConfig imageConfig;
+
+    @Autowired
+    private ConfigRepository configRepository;
+
+    @Autowired
+    private HomeInfoCardRepository homeInfoCardRepository;
+
+    @Autowired
+    private HomeFaqRepository homeFaqRepository;
+
+    @Autowired
+    private FormRepository formRepository;
+
+    @Autowired
+    private FormQuestionRepository formQuestionRepository;
+
+    @Autowired
+    private FormQuestionOptionRepository formQuestionOptionRepository;
+
+    @Autowired
+    private FormQuestionSliderLabelRepository formQuestionSliderLabelRepository;
+
+    @Autowired
+    private TestGroupRepository testGroupRepository;
+
+    @Autowired
+    private TestPhaseRepository testPhaseRepository;
+
+    @Autowired
+    private TestQuestionRepository testQuestionRepository;
+
+    @Autowired
+    private TestOptionRepository testOptionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(imageConfig, "basePath", tempDir.toString());
+        ReflectionTestUtils.setField(imageConfig, "baseUrl", "http://localhost:8080");
+    }
+
+    private ConfigModel createConfig(String title) {
+        return configRepository.save(ConfigModel.builder()
+            .title(title)
+            .description("desc")
+            .informedConsent("consent")
+            .build());
+    }
+
+    private ImageModel createImage(String directory) throws Exception {
+        String path = "images/" + directory + "/" + System.nanoTime() + "_image.png";
+        Path file = tempDir.resolve(path.replaceFirst("^images/", ""));
+        Files.createDirectories(file.getParent());
+        Files.write(file, createPngBytes());
+
+        return imageRepository.save(ImageModel.builder()
+            .path(path)
+            .alt("alt")
+            .build());
+    }
+
+    private void populate(ConfigModel config) throws Exception {
+        homeInfoCardRepository.save(HomeInfoCardModel.builder()
+            .config(config)
+            .order((short) 0)
+            .title("Card")
+            .description("Card description")
+            .icon(createImage("cards"))
+            .build());
+
+        homeFaqRepository.save(HomeFaqModel.builder()
+            .config(config)
+            .order((short) 0)
+            .question("Question")
+            .answer("Answer")
+            .build());
+
+        FormModel form = formRepository.save(FormModel.builder()
+            .config(config)
+            .type(FormType.PRE)
+            .title("Pre")
+            .build());
+
+        FormQuestionModel selectQuestion = formQuestionRepository.save(FormQuestionModel.builder()
+            .form(form)
+            .order((short) 0)
+            .category("Select")
+            .text("Pick one")
+            .image(createImage("forms/questions"))
+            .type(FormQuestionType.SELECT_ONE)
+            .required(true)
+            .other(false)
+            .build());
+
+        for (short o = 0; o < 3; o++) {
+            formQuestionOptionRepository.save(FormQuestionOptionModel.builder()
+                .formQuestion(selectQuestion)
+                .order(o)
+                .text("Choice " + o)
+                .image(createImage("forms/questions/options"))
+                .build());
+        }
+
+        FormQuestionModel sliderQuestion = formQuestionRepository.save(FormQuestionModel.builder()
+            .form(form)
+            .order((short) 1)
+            .category("Slider")
+            .text("Rate it")
+            .type(FormQuestionType.SLIDER)
+            .required(true)
+            .min(1)
+            .max(5)
+            .step(1)
+            .build());
+
+        formQuestionSliderLabelRepository.save(FormQuestionSliderLabelModel.builder()
+            .formQuestion(sliderQuestion)
+            .number(1)
+            .label("Low")
+            .build());
+
+        formQuestionSliderLabelRepository.save(FormQuestionSliderLabelModel.builder()
+            .formQuestion(sliderQuestion)
+            .number(5)
+            .label("High")
+            .build());
+
+        for (int g = 0; g < 2; g++) {
+            TestGroupModel group = testGroupRepository.save(TestGroupModel.builder()
+                .config(config)
+                .label("G" + g)
+                .probability((byte) 50)
+                .greetingImage(createImage("test/greetings"))
+                .build());
+
+            for (short p = 0; p < 2; p++) {
+                TestPhaseModel phase = testPhaseRepository.save(TestPhaseModel.builder()
+                    .group(group)
+                    .order(p)
+                    .build());
+
+                for (short q = 0; q < 3; q++) {
+                    TestQuestionModel question = testQuestionRepository.save(TestQuestionModel.builder()
+                        .phase(phase)
+                        .order(q)
+                        .text("G" + g + "-P" + p + "-Q" + q)
+                        .image(createImage("test/questions"))
+                        .build());
+
+                    for (short o = 0; o < 2; o++) {
+                        testOptionRepository.save(TestOptionModel.builder()
+                            .question(question)
+                            .order(o)
+                            .text(question.getText() + "-O" + o)
+                            .image(createImage("test/questions/options"))
+                            .correct(o == 0)
+                            .build());
+                    }
+                }
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static List<Image> collectImages(FullConfig config) {
+        List<Image> images = new ArrayList<>();
+
+        config.informationCards().forEach(card -> images.add(card.icon()));
+        config.preTestForm().questions().forEach(question -> {
+            if (question instanceof FormQuestion.SelectOne selectOne) {
+                images.add(selectOne.image);
+                selectOne.options.forEach(option -> images.add(option.image()));
+            }
+        });
+        for (TestGroup group : config.groups()) {
+            images.add(group.greetingImage());
+            group.phases().forEach(phase -> phase.questions().forEach(question -> {
+                images.add(question.image());
+                question.options().forEach(option -> images.add(option.image()));
+            }));
+        }
+
+        return images;
+    }
+
+    private Path resolveImage(Image image) {
+        return tempDir.resolve(image.url().replaceFirst("^http://localhost:8080/images/", ""));
+    }
+
+    @Test
+    @Transactional
+    void cloneContents_ShouldCopyWholeTreeWithOwnImages() throws Exception {
+        // Arrange
+        ConfigModel original = createConfig("Original");
+        populate(original);
+        ConfigModel target = createConfig("Target");
+
+        // Act
+        configCloner.cloneContents(original.getVersion(), target.getVersion());
+
+        // Assert
+        FullConfig source = fullConfigLoader.load(original.getVersion()).orElseThrow();
+        FullConfig clone = fullConfigLoader.load(target.getVersion()).orElseThrow();
+
+        assertEquals(1, clone.informationCards().size());
+        assertEquals(1, clone.frequentlyAskedQuestion().size());
+        assertEquals(2, clone.preTestForm().questions().size());
+        assertInstanceOf(FormQuestion.SelectOne.class, clone.preTestForm().questions().get(0));
+        assertEquals(3, ((FormQuestion.SelectOne) clone.preTestForm().questions().get(0)).options.size());
+        assertEquals(2, ((FormQuestion.Slider) clone.preTestForm().questions().get(1)).labels.size());
+        assertEquals(
+            source.groups().stream().map(TestGroup::label).sorted().toList(),
+            clone.groups().stream().map(TestGroup::label).sorted().toList()
+        );
+
+        for (int g = 0; g < source.groups().size(); g++) {
+            var sourcePhases = source.groups().get(g).phases();
+            var clonePhases = clone.groups().get(g).phases();
+            assertEquals(sourcePhases.size(), clonePhases.size());
+
+            for (int p = 0; p < sourcePhases.size(); p++) {
+                var sourceQuestions = sourcePhases.get(p).questions();
+                var cloneQuestions = clonePhases.get(p).questions();
+                assertEquals(
+                    sourceQuestions.stream().map(question -> question.text()).toList(),
+                    cloneQuestions.stream().map(question -> question.text()).toList()
+                );
+
+                for (int q = 0; q < sourceQuestions.size(); q++) {
+                    assertEquals(
+                        sourceQuestions.get(q).options().stream().map(option -> option.text()).toList(),
+                        cloneQuestions.get(q).options().stream().map(option -> option.text()).toList()
+                    );
+                }
+            }
+        }
+
+        List<Image> sourceImages = collectImages(source);
+        List<Image> cloneImages = collectImages(clone);
+        assertEquals(sourceImages.size(), cloneImages.size());
+
+        HashSet<String> sourceUrls = new HashSet<>();
+        sourceImages.forEach(image -> sourceUrls.add(image.url()));
+
+        HashSet<String> cloneUrls = new HashSet<>();
+        for (Image image : cloneImages) {
+            assertNotNull(image);
+            assertFalse(sourceUrls.contains(image.url()), "Cloned rows must not share images with the original");
+            assertTrue(Files.exists(resolveImage(image)));
+            cloneUrls.add(image.url());
+        }
+        assertEquals(cloneImages.size(), cloneUrls.size());
+
+        for (int i = 0; i < sourceImages.size(); i++) {
+            assertEquals(-1, Files.mismatch(resolveImage(sourceImages.get(i)), resolveImage(cloneImages.get(i))));
+        }
+    }
+
+    @Test
+    @Transactional
+    void cloneContents_WithEmptyConfig_ShouldCopyNothing() {
+        // Arrange
+        ConfigModel original = createConfig("Empty");
+        ConfigModel target = createConfig("Empty target");
+
+        // Act
+        configCloner.cloneContents(original.getVersion(), target.getVersion());
+
+        // Assert
+        assertTrue(testGroupRepository.findAllByConfigVersion(target.getVersion()).isEmpty());
+        assertTrue(homeInfoCardRepository.findAllByConfigVersion(target.getVersion()).isEmpty());
+        assertTrue(formRepository.findAllByConfigVersion(target.getVersion()).isEmpty());
+    }
+
+    private byte[] createPngBytes() {
+        return new byte[]{
+            (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A,
+            0x00, 0x00, 0x00, 0x0D, 0x49, 0x48, 0x44, 0x52,
+            0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x01,
+            0x08, 0x06, 0x00, 0x00, 0x00, 0x1F, 0x15, (byte) 0xC4,
+            (byte) 0x89, 0x00, 0x00, 0x00, 0x0A, 0x49, 0x44, 0x41,
+            0x54, 0x78, (byte) 0x9C, 0x63, 0x00, 0x01, 0x00, 0x00,
+            0x05, 0x00, 0x01, 0x0D, 0x0A, 0x2D, (byte) 0xB4
+        };
+    }
+}
@@ -0,0 +1,206 @@
+package com.pocopi.api.integration.services;
+
+import com.pocopi.api.dto.config.FullConfig;
+import com.pocopi.api.models.config.ConfigModel;
+import com.pocopi.api.models.config.HomeFaqModel;
+import com.pocopi.api.models.config.HomeInfoCardModel;
+import com.pocopi.api.models.config.ImageModel;
+import com.pocopi.api.models.test.TestGroupModel;
+import com.pocopi.api.models.test.TestOptionModel;
+import com.pocopi.api.models.test.TestPhaseModel;
+import com.pocopi.api.models.test.TestQuestionModel;
+import com.pocopi.api.repositories.*;
+import com.pocopi.api.services.FullConfigLoader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("integration")
+class FullConfigLoaderIT {
+
+    private static final int MAX_STATEMENTS = 12;
+
+    @Autowired
+    private FullConfigLoader fullConfigLoader;
+
+    @Autowired
+    private ConfigRepository configRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private HomeInfoCardRepository homeInfoCardRepository;
+
+    @Autowired
+    private HomeFaqRepository homeFaqRepository;
+
+    @Autowired
+    private TestGroupRepository testGroupRepository;
+
+    @Autowired
+    private TestPhaseRepository testPhaseRepository;
+
+    @Autowired
+    private TestQuestionRepository testQuestionRepository;
+
+    @Autowired
+    private TestOptionRepository testOptionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private ImageModel createImage(String name) {
+        return imageRepository.save(ImageModel.builder()
+            .path("images/test/" + System.nanoTime() + "_" + name + ".png")
+            .alt(name)
+            .build());
+    }
+
+    private ConfigModel createConfig(int groups, int phasesPerGroup, int questionsPerPhase, int optionsPerQuestion) {
+        ConfigModel config = configRepository.save(ConfigModel.builder()
+            .title("Loader")
+            .description("desc")
+            .informedConsent("consent")
+            .icon(createImage("icon"))
+            .build());
+
+        homeInfoCardRepository.save(HomeInfoCardModel.builder()
+            .config(config)
+            .order((short) 0)
+            .title("Card")
+            .description("Card description")
+            .icon(createImage("card"))
+            .build());
+
+        homeFaqRepository.save(HomeFaqModel.builder()
+            .config(config)
+            .order((short) 0)
+            .question("Question")
+            .answer("Answer")
+            .build());
+
+        for (int g = 0; g < groups; g++) {
+            TestGroupModel group = testGroupRepository.save(TestGroupModel.builder()
+                .config(config)
+                .label("G" + g)
+                .probability((byte) (100 / groups))
+                .greetingImage(createImage("greeting"))
+                .build());
+
+            for (int p = 0; p < phasesPerGroup; p++) {
+                TestPhaseModel phase = testPhaseRepository.save(TestPhaseModel.builder()
+                    .group(group)
+                    .order((short) p)
+                    .build());
+
+                for (int q = 0; q < questionsPerPhase; q++) {
+                    TestQuestionModel question = testQuestionRepository.save(TestQuestionModel.builder()
+                        .phase(phase)
+                        .order((short) q)
+                        .text("Q" + q)
+                        .image(createImage("question"))
+                        .build());
+
+                    for (int o = 0; o < optionsPerQuestion; o++) {
+                        testOptionRepository.save(TestOptionModel.builder()
+                            .question(question)
+                            .order((short) o)
+                            .text("O" + o)
+                            .image(createImage("option"))
+                            .correct(o == 0)
+                            .build());
+                    }
+                }
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        return config;
+    }
+
+    private long countStatements(int version) {
+        statistics.clear();
+
+        FullConfig config = fullConfigLoader.load(version).orElseThrow();
+        assertNotNull(config.icon());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @Transactional
+    void load_ShouldUseConstantNumberOfStatements() {
+        // Arrange
+        ConfigModel small = createConfig(1, 1, 1, 1);
+        ConfigModel large = createConfig(4, 3, 5, 6);
+
+        // Act
+        long smallStatements = countStatements(small.getVersion());
+        long largeStatements = countStatements(large.getVersion());
+
+        // Assert
+        assertTrue(statistics.isStatisticsEnabled());
+        assertEquals(smallStatements, largeStatements);
+        assertTrue(
+            largeStatements <= MAX_STATEMENTS,
+            "Loading a full config took " + largeStatements + " statements"
+        );
+    }
+
+    @Test
+    @Transactional
+    void load_ShouldAssembleWholeTree() {
+        // Arrange
+        ConfigModel config = createConfig(2, 2, 3, 4);
+
+        // Act
+        FullConfig result = fullConfigLoader.load(config.getVersion()).orElseThrow();
+
+        // Assert
+        assertEquals(2, result.groups().size());
+        result.groups().forEach(group -> {
+            assertNotNull(group.greetingImage());
+            assertEquals(2, group.phases().size());
+            group.phases().forEach(phase -> {
+                assertEquals(3, phase.questions().size());
+                phase.questions().forEach(question -> {
+                    assertNotNull(question.image());
+                    assertEquals(4, question.options().size());
+                    question.options().forEach(option -> assertNotNull(option.image()));
+                });
+            });
+        });
+        assertEquals(1, result.informationCards().size());
+        assertNotNull(result.informationCards().getFirst().icon());
+        assertEquals(1, result.frequentlyAskedQuestion().size());
+    }
+
+    @Test
+    @Transactional
+    void load_WithUnknownVersion_ShouldReturnEmpty() {
+        assertTrue(fullConfigLoader.load(-1).isEmpty());
+    }
+}
@@ -0,0 +1,307 @@
+package com.pocopi.api.integration.services;
+
+import com.pocopi.api.dto.results.ResultsByUser;
+import com.pocopi.api.models.config.ConfigModel;
+import com.pocopi.api.models.form.*;
+import com.pocopi.api.models.test.*;
+import com.pocopi.api.models.user.Role;
+import com.pocopi.api.models.user.UserModel;
+import com.pocopi.api.repositories.*;
+import com.pocopi.api.services.ResultsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("integration")
+@Tag("benchmark")
+class ResultsServiceBenchmarkIT {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultsServiceBenchmarkIT.class);
+
+    private static final int USERS = 500;
+    private static final int ATTEMPTS_PER_USER = 2;
+    private static final int QUESTIONS = 5;
+    private static final int OPTIONS_PER_QUESTION = 2;
+    private static final int QUERIES_PER_CHUNK = 5;
+
+    @Autowired
+    private ResultsService resultsService;
+
+    @Autowired
+    private ConfigRepository configRepository;
+
+    @Autowired
+    private FormRepository formRepository;
+
+    @Autowired
+    private FormQuestionRepository formQuestionRepository;
+
+    @Autowired
+    private FormQuestionOptionRepository formQuestionOptionRepository;
+
+    @Autowired
+    private TestGroupRepository testGroupRepository;
+
+    @Autowired
+    private TestPhaseRepository testPhaseRepository;
+
+    @Autowired
+    private TestQuestionRepository testQuestionRepository;
+
+    @Autowired
+    private TestOptionRepository testOptionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTestAttemptRepository userTestAttemptRepository;
+
+    @Autowired
+    private UserFormSubmissionRepository userFormSubmissionRepository;
+
+    @Autowired
+    private UserFormAnswerRepository userFormAnswerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Transactional
+    void compareBulkResultsWithPerUserResults() {
+        List<Integer> userIds = seed();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        // warmup
+        measure(statistics, "warmup per user", () -> loadPerUser(userIds));
+        measure(statistics, "warmup bulk", () -> loadBulk(userIds));
+
+        Measurement perUser = measure(statistics, "per user", () -> loadPerUser(userIds));
+        Measurement bulk = measure(statistics, "bulk", () -> loadBulk(userIds));
+
+        int chunks = (USERS + ResultsService.RESULTS_CHUNK_SIZE - 1) / ResultsService.RESULTS_CHUNK_SIZE;
+
+        assertEquals(perUser.results(), bulk.results(), "Ambos métodos deben producir los mismos resultados");
+        assertTrue(
+            bulk.queries() <= (long) chunks * QUERIES_PER_CHUNK,
+            "La carga masiva debe usar un número fijo de consultas por bloque, usó " + bulk.queries()
+        );
+
+        log.info(
+            "Bulk results: {}x fewer queries, {}x faster",
+            String.format("%.1f", (double) perUser.queries() / bulk.queries()),
+            String.format("%.2f", (double) perUser.nanos() / bulk.nanos())
+        );
+    }
+
+    private List<ResultsByUser> loadPerUser(List<Integer> userIds) {
+        return userIds.stream().map(resultsService::getUserResults).toList();
+    }
+
+    private List<ResultsByUser> loadBulk(List<Integer> userIds) {
+        List<ResultsByUser> results = new ArrayList<>(userIds.size());
+
+        for (int i = 0; i < userIds.size(); i += ResultsService.RESULTS_CHUNK_SIZE) {
+            List<Integer> chunk = userIds.subList(i, Math.min(i + ResultsService.RESULTS_CHUNK_SIZE, userIds.size()));
+            results.addAll(resultsService.getUsersResults(chunk));
+        }
+
+        return results;
+    }
+
+    private Measurement measure(Statistics statistics, String label, Supplier<List<ResultsByUser>> load) {
+        entityManager.clear();
+        statistics.clear();
+
+        long startNanos = System.nanoTime();
+        List<ResultsByUser> results = load.get();
+        long nanos = System.nanoTime() - startNanos;
+        long queries = statistics.getPrepareStatementCount();
+
+        assertEquals(USERS, results.size());
+        log.info("Results {}: {} users in {} ms with {} queries",
+            label, results.size(), String.format("%.1f", nanos / 1e6), queries);
+
+        return new Measurement(results, queries, nanos);
+    }
+
+    private List<Integer> seed() {
+        ConfigModel config = configRepository.save(ConfigModel.builder()
+            .title("Config benchmark resultados")
+            .description("Config para medir la carga de resultados.")
+            .informedConsent("Consentimiento informado benchmark.")
+            .anonymous(false)
+            .build());
+
+        FormModel form = formRepository.save(FormModel.builder()
+            .config(config)
+            .type(FormType.PRE)
+            .title("Formulario PRE benchmark")
+            .build());
+
+        FormQuestionModel formQuestion = formQuestionRepository.save(FormQuestionModel.builder()
+            .form(form)
+            .order((short) 1)
+            .category("origen")
+            .text("¿Cómo supiste de este test?")
+            .required(true)
+            .type(FormQuestionType.SELECT_ONE)
+            .other(false)
+            .build());
+
+        FormQuestionOptionModel formOption = formQuestionOptionRepository.save(FormQuestionOptionModel.builder()
+            .formQuestion(formQuestion)
+            .order((short) 1)
+            .text("Redes sociales")
+            .build());
+
+        TestGroupModel group = testGroupRepository.save(TestGroupModel.builder()
+            .config(config)
+            .label("GRUPO-BENCH")
+            .probability((byte) 100)
+            .build());
+
+        TestPhaseModel phase = testPhaseRepository.save(TestPhaseModel.builder()
+            .group(group)
+            .order((short) 1)
+            .build());
+
+        List<TestOptionModel> options = new ArrayList<>();
+
+        for (short q = 0; q < QUESTIONS; q++) {
+            TestQuestionModel question = testQuestionRepository.save(TestQuestionModel.builder()
+                .phase(phase)
+                .order(q)
+                .text("Pregunta " + q)
+                .build());
+
+            for (short o = 0; o < OPTIONS_PER_QUESTION; o++) {
+                options.add(testOptionRepository.save(TestOptionModel.builder()
+                    .question(question)
+                    .order(o)
+                    .text("Opción " + o)
+                    .correct(o == 0)
+                    .build()));
+            }
+        }
+
+        List<UserModel> users = new ArrayList<>();
+
+        for (int u = 0; u < USERS; u++) {
+            users.add(UserModel.builder()
+                .username("bench_results_" + u)
+                .role(Role.USER)
+                .anonymous(false)
+                .name("Benchmark User " + u)
+                .email("bench_results_" + u + "@example.com")
+                .age((byte) 30)
+                .password("x".repeat(UserModel.ENCRYPTED_PASSWORD_LEN))
+                .build());
+        }
+
+        users = userRepository.saveAll(users);
+
+        List<UserTestAttemptModel> attempts = new ArrayList<>();
+        long start = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+        for (UserModel user : users) {
+            for (int a = 0; a < ATTEMPTS_PER_USER; a++) {
+                attempts.add(UserTestAttemptModel.builder()
+                    .user(user)
+                    .group(group)
+                    .start(Instant.ofEpochMilli(start))
+                    .end(Instant.ofEpochMilli(start + 60_000))
+                    .build());
+                start += 60_000;
+            }
+        }
+
+        attempts = userTestAttemptRepository.saveAll(attempts);
+
+        List<UserFormAnswerModel> answers = new ArrayList<>();
+
+        for (UserTestAttemptModel attempt : attempts) {
+            UserFormSubmissionModel submission = userFormSubmissionRepository.save(UserFormSubmissionModel.builder()
+                .attempt(attempt)
+                .form(form)
+                .timestamp(attempt.getStart())
+                .build());
+
+            answers.add(UserFormAnswerModel.builder()
+                .formSubmission(submission)
+                .question(formQuestion)
+                .option(formOption)
+                .build());
+        }
+
+        userFormAnswerRepository.saveAll(answers);
+        entityManager.flush();
+
+        List<Object[]> questionLogs = new ArrayList<>();
+        List<Object[]> optionLogs = new ArrayList<>();
+
+        for (UserTestAttemptModel attempt : attempts) {
+            long timestamp = attempt.getStart().toEpochMilli();
+
+            for (int q = 0; q < QUESTIONS; q++) {
+                TestOptionModel correct = options.get(q * OPTIONS_PER_QUESTION);
+                TestOptionModel wrong = options.get(q * OPTIONS_PER_QUESTION + 1);
+                TestOptionModel selected = (attempt.getId() + q) % 2 == 0 ? correct : wrong;
+
+                questionLogs.add(new Object[]{
+                    attempt.getId(), correct.getQuestion().getId(), new Timestamp(timestamp), 5_000
+                });
+                optionLogs.add(new Object[]{
+                    attempt.getId(), wrong.getId(), "hover", new Timestamp(timestamp + 1_000)
+                });
+                optionLogs.add(new Object[]{
+                    attempt.getId(), correct.getId(), "select", new Timestamp(timestamp + 2_000)
+                });
+                optionLogs.add(new Object[]{
+                    attempt.getId(), selected.getId(), "select", new Timestamp(timestamp + 3_000)
+                });
+                timestamp += 10_000;
+            }
+        }
+
+        jdbcTemplate.batchUpdate(
+            "insert into user_test_question_log (attempt_id, question_id, timestamp, duration) values (?, ?, ?, ?)",
+            questionLogs
+        );
+        jdbcTemplate.batchUpdate(
+            "insert into user_test_option_log (attempt_id, option_id, type, timestamp, x, y) values (?, ?, ?, ?, 1, 1)",
+            optionLogs
+        );
+
+        return users.stream().map(UserModel::getId).toList();
+    }
+
+    private record Measurement(List<ResultsByUser> results, long queries, long nanos) {
+    }
+}
@@ -229,4 +229,50 @@ class ResultsServiceIT {
         int totalAttempts = results.results().stream().mapToInt(r -> r.attemptsResults().size()).sum();
         assertTrue(totalAttempts >= 2);
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional
+    void getUsersResults_WithSeveralUsersAndAttempts_ShouldKeepEventsPerAttempt() {
+        // Arrange
+        UserModel first = createUser("u_bulk_1", true);
+        UserModel second = createUser("u_bulk_2", true);
+        TestGroupModel group = createGroup("GB");
+
+        int phaseId = testPhaseRepository.findAllByGroupId(group.getId()).get(0).getId();
+        int questionId = testQuestionRepository.findAllByPhaseId(phaseId).get(0).getId();
+        int optionId = testOptionRepository.findAllByQuestionId(questionId).get(0).getId();
+
+        UserTestAttemptModel answered = userTestAttemptRepository.save(UserTestAttemptModel.builder()
+            .user(first).group(group).start(Instant.ofEpochMilli(1_000)).end(Instant.ofEpochMilli(2_000)).build());
+        UserTestAttemptModel skipped = userTestAttemptRepository.save(UserTestAttemptModel.builder()
+            .user(first).group(group).start(Instant.ofEpochMilli(3_000)).end(Instant.ofEpochMilli(4_000)).build());
+
+        insertQuestionLog(answered.getId(), questionId, 1_000L, 1_500L, 500);
+        insertOptionLog(answered.getId(), optionId, "select", 1_200L, (byte) 1, (byte) 1);
+        insertQuestionLog(skipped.getId(), questionId, 3_000L, 3_500L, 500);
+
+        // Act
+        List<TestResultsByUser> results = resultsService.getUsersTestResults(List.of(second.getId(), first.getId()));
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(second.getId(), results.get(0).user().id());
+        assertTrue(results.get(0).results().isEmpty());
+
+        List<TestResult> attempts = results.get(1).results().get(0).attemptsResults();
+        assertEquals(2, attempts.size());
+
+        TestResult answeredResult = attempts.stream().filter(r -> r.attemptId() == answered.getId()).findFirst()
+            .orElseThrow();
+        TestResult skippedResult = attempts.stream().filter(r -> r.attemptId() == skipped.getId()).findFirst()
+            .orElseThrow();
+
+        assertEquals(1, answeredResult.correctQuestions());
+        assertEquals(0, skippedResult.correctQuestions());
+        assertTrue(skippedResult.questionEvents().get(0).skipped());
+        assertEquals(
+            resultsService.getUserTestResults(first.getId()).results(),
+            results.get(1).results()
+        );
+    }
+}
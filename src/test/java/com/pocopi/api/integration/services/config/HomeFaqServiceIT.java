@@ -104,99 +104,6 @@ class HomeFaqServiceIT {
         log.info("----------- Finalizó correctamente HomeFaqServiceIT.getFaqsByConfigVersion_WithNoFaqs_ShouldReturnEmptyList -----------");
     }
 
-    // ==================== cloneFaqs Tests ====================
-
-    @Test
-    @Transactional
-    void cloneFaqs_WithExistingFaqs_ShouldCreateCopiesInNewConfig() {
-        log.info("----------- Iniciando HomeFaqServiceIT.cloneFaqs_WithExistingFaqs_ShouldCreateCopiesInNewConfig -----------");
-
-        // Arrange
-        ConfigModel originalConfig = ConfigModel.builder()
-            .title("Original Config")
-            .description("Original")
-            .informedConsent("Original Consent")
-            .build();
-        ConfigModel savedOriginalConfig = configRepository.save(originalConfig);
-
-        HomeFaqModel originalFaq1 = HomeFaqModel.builder()
-            .config(savedOriginalConfig)
-            .order((short) 0)
-            .question("Original Q1?")
-            .answer("Original A1")
-            .build();
-
-        HomeFaqModel originalFaq2 = HomeFaqModel.builder()
-            .config(savedOriginalConfig)
-            .order((short) 1)
-            .question("Original Q2?")
-            .answer("Original A2")
-            .build();
-
-        homeFaqRepository.save(originalFaq1);
-        homeFaqRepository.save(originalFaq2);
-
-        ConfigModel newConfig = ConfigModel.builder()
-            .title("New Config")
-            .description("New")
-            .informedConsent("New Consent")
-            .build();
-        ConfigModel savedNewConfig = configRepository.save(newConfig);
-
-        // Act
-        homeFaqService.cloneFaqs(savedOriginalConfig.getVersion(), savedNewConfig);
-
-        // Assert
-        List<HomeFaqModel> originalFaqs = homeFaqRepository.findAllByConfigVersion(savedOriginalConfig.getVersion());
-        List<HomeFaqModel> clonedFaqs = homeFaqRepository.findAllByConfigVersion(savedNewConfig.getVersion());
-
-        assertEquals(2, originalFaqs.size());
-        assertEquals(2, clonedFaqs.size());
-
-        assertEquals("Original Q1?", clonedFaqs.getFirst().getQuestion());
-        assertEquals("Original A1", clonedFaqs.get(0).getAnswer());
-        assertEquals(savedNewConfig.getVersion(), clonedFaqs.get(0).getConfig().getVersion());
-
-        assertEquals("Original Q2?", clonedFaqs.get(1).getQuestion());
-        assertEquals("Original A2", clonedFaqs.get(1).getAnswer());
-        assertEquals(savedNewConfig.getVersion(), clonedFaqs.get(1).getConfig().getVersion());
-
-        assertNotEquals(originalFaqs.get(0).getId(), clonedFaqs.get(0).getId());
-        assertNotEquals(originalFaqs.get(1).getId(), clonedFaqs.get(1).getId());
-
-        log.info("----------- Finalizó correctamente HomeFaqServiceIT.cloneFaqs_WithExistingFaqs_ShouldCreateCopiesInNewConfig -----------");
-    }
-
-    @Test
-    @Transactional
-    void cloneFaqs_WithNoFaqs_ShouldNotCreateAnyFaqs() {
-        log.info("----------- Iniciando HomeFaqServiceIT.cloneFaqs_WithNoFaqs_ShouldNotCreateAnyFaqs -----------");
-
-        // Arrange
-        ConfigModel originalConfig = ConfigModel.builder()
-            .title("Empty Original")
-            .description("No FAQs")
-            .informedConsent("Consent")
-            .build();
-        ConfigModel savedOriginalConfig = configRepository.save(originalConfig);
-
-        ConfigModel newConfig = ConfigModel.builder()
-            .title("New Config")
-            .description("New")
-            .informedConsent("New Consent")
-            .build();
-        ConfigModel savedNewConfig = configRepository.save(newConfig);
-
-        // Act
-        homeFaqService.cloneFaqs(savedOriginalConfig.getVersion(), savedNewConfig);
-
-        // Assert
-        List<HomeFaqModel> clonedFaqs = homeFaqRepository.findAllByConfigVersion(savedNewConfig.getVersion());
-        assertTrue(clonedFaqs.isEmpty());
-
-        log.info("----------- Finalizó correctamente HomeFaqServiceIT.cloneFaqs_WithNoFaqs_ShouldNotCreateAnyFaqs -----------");
-    }
-
     // ==================== updateFaqs Tests ====================
 
     @Test
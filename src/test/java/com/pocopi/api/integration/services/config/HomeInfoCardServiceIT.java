@@ -3,12 +3,10 @@ package com.pocopi.api.integration.services.config;
 import com.pocopi.api.dto.config.InformationCardUpdate;
 import com.pocopi.api.models.config.ConfigModel;
 import com.pocopi.api.models.config.HomeInfoCardModel;
-import com.pocopi.api.models.config.ImageModel;
 import com.pocopi.api.repositories.ConfigRepository;
 import com.pocopi.api.repositories.HomeInfoCardRepository;
 import com.pocopi.api.repositories.ImageRepository;
 import com.pocopi.api.services.HomeInfoCardService;
-import com.pocopi.api.services.ImageService;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,9 +43,6 @@ class HomeInfoCardServiceIT {
     @Autowired
     private ImageRepository imageRepository;
 
-    @Autowired
-    private ImageService imageService;
-
     private MockMultipartFile mockIconFile;
 
     @BeforeEach
@@ -89,80 +84,6 @@ class HomeInfoCardServiceIT {
         };
     }
 
-    // ==================== cloneCards Tests ====================
-
-    @Test
-    @Transactional
-    void cloneCards_WithExistingCards_ShouldCloneInDb() {
-        log.info("----------- Iniciando HomeInfoCardServiceIT.cloneCards_WithExistingCards_ShouldCloneInDb -----------");
-
-        // Arrange
-        ConfigModel originalConfig = createConfig();
-        ConfigModel newConfig = createConfig();
-
-        ImageModel icon = imageService.saveImageFile(
-            ImageService.ImageCategory.ICON,
-            mockIconFile,
-            "Card Icon"
-        );
-
-        HomeInfoCardModel card = HomeInfoCardModel.builder()
-            .config(originalConfig)
-            .title("Card 1")
-            .description("Desc 1")
-            .color(0xFFFFFF)
-            .icon(icon)
-            .order((short) 0)
-            .build();
-        homeInfoCardRepository.save(card);
-
-        // Act
-        homeInfoCardService.cloneCards(originalConfig.getVersion(), newConfig);
-
-        // Assert
-        List<HomeInfoCardModel> clonedCards = homeInfoCardRepository
-            .findAllByConfigVersion(newConfig.getVersion());
-
-        assertEquals(1, clonedCards.size());
-        assertEquals("Card 1", clonedCards.getFirst().getTitle());
-        assertEquals(0xFFFFFF, clonedCards.getFirst().getColor());
-        assertNotEquals(icon.getId(), clonedCards.getFirst().getIcon().getId());
-        assertTrue(clonedCards.getFirst().getIcon().getPath().contains("icon"));
-
-        log.info("----------- Finalizó correctamente HomeInfoCardServiceIT.cloneCards_WithExistingCards_ShouldCloneInDb -----------");
-    }
-
-    @Test
-    @Transactional
-    void cloneCards_WithMultipleCards_ShouldCloneAllAndPreserveOrder() {
-        log.info("----------- Iniciando HomeInfoCardServiceIT.cloneCards_WithMultipleCards_ShouldCloneAllAndPreserveOrder -----------");
-
-        // Arrange
-        ConfigModel originalConfig = createConfig();
-        ConfigModel newConfig = createConfig();
-
-        HomeInfoCardModel card1 = HomeInfoCardModel.builder()
-            .config(originalConfig).title("Card 1").description("Desc 1").color(0xFF0000).order((short) 0).build();
-        HomeInfoCardModel card2 = HomeInfoCardModel.builder()
-            .config(originalConfig).title("Card 2").description("Desc 2").color(0x00FF00).order((short) 1).build();
-
-        homeInfoCardRepository.save(card1);
-        homeInfoCardRepository.save(card2);
-
-        // Act
-        homeInfoCardService.cloneCards(originalConfig.getVersion(), newConfig);
-
-        // Assert
-        List<HomeInfoCardModel> clonedCards = homeInfoCardRepository
-            .findAllByConfigVersion(newConfig.getVersion());
-
-        assertEquals(2, clonedCards.size());
-        assertTrue(clonedCards.stream().anyMatch(c -> c.getColor() == 0xFF0000));
-        assertTrue(clonedCards.stream().anyMatch(c -> c.getColor() == 0x00FF00));
-
-        log.info("----------- Finalizó correctamente HomeInfoCardServiceIT.cloneCards_WithMultipleCards_ShouldCloneAllAndPreserveOrder -----------");
-    }
-
     // ==================== updateCards Tests ====================
 
     @Test
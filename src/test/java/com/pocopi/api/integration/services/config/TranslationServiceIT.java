@@ -218,42 +218,4 @@ class TranslationServiceIT {
 
         log.info("----------- Finalizó correctamente TranslationServiceIT.updateTranslations_WithExistingTranslation_AndNoChanges_ShouldReturnFalse -----------");
     }
-
-    // ==================== cloneTranslations Tests ====================
-
-    @Test
-    @Transactional
-    void cloneTranslations_WithExistingTranslations_ShouldCreateCopiesInNewConfig() {
-        log.info("----------- Iniciando TranslationServiceIT.cloneTranslations_WithExistingTranslations_ShouldCreateCopiesInNewConfig -----------");
-
-        // Arrange
-        ConfigModel originalConfig = configRepository.save(ConfigModel.builder()
-            .title("Original").description("Original").informedConsent("Original").build());
-
-        ConfigModel newConfig = configRepository.save(ConfigModel.builder()
-            .title("New").description("New").informedConsent("New").build());
-
-        TranslationKeyModel key = translationKeyRepository.save(TranslationKeyModel.builder()
-            .key("test.clone").value("Clone translation").arguments(List.of()).build());
-
-        translationValueRepository.save(TranslationValueModel.builder()
-            .config(originalConfig).key(key).value("Original Value").build());
-
-        // Act
-        translationService.cloneTranslations(originalConfig.getVersion(), newConfig);
-
-        // Assert
-        List<TranslationValueModel> originalTranslations = translationValueRepository
-            .findAllByConfigVersion(originalConfig.getVersion());
-        List<TranslationValueModel> clonedTranslations = translationValueRepository
-            .findAllByConfigVersion(newConfig.getVersion());
-
-        assertEquals(1, originalTranslations.size());
-        assertEquals(1, clonedTranslations.size());
-        assertEquals("Original Value", clonedTranslations.get(0).getValue());
-        assertEquals(newConfig.getVersion(), clonedTranslations.get(0).getConfig().getVersion());
-        assertNotEquals(originalTranslations.get(0).getId(), clonedTranslations.get(0).getId());
-
-        log.info("----------- Finalizó correctamente TranslationServiceIT.cloneTranslations_WithExistingTranslations_ShouldCreateCopiesInNewConfig -----------");
-    }
 }
@@ -11,7 +11,6 @@ import com.pocopi.api.repositories.ConfigRepository;
 import com.pocopi.api.repositories.FormQuestionOptionRepository;
 import com.pocopi.api.repositories.FormQuestionRepository;
 import com.pocopi.api.repositories.FormRepository;
-import com.pocopi.api.repositories.ImageRepository;
 import com.pocopi.api.services.FormOptionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -54,9 +53,6 @@ class FormOptionServiceIT {
     @Autowired
     private ConfigRepository configRepository;
 
-    @Autowired
-    private ImageRepository imageRepository;
-
     private MockMultipartFile mockPngFile;
     private FormQuestionModel testQuestion;
 
@@ -122,115 +118,6 @@ class FormOptionServiceIT {
         return list;
     }
 
-    // ==================== cloneOptions Tests ====================
-
-//    @Test
-//    @Transactional
-//    void cloneOptions_WithExistingOptions_ShouldCloneInDb() {
-//        log.info("----------- Iniciando cloneOptions_WithExistingOptions_ShouldCloneInDb -----------");
-//
-//        // Arrange
-//        FormQuestionModel originalQuestion = testQuestion;
-//        FormQuestionModel newQuestion = createTestQuestion();
-//
-//        ImageModel image = ImageModel.builder()
-//            .path("images/test/original.png")
-//            .alt("Original Image")
-//            .build();
-//        imageRepository.save(image);
-//
-//        FormQuestionOptionModel option = FormQuestionOptionModel.builder()
-//            .formQuestion(originalQuestion)
-//            .text("Option 1")
-//            .image(image)
-//            .order((short) 0)
-//            .build();
-//        formQuestionOptionRepository.save(option);
-//
-//        // Act
-//        formOptionService.cloneOptions(originalQuestion.getId(), newQuestion);
-//
-//        // Assert
-//        List<FormQuestionOptionModel> clonedOptions = formQuestionOptionRepository
-//            .findAllByFormQuestionId(newQuestion.getId());
-//
-//        assertEquals(1, clonedOptions.size());
-//        assertEquals("Option 1", clonedOptions.get(0).getText());
-//        assertNotNull(clonedOptions.get(0).getImage());
-//        assertNotEquals(image.getId(), clonedOptions.get(0).getImage().getId());
-//
-//        log.info("----------- Finalizado cloneOptions_WithExistingOptions_ShouldCloneInDb -----------");
-//    }
-
-    @Test
-    @Transactional
-    void cloneOptions_WithMultipleOptions_ShouldCloneAllAndPreserveOrder() {
-        log.info("----------- Iniciando cloneOptions_WithMultipleOptions_ShouldCloneAllAndPreserveOrder -----------");
-
-        // Arrange
-        FormQuestionModel originalQuestion = testQuestion;
-        FormQuestionModel newQuestion = createTestQuestion();
-
-        FormQuestionOptionModel option1 = FormQuestionOptionModel.builder()
-            .formQuestion(originalQuestion)
-            .text("Option A")
-            .order((short) 0)
-            .build();
-        formQuestionOptionRepository.save(option1);
-
-        FormQuestionOptionModel option2 = FormQuestionOptionModel.builder()
-            .formQuestion(originalQuestion)
-            .text("Option B")
-            .order((short) 1)
-            .build();
-        formQuestionOptionRepository.save(option2);
-
-        // Act
-        formOptionService.cloneOptions(originalQuestion.getId(), newQuestion);
-
-        // Assert
-        List<FormQuestionOptionModel> clonedOptions = formQuestionOptionRepository
-            .findAllByFormQuestionId(newQuestion.getId());
-
-        assertEquals(2, clonedOptions.size());
-        assertEquals("Option A", clonedOptions.get(0).getText());
-        assertEquals(0, clonedOptions.get(0).getOrder());
-        assertEquals("Option B", clonedOptions.get(1).getText());
-        assertEquals(1, clonedOptions.get(1).getOrder());
-
-        log.info("----------- Finalizado cloneOptions_WithMultipleOptions_ShouldCloneAllAndPreserveOrder -----------");
-    }
-
-    @Test
-    @Transactional
-    void cloneOptions_WithOptionWithoutImage_ShouldCloneWithoutImage() {
-        log.info("----------- Iniciando cloneOptions_WithOptionWithoutImage_ShouldCloneWithoutImage -----------");
-
-        // Arrange
-        FormQuestionModel originalQuestion = testQuestion;
-        FormQuestionModel newQuestion = createTestQuestion();
-
-        FormQuestionOptionModel originalOption = FormQuestionOptionModel.builder()
-            .formQuestion(originalQuestion)
-            .text("Option")
-            .image(null)
-            .order((short) 0)
-            .build();
-        formQuestionOptionRepository.save(originalOption);
-
-        // Act
-        formOptionService.cloneOptions(originalQuestion.getId(), newQuestion);
-
-        // Assert
-        List<FormQuestionOptionModel> clonedOptions = formQuestionOptionRepository
-            .findAllByFormQuestionId(newQuestion.getId());
-
-        assertEquals(1, clonedOptions.size());
-        assertNull(clonedOptions.get(0).getImage());
-
-        log.info("----------- Finalizado cloneOptions_WithOptionWithoutImage_ShouldCloneWithoutImage -----------");
-    }
-
     // ==================== updateOptions Tests ====================
 
     @Test
@@ -62,108 +62,6 @@ class FormQuestionServiceIT {
         testForm = formRepository.save(testForm);
     }
 
-    // ==================== cloneQuestions Tests ====================
-
-    @Test
-    @Transactional
-    void cloneQuestions_WithSingleQuestion_ShouldCloneSuccessfully() {
-        log.info("----------- Iniciando cloneQuestions_WithSingleQuestion_ShouldCloneSuccessfully -----------");
-
-        // Arrange
-        FormQuestionModel originalQuestion = FormQuestionModel.builder()
-            .form(testForm)
-            .order((short) 0)
-            .category("personal_info")
-            .text("What is your name?")
-            .type(FormQuestionType.TEXT_SHORT)
-            .minLength(1)
-            .maxLength(100)
-            .placeholder("Enter name")
-            .required(true)
-            .build();
-        originalQuestion = formQuestionRepository.save(originalQuestion);
-
-        FormModel newForm = FormModel.builder()
-            .config(testConfig)
-            .title("New Form")
-            .type(FormType.POST)
-            .build();
-        newForm = formRepository.save(newForm);
-
-        long originalCount = formQuestionRepository.count();
-
-        // Act
-        formQuestionService.cloneQuestions(testForm.getId(), newForm);
-
-        // Assert
-        long newCount = formQuestionRepository.count();
-        assertEquals(originalCount + 1, newCount);
-
-        List<FormQuestionModel> clonedQuestions = formQuestionRepository.findAllByFormId(newForm.getId());
-        assertEquals(1, clonedQuestions.size());
-
-        FormQuestionModel cloned = clonedQuestions.get(0);
-        assertEquals(originalQuestion.getCategory(), cloned.getCategory());
-        assertEquals(originalQuestion.getText(), cloned.getText());
-        assertEquals(originalQuestion.getType(), cloned.getType());
-        assertNull(cloned.getImage());
-
-        log.info("----------- Finalizó correctamente cloneQuestions_WithSingleQuestion_ShouldCloneSuccessfully -----------");
-    }
-
-    @Test
-    @Transactional
-    void cloneQuestions_WithMultipleQuestions_ShouldPreserveOrder() {
-        log.info("----------- Iniciando cloneQuestions_WithMultipleQuestions_ShouldPreserveOrder -----------");
-
-        // Arrange
-        FormQuestionModel q1 = FormQuestionModel.builder()
-            .form(testForm)
-            .order((short) 0)
-            .category("cat1")
-            .text("Question 1")
-            .type(FormQuestionType.TEXT_SHORT)
-            .minLength(1)
-            .maxLength(50)
-            .placeholder("Q1")
-            .required(true)
-            .build();
-        q1 = formQuestionRepository.save(q1);
-
-        FormQuestionModel q2 = FormQuestionModel.builder()
-            .form(testForm)
-            .order((short) 1)
-            .category("cat2")
-            .text("Question 2")
-            .type(FormQuestionType.TEXT_LONG)
-            .minLength(1)
-            .maxLength(500)
-            .placeholder("Q2")
-            .required(true)
-            .build();
-        q2 = formQuestionRepository.save(q2);
-
-        FormModel newForm = FormModel.builder()
-            .config(testConfig)
-            .title("Multi Question Form")
-            .type(FormType.POST)
-            .build();
-        newForm = formRepository.save(newForm);
-
-        // Act
-        formQuestionService.cloneQuestions(testForm.getId(), newForm);
-
-        // Assert
-        List<FormQuestionModel> clonedQuestions = formQuestionRepository.findAllByFormIdOrderByOrder(newForm.getId());
-        assertEquals(2, clonedQuestions.size());
-        assertEquals((short) 0, clonedQuestions.get(0).getOrder());
-        assertEquals((short) 1, clonedQuestions.get(1).getOrder());
-        assertEquals("Question 1", clonedQuestions.get(0).getText());
-        assertEquals("Question 2", clonedQuestions.get(1).getText());
-
-        log.info("----------- Finalizó correctamente cloneQuestions_WithMultipleQuestions_ShouldPreserveOrder -----------");
-    }
-
 
     // ==================== updateQuestions Tests ====================
 
@@ -270,67 +270,6 @@ class FormServiceIT {
         log.info("----------- Test passed: Empty map returned correctly -----------");
     }
 
-    // ==================== cloneForms Tests ====================
-
-    @Test
-    @Transactional
-    @DisplayName("Should clone forms with all questions and options")
-    void cloneForms_WithCompleteForm_ShouldCloneAllData() {
-        log.info("----------- Test: cloneForms with complete form -----------");
-
-        // Arrange
-        FormModel originalForm = FormModel.builder()
-            .config(testConfig)
-            .type(FormType.PRE)
-            .title("Original Form")
-            .build();
-        formRepository.save(originalForm);
-
-        FormQuestionModel question = FormQuestionModel.builder()
-            .form(originalForm)
-            .order((short) 0)
-            .category("Test Category")
-            .text("Test Question")
-            .type(FormQuestionType.SELECT_ONE)
-            .required(true)
-            .other(false)
-            .build();
-        formQuestionRepository.save(question);
-
-        FormQuestionOptionModel option = FormQuestionOptionModel.builder()
-            .formQuestion(question)
-            .order((short) 0)
-            .text("Test Option")
-            .image(null)
-            .build();
-        formQuestionOptionRepository.save(option);
-
-        ConfigModel newConfig = ConfigModel.builder()
-            .title("New Config")
-            .description("New Description")
-            .informedConsent("New Consent")
-            .build();
-        configRepository.save(newConfig);
-
-        // Act
-        formService.cloneForms(testConfig.getVersion(), newConfig);
-
-        // Assert
-        List<FormModel> clonedForms = formRepository.findAllByConfigVersion(newConfig.getVersion());
-        assertEquals(1, clonedForms.size());
-
-        FormModel clonedForm = clonedForms.getFirst();
-        assertEquals(FormType.PRE, clonedForm.getType());
-        assertEquals("Original Form", clonedForm.getTitle());
-        assertNotEquals(originalForm.getId(), clonedForm.getId());
-
-        List<FormQuestionModel> clonedQuestions = formQuestionRepository
-            .findAllByFormIdOrderByOrder(clonedForm.getId());
-        assertEquals(1, clonedQuestions.size());
-
-        log.info("----------- Test passed: Forms cloned successfully -----------");
-    }
-
     // ==================== updateForm Tests ====================
 
     @Test
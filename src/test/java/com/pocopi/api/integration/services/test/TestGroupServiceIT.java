@@ -1,6 +1,10 @@
 package com.pocopi.api.integration.services.test;
 
 
+import com.pocopi.api.dto.test.TestGroupUpdate;
+import com.pocopi.api.dto.test.TestOptionUpdate;
+import com.pocopi.api.dto.test.TestPhaseUpdate;
+import com.pocopi.api.dto.test.TestQuestionUpdate;
 import com.pocopi.api.exception.HttpException;
 import com.pocopi.api.models.config.ConfigModel;
 import com.pocopi.api.models.config.ImageModel;
@@ -21,10 +25,13 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -204,34 +211,6 @@ class TestGroupServiceIT {
         log.info("Fin getAssignedGroup_WithImagesAndText_ShouldMapImagesAndReturnAssignedDto");
     }
 
-    @Test
-    @Transactional
-    void cloneGroups_WithExistingGroups_ShouldCreateCopiesInNewConfig() {
-        log.info("Inicio cloneGroups_WithExistingGroups_ShouldCreateCopiesInNewConfig");
-
-        ConfigModel original = createConfig("cfg-original");
-        createGroupWithHierarchy(original, "OG1", true);
-        createGroupWithHierarchy(original, "OG2", false);
-
-        ConfigModel target = createConfig("cfg-clone-target");
-
-        // Act
-        testGroupService.cloneGroups(original.getVersion(), target);
-
-        // Assert
-        var clonedGroups = testGroupRepository.findAllByConfigVersion(target.getVersion());
-        assertEquals(2, clonedGroups.size(), "Deben clonarse 2 grupos al nuevo config");
-
-        for (var cg : clonedGroups) {
-            var phases = testPhaseRepository.findAllByGroupId(cg.getId());
-            assertFalse(phases.isEmpty(), "Cada grupo clonado debe contener fases");
-            var qs = testQuestionRepository.findAllByPhaseId(phases.get(0).getId());
-            assertFalse(qs.isEmpty(), "Cada fase clonada debe contener preguntas");
-        }
-
-        log.info("Fin cloneGroups_WithExistingGroups_ShouldCreateCopiesInNewConfig");
-    }
-
     @Test
     @Transactional
     void updateGroups_WhenStoredGroupHasUserData_ShouldThrowConflict() {
@@ -250,6 +229,80 @@ class TestGroupServiceIT {
         log.info("Fin updateGroups_WhenStoredGroupHasUserData_ShouldThrowConflict");
     }
 
+    private TestGroupUpdate newGroupUpdate(String label, int phases, int questions, int options) {
+        return new TestGroupUpdate(
+            null,
+            50,
+            label,
+            null,
+            false,
+            false,
+            false,
+            false,
+            IntStream.range(0, phases)
+                .mapToObj(p -> new TestPhaseUpdate(
+                    null,
+                    false,
+                    IntStream.range(0, questions)
+                        .mapToObj(q -> new TestQuestionUpdate(
+                            null,
+                            label + "-P" + p + "-Q" + q,
+                            false,
+                            IntStream.range(0, options)
+                                .mapToObj(o -> new TestOptionUpdate(null, label + "-P" + p + "-Q" + q + "-O" + o, o == 0))
+                                .toList()
+                        ))
+                        .toList()
+                ))
+                .toList()
+        );
+    }
+
+    @Test
+    @Transactional
+    void updateGroups_WithNewTree_ShouldInsertEveryLevelLinkedToItsParent() {
+        log.info("Inicio updateGroups_WithNewTree_ShouldInsertEveryLevelLinkedToItsParent");
+
+        ConfigModel cfg = createConfig("cfg-batch-insert");
+        createGroupWithHierarchy(cfg, "G-old", false);
+
+        // one greeting image per group, one image per question and one per option, all left untouched
+        List<MultipartFile> imageFiles = Collections.nCopies(2 * (1 + 2 * 3 * (1 + 2)), null);
+
+        // Act
+        boolean modified = testGroupService.updateGroups(
+            cfg,
+            List.of(newGroupUpdate("GA", 2, 3, 2), newGroupUpdate("GB", 2, 3, 2)),
+            imageFiles
+        );
+
+        // Assert
+        assertTrue(modified);
+
+        var groups = testGroupRepository.findAllByConfigVersion(cfg.getVersion());
+        assertEquals(List.of("GA", "GB"), groups.stream().map(TestGroupModel::getLabel).sorted().toList());
+
+        for (var group : groups) {
+            var phases = testPhaseRepository.findAllByGroupIdOrderByOrder(group.getId());
+            assertEquals(2, phases.size());
+
+            for (var phase : phases) {
+                var questions = testQuestionRepository.findAllByPhaseId(phase.getId());
+                assertEquals(3, questions.size());
+
+                for (var question : questions) {
+                    assertTrue(question.getText().startsWith(group.getLabel() + "-P" + phase.getOrder()));
+
+                    var options = testOptionRepository.findAllByQuestionId(question.getId());
+                    assertEquals(2, options.size());
+                    options.forEach(option -> assertTrue(option.getText().startsWith(question.getText())));
+                }
+            }
+        }
+
+        log.info("Fin updateGroups_WithNewTree_ShouldInsertEveryLevelLinkedToItsParent");
+    }
+
     private byte[] createPngBytes() {
         return new byte[]{
             (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A,
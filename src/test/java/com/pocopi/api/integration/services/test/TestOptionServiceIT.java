@@ -11,6 +11,8 @@ import com.pocopi.api.repositories.*;
 import com.pocopi.api.config.ImageConfig;
 import com.pocopi.api.services.ImageService;
 import com.pocopi.api.services.TestOptionService;
+import com.pocopi.api.services.TestTreeChanges;
+import com.pocopi.api.services.TestTreeWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -41,6 +43,9 @@ class TestOptionServiceIT {
     @Autowired
     private TestOptionService testOptionService;
 
+    @Autowired
+    private TestTreeWriter testTreeWriter;
+
     @Autowired
     private TestOptionRepository testOptionRepository;
 
@@ -142,54 +147,6 @@ class TestOptionServiceIT {
         return p1;
     }
 
-    @Test
-    @Transactional
-    void cloneOptions_WhenOptionsExist_ShouldCopyOptionsAndImages() {
-        // Arrange
-        TestQuestionModel originalQuestion = createMinimalQuestion("Original Q");
-        ImageModel img = imageService.saveImageFile(ImageService.ImageCategory.TEST_OPTION, mockPngFile, "opt-img");
-        TestOptionModel optWithImage = TestOptionModel.builder()
-            .question(originalQuestion)
-            .order((short) 0)
-            .text("WithImg")
-            .image(img)
-            .correct(false)
-            .build();
-        TestOptionModel optNoImage = TestOptionModel.builder()
-            .question(originalQuestion)
-            .order((short) 1)
-            .text("NoImg")
-            .correct(true)
-            .build();
-
-        testOptionRepository.save(optWithImage);
-        testOptionRepository.save(optNoImage);
-
-        TestQuestionModel newQuestion = TestQuestionModel.builder()
-            .phase(originalQuestion.getPhase())
-            .order((short) 1)
-            .text("Cloned Q")
-            .build();
-        newQuestion = testQuestionRepository.save(newQuestion);
-
-        // Act
-        testOptionService.cloneOptions(originalQuestion.getId(), newQuestion);
-
-        // Assert
-        List<TestOptionModel> clonedOptions = testOptionRepository.findAllByQuestionId(newQuestion.getId());
-        assertEquals(2, clonedOptions.size());
-
-        Optional<TestOptionModel> maybeWithImage = clonedOptions.stream().filter(o -> "WithImg".equals(o.getText())).findFirst();
-        assertTrue(maybeWithImage.isPresent());
-        TestOptionModel clonedWithImage = maybeWithImage.get();
-        assertNotNull(clonedWithImage.getImage());
-        assertNotEquals(img.getId(), clonedWithImage.getImage().getId());
-        assertTrue(clonedWithImage.getImage().getPath().contains("test/questions") || clonedWithImage.getImage().getPath().contains("test/questions/options"));
-
-        Path clonedImageOnDisk = resolveImageOnDisk(clonedWithImage.getImage());
-        assertTrue(Files.exists(clonedImageOnDisk));
-    }
-
     @Test
     @Transactional
     void updateOptions_WithNullUpdates_ShouldReturnTrueAndCreateNothing() {
@@ -201,7 +158,7 @@ class TestOptionServiceIT {
         List<MultipartFile> imageFiles = List.of();
 
         // Act
-        boolean result = testOptionService.updateOptions(q, null, storedOptionsMap, processedOptions, imageIndex, imageFiles);
+        boolean result = updateOptions(q, null, storedOptionsMap, processedOptions, imageIndex, imageFiles);
 
         // Assert
         assertTrue(result);
@@ -229,7 +186,7 @@ class TestOptionServiceIT {
         List<MultipartFile> imageFiles = List.of(file1, file2);
 
         // Act
-        boolean modified = testOptionService.updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
+        boolean modified = updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
 
         // Assert
         assertTrue(modified);
@@ -275,7 +232,7 @@ class TestOptionServiceIT {
         );
 
         // Act
-        boolean modified = testOptionService.updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
+        boolean modified = updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
 
         // Assert
         assertFalse(modified);
@@ -308,7 +265,7 @@ class TestOptionServiceIT {
         List<TestOptionUpdate> updates = List.of(new TestOptionUpdate(stored.getId(), "NEW", true));
 
         // Act
-        boolean modified = testOptionService.updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
+        boolean modified = updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
 
         // Assert
         assertTrue(modified);
@@ -341,7 +298,7 @@ class TestOptionServiceIT {
         List<TestOptionUpdate> updates = List.of(new TestOptionUpdate(stored.getId(), "NoImg", false));
 
         // Act
-        boolean modified = testOptionService.updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
+        boolean modified = updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
 
         // Assert
         assertTrue(modified);
@@ -378,7 +335,7 @@ class TestOptionServiceIT {
         List<TestOptionUpdate> updates = List.of(new TestOptionUpdate(stored.getId(), "HasImg", false));
 
         // Act
-        boolean modified = testOptionService.updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
+        boolean modified = updateOptions(q, updates, storedOptionsMap, processedOptions, imageIndex, imageFiles);
 
         // Assert
         assertTrue(modified);
@@ -389,6 +346,28 @@ class TestOptionServiceIT {
         assertFalse(Files.exists(oldImgPath));
     }
 
+    private boolean updateOptions(
+        TestQuestionModel question,
+        List<TestOptionUpdate> updates,
+        Map<Integer, TestOptionModel> storedOptionsMap,
+        Map<Integer, Boolean> processedOptions,
+        AtomicInteger imageIndex,
+        List<MultipartFile> imageFiles
+    ) {
+        TestTreeChanges changes = new TestTreeChanges();
+        boolean modified = testOptionService.updateOptions(
+            question,
+            updates,
+            storedOptionsMap,
+            processedOptions,
+            imageIndex,
+            imageFiles,
+            changes
+        );
+        testTreeWriter.apply(changes);
+        return modified;
+    }
+
     private byte[] createPngBytes() {
         return new byte[]{
             (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A,
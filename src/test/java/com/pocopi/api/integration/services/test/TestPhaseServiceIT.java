@@ -4,15 +4,15 @@ import com.pocopi.api.dto.test.TestOptionUpdate;
 import com.pocopi.api.dto.test.TestPhaseUpdate;
 import com.pocopi.api.dto.test.TestQuestionUpdate;
 import com.pocopi.api.models.config.ConfigModel;
-import com.pocopi.api.models.config.ImageModel;
 import com.pocopi.api.models.test.TestGroupModel;
 import com.pocopi.api.models.test.TestPhaseModel;
 import com.pocopi.api.models.test.TestOptionModel;
 import com.pocopi.api.models.test.TestQuestionModel;
 import com.pocopi.api.repositories.*;
 import com.pocopi.api.config.ImageConfig;
-import com.pocopi.api.services.ImageService;
 import com.pocopi.api.services.TestPhaseService;
+import com.pocopi.api.services.TestTreeChanges;
+import com.pocopi.api.services.TestTreeWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -26,7 +26,6 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -42,6 +41,9 @@ class TestPhaseServiceIT {
     @Autowired
     private TestPhaseService testPhaseService;
 
+    @Autowired
+    private TestTreeWriter testTreeWriter;
+
     @Autowired
     private TestPhaseRepository testPhaseRepository;
 
@@ -57,9 +59,6 @@ class TestPhaseServiceIT {
     @Autowired
     private ConfigRepository configRepository;
 
-    @Autowired
-    private ImageService imageService;
-
     @Autowired
     private ImageRepository imageRepository;
 
@@ -108,87 +107,6 @@ class TestPhaseServiceIT {
         return testGroupRepository.save(group);
     }
 
-    private TestPhaseModel createPhaseWithQuestionAndOption(TestGroupModel group, short phaseOrder, String qText, String optText) {
-        TestPhaseModel phase = TestPhaseModel.builder()
-            .group(group)
-            .order(phaseOrder)
-            .build();
-        phase = testPhaseRepository.save(phase);
-
-        TestQuestionModel q = TestQuestionModel.builder()
-            .phase(phase)
-            .order((short) 0)
-            .text(qText)
-            .build();
-        q = testQuestionRepository.save(q);
-
-        TestOptionModel opt = TestOptionModel.builder()
-            .question(q)
-            .order((short) 0)
-            .text(optText)
-            .correct(true)
-            .build();
-        testOptionRepository.save(opt);
-
-        return phase;
-    }
-
-    @Test
-    @Transactional
-    void clonePhases_WhenPhasesExist_ShouldCopyPhasesAndDelegateQuestionsAndOptions() {
-        log.info("Inicio clonePhases_WhenPhasesExist_ShouldCopyPhasesAndDelegateQuestionsAndOptions");
-
-        // Arrange
-        TestGroupModel originalGroup = createMinimalGroup();
-
-        TestPhaseModel p1 = createPhaseWithQuestionAndOption(originalGroup, (short) 0, "Q1", "Opt1");
-        TestQuestionModel q1 = testQuestionRepository.findAllByPhaseId(p1.getId()).get(0);
-        ImageModel optImg = imageService.saveImageFile(ImageService.ImageCategory.TEST_OPTION, mockPngFile, "opt1-img");
-        TestOptionModel optWithImg = TestOptionModel.builder()
-            .question(q1)
-            .order((short) 1)
-            .text("Opt1-img")
-            .image(optImg)
-            .correct(false)
-            .build();
-        testOptionRepository.save(optWithImg);
-
-        TestPhaseModel p2 = createPhaseWithQuestionAndOption(originalGroup, (short) 1, "Q2", "Opt2");
-
-        TestGroupModel newGroup = TestGroupModel.builder()
-            .config(originalGroup.getConfig())
-            .label("NewG")
-            .probability((byte) 0)
-            .build();
-        newGroup = testGroupRepository.save(newGroup);
-
-        // Act
-        testPhaseService.clonePhases(originalGroup.getId(), newGroup);
-
-        // Assert
-        List<TestPhaseModel> clonedPhases = testPhaseRepository.findAllByGroupId(newGroup.getId());
-        assertEquals(2, clonedPhases.size());
-
-        for (TestPhaseModel clonedPhase : clonedPhases) {
-            List<TestQuestionModel> qs = testQuestionRepository.findAllByPhaseId(clonedPhase.getId());
-            assertEquals(1, qs.size());
-
-            List<TestOptionModel> opts = testOptionRepository.findAllByQuestionId(qs.get(0).getId());
-            assertTrue(opts.size() >= 1);
-        }
-
-        Optional<TestOptionModel> clonedWithImg = testOptionRepository.findAll().stream()
-            .filter(o -> "Opt1-img".equals(o.getText()) && o.getImage() != null)
-            .findFirst();
-
-        assertTrue(clonedWithImg.isPresent());
-        ImageModel clonedImage = clonedWithImg.get().getImage();
-        assertNotNull(clonedImage.getPath());
-        assertTrue(Files.exists(Path.of(imageConfig.getBasePath()).resolve(clonedImage.getPath().replaceFirst("^images/?", ""))));
-
-        log.info("Fin clonePhases_WhenPhasesExist_ShouldCopyPhasesAndDelegateQuestionsAndOptions");
-    }
-
     @Test
     @Transactional
     void updatePhases_WithNullUpdates_ShouldReturnTrueAndNotModify() {
@@ -207,7 +125,7 @@ class TestPhaseServiceIT {
         List<MultipartFile> imageFiles = List.of();
 
         // Act
-        boolean result = testPhaseService.updatePhases(
+        boolean result = updatePhases(
             group,
             null,
             storedPhasesMap,
@@ -252,7 +170,7 @@ class TestPhaseServiceIT {
         List<MultipartFile> imageFiles = Arrays.asList((MultipartFile) null, new MockMultipartFile("f", "empty.png", "image/png", new byte[0]));
 
         // Act
-        boolean modified = testPhaseService.updatePhases(
+        boolean modified = updatePhases(
             group,
             updates,
             storedPhasesMap,
@@ -309,7 +227,7 @@ class TestPhaseServiceIT {
         List<TestPhaseUpdate> updates = List.of(update);
 
         // Act
-        boolean modified = testPhaseService.updatePhases(
+        boolean modified = updatePhases(
             group,
             updates,
             storedPhasesMap,
@@ -361,7 +279,7 @@ class TestPhaseServiceIT {
         List<MultipartFile> imageFiles = List.of();
 
         // Act
-        boolean modified = testPhaseService.updatePhases(
+        boolean modified = updatePhases(
             group,
             updates,
             storedPhasesMap,
@@ -386,6 +304,36 @@ class TestPhaseServiceIT {
         log.info("Fin updatePhases_WithOrderChange_ShouldUpdateOrders");
     }
 
+    private boolean updatePhases(
+        TestGroupModel group,
+        List<TestPhaseUpdate> updates,
+        Map<Integer, TestPhaseModel> storedPhasesMap,
+        Map<Integer, TestQuestionModel> storedQuestionsMap,
+        Map<Integer, TestOptionModel> storedOptionsMap,
+        Map<Integer, Boolean> processedPhases,
+        Map<Integer, Boolean> processedQuestions,
+        Map<Integer, Boolean> processedOptions,
+        AtomicInteger imageIndex,
+        List<MultipartFile> imageFiles
+    ) {
+        TestTreeChanges changes = new TestTreeChanges();
+        boolean modified = testPhaseService.updatePhases(
+            group,
+            updates,
+            storedPhasesMap,
+            storedQuestionsMap,
+            storedOptionsMap,
+            processedPhases,
+            processedQuestions,
+            processedOptions,
+            imageIndex,
+            imageFiles,
+            changes
+        );
+        testTreeWriter.apply(changes);
+        return modified;
+    }
+
     private byte[] createPngBytes() {
         return new byte[]{
             (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A,
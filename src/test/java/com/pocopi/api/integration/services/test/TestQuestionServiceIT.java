@@ -12,6 +12,8 @@ import com.pocopi.api.repositories.*;
 import com.pocopi.api.config.ImageConfig;
 import com.pocopi.api.services.ImageService;
 import com.pocopi.api.services.TestQuestionService;
+import com.pocopi.api.services.TestTreeChanges;
+import com.pocopi.api.services.TestTreeWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -37,6 +39,9 @@ class TestQuestionServiceIT {
     @Autowired
     private TestQuestionService testQuestionService;
 
+    @Autowired
+    private TestTreeWriter testTreeWriter;
+
     @Autowired
     private TestQuestionRepository testQuestionRepository;
 
@@ -109,70 +114,6 @@ class TestQuestionServiceIT {
         return testPhaseRepository.save(phase);
     }
 
-    @Test
-    @Transactional
-    void cloneQuestions_WhenQuestionsExist_ShouldCopyQuestionsAndOptionsAndImages() {
-        // Arrange
-        TestPhaseModel originalPhase = createMinimalPhase();
-
-        TestQuestionModel qWithImg = TestQuestionModel.builder()
-            .phase(originalPhase)
-            .order((short) 0)
-            .text("Q with img")
-            .build();
-        qWithImg = testQuestionRepository.save(qWithImg);
-
-        ImageModel questionImage = imageService.saveImageFile(ImageService.ImageCategory.TEST_QUESTION, mockPngFile, "q-img");
-        qWithImg.setImage(questionImage);
-        testQuestionRepository.save(qWithImg);
-
-        ImageModel optionImage = imageService.saveImageFile(ImageService.ImageCategory.TEST_OPTION, mockJpgFile, "opt-img");
-        TestOptionModel opt1 = TestOptionModel.builder()
-            .question(qWithImg)
-            .order((short) 0)
-            .text("Opt A")
-            .image(optionImage)
-            .correct(true)
-            .build();
-        TestOptionModel opt2 = TestOptionModel.builder()
-            .question(qWithImg)
-            .order((short) 1)
-            .text("Opt B")
-            .correct(false)
-            .build();
-        testOptionRepository.save(opt1);
-        testOptionRepository.save(opt2);
-
-        TestPhaseModel newPhase = TestPhaseModel.builder()
-            .group(originalPhase.getGroup())
-            .order((short) 1)
-            .build();
-        newPhase = testPhaseRepository.save(newPhase);
-
-        // Act
-        testQuestionService.cloneQuestions(originalPhase.getId(), newPhase);
-
-        // Assert
-        List<TestQuestionModel> clonedQuestions = testQuestionRepository.findAllByPhaseId(newPhase.getId());
-        assertEquals(1, clonedQuestions.size());
-
-        TestQuestionModel clonedQ = clonedQuestions.get(0);
-        assertEquals("Q with img", clonedQ.getText());
-        assertNotNull(clonedQ.getImage());
-        assertNotEquals(questionImage.getId(), clonedQ.getImage().getId());
-
-        List<TestOptionModel> clonedOptions = testOptionRepository.findAllByQuestionId(clonedQ.getId());
-        assertEquals(2, clonedOptions.size());
-
-        Optional<TestOptionModel> clonedOptWithImg = clonedOptions.stream().filter(o -> "Opt A".equals(o.getText())).findFirst();
-        assertTrue(clonedOptWithImg.isPresent());
-        assertNotNull(clonedOptWithImg.get().getImage());
-        assertNotEquals(optionImage.getId(), clonedOptWithImg.get().getImage().getId());
-
-        assertTrue(Files.exists(resolveOnDisk(clonedQ.getImage())));
-        assertTrue(Files.exists(resolveOnDisk(clonedOptWithImg.get().getImage())));
-    }
-
     @Test
     @Transactional
     void updateQuestions_WithNewQuestion_ShouldCreateQuestionAndOptions() {
@@ -192,7 +133,7 @@ class TestQuestionServiceIT {
         List<MultipartFile> imageFiles = Arrays.asList((MultipartFile) null, new MockMultipartFile("f", "empty.png", "image/png", new byte[0]));
 
         // Act
-        boolean modified = testQuestionService.updateQuestions(
+        boolean modified = updateQuestions(
             phase,
             updates,
             storedQuestionsMap,
@@ -247,7 +188,7 @@ class TestQuestionServiceIT {
         List<MultipartFile> imageFiles = Arrays.asList(new MockMultipartFile("f", "empty.png", "image/png", new byte[0]));
 
         // Act
-        boolean modified = testQuestionService.updateQuestions(
+        boolean modified = updateQuestions(
             stored.getPhase(),
             updates,
             storedQuestionsMap,
@@ -274,6 +215,32 @@ class TestQuestionServiceIT {
         return Path.of(base).resolve(rel);
     }
 
+    private boolean updateQuestions(
+        TestPhaseModel phase,
+        List<TestQuestionUpdate> updates,
+        Map<Integer, TestQuestionModel> storedQuestionsMap,
+        Map<Integer, TestOptionModel> storedOptionsMap,
+        Map<Integer, Boolean> processedQuestions,
+        Map<Integer, Boolean> processedOptions,
+        AtomicInteger imageIndex,
+        List<MultipartFile> imageFiles
+    ) {
+        TestTreeChanges changes = new TestTreeChanges();
+        boolean modified = testQuestionService.updateQuestions(
+            phase,
+            updates,
+            storedQuestionsMap,
+            storedOptionsMap,
+            processedQuestions,
+            processedOptions,
+            imageIndex,
+            imageFiles,
+            changes
+        );
+        testTreeWriter.apply(changes);
+        return modified;
+    }
+
     private byte[] createPngBytes() {
         return new byte[]{
             (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A,
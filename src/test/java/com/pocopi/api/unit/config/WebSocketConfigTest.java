@@ -0,0 +1,61 @@
+package com.pocopi.api.unit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pocopi.api.config.AppCorsProperties;
+import com.pocopi.api.config.WebSocketConfig;
+import com.pocopi.api.config.auth.JwtHandshakeInterceptor;
+import com.pocopi.api.controllers.EventLogStreamHandler;
+import com.pocopi.api.dto.event.EventStreamFrame;
+import com.pocopi.api.dto.event.NewEventLogBatch;
+import com.pocopi.api.dto.event.NewEventLogBatchItem;
+import com.pocopi.api.dto.event.NewOptionEventLog;
+import com.pocopi.api.models.test.TestOptionEventType;
+import com.pocopi.api.models.test.UserTestOptionLogModel;
+import org.apache.catalina.core.StandardContext;
+import org.apache.tomcat.websocket.server.Constants;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WebSocketConfigTest {
+
+    @Test
+    void webSocketBufferCustomizer_ShouldFitFullFrame() throws Exception {
+        // Arrange
+        WebSocketConfig config = new WebSocketConfig(
+            mock(EventLogStreamHandler.class),
+            mock(JwtHandshakeInterceptor.class),
+            mock(AppCorsProperties.class)
+        );
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+        StandardContext context = new StandardContext();
+
+        NewOptionEventLog longestEvent = new NewOptionEventLog(
+            Integer.MAX_VALUE,
+            TestOptionEventType.DESELECT,
+            Long.MAX_VALUE,
+            UserTestOptionLogModel.COORD_MAX,
+            UserTestOptionLogModel.COORD_MAX,
+            Long.MAX_VALUE
+        );
+        EventStreamFrame fullFrame = new EventStreamFrame(
+            Long.MAX_VALUE,
+            Collections.nCopies(NewEventLogBatch.MAX_SIZE, new NewEventLogBatchItem(longestEvent, null))
+        );
+
+        // Act
+        config.webSocketBufferCustomizer().customize(factory);
+        factory.getTomcatContextCustomizers().forEach(customizer -> customizer.customize(context));
+        String payload = new ObjectMapper().writeValueAsString(fullFrame);
+
+        // Assert
+        String bufferSize = context.findParameter(Constants.TEXT_BUFFER_SIZE_SERVLET_CONTEXT_INIT_PARAM);
+        assertEquals(String.valueOf(EventStreamFrame.MAX_MESSAGE_SIZE), bufferSize);
+        assertTrue(payload.length() > 8 * 1024);
+        assertTrue(payload.length() <= EventStreamFrame.MAX_MESSAGE_SIZE);
+    }
+}
@@ -0,0 +1,167 @@
+package com.pocopi.api.unit.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pocopi.api.config.auth.JwtHandshakeInterceptor;
+import com.pocopi.api.controllers.EventLogStreamHandler;
+import com.pocopi.api.dto.event.EventLogBatchResult;
+import com.pocopi.api.dto.event.EventStreamFrame;
+import com.pocopi.api.dto.event.NewEventLogBatch;
+import com.pocopi.api.services.ActiveAttemptRegistry;
+import com.pocopi.api.services.ActiveAttemptRegistry.ActiveAttempt;
+import com.pocopi.api.services.EventLogService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventLogStreamHandlerTest {
+
+    private static final String FRAME = """
+        {"sequence": %d, "events": [{"question": {"questionId": 5, "timestamp": 1000, "duration": 300}}]}
+        """;
+
+    @Mock
+    private ActiveAttemptRegistry activeAttemptRegistry;
+
+    @Mock
+    private EventLogService eventLogService;
+
+    @Mock
+    private WebSocketSession session;
+
+    @Captor
+    private ArgumentCaptor<TextMessage> messageCaptor;
+
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    private EventLogStreamHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new EventLogStreamHandler(
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            activeAttemptRegistry,
+            eventLogService
+        );
+
+        attributes.put(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE, 1);
+        lenient().when(session.getAttributes()).thenReturn(attributes);
+    }
+
+    private List<String> sentPayloads() throws Exception {
+        verify(session, atLeastOnce()).sendMessage(messageCaptor.capture());
+        return messageCaptor.getAllValues().stream().map(TextMessage::getPayload).toList();
+    }
+
+    @Test
+    void afterConnectionEstablished_WithoutAttempt_ShouldCloseSession() throws Exception {
+        when(activeAttemptRegistry.find(1)).thenReturn(Optional.empty());
+
+        handler.afterConnectionEstablished(session);
+
+        verify(session).close(any(CloseStatus.class));
+        verify(session, never()).sendMessage(any());
+    }
+
+    @Test
+    void handleMessage_ShouldAcknowledgeAndResumeFromLastSequence() throws Exception {
+        when(activeAttemptRegistry.find(1)).thenReturn(Optional.of(new ActiveAttempt(7L, 10, 1)));
+        // the second connection reads the sequence stored by the first one, as another node would
+        when(eventLogService.getStreamSequence(7L)).thenReturn(0L, 2L);
+        when(eventLogService.saveEventStreamFrame(any(EventStreamFrame.class), eq(1)))
+            .thenReturn(new EventLogBatchResult(1, 0, 0, List.of()));
+
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage(FRAME.formatted(1)));
+        handler.handleMessage(session, new TextMessage(FRAME.formatted(2)));
+        handler.afterConnectionClosed(session, CloseStatus.GOING_AWAY);
+
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage(FRAME.formatted(2)));
+
+        List<String> payloads = sentPayloads();
+        assertTrue(payloads.get(0).contains("\"type\":\"resume\"") && payloads.get(0).contains("\"sequence\":0"));
+        assertTrue(payloads.get(1).contains("\"type\":\"ack\"") && payloads.get(1).contains("\"sequence\":1"));
+        assertTrue(payloads.get(2).contains("\"type\":\"ack\"") && payloads.get(2).contains("\"sequence\":2"));
+        assertTrue(payloads.get(3).contains("\"type\":\"resume\"") && payloads.get(3).contains("\"sequence\":2"));
+        assertTrue(payloads.get(4).contains("\"type\":\"ack\"") && !payloads.get(4).contains("result"));
+
+        verify(eventLogService, times(2)).saveEventStreamFrame(any(EventStreamFrame.class), eq(1));
+    }
+
+    @Test
+    void handleMessage_WithFrameStoredByAnotherSession_ShouldAcknowledgeWithoutResult() throws Exception {
+        when(activeAttemptRegistry.find(1)).thenReturn(Optional.of(new ActiveAttempt(7L, 10, 1)));
+        when(eventLogService.getStreamSequence(7L)).thenReturn(0L);
+        // another connection stored the frame after this one resumed, so only the database knows about it
+        when(eventLogService.saveEventStreamFrame(any(EventStreamFrame.class), eq(1))).thenReturn(null);
+
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage(FRAME.formatted(1)));
+
+        List<String> payloads = sentPayloads();
+        assertTrue(payloads.get(1).contains("\"type\":\"ack\"") && !payloads.get(1).contains("result"));
+    }
+
+    @Test
+    void handleMessage_WithExpiredToken_ShouldCloseSession() throws Exception {
+        when(activeAttemptRegistry.find(1)).thenReturn(Optional.of(new ActiveAttempt(7L, 10, 1)));
+        attributes.put(JwtHandshakeInterceptor.TOKEN_EXPIRATION_ATTRIBUTE, Instant.now().minusSeconds(1));
+
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage(FRAME.formatted(1)));
+
+        verify(session).close(any(CloseStatus.class));
+        verify(eventLogService, never()).saveEventStreamFrame(any(), anyInt());
+    }
+
+    @Test
+    void handleMessage_WithFullFrame_ShouldSaveAllEvents() throws Exception {
+        when(activeAttemptRegistry.find(1)).thenReturn(Optional.of(new ActiveAttempt(7L, 10, 1)));
+        when(eventLogService.saveEventStreamFrame(any(EventStreamFrame.class), eq(1)))
+            .thenReturn(new EventLogBatchResult(NewEventLogBatch.MAX_SIZE, 0, 0, List.of()));
+        String event = "{\"question\": {\"questionId\": 5, \"timestamp\": 1000, \"duration\": 300}}";
+        String events = String.join(",", Collections.nCopies(NewEventLogBatch.MAX_SIZE, event));
+
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage("{\"sequence\": 1, \"events\": [" + events + "]}"));
+
+        ArgumentCaptor<EventStreamFrame> frameCaptor = ArgumentCaptor.forClass(EventStreamFrame.class);
+        verify(eventLogService).saveEventStreamFrame(frameCaptor.capture(), eq(1));
+        assertEquals(NewEventLogBatch.MAX_SIZE, frameCaptor.getValue().events().size());
+        assertTrue(sentPayloads().get(1).contains("\"type\":\"ack\""));
+    }
+
+    @Test
+    void handleMessage_WithInvalidFrame_ShouldReplyWithError() throws Exception {
+        when(activeAttemptRegistry.find(1)).thenReturn(Optional.of(new ActiveAttempt(7L, 10, 1)));
+
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage("{\"sequence\": 1, \"events\": []}"));
+
+        List<String> payloads = sentPayloads();
+        assertTrue(payloads.get(1).contains("\"type\":\"error\""));
+        verifyNoInteractions(eventLogService);
+    }
+}
@@ -0,0 +1,163 @@
+package com.pocopi.api.unit.converters;
+
+import com.pocopi.api.converters.EventLogBatchBinaryConverter;
+import com.pocopi.api.dto.event.NewEventLogBatch;
+import com.pocopi.api.dto.event.NewEventLogBatchItem;
+import com.pocopi.api.dto.event.NewOptionEventLog;
+import com.pocopi.api.dto.event.NewQuestionEventLog;
+import com.pocopi.api.models.test.TestOptionEventType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogBatchBinaryConverterTest {
+
+    private final EventLogBatchBinaryConverter converter = new EventLogBatchBinaryConverter();
+
+    private static void writeVarLong(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private static void writeZigZag(ByteArrayOutputStream output, long value) {
+        writeVarLong(output, (value << 1) ^ (value >> 63));
+    }
+
+    private static byte[] sampleBatch() {
+        return sampleBatch(EventLogBatchBinaryConverter.UNSEQUENCED_FORMAT_VERSION, 0);
+    }
+
+    private static byte[] sampleBatch(int version, long firstSequence) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(version);
+        writeVarLong(output, 3);
+
+        if (version == EventLogBatchBinaryConverter.FORMAT_VERSION) {
+            writeVarLong(output, firstSequence);
+        }
+
+        output.write(EventLogBatchBinaryConverter.OPTION_FLAG | (TestOptionEventType.HOVER.getCode() << 1));
+        writeZigZag(output, 1_700_000_000_000L);
+        writeVarLong(output, 300);
+        output.write(10);
+        output.write(20);
+
+        output.write(EventLogBatchBinaryConverter.OPTION_FLAG | (TestOptionEventType.SELECT.getCode() << 1));
+        writeZigZag(output, 16);
+        writeVarLong(output, 300);
+        output.write(11);
+        output.write(21);
+
+        output.write(0);
+        writeZigZag(output, -6);
+        writeVarLong(output, 5);
+        writeVarLong(output, 4500);
+
+        return output.toByteArray();
+    }
+
+    private NewEventLogBatch read(MockHttpInputMessage message) throws IOException {
+        message.getHeaders().setContentType(EventLogBatchBinaryConverter.MEDIA_TYPE);
+        return converter.read(NewEventLogBatch.class, message);
+    }
+
+    @Test
+    void read_ShouldDecodeDeltaEncodedEvents() throws IOException {
+        NewEventLogBatch batch = read(new MockHttpInputMessage(sampleBatch()));
+
+        assertEquals(List.of(
+            new NewEventLogBatchItem(
+                new NewOptionEventLog(300, TestOptionEventType.HOVER, 1_700_000_000_000L, 10, 20, null),
+                null
+            ),
+            new NewEventLogBatchItem(
+                new NewOptionEventLog(300, TestOptionEventType.SELECT, 1_700_000_000_016L, 11, 21, null),
+                null
+            ),
+            new NewEventLogBatchItem(null, new NewQuestionEventLog(5, 1_700_000_000_010L, 4500, null))
+        ), batch.events());
+    }
+
+    @Test
+    void read_WithSequencedFormat_ShouldNumberEventsConsecutively() throws IOException {
+        NewEventLogBatch batch = read(new MockHttpInputMessage(
+            sampleBatch(EventLogBatchBinaryConverter.FORMAT_VERSION, 41)
+        ));
+
+        assertEquals(41L, batch.events().get(0).option().sequence());
+        assertEquals(42L, batch.events().get(1).option().sequence());
+        assertEquals(43L, batch.events().get(2).question().sequence());
+    }
+
+    @Test
+    void read_WithZeroFirstSequence_ShouldThrowNotReadable() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read(new MockHttpInputMessage(
+            sampleBatch(EventLogBatchBinaryConverter.FORMAT_VERSION, 0)
+        )));
+    }
+
+    @Test
+    void read_WithGzipEncoding_ShouldDecompressBody() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(sampleBatch());
+        }
+
+        MockHttpInputMessage message = new MockHttpInputMessage(compressed.toByteArray());
+        message.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        assertEquals(3, read(message).events().size());
+    }
+
+    @Test
+    void read_WithUnknownTypeCode_ShouldThrowNotReadable() {
+        byte[] batch = sampleBatch();
+        // header of the first event, after the version and count bytes
+        batch[2] = (byte) (EventLogBatchBinaryConverter.OPTION_FLAG | (7 << 1));
+
+        HttpMessageNotReadableException exception = assertThrows(HttpMessageNotReadableException.class,
+            () -> read(new MockHttpInputMessage(batch)));
+
+        assertTrue(exception.getMessage().contains("Invalid option event type 7"));
+    }
+
+    @Test
+    void read_WithTruncatedBody_ShouldThrowNotReadable() {
+        byte[] batch = sampleBatch();
+        byte[] truncated = Arrays.copyOf(batch, batch.length - 2);
+
+        HttpMessageNotReadableException exception = assertThrows(HttpMessageNotReadableException.class,
+            () -> read(new MockHttpInputMessage(truncated)));
+
+        assertTrue(exception.getMessage().contains("Unexpected end of event batch"));
+    }
+
+    @Test
+    void read_WithTrailingData_ShouldThrowNotReadable() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.writeBytes(sampleBatch());
+        output.write(0);
+
+        assertThrows(HttpMessageNotReadableException.class, () -> read(new MockHttpInputMessage(output.toByteArray())));
+    }
+
+    @Test
+    void canRead_ShouldOnlyAcceptBinaryBatches() {
+        assertTrue(converter.canRead(NewEventLogBatch.class, EventLogBatchBinaryConverter.MEDIA_TYPE));
+        assertFalse(converter.canRead(NewEventLogBatch.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(NewEventLogBatch.class, EventLogBatchBinaryConverter.MEDIA_TYPE));
+    }
+}
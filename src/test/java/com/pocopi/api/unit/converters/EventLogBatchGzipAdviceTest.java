@@ -0,0 +1,102 @@
+package com.pocopi.api.unit.converters;
+
+import com.pocopi.api.converters.EventLogBatchBinaryConverter;
+import com.pocopi.api.converters.EventLogBatchGzipAdvice;
+import com.pocopi.api.dto.event.NewEventLogBatch;
+import com.pocopi.api.exception.HttpException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogBatchGzipAdviceTest {
+
+    private static final String JSON_BATCH = """
+        {"events": [{"question": {"questionId": 5, "timestamp": 1000, "duration": 300}}]}
+        """;
+
+    private final EventLogBatchGzipAdvice advice = new EventLogBatchGzipAdvice();
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+
+    @Test
+    void beforeBodyRead_WithGzipEncodedJson_ShouldDecompressBody() throws IOException {
+        // Arrange
+        MockHttpInputMessage message = new MockHttpInputMessage(gzip(JSON_BATCH));
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        message.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        // Act
+        HttpInputMessage decoded = advice.beforeBodyRead(
+            message,
+            null,
+            NewEventLogBatch.class,
+            MappingJackson2HttpMessageConverter.class
+        );
+        NewEventLogBatch batch = (NewEventLogBatch) new MappingJackson2HttpMessageConverter()
+            .read(NewEventLogBatch.class, decoded);
+
+        // Assert
+        assertEquals(1, batch.events().size());
+        assertEquals(5, batch.events().getFirst().question().questionId());
+        assertNull(decoded.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void beforeBodyRead_WhenBodyInflatesPastLimit_ShouldThrowPayloadTooLarge() throws IOException {
+        // Arrange
+        String inflated = " ".repeat(EventLogBatchGzipAdvice.MAX_DECOMPRESSED_SIZE + 1) + JSON_BATCH;
+        MockHttpInputMessage message = new MockHttpInputMessage(gzip(inflated));
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        message.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        // Act & Assert
+        HttpException exception = assertThrows(HttpException.class, () -> advice.beforeBodyRead(
+            message,
+            null,
+            NewEventLogBatch.class,
+            MappingJackson2HttpMessageConverter.class
+        ));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, exception.getStatus());
+    }
+
+    @Test
+    void beforeBodyRead_WithoutEncoding_ShouldKeepMessage() throws IOException {
+        // Arrange
+        MockHttpInputMessage message = new MockHttpInputMessage(JSON_BATCH.getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        HttpInputMessage result = advice.beforeBodyRead(
+            message,
+            null,
+            NewEventLogBatch.class,
+            MappingJackson2HttpMessageConverter.class
+        );
+
+        // Assert
+        assertSame(message, result);
+    }
+
+    @Test
+    void supports_ShouldSkipBinaryConverter() {
+        assertTrue(advice.supports(null, NewEventLogBatch.class, MappingJackson2HttpMessageConverter.class));
+        assertFalse(advice.supports(null, NewEventLogBatch.class, EventLogBatchBinaryConverter.class));
+    }
+}
@@ -0,0 +1,119 @@
+package com.pocopi.api.unit.services;
+
+import com.pocopi.api.dto.cache.CacheStats;
+import com.pocopi.api.exception.HttpException;
+import com.pocopi.api.models.test.TestGroupModel;
+import com.pocopi.api.models.test.UserTestAttemptModel;
+import com.pocopi.api.repositories.UserTestAttemptRepository;
+import com.pocopi.api.services.ActiveAttemptRegistry;
+import com.pocopi.api.services.ActiveAttemptRegistry.ActiveAttempt;
+import com.pocopi.api.services.ActiveConfigVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveAttemptRegistryTest {
+
+    @Mock
+    private ActiveConfigVersion activeConfigVersion;
+
+    @Mock
+    private UserTestAttemptRepository userTestAttemptRepository;
+
+    private ActiveAttemptRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ActiveAttemptRegistry(activeConfigVersion, userTestAttemptRepository);
+    }
+
+    private UserTestAttemptModel sampleAttempt() {
+        return UserTestAttemptModel.builder()
+            .id(5L)
+            .group(TestGroupModel.builder().id(11).build())
+            .build();
+    }
+
+    @Test
+    void find_miss_then_hit_shouldQueryDatabaseOnce() {
+        when(activeConfigVersion.get()).thenReturn(2);
+        when(userTestAttemptRepository.findUnfinishedAttempt(2, 1)).thenReturn(Optional.of(sampleAttempt()));
+
+        assertEquals(Optional.of(new ActiveAttempt(5L, 11, 2)), registry.find(1));
+        assertEquals(Optional.of(new ActiveAttempt(5L, 11, 2)), registry.find(1));
+
+        verify(userTestAttemptRepository, times(1)).findUnfinishedAttempt(2, 1);
+
+        CacheStats stats = registry.getCacheStats();
+        assertEquals(1, stats.size());
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void get_withoutAttempt_shouldThrowNotFoundAndNotCache() {
+        when(activeConfigVersion.get()).thenReturn(2);
+        when(userTestAttemptRepository.findUnfinishedAttempt(2, 1)).thenReturn(Optional.empty());
+
+        assertThrows(HttpException.class, () -> registry.get(1));
+        assertThrows(HttpException.class, () -> registry.get(1));
+
+        verify(userTestAttemptRepository, times(2)).findUnfinishedAttempt(2, 1);
+        assertEquals(0, registry.getCacheStats().size());
+    }
+
+    @Test
+    void register_and_remove_shouldKeepRegistryInSync() {
+        registry.register(1, sampleAttempt(), 2);
+
+        assertEquals(new ActiveAttempt(5L, 11, 2), registry.get(1));
+        verifyNoInteractions(userTestAttemptRepository);
+
+        registry.remove(1);
+        when(activeConfigVersion.get()).thenReturn(2);
+        when(userTestAttemptRepository.findUnfinishedAttempt(2, 1)).thenReturn(Optional.empty());
+
+        assertTrue(registry.find(1).isEmpty());
+    }
+
+    @Test
+    void findVerified_whenCachedAttemptEndedElsewhere_shouldReloadFromDatabase() {
+        registry.register(1, sampleAttempt(), 2);
+        when(userTestAttemptRepository.countUnfinished(5L)).thenReturn(0L);
+        when(userTestAttemptRepository.isUnfinished(5L)).thenCallRealMethod();
+        when(activeConfigVersion.get()).thenReturn(2);
+        when(userTestAttemptRepository.findUnfinishedAttempt(2, 1)).thenReturn(Optional.empty());
+
+        assertTrue(registry.findVerified(1).isEmpty());
+        assertThrows(HttpException.class, () -> registry.getVerified(1));
+        assertEquals(0, registry.getCacheStats().size());
+    }
+
+    @Test
+    void findVerified_whenCachedAttemptStillOpen_shouldKeepCachedAttempt() {
+        registry.register(1, sampleAttempt(), 2);
+        when(userTestAttemptRepository.countUnfinished(5L)).thenReturn(1L);
+        when(userTestAttemptRepository.isUnfinished(5L)).thenCallRealMethod();
+
+        assertEquals(new ActiveAttempt(5L, 11, 2), registry.getVerified(1));
+        verify(userTestAttemptRepository, never()).findUnfinishedAttempt(anyInt(), anyInt());
+    }
+
+    @Test
+    void clear_shouldEvictAllAttempts() {
+        registry.register(1, sampleAttempt(), 2);
+        registry.register(2, sampleAttempt(), 2);
+
+        registry.clear();
+
+        assertEquals(0, registry.getCacheStats().size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.pocopi.api.unit.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pocopi.api.dto.config.TrimmedConfig;
+import com.pocopi.api.services.ActiveConfigCache;
+import com.pocopi.api.services.ActiveConfigCache.SerializedConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActiveConfigCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger(0);
+
+    private ActiveConfigCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ActiveConfigCache(new ObjectMapper());
+    }
+
+    private Supplier<TrimmedConfig> loader(String title) {
+        return () -> {
+            loads.incrementAndGet();
+            return new TrimmedConfig(
+                null,
+                title,
+                null,
+                null,
+                false,
+                null,
+                null,
+                List.of(),
+                "consent",
+                List.of(),
+                null,
+                null,
+                Map.of("key", "value")
+            );
+        };
+    }
+
+    @Test
+    void get_ShouldSerializeOnlyOnceUntilInvalidated() {
+        SerializedConfig first = cache.get(loader("First"));
+        SerializedConfig second = cache.get(loader("Second"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        cache.invalidate();
+        SerializedConfig reloaded = cache.get(loader("Second"));
+
+        assertEquals(2, loads.get());
+        assertNotEquals(first.eTag(), reloaded.eTag());
+        assertEquals(1, cache.getCacheStats().hits());
+    }
+
+    @Test
+    void get_ShouldKeepGzippedCopyOfJson() throws IOException {
+        SerializedConfig config = cache.get(loader("Title"));
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(config.gzipped()))) {
+            assertArrayEquals(config.json(), gzip.readAllBytes());
+        }
+        assertTrue(new String(config.json()).contains("\"title\":\"Title\""));
+    }
+
+    @Test
+    void matches_ShouldCompareIfNoneMatchAgainstStrongETag() {
+        SerializedConfig config = cache.get(loader("Title"));
+
+        assertTrue(config.eTag().startsWith("\"") && config.eTag().endsWith("\""));
+        assertTrue(config.matches(config.eTag(), false));
+        assertTrue(config.matches("\"other\", " + config.eTag(), false));
+        assertTrue(config.matches("*", false));
+        assertFalse(config.matches("\"other\"", false));
+        assertFalse(config.matches(null, false));
+    }
+
+    @Test
+    void matches_ShouldKeepSeparateETagsPerEncoding() {
+        SerializedConfig config = cache.get(loader("Title"));
+
+        assertNotEquals(config.eTag(false), config.eTag(true));
+        assertTrue(config.eTag(true).startsWith("\"") && config.eTag(true).endsWith("-gz\""));
+        assertTrue(config.matches(config.eTag(true), true));
+        assertFalse(config.matches(config.eTag(false), true));
+        assertFalse(config.matches(config.eTag(true), false));
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonorQualityValues() {
+        assertTrue(SerializedConfig.acceptsGzip("gzip, deflate, br"));
+        assertTrue(SerializedConfig.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(SerializedConfig.acceptsGzip("*"));
+        assertFalse(SerializedConfig.acceptsGzip(null));
+        assertFalse(SerializedConfig.acceptsGzip("identity"));
+        assertFalse(SerializedConfig.acceptsGzip("gzip;q=0"));
+        assertFalse(SerializedConfig.acceptsGzip("gzip; q=0.000, deflate"));
+        assertFalse(SerializedConfig.acceptsGzip("gzip;q=0, *"));
+    }
+}
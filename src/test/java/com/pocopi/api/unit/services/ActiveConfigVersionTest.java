@@ -0,0 +1,100 @@
+package com.pocopi.api.unit.services;
+
+import com.pocopi.api.repositories.ConfigRepository;
+import com.pocopi.api.repositories.projections.ConfigRevisionProjection;
+import com.pocopi.api.services.ActiveConfigVersion;
+import com.pocopi.api.services.ActiveConfigVersion.ActiveConfigChangedEvent;
+import com.pocopi.api.services.ActiveConfigVersion.ConfigModifiedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveConfigVersionTest {
+
+    @Mock
+    private ConfigRepository configRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ActiveConfigVersion activeConfigVersion;
+
+    @BeforeEach
+    void setUp() {
+        activeConfigVersion = new ActiveConfigVersion(configRepository, eventPublisher);
+    }
+
+    @Test
+    void get_ShouldLoadOnceUntilInvalidated() {
+        when(configRepository.findActiveVersion()).thenReturn(3, 4);
+
+        assertEquals(3, activeConfigVersion.get());
+        assertEquals(3, activeConfigVersion.get());
+        verify(configRepository, times(1)).findActiveVersion();
+
+        activeConfigVersion.invalidate();
+
+        assertEquals(4, activeConfigVersion.get());
+        verify(configRepository, times(2)).findActiveVersion();
+    }
+
+    @Test
+    void checkForRemoteChanges_WhenVersionChanged_ShouldPublishEvent() {
+        when(configRepository.findActiveVersion()).thenReturn(3, 3, 5);
+
+        activeConfigVersion.get();
+        activeConfigVersion.checkForRemoteChanges();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        activeConfigVersion.checkForRemoteChanges();
+
+        verify(eventPublisher).publishEvent(new ActiveConfigChangedEvent(3, 5));
+        assertEquals(5, activeConfigVersion.get());
+    }
+
+    @Test
+    void checkForRemoteChanges_WhenConfigModifiedOrDeleted_ShouldPublishEvent() {
+        when(configRepository.findAllRevisions()).thenReturn(
+            List.of(revision(1, 0), revision(2, 4)),
+            List.of(revision(1, 0), revision(2, 4)),
+            List.of(revision(1, 1))
+        );
+
+        activeConfigVersion.checkForRemoteChanges();
+        verify(eventPublisher).publishEvent(new ConfigModifiedEvent(1));
+        verify(eventPublisher).publishEvent(new ConfigModifiedEvent(2));
+
+        clearInvocations(eventPublisher);
+        activeConfigVersion.checkForRemoteChanges();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        activeConfigVersion.checkForRemoteChanges();
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+        verify(eventPublisher).publishEvent(new ConfigModifiedEvent(1));
+        verify(eventPublisher).publishEvent(new ConfigModifiedEvent(2));
+    }
+
+    private static ConfigRevisionProjection revision(int version, int revision) {
+        return new ConfigRevisionProjection() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public int getRevision() {
+                return revision;
+            }
+        };
+    }
+}
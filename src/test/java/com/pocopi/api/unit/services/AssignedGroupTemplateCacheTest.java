@@ -0,0 +1,156 @@
+package com.pocopi.api.unit.services;
+
+import com.pocopi.api.dto.test.AssignedTestGroup;
+import com.pocopi.api.dto.test.AssignedTestOption;
+import com.pocopi.api.dto.test.AssignedTestQuestion;
+import com.pocopi.api.models.config.ConfigModel;
+import com.pocopi.api.models.test.TestGroupModel;
+import com.pocopi.api.models.test.TestOptionModel;
+import com.pocopi.api.models.test.TestPhaseModel;
+import com.pocopi.api.models.test.TestQuestionModel;
+import com.pocopi.api.repositories.TestOptionRepository;
+import com.pocopi.api.repositories.TestPhaseRepository;
+import com.pocopi.api.repositories.TestQuestionRepository;
+import com.pocopi.api.services.ActiveConfigVersion.ConfigModifiedEvent;
+import com.pocopi.api.services.AssignedGroupTemplateCache;
+import com.pocopi.api.services.AssignedGroupTemplateCache.GroupTemplate;
+import com.pocopi.api.services.ImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AssignedGroupTemplateCacheTest {
+
+    @Mock
+    private TestPhaseRepository testPhaseRepository;
+
+    @Mock
+    private TestQuestionRepository testQuestionRepository;
+
+    @Mock
+    private TestOptionRepository testOptionRepository;
+
+    @Mock
+    private ImageService imageService;
+
+    private AssignedGroupTemplateCache cache;
+
+    private TestGroupModel group;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AssignedGroupTemplateCache(
+            testPhaseRepository,
+            testQuestionRepository,
+            testOptionRepository,
+            imageService
+        );
+
+        group = TestGroupModel.builder()
+            .id(1)
+            .config(ConfigModel.builder().version(2).build())
+            .label("Group")
+            .build();
+
+        TestPhaseModel fixedPhase = TestPhaseModel.builder().id(10).group(group).randomizeQuestions(false).build();
+        TestPhaseModel shuffledPhase = TestPhaseModel.builder().id(11).group(group).randomizeQuestions(true).build();
+
+        List<TestQuestionModel> questions = List.of(
+            TestQuestionModel.builder().id(100).phase(fixedPhase).text("Q100").randomizeOptions(false).build(),
+            TestQuestionModel.builder().id(101).phase(fixedPhase).text("Q101").randomizeOptions(true).build(),
+            TestQuestionModel.builder().id(110).phase(shuffledPhase).text("Q110").build(),
+            TestQuestionModel.builder().id(111).phase(shuffledPhase).text("Q111").build(),
+            TestQuestionModel.builder().id(112).phase(shuffledPhase).text("Q112").build()
+        );
+
+        List<TestOptionModel> options = IntStream.range(0, 8)
+            .mapToObj(i -> TestOptionModel.builder()
+                .id(1000 + i)
+                .question(questions.get(i < 4 ? 0 : 1))
+                .text("O" + i)
+                .build())
+            .toList();
+
+        lenient().when(testPhaseRepository.findAllByGroupIdOrderByOrder(1)).thenReturn(List.of(fixedPhase, shuffledPhase));
+        lenient().when(testQuestionRepository.findAllByPhaseGroupIdOrderByOrder(1)).thenReturn(questions);
+        lenient().when(testOptionRepository.findAllByQuestionPhaseGroupIdOrderByOrder(1)).thenReturn(options);
+    }
+
+    private static List<Integer> optionIds(AssignedTestQuestion question) {
+        return question.options().stream().map(AssignedTestOption::id).toList();
+    }
+
+    @Test
+    void get_ShouldLoadTemplateOnceAndShuffleOnlyRandomizedLists() {
+        GroupTemplate template = cache.get(group);
+        assertSame(template, cache.get(group));
+        verify(testOptionRepository, times(1)).findAllByQuestionPhaseGroupIdOrderByOrder(1);
+        verifyNoInteractions(imageService);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 20; i++) {
+            AssignedTestGroup assigned = template.instantiate(random);
+
+            assertEquals("Group", assigned.label());
+            assertEquals(2, assigned.phases().size());
+
+            List<AssignedTestQuestion> fixedQuestions = assigned.phases().get(0).questions();
+            assertEquals(List.of(100, 101), fixedQuestions.stream().map(AssignedTestQuestion::id).toList());
+            assertEquals(List.of(1000, 1001, 1002, 1003), optionIds(fixedQuestions.get(0)));
+            assertEquals(
+                List.of(1004, 1005, 1006, 1007),
+                optionIds(fixedQuestions.get(1)).stream().sorted().toList()
+            );
+
+            List<Integer> shuffledIds = assigned.phases().get(1).questions().stream()
+                .map(AssignedTestQuestion::id)
+                .sorted()
+                .toList();
+            assertEquals(List.of(110, 111, 112), shuffledIds);
+        }
+    }
+
+    @Test
+    void instantiate_ShouldReturnIndependentCopies() {
+        GroupTemplate template = cache.get(group);
+
+        AssignedTestGroup first = template.instantiate(new Random(1));
+        first.phases().get(0).questions().get(0).options().clear();
+
+        AssignedTestGroup second = template.instantiate(new Random(1));
+        assertEquals(4, second.phases().get(0).questions().get(0).options().size());
+    }
+
+    @Test
+    void evictConfig_ShouldReloadTemplatesOfThatVersion() {
+        cache.get(group);
+
+        cache.evictConfig(3);
+        cache.get(group);
+        verify(testPhaseRepository, times(1)).findAllByGroupIdOrderByOrder(1);
+
+        cache.evictConfig(2);
+        cache.get(group);
+        verify(testPhaseRepository, times(2)).findAllByGroupIdOrderByOrder(1);
+    }
+
+    @Test
+    void onConfigModified_ShouldReloadTemplatesOfThatVersion() {
+        cache.get(group);
+
+        cache.onConfigModified(new ConfigModifiedEvent(2));
+        cache.get(group);
+
+        verify(testPhaseRepository, times(2)).findAllByGroupIdOrderByOrder(1);
+    }
+}
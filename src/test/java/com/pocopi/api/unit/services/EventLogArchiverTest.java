@@ -0,0 +1,83 @@
+package com.pocopi.api.unit.services;
+
+import com.pocopi.api.config.EventLogArchiveProperties;
+import com.pocopi.api.repositories.UserTestLogArchiveRepository;
+import com.pocopi.api.repositories.UserTestLogArchiveRepository.ArchivedLogs;
+import com.pocopi.api.services.EventLogArchiver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventLogArchiverTest {
+
+    @Mock
+    private UserTestLogArchiveRepository userTestLogArchiveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EventLogArchiveProperties properties;
+
+    private EventLogArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventLogArchiveProperties();
+        properties.setAttemptsPerBatch(2);
+        properties.setMaxBatchesPerRun(5);
+
+        archiver = new EventLogArchiver(properties, userTestLogArchiveRepository, transactionManager);
+    }
+
+    @Test
+    void archive_ShouldMoveBatchesUntilNoAttemptsAreLeft() {
+        // Arrange
+        when(userTestLogArchiveRepository.findArchivableAttemptIds(2))
+            .thenReturn(List.of(1L, 2L))
+            .thenReturn(List.of(3L))
+            .thenReturn(List.of());
+        when(userTestLogArchiveRepository.archiveAttempts(List.of(1L, 2L))).thenReturn(new ArchivedLogs(10, 4));
+        when(userTestLogArchiveRepository.archiveAttempts(List.of(3L))).thenReturn(new ArchivedLogs(3, 1));
+
+        // Act
+        ArchivedLogs archived = archiver.archive();
+
+        // Assert
+        assertEquals(new ArchivedLogs(13, 5), archived);
+        verify(userTestLogArchiveRepository, times(3)).findArchivableAttemptIds(2);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void archive_ShouldStopAfterMaxBatchesPerRun() {
+        // Arrange
+        properties.setMaxBatchesPerRun(2);
+        when(userTestLogArchiveRepository.findArchivableAttemptIds(2)).thenReturn(List.of(1L, 2L));
+        when(userTestLogArchiveRepository.archiveAttempts(List.of(1L, 2L))).thenReturn(new ArchivedLogs(1, 1));
+
+        // Act
+        ArchivedLogs archived = archiver.archive();
+
+        // Assert
+        assertEquals(new ArchivedLogs(2, 2), archived);
+        verify(userTestLogArchiveRepository, times(2)).archiveAttempts(anyList());
+    }
+
+    @Test
+    void archiveScheduled_WhenDisabled_ShouldNotTouchDatabase() {
+        // Act
+        archiver.archiveScheduled();
+
+        // Assert
+        verifyNoInteractions(userTestLogArchiveRepository, transactionManager);
+    }
+}
@@ -0,0 +1,252 @@
+package com.pocopi.api.unit.services;
+
+import com.pocopi.api.config.EventLogWriteBehindProperties;
+import com.pocopi.api.exception.HttpException;
+import com.pocopi.api.models.test.TestOptionEventType;
+import com.pocopi.api.repositories.UserTestLogBatchRepository;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.OptionLogRow;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.QuestionLogRow;
+import com.pocopi.api.services.EventLogWriteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventLogWriteBufferTest {
+
+    @Mock
+    private UserTestLogBatchRepository userTestLogBatchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<OptionLogRow>> optionRowsCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<QuestionLogRow>> questionRowsCaptor;
+
+    @TempDir
+    private Path spoolDirectory;
+
+    private EventLogWriteBehindProperties properties;
+
+    private EventLogWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventLogWriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setQueueCapacity(10);
+        properties.setFlushSize(100);
+        properties.setFlushInterval(Duration.ofMinutes(1));
+        properties.setEnqueueTimeout(Duration.ofMillis(10));
+        properties.setSpoolPath(spoolDirectory.toString());
+
+        buffer = new EventLogWriteBuffer(properties, userTestLogBatchRepository, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        buffer.stop();
+    }
+
+    private static OptionLogRow optionRow(int optionId) {
+        return new OptionLogRow(1L, optionId, TestOptionEventType.HOVER, Instant.ofEpochMilli(1000L), (byte) 5, (byte) 6);
+    }
+
+    private static long countSpoolRecords(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            long records = 0;
+            for (Path file : files.toList()) {
+                records += Files.readAllLines(file).size();
+            }
+            return records;
+        }
+    }
+
+    @Test
+    void enqueue_ShouldSpoolEventsUntilFlushed() throws Exception {
+        // Arrange
+        buffer.start();
+
+        // Act
+        buffer.enqueue(List.of(optionRow(3)), List.of(new QuestionLogRow(1L, 5, Instant.ofEpochMilli(2000L), 300)));
+
+        // Assert
+        assertEquals(2, countSpoolRecords(spoolDirectory));
+        verify(userTestLogBatchRepository, never()).insertOptionLogs(anyList());
+    }
+
+    @Test
+    void stop_ShouldFlushPendingEventsAndClearSpool() throws Exception {
+        // Arrange
+        buffer.start();
+        buffer.enqueue(List.of(optionRow(3), optionRow(4)), List.of());
+
+        // Act
+        buffer.stop();
+
+        // Assert
+        verify(userTestLogBatchRepository).insertOptionLogs(optionRowsCaptor.capture());
+        assertEquals(List.of(optionRow(3), optionRow(4)), optionRowsCaptor.getValue());
+        assertEquals(0, countSpoolRecords(spoolDirectory));
+    }
+
+    @Test
+    void enqueue_WhenQueueIsFull_ShouldThrowTooManyRequests() throws Exception {
+        // Arrange
+        properties.setQueueCapacity(2);
+        buffer = new EventLogWriteBuffer(properties, userTestLogBatchRepository, transactionManager);
+        buffer.start();
+        buffer.enqueue(List.of(optionRow(3), optionRow(4)), List.of());
+
+        // Act & Assert
+        HttpException exception = assertThrows(HttpException.class,
+            () -> buffer.enqueue(List.of(optionRow(5)), List.of()));
+
+        assertTrue(exception.getMessage().contains("Event log queue is full"));
+    }
+
+    @Test
+    void start_WithLeftoverSpoolSegment_ShouldReplayCompleteRecords() throws Exception {
+        // Arrange
+        Files.writeString(
+            spoolDirectory.resolve("segment-0000000000000000007.log"),
+            "O,1,3,hover,1000,5,6\nQ,1,5,2000,300\nQ,1,5,30"
+        );
+
+        // Act
+        buffer.start();
+
+        // Assert
+        verify(userTestLogBatchRepository).insertOptionLogs(optionRowsCaptor.capture());
+        verify(userTestLogBatchRepository).insertQuestionLogs(questionRowsCaptor.capture());
+        assertEquals(List.of(optionRow(3)), optionRowsCaptor.getValue());
+        assertEquals(
+            List.of(new QuestionLogRow(1L, 5, Instant.ofEpochMilli(2000L), 300)),
+            questionRowsCaptor.getValue()
+        );
+        assertFalse(Files.exists(spoolDirectory.resolve("segment-0000000000000000007.log")));
+    }
+
+    @Test
+    void stop_WhenRowKeepsFailing_ShouldMoveItToDeadLetterFile() throws Exception {
+        // Arrange
+        buffer.start();
+        buffer.enqueue(List.of(optionRow(3), optionRow(4)), List.of());
+
+        when(userTestLogBatchRepository.insertOptionLogs(anyList())).thenAnswer(invocation -> {
+            List<OptionLogRow> rows = invocation.getArgument(0);
+
+            if (rows.stream().anyMatch(row -> row.optionId() == 4)) {
+                throw new DataIntegrityViolationException("Option does not exist");
+            }
+
+            return new boolean[rows.size()];
+        });
+
+        // Act
+        buffer.stop();
+
+        // Assert
+        verify(userTestLogBatchRepository).insertOptionLogs(argThat(rows -> rows.equals(List.of(optionRow(3)))));
+        assertEquals(
+            List.of("O,1,4,hover,1000,5,6,1,0"),
+            Files.readAllLines(spoolDirectory.resolve("dead-letter.log"))
+        );
+    }
+
+    @Test
+    void enqueue_InsideTransaction_ShouldSpoolBeforeCommit() throws Exception {
+        // Arrange
+        buffer.start();
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // Act
+            buffer.enqueue(List.of(optionRow(3)), List.of());
+            long spooledBeforeCommit = countSpoolRecords(spoolDirectory);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(sync -> sync.beforeCommit(false));
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            // Assert
+            assertEquals(0, spooledBeforeCommit);
+            assertEquals(1, countSpoolRecords(spoolDirectory));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void enqueue_WhenSpoolWriteFailsBeforeCommit_ShouldThrowAndReleaseCapacityOnce() throws Exception {
+        // Arrange
+        buffer.start();
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            buffer.enqueue(List.of(optionRow(3)), List.of());
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            ((FileChannel) ReflectionTestUtils.getField(buffer, "segmentChannel")).close();
+
+            // Act & Assert
+            assertThrows(HttpException.class, () -> synchronizations.forEach(sync -> sync.beforeCommit(false)));
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Semaphore capacity = (Semaphore) ReflectionTestUtils.getField(buffer, "capacity");
+        assertEquals(properties.getQueueCapacity(), capacity.availablePermits());
+    }
+
+    @Test
+    void enqueue_WhenTransactionRollsBack_ShouldReleaseCapacity() throws Exception {
+        // Arrange
+        properties.setQueueCapacity(1);
+        buffer = new EventLogWriteBuffer(properties, userTestLogBatchRepository, transactionManager);
+        buffer.start();
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            buffer.enqueue(List.of(optionRow(3)), List.of());
+
+            // Act
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertDoesNotThrow(() -> buffer.enqueue(List.of(optionRow(4)), List.of()));
+        assertEquals(1, countSpoolRecords(spoolDirectory));
+    }
+}
@@ -0,0 +1,87 @@
+package com.pocopi.api.unit.services;
+
+import com.pocopi.api.config.EventLogIngestionProperties;
+import com.pocopi.api.models.test.TestOptionEventType;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.OptionLogRow;
+import com.pocopi.api.services.HoverEventCoalescer;
+import com.pocopi.api.services.HoverEventCoalescer.CoalescedOptionLogs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoverEventCoalescerTest {
+
+    private EventLogIngestionProperties properties;
+
+    private HoverEventCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventLogIngestionProperties();
+        properties.setHoverCoalescingEnabled(true);
+        properties.setHoverCoalescingWindow(Duration.ofMillis(100));
+
+        coalescer = new HoverEventCoalescer(properties);
+    }
+
+    private static OptionLogRow event(int optionId, TestOptionEventType type, long timestamp) {
+        return new OptionLogRow(1L, optionId, type, Instant.ofEpochMilli(timestamp), (byte) 5, (byte) 6);
+    }
+
+    @Test
+    void coalesce_WhenDisabled_ShouldKeepRawEvents() {
+        properties.setHoverCoalescingEnabled(false);
+        List<OptionLogRow> rows = List.of(
+            event(3, TestOptionEventType.HOVER, 1000),
+            event(3, TestOptionEventType.HOVER, 1010)
+        );
+
+        CoalescedOptionLogs result = coalescer.coalesce(rows);
+
+        assertEquals(rows, result.rows());
+        assertArrayEquals(new int[]{0, 1}, result.rowBySource());
+    }
+
+    @Test
+    void coalesce_ShouldMergeHoverBurstsOnTheSameOption() {
+        List<OptionLogRow> rows = List.of(
+            event(3, TestOptionEventType.HOVER, 1000),
+            event(3, TestOptionEventType.HOVER, 1080),
+            event(3, TestOptionEventType.HOVER, 1150),
+            event(4, TestOptionEventType.HOVER, 1200),
+            event(3, TestOptionEventType.HOVER, 1250),
+            event(3, TestOptionEventType.HOVER, 1500)
+        );
+
+        CoalescedOptionLogs result = coalescer.coalesce(rows);
+
+        assertEquals(4, result.rows().size());
+        assertEquals(3, result.rows().get(0).hoverCount());
+        assertEquals(150, result.rows().get(0).dwell());
+        assertEquals(4, result.rows().get(1).optionId());
+        assertEquals(1, result.rows().get(2).hoverCount());
+        assertEquals(Instant.ofEpochMilli(1500), result.rows().get(3).timestamp());
+        assertArrayEquals(new int[]{0, 0, 0, 1, 2, 3}, result.rowBySource());
+    }
+
+    @Test
+    void coalesce_ShouldNotMergeAcrossSelectionEvents() {
+        List<OptionLogRow> rows = List.of(
+            event(3, TestOptionEventType.HOVER, 1030),
+            event(3, TestOptionEventType.SELECT, 1010),
+            event(3, TestOptionEventType.HOVER, 1000)
+        );
+
+        CoalescedOptionLogs result = coalescer.coalesce(rows);
+
+        assertEquals(3, result.rows().size());
+        assertEquals(TestOptionEventType.HOVER, result.rows().get(0).type());
+        assertEquals(TestOptionEventType.SELECT, result.rows().get(1).type());
+        assertArrayEquals(new int[]{2, 1, 0}, result.rowBySource());
+    }
+}
@@ -0,0 +1,95 @@
+package com.pocopi.api.unit.services;
+
+import com.pocopi.api.services.ResultsArchiveWriter;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultsArchiveWriterTest {
+
+    private static Map<String, String> readArchive(byte[] archive) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+
+        try (TarArchiveInputStream input = new TarArchiveInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(archive))
+        )) {
+            TarArchiveEntry entry;
+
+            while ((entry = input.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(input.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        return entries;
+    }
+
+    @Test
+    void addEntry_ShouldWriteEntriesInOrder() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ResultsArchiveWriter archive = new ResultsArchiveWriter(output);
+
+        // Act
+        archive.addEntry("b.csv", "b");
+        archive.addEntry("a.json", stream -> stream.write("{}".getBytes(StandardCharsets.UTF_8)));
+        archive.finish();
+
+        // Assert
+        Map<String, String> entries = readArchive(output.toByteArray());
+        assertEquals(List.of("b.csv", "a.json"), List.copyOf(entries.keySet()));
+        assertEquals("b", entries.get("b.csv"));
+        assertEquals("{}", entries.get("a.json"));
+    }
+
+    @Test
+    void addEntry_WhenLargerThanSpillThreshold_ShouldKeepWholeContent() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ResultsArchiveWriter archive = new ResultsArchiveWriter(output, 16);
+        String content = "x".repeat(1000);
+
+        // Act
+        archive.addEntry("large.json", stream -> {
+            for (char c : content.toCharArray()) {
+                stream.write(c);
+            }
+        });
+        archive.addEntry("small.json", stream -> stream.write("small".getBytes(StandardCharsets.UTF_8)));
+        archive.finish();
+
+        // Assert
+        Map<String, String> entries = readArchive(output.toByteArray());
+        assertEquals(content, entries.get("large.json"));
+        assertEquals("small", entries.get("small.json"));
+    }
+
+    @Test
+    void finish_ShouldLeaveUnderlyingStreamOpen() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("Underlying stream must not be closed");
+            }
+        };
+        ResultsArchiveWriter archive = new ResultsArchiveWriter(output);
+
+        // Act
+        archive.addEntry("a.csv", "a");
+        archive.finish();
+
+        // Assert
+        assertEquals(Map.of("a.csv", "a"), readArchive(output.toByteArray()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.pocopi.api.unit.services;
+
+import com.pocopi.api.config.ResultsExportProperties;
+import com.pocopi.api.services.ResultsArchiveWriter;
+import com.pocopi.api.services.ResultsExporter;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultsExporterTest {
+
+    private static final int MAX_IN_FLIGHT = 3;
+
+    private ResultsExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        ResultsExportProperties properties = new ResultsExportProperties();
+        properties.setWorkers(4);
+        properties.setMaxInFlight(MAX_IN_FLIGHT);
+
+        exporter = new ResultsExporter(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporter.stop();
+    }
+
+    private static List<String> readEntryNames(byte[] archive) throws IOException {
+        List<String> names = new ArrayList<>();
+
+        try (TarArchiveInputStream input = new TarArchiveInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(archive))
+        )) {
+            TarArchiveEntry entry;
+
+            while ((entry = input.getNextEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+
+        return names;
+    }
+
+    @Test
+    void export_ShouldWriteEntriesInResultOrder() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ResultsArchiveWriter archive = new ResultsArchiveWriter(output, 16);
+
+        // Act
+        exporter.export(IntStream.range(0, 20).boxed(), archive, (result, entries) -> {
+            try {
+                // later results finish first
+                Thread.sleep(20 - result);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            entries.add(result + ".json", "{\"result\": " + result + "}");
+            entries.add(result + ".csv", "result\n" + result);
+        });
+        archive.finish();
+
+        // Assert
+        List<String> expected = IntStream.range(0, 20)
+            .boxed()
+            .flatMap(result -> List.of(result + ".json", result + ".csv").stream())
+            .toList();
+        assertEquals(expected, readEntryNames(output.toByteArray()));
+    }
+
+    @Test
+    void export_ShouldNotLoadMoreResultsThanMaxInFlight() throws Exception {
+        // Arrange
+        ResultsArchiveWriter archive = new ResultsArchiveWriter(new ByteArrayOutputStream());
+        CountDownLatch firstRendered = new CountDownLatch(1);
+        AtomicInteger loaded = new AtomicInteger();
+
+        // Act
+        CompletableFuture<Void> export = CompletableFuture.runAsync(() -> {
+            try {
+                exporter.export(
+                    IntStream.range(0, 50).boxed().peek(result -> loaded.incrementAndGet()),
+                    archive,
+                    (result, entries) -> {
+                        if (result == 0) {
+                            awaitQuietly(firstRendered);
+                        }
+
+                        entries.add(result + ".csv", "result");
+                    }
+                );
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        Thread.sleep(200);
+        int loadedWhileBlocked = loaded.get();
+        firstRendered.countDown();
+        export.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        // the iterator looks one result ahead before waiting for the oldest one
+        assertTrue(loadedWhileBlocked <= MAX_IN_FLIGHT + 1, "Loaded " + loadedWhileBlocked + " results");
+        assertEquals(50, loaded.get());
+    }
+
+    @Test
+    void export_WhenRenderingFails_ShouldRethrowAndKeepWorkersUsable() throws IOException {
+        // Arrange
+        ResultsArchiveWriter failing = new ResultsArchiveWriter(new ByteArrayOutputStream(), 1);
+
+        // Act & Assert
+        IOException exception = assertThrows(IOException.class, () -> exporter.export(
+            IntStream.range(0, 10).boxed(),
+            failing,
+            (result, entries) -> {
+                entries.add(result + ".csv", "result " + result);
+
+                if (result == 5) {
+                    throw new IOException("Broken result " + result);
+                }
+            }
+        ));
+        assertEquals("Broken result 5", exception.getMessage());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ResultsArchiveWriter archive = new ResultsArchiveWriter(output);
+        exporter.export(IntStream.range(0, 2).boxed(), archive, (result, entries) ->
+            entries.add(result + ".csv", "result")
+        );
+        archive.finish();
+
+        assertEquals(List.of("0.csv", "1.csv"), readEntryNames(output.toByteArray()));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
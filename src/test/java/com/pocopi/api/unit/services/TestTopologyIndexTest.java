@@ -0,0 +1,150 @@
+package com.pocopi.api.unit.services;
+
+import com.pocopi.api.repositories.TestOptionRepository;
+import com.pocopi.api.repositories.TestQuestionRepository;
+import com.pocopi.api.repositories.projections.OptionTopologyProjection;
+import com.pocopi.api.repositories.projections.QuestionTopologyProjection;
+import com.pocopi.api.services.ActiveConfigVersion.ConfigModifiedEvent;
+import com.pocopi.api.services.TestTopologyIndex;
+import com.pocopi.api.services.TestTopologyIndex.Topology;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TestTopologyIndexTest {
+
+    @Mock
+    private TestQuestionRepository testQuestionRepository;
+
+    @Mock
+    private TestOptionRepository testOptionRepository;
+
+    private TestTopologyIndex testTopologyIndex;
+
+    @BeforeEach
+    void setUp() {
+        testTopologyIndex = new TestTopologyIndex(testQuestionRepository, testOptionRepository);
+    }
+
+    private static QuestionTopologyProjection question(int questionId, int phaseId, int groupId) {
+        return new QuestionTopologyProjection() {
+            @Override
+            public int getQuestionId() {
+                return questionId;
+            }
+
+            @Override
+            public int getPhaseId() {
+                return phaseId;
+            }
+
+            @Override
+            public int getGroupId() {
+                return groupId;
+            }
+        };
+    }
+
+    private static OptionTopologyProjection option(int optionId, int questionId) {
+        return new OptionTopologyProjection() {
+            @Override
+            public int getOptionId() {
+                return optionId;
+            }
+
+            @Override
+            public int getQuestionId() {
+                return questionId;
+            }
+        };
+    }
+
+    private void stubTopology(int configVersion) {
+        when(testQuestionRepository.findAllTopologyByConfigVersion(configVersion)).thenReturn(List.of(
+            question(7, 2, 10),
+            question(5, 1, 10),
+            question(9, 3, 11)
+        ));
+        when(testOptionRepository.findAllTopologyByConfigVersion(configVersion)).thenReturn(List.of(
+            option(30, 9),
+            option(3, 5),
+            option(4, 7)
+        ));
+    }
+
+    @Test
+    void topology_ShouldResolveOptionsAndQuestionsToTheirGroup() {
+        // Arrange
+        stubTopology(1);
+
+        // Act
+        Topology topology = testTopologyIndex.get(1);
+
+        // Assert
+        assertTrue(topology.containsOption(3, 10));
+        assertTrue(topology.containsOption(4, 10));
+        assertTrue(topology.containsOption(30, 11));
+        assertFalse(topology.containsOption(30, 10));
+        assertFalse(topology.containsOption(999, 10));
+        assertTrue(topology.containsQuestion(5, 10));
+        assertFalse(topology.containsQuestion(9, 10));
+        assertFalse(topology.containsQuestion(999, 11));
+    }
+
+    @Test
+    void get_ShouldLoadEachConfigVersionOnce() {
+        // Arrange
+        stubTopology(1);
+
+        // Act
+        Topology first = testTopologyIndex.get(1);
+        Topology second = testTopologyIndex.get(1);
+
+        // Assert
+        assertSame(first, second);
+        verify(testQuestionRepository, times(1)).findAllTopologyByConfigVersion(1);
+        assertEquals(1, testTopologyIndex.getCacheStats().hits());
+        assertEquals(1, testTopologyIndex.getCacheStats().misses());
+    }
+
+    @Test
+    void evict_ShouldRebuildTopologyOnNextLookup() {
+        // Arrange
+        stubTopology(1);
+        testTopologyIndex.get(1);
+
+        // Act
+        testTopologyIndex.evict(1);
+        testTopologyIndex.get(1);
+
+        // Assert
+        verify(testQuestionRepository, times(2)).findAllTopologyByConfigVersion(1);
+        verify(testOptionRepository, times(2)).findAllTopologyByConfigVersion(1);
+    }
+
+    @Test
+    void onConfigModified_ShouldRebuildOnlyThatConfigsTopology() {
+        // Arrange
+        stubTopology(1);
+        stubTopology(2);
+        testTopologyIndex.get(1);
+        testTopologyIndex.get(2);
+
+        // Act
+        testTopologyIndex.onConfigModified(new ConfigModifiedEvent(2));
+        testTopologyIndex.get(1);
+        testTopologyIndex.get(2);
+
+        // Assert
+        verify(testQuestionRepository, times(1)).findAllTopologyByConfigVersion(1);
+        verify(testQuestionRepository, times(2)).findAllTopologyByConfigVersion(2);
+    }
+}
@@ -12,9 +12,12 @@ import com.pocopi.api.models.test.UserTestAttemptModel;
 import com.pocopi.api.models.test.TestGroupModel;
 import com.pocopi.api.models.user.UserModel;
 import com.pocopi.api.repositories.UserTestAttemptRepository;
-import com.pocopi.api.repositories.ConfigRepository;
 import com.pocopi.api.repositories.projections.FormsCompletionStatusProjection;
 import com.pocopi.api.repositories.projections.TestAnswerProjection;
+import com.pocopi.api.services.ActiveAttemptRegistry;
+import com.pocopi.api.services.ActiveAttemptRegistry.ActiveAttempt;
+import com.pocopi.api.services.ActiveConfigVersion;
+import com.pocopi.api.services.EventSequenceTracker;
 import com.pocopi.api.services.TestGroupService;
 import com.pocopi.api.services.UserTestAttemptService;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,7 +37,7 @@ import static org.mockito.Mockito.*;
 class UserTestAttemptServiceTest {
 
     @Mock
-    private ConfigRepository configRepository;
+    private ActiveConfigVersion activeConfigVersion;
 
     @Mock
     private TestGroupService testGroupService;
@@ -42,11 +45,23 @@ class UserTestAttemptServiceTest {
     @Mock
     private UserTestAttemptRepository userTestAttemptRepository;
 
+    @Mock
+    private ActiveAttemptRegistry activeAttemptRegistry;
+
+    @Mock
+    private EventSequenceTracker eventSequenceTracker;
+
     private UserTestAttemptService service;
 
     @BeforeEach
     void setUp() {
-        service = new UserTestAttemptService(configRepository, testGroupService, userTestAttemptRepository);
+        service = new UserTestAttemptService(
+            activeConfigVersion,
+            testGroupService,
+            userTestAttemptRepository,
+            activeAttemptRegistry,
+            eventSequenceTracker
+        );
     }
 
     private ConfigModel activeConfig() {
@@ -80,26 +95,29 @@ class UserTestAttemptServiceTest {
         return new AssignedTestGroup("G", "hi", null, true, true, true, List.of(new AssignedTestPhase(qlist)));
     }
 
+    private ActiveAttempt activeAttempt() {
+        return new ActiveAttempt(5L, sampleGroup().getId(), activeConfig().getVersion());
+    }
+
     @Test
     void assertActiveAttempt_notFound_then_found() {
-        when(configRepository.getLastConfig()).thenReturn(activeConfig());
         UserModel user = sampleUser();
 
-        when(userTestAttemptRepository.hasUnfinishedAttempt(activeConfig().getVersion(), user.getId())).thenReturn(false);
+        when(activeAttemptRegistry.findVerified(user.getId())).thenReturn(Optional.empty());
         assertThrows(HttpException.class, () -> service.assertActiveAttempt(user));
 
-        when(userTestAttemptRepository.hasUnfinishedAttempt(activeConfig().getVersion(), user.getId())).thenReturn(true);
+        when(activeAttemptRegistry.findVerified(user.getId())).thenReturn(Optional.of(activeAttempt()));
         assertDoesNotThrow(() -> service.assertActiveAttempt(user));
     }
 
     @Test
     void beginAttempt_happy_and_conflict_and_sampleException() {
-        when(configRepository.getLastConfig()).thenReturn(activeConfig());
+        when(activeConfigVersion.get()).thenReturn(activeConfig().getVersion());
         UserModel user = sampleUser();
         TestGroupModel group = sampleGroup();
         AssignedTestGroup assigned = assignedWithQuestions(2);
 
-        when(userTestAttemptRepository.hasUnfinishedAttempt(activeConfig().getVersion(), user.getId())).thenReturn(false);
+        when(activeAttemptRegistry.findVerified(user.getId())).thenReturn(Optional.empty());
         when(testGroupService.sampleGroup()).thenReturn(group);
         when(testGroupService.getAssignedGroup(group)).thenReturn(assigned);
         when(userTestAttemptRepository.save(any(UserTestAttemptModel.class))).thenAnswer(inv -> {
@@ -116,18 +134,18 @@ class UserTestAttemptServiceTest {
         assertTrue(dto.testAnswers().isEmpty());
         assertEquals(assigned, dto.assignedGroup());
         verify(userTestAttemptRepository).save(any());
+        verify(activeAttemptRegistry).register(eq(user.getId()), any(UserTestAttemptModel.class), eq(1));
 
-        when(userTestAttemptRepository.hasUnfinishedAttempt(activeConfig().getVersion(), user.getId())).thenReturn(true);
+        when(activeAttemptRegistry.findVerified(user.getId())).thenReturn(Optional.of(activeAttempt()));
         assertThrows(HttpException.class, () -> service.beginAttempt(user));
 
-        when(userTestAttemptRepository.hasUnfinishedAttempt(activeConfig().getVersion(), user.getId())).thenReturn(false);
+        when(activeAttemptRegistry.findVerified(user.getId())).thenReturn(Optional.empty());
         when(testGroupService.sampleGroup()).thenThrow(new IllegalArgumentException("no groups"));
         assertThrows(IllegalArgumentException.class, () -> service.beginAttempt(user));
     }
 
     @Test
     void continueAttempt_variousCases() {
-        when(configRepository.getLastConfig()).thenReturn(activeConfig());
         UserModel user = sampleUser();
 
         UserTestAttemptModel unfinished = UserTestAttemptModel.builder()
@@ -136,8 +154,8 @@ class UserTestAttemptServiceTest {
             .start(Instant.now())
             .build();
 
-        when(userTestAttemptRepository.findUnfinishedAttempt(activeConfig().getVersion(), user.getId()))
-            .thenReturn(Optional.of(unfinished));
+        when(activeAttemptRegistry.get(user.getId())).thenReturn(activeAttempt());
+        when(userTestAttemptRepository.findById(activeAttempt().attemptId())).thenReturn(Optional.of(unfinished));
 
         AssignedTestGroup assignedTwo = assignedWithQuestions(2);
         when(testGroupService.getAssignedGroup(unfinished.getGroup())).thenReturn(assignedTwo);
@@ -187,31 +205,41 @@ class UserTestAttemptServiceTest {
 
     @Test
     void continueAttempt_notFound() {
-        when(configRepository.getLastConfig()).thenReturn(activeConfig());
         UserModel user = sampleUser();
-        when(userTestAttemptRepository.findUnfinishedAttempt(activeConfig().getVersion(), user.getId())).thenReturn(Optional.empty());
+        when(activeAttemptRegistry.get(user.getId()))
+            .thenThrow(HttpException.notFound("User has not started an attempt yet"));
         assertThrows(HttpException.class, () -> service.continueAttempt(user.getId()));
     }
 
+    @Test
+    void continueAttempt_staleRegistryEntry_shouldEvictAndThrow() {
+        UserModel user = sampleUser();
+        when(activeAttemptRegistry.get(user.getId())).thenReturn(activeAttempt());
+        when(userTestAttemptRepository.findById(activeAttempt().attemptId())).thenReturn(Optional.empty());
+
+        assertThrows(HttpException.class, () -> service.continueAttempt(user.getId()));
+        verify(activeAttemptRegistry).remove(user.getId());
+    }
+
     @Test
     void discardAndEndAttempt_cases() {
-        when(configRepository.getLastConfig()).thenReturn(activeConfig());
         UserModel user = sampleUser();
-        UserTestAttemptModel attempt = UserTestAttemptModel.builder().user(user).group(sampleGroup()).start(Instant.now()).build();
+        UserTestAttemptModel attempt = UserTestAttemptModel.builder().id(activeAttempt().attemptId()).user(user).group(sampleGroup()).start(Instant.now()).build();
 
-        when(userTestAttemptRepository.findUnfinishedAttempt(activeConfig().getVersion(), user.getId())).thenReturn(Optional.of(attempt));
+        when(activeAttemptRegistry.get(user.getId())).thenReturn(activeAttempt());
+        when(userTestAttemptRepository.findById(activeAttempt().attemptId())).thenReturn(Optional.of(attempt));
         service.discardAttempt(user.getId());
         verify(userTestAttemptRepository).delete(attempt);
+        verify(activeAttemptRegistry).remove(user.getId());
+        verify(eventSequenceTracker).forget(activeAttempt().attemptId());
 
-        when(userTestAttemptRepository.findUnfinishedAttempt(activeConfig().getVersion(), user.getId())).thenReturn(Optional.empty());
-        assertThrows(HttpException.class, () -> service.discardAttempt(user.getId()));
-
-        when(userTestAttemptRepository.findUnfinishedAttempt(activeConfig().getVersion(), user.getId()))
-            .thenReturn(Optional.of(attempt));
         service.endAttempt(user.getId());
         verify(userTestAttemptRepository).save(argThat(a -> a.getEnd() != null));
+        verify(activeAttemptRegistry, times(2)).remove(user.getId());
 
-        when(userTestAttemptRepository.findUnfinishedAttempt(activeConfig().getVersion(), user.getId())).thenReturn(Optional.empty());
+        when(activeAttemptRegistry.get(user.getId()))
+            .thenThrow(HttpException.notFound("User has not started an attempt yet"));
+        assertThrows(HttpException.class, () -> service.discardAttempt(user.getId()));
         assertThrows(HttpException.class, () -> service.endAttempt(user.getId()));
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,21 @@
 package com.pocopi.api.unit.services.config;
 
-import com.pocopi.api.dto.event.NewOptionEventLog;
-import com.pocopi.api.dto.event.NewQuestionEventLog;
+import com.pocopi.api.config.EventLogIngestionProperties;
+import com.pocopi.api.dto.event.*;
 import com.pocopi.api.exception.HttpException;
-import com.pocopi.api.models.config.ConfigModel;
 import com.pocopi.api.models.test.*;
 import com.pocopi.api.repositories.*;
+import com.pocopi.api.repositories.UserTestLogBatchRepository.OptionLogRow;
+import com.pocopi.api.repositories.projections.OptionTopologyProjection;
+import com.pocopi.api.repositories.projections.QuestionTopologyProjection;
+import com.pocopi.api.services.ActiveAttemptRegistry;
+import com.pocopi.api.services.ActiveAttemptRegistry.ActiveAttempt;
 import com.pocopi.api.services.EventLogService;
+import com.pocopi.api.services.EventLogWriteBuffer;
+import com.pocopi.api.services.EventSequenceTracker;
+import com.pocopi.api.services.HoverEventCoalescer;
+import com.pocopi.api.services.TestTopologyIndex;
+import com.pocopi.api.services.TestTopologyIndex.Topology;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,17 +25,22 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
-import java.util.Optional;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class EventLogServiceTest {
 
     @Mock
-    private ConfigRepository configRepository;
+    private ActiveAttemptRegistry activeAttemptRegistry;
+
+    @Mock
+    private TestTopologyIndex testTopologyIndex;
 
     @Mock
     private TestQuestionRepository testQuestionRepository;
@@ -43,26 +57,79 @@ class EventLogServiceTest {
     @Mock
     private UserTestOptionLogRepository userTestOptionLogRepository;
 
+    @Mock
+    private UserTestLogBatchRepository userTestLogBatchRepository;
+
+    @Mock
+    private UserTestEventStreamRepository userTestEventStreamRepository;
+
+    @Mock
+    private EventLogWriteBuffer eventLogWriteBuffer;
+
     @Captor
     private ArgumentCaptor<UserTestQuestionLogModel> questionLogCaptor;
 
     @Captor
     private ArgumentCaptor<UserTestOptionLogModel> optionLogCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<OptionLogRow>> optionRowsCaptor;
+
+    private EventSequenceTracker eventSequenceTracker;
+
     private EventLogService eventLogService;
 
     @BeforeEach
     void setUp() {
+        eventSequenceTracker = new EventSequenceTracker();
         eventLogService = new EventLogService(
-            configRepository,
+            activeAttemptRegistry,
+            testTopologyIndex,
             testQuestionRepository,
             testOptionRepository,
             userTestAttemptRepository,
             userTestQuestionLogRepository,
-            userTestOptionLogRepository
+            userTestOptionLogRepository,
+            userTestLogBatchRepository,
+            userTestEventStreamRepository,
+            eventLogWriteBuffer,
+            new HoverEventCoalescer(new EventLogIngestionProperties()),
+            eventSequenceTracker
         );
     }
 
+    private static Topology sampleTopology() {
+        QuestionTopologyProjection question = new QuestionTopologyProjection() {
+            @Override
+            public int getQuestionId() {
+                return 5;
+            }
+
+            @Override
+            public int getPhaseId() {
+                return 20;
+            }
+
+            @Override
+            public int getGroupId() {
+                return 10;
+            }
+        };
+        OptionTopologyProjection option = new OptionTopologyProjection() {
+            @Override
+            public int getOptionId() {
+                return 3;
+            }
+
+            @Override
+            public int getQuestionId() {
+                return 5;
+            }
+        };
+
+        return Topology.build(List.of(question), List.of(option));
+    }
+
     // ==================== saveQuestionEventLog Tests ====================
 
     @Test
@@ -72,18 +139,17 @@ class EventLogServiceTest {
         int configVersion = 1;
         int groupId = 10;
 
-        ConfigModel config = ConfigModel.builder().version(configVersion).build();
         TestGroupModel group = TestGroupModel.builder().id(groupId).build();
         UserTestAttemptModel attempt = UserTestAttemptModel.builder().id(1L).group(group).build();
         TestQuestionModel question = TestQuestionModel.builder().id(5).build();
 
-        NewQuestionEventLog eventLog = new NewQuestionEventLog(5, 1000L, 5000);
+        NewQuestionEventLog eventLog = new NewQuestionEventLog(5, 1000L, 5000, null);
 
-        when(configRepository.getLastConfig()).thenReturn(config);
-        when(userTestAttemptRepository.findUnfinishedAttempt(configVersion, userId))
-            .thenReturn(Optional.of(attempt));
-        when(testQuestionRepository.findByIdAndPhaseGroupId(5, groupId))
-            .thenReturn(Optional.of(question));
+        when(activeAttemptRegistry.getVerified(userId))
+            .thenReturn(new ActiveAttempt(attempt.getId(), groupId, configVersion));
+        when(testTopologyIndex.get(configVersion)).thenReturn(sampleTopology());
+        when(testQuestionRepository.getReferenceById(5)).thenReturn(question);
+        when(userTestAttemptRepository.getReferenceById(1L)).thenReturn(attempt);
 
         // Act
         eventLogService.saveQuestionEventLog(eventLog, userId);
@@ -101,13 +167,10 @@ class EventLogServiceTest {
     void saveQuestionEventLog_WithoutUnfinishedAttempt_ShouldThrowNotFound() {
         // Arrange
         int userId = 1;
-        int configVersion = 1;
-        ConfigModel config = ConfigModel.builder().version(configVersion).build();
-        NewQuestionEventLog eventLog = new NewQuestionEventLog(5, 1000L, 5000);
+        NewQuestionEventLog eventLog = new NewQuestionEventLog(5, 1000L, 5000, null);
 
-        when(configRepository.getLastConfig()).thenReturn(config);
-        when(userTestAttemptRepository.findUnfinishedAttempt(configVersion, userId))
-            .thenReturn(Optional.empty());
+        when(activeAttemptRegistry.getVerified(userId))
+            .thenThrow(HttpException.notFound("User has not started an attempt yet"));
 
         // Act & Assert
         HttpException exception = assertThrows(HttpException.class,
@@ -124,16 +187,13 @@ class EventLogServiceTest {
         int configVersion = 1;
         int groupId = 10;
 
-        ConfigModel config = ConfigModel.builder().version(configVersion).build();
         TestGroupModel group = TestGroupModel.builder().id(groupId).build();
         UserTestAttemptModel attempt = UserTestAttemptModel.builder().id(1L).group(group).build();
-        NewQuestionEventLog eventLog = new NewQuestionEventLog(999, 1000L, 5000);
+        NewQuestionEventLog eventLog = new NewQuestionEventLog(999, 1000L, 5000, null);
 
-        when(configRepository.getLastConfig()).thenReturn(config);
-        when(userTestAttemptRepository.findUnfinishedAttempt(configVersion, userId))
-            .thenReturn(Optional.of(attempt));
-        when(testQuestionRepository.findByIdAndPhaseGroupId(999, groupId))
-            .thenReturn(Optional.empty());
+        when(activeAttemptRegistry.getVerified(userId))
+            .thenReturn(new ActiveAttempt(attempt.getId(), groupId, configVersion));
+        when(testTopologyIndex.get(configVersion)).thenReturn(sampleTopology());
 
         // Act & Assert
         HttpException exception = assertThrows(HttpException.class,
@@ -152,18 +212,17 @@ class EventLogServiceTest {
         int configVersion = 1;
         int groupId = 10;
 
-        ConfigModel config = ConfigModel.builder().version(configVersion).build();
         TestGroupModel group = TestGroupModel.builder().id(groupId).build();
         UserTestAttemptModel attempt = UserTestAttemptModel.builder().id(1L).group(group).build();
         TestOptionModel option = TestOptionModel.builder().id(3).build();
 
-        NewOptionEventLog eventLog = new NewOptionEventLog(3, TestOptionEventType.SELECT, 2000L, 50, 60);
+        NewOptionEventLog eventLog = new NewOptionEventLog(3, TestOptionEventType.SELECT, 2000L, 50, 60, null);
 
-        when(configRepository.getLastConfig()).thenReturn(config);
-        when(userTestAttemptRepository.findUnfinishedAttempt(configVersion, userId))
-            .thenReturn(Optional.of(attempt));
-        when(testOptionRepository.findByIdAndQuestionPhaseGroupId(3, groupId))
-            .thenReturn(Optional.of(option));
+        when(activeAttemptRegistry.getVerified(userId))
+            .thenReturn(new ActiveAttempt(attempt.getId(), groupId, configVersion));
+        when(testTopologyIndex.get(configVersion)).thenReturn(sampleTopology());
+        when(testOptionRepository.getReferenceById(3)).thenReturn(option);
+        when(userTestAttemptRepository.getReferenceById(1L)).thenReturn(attempt);
 
         // Act
         eventLogService.saveOptionEventLog(eventLog, userId);
@@ -183,13 +242,10 @@ class EventLogServiceTest {
     void saveOptionEventLog_WithoutUnfinishedAttempt_ShouldThrowNotFound() {
         // Arrange
         int userId = 1;
-        int configVersion = 1;
-        ConfigModel config = ConfigModel.builder().version(configVersion).build();
-        NewOptionEventLog eventLog = new NewOptionEventLog(3, TestOptionEventType.HOVER, 2000L, 50, 60);
+        NewOptionEventLog eventLog = new NewOptionEventLog(3, TestOptionEventType.HOVER, 2000L, 50, 60, null);
 
-        when(configRepository.getLastConfig()).thenReturn(config);
-        when(userTestAttemptRepository.findUnfinishedAttempt(configVersion, userId))
-            .thenReturn(Optional.empty());
+        when(activeAttemptRegistry.getVerified(userId))
+            .thenThrow(HttpException.notFound("User has not started an attempt yet"));
 
         // Act & Assert
         HttpException exception = assertThrows(HttpException.class,
@@ -206,16 +262,13 @@ class EventLogServiceTest {
         int configVersion = 1;
         int groupId = 10;
 
-        ConfigModel config = ConfigModel.builder().version(configVersion).build();
         TestGroupModel group = TestGroupModel.builder().id(groupId).build();
         UserTestAttemptModel attempt = UserTestAttemptModel.builder().id(1L).group(group).build();
-        NewOptionEventLog eventLog = new NewOptionEventLog(999, TestOptionEventType.DESELECT, 2000L, 50, 60);
+        NewOptionEventLog eventLog = new NewOptionEventLog(999, TestOptionEventType.DESELECT, 2000L, 50, 60, null);
 
-        when(configRepository.getLastConfig()).thenReturn(config);
-        when(userTestAttemptRepository.findUnfinishedAttempt(configVersion, userId))
-            .thenReturn(Optional.of(attempt));
-        when(testOptionRepository.findByIdAndQuestionPhaseGroupId(999, groupId))
-            .thenReturn(Optional.empty());
+        when(activeAttemptRegistry.getVerified(userId))
+            .thenReturn(new ActiveAttempt(attempt.getId(), groupId, configVersion));
+        when(testTopologyIndex.get(configVersion)).thenReturn(sampleTopology());
 
         // Act & Assert
         HttpException exception = assertThrows(HttpException.class,
@@ -224,4 +277,227 @@ class EventLogServiceTest {
         assertTrue(exception.getMessage().contains("Test option with id 999 not found in group"));
         verify(userTestOptionLogRepository, never()).save(any());
     }
+
+    // ==================== saveEventLogBatch Tests ====================
+
+    @Test
+    void saveEventLogBatch_WithMixedEvents_ShouldReportStatusPerItem() {
+        // Arrange
+        int userId = 1;
+        int configVersion = 1;
+        int groupId = 10;
+
+        TestGroupModel group = TestGroupModel.builder().id(groupId).build();
+        UserTestAttemptModel attempt = UserTestAttemptModel.builder().id(7L).group(group).build();
+
+        NewEventLogBatch batch = new NewEventLogBatch(List.of(
+            new NewEventLogBatchItem(new NewOptionEventLog(3, TestOptionEventType.HOVER, 1000L, 10, 20, null), null),
+            new NewEventLogBatchItem(null, new NewQuestionEventLog(5, 1500L, 300, null)),
+            new NewEventLogBatchItem(new NewOptionEventLog(999, TestOptionEventType.SELECT, 2000L, 0, 0, null), null),
+            new NewEventLogBatchItem(new NewOptionEventLog(3, TestOptionEventType.SELECT, 2500L, 50, 60, null), null),
+            new NewEventLogBatchItem(null, null)
+        ));
+
+        when(activeAttemptRegistry.getVerified(userId))
+            .thenReturn(new ActiveAttempt(attempt.getId(), groupId, configVersion));
+        when(testTopologyIndex.get(configVersion)).thenReturn(sampleTopology());
+        when(userTestLogBatchRepository.insertOptionLogs(anyList())).thenReturn(new boolean[]{true, false});
+        when(userTestLogBatchRepository.insertQuestionLogs(anyList())).thenReturn(new boolean[]{true});
+
+        // Act
+        EventLogBatchResult result = eventLogService.saveEventLogBatch(batch, userId);
+
+        // Assert
+        assertEquals(2, result.saved());
+        assertEquals(1, result.deduplicated());
+        assertEquals(5, result.results().size());
+        assertEquals(EventLogBatchItemStatus.SAVED, result.results().get(0).status());
+        assertEquals(EventLogBatchItemStatus.SAVED, result.results().get(1).status());
+        assertEquals(EventLogBatchItemStatus.NOT_FOUND, result.results().get(2).status());
+        assertEquals(EventLogBatchItemStatus.DUPLICATE, result.results().get(3).status());
+        assertEquals(EventLogBatchItemStatus.INVALID, result.results().get(4).status());
+
+        verify(userTestLogBatchRepository).insertOptionLogs(optionRowsCaptor.capture());
+        List<OptionLogRow> optionRows = optionRowsCaptor.getValue();
+        assertEquals(2, optionRows.size());
+        assertEquals(7L, optionRows.get(0).attemptId());
+        assertEquals(TestOptionEventType.HOVER, optionRows.get(0).type());
+        assertEquals(Instant.ofEpochMilli(2500L), optionRows.get(1).timestamp());
+        verify(userTestOptionLogRepository, never()).save(any());
+    }
+
+    @Test
+    void saveEventLogBatch_WithSequenceNumbers_ShouldDropDuplicatesBeforeInsert() {
+        // Arrange
+        int userId = 1;
+        int configVersion = 1;
+        int groupId = 10;
+
+        eventSequenceTracker.advance(7L, 5);
+
+        NewEventLogBatch batch = new NewEventLogBatch(List.of(
+            new NewEventLogBatchItem(new NewOptionEventLog(3, TestOptionEventType.HOVER, 1000L, 10, 20, 4L), null),
+            new NewEventLogBatchItem(new NewOptionEventLog(3, TestOptionEventType.SELECT, 1500L, 10, 20, 6L), null),
+            new NewEventLogBatchItem(new NewOptionEventLog(3, TestOptionEventType.SELECT, 1500L, 10, 20, 6L), null),
+            new NewEventLogBatchItem(null, new NewQuestionEventLog(5, 2000L, 300, 7L))
+        ));
+
+        when(activeAttemptRegistry.getVerified(userId)).thenReturn(new ActiveAttempt(7L, groupId, configVersion));
+        when(testTopologyIndex.get(configVersion)).thenReturn(sampleTopology());
+        when(userTestLogBatchRepository.insertOptionLogs(anyList())).thenReturn(new boolean[]{true});
+        when(userTestLogBatchRepository.insertQuestionLogs(anyList())).thenReturn(new boolean[]{true});
+
+        // Act
+        EventLogBatchResult result = eventLogService.saveEventLogBatch(batch, userId);
+
+        // Assert
+        assertEquals(2, result.saved());
+        assertEquals(2, result.deduplicated());
+        assertEquals(EventLogBatchItemStatus.DUPLICATE, result.results().get(0).status());
+        assertEquals(EventLogBatchItemStatus.SAVED, result.results().get(1).status());
+        assertEquals(EventLogBatchItemStatus.DUPLICATE, result.results().get(2).status());
+        assertEquals(EventLogBatchItemStatus.SAVED, result.results().get(3).status());
+        assertEquals(7L, eventSequenceTracker.getHighWaterMark(7L));
+
+        verify(userTestLogBatchRepository).insertOptionLogs(optionRowsCaptor.capture());
+        assertEquals(1, optionRowsCaptor.getValue().size());
+    }
+
+    @Test
+    void saveEventLogBatch_WithRejectedSequence_ShouldNotAdvanceHighWaterMark() {
+        // Arrange
+        int userId = 1;
+        int configVersion = 1;
+        int groupId = 10;
+
+        NewEventLogBatch batch = new NewEventLogBatch(List.of(
+            new NewEventLogBatchItem(new NewOptionEventLog(3, TestOptionEventType.HOVER, 1000L, 10, 20, 1L), null),
+            new NewEventLogBatchItem(new NewOptionEventLog(999, TestOptionEventType.SELECT, 1500L, 0, 0, 9L), null)
+        ));
+
+        when(activeAttemptRegistry.getVerified(userId)).thenReturn(new ActiveAttempt(7L, groupId, configVersion));
+        when(testTopologyIndex.get(configVersion)).thenReturn(sampleTopology());
+        when(userTestLogBatchRepository.insertOptionLogs(anyList())).thenReturn(new boolean[]{true});
+        when(userTestLogBatchRepository.insertQuestionLogs(anyList())).thenReturn(new boolean[]{});
+
+        // Act
+        EventLogBatchResult result = eventLogService.saveEventLogBatch(batch, userId);
+
+        // Assert
+        assertEquals(EventLogBatchItemStatus.SAVED, result.results().get(0).status());
+        assertEquals(EventLogBatchItemStatus.NOT_FOUND, result.results().get(1).status());
+        assertEquals(1L, eventSequenceTracker.getHighWaterMark(7L));
+    }
+
+    @Test
+    void saveQuestionEventLog_WithReplayedSequence_ShouldSkipSave() {
+        // Arrange
+        int userId = 1;
+        eventSequenceTracker.advance(7L, 3);
+
+        when(activeAttemptRegistry.getVerified(userId)).thenReturn(new ActiveAttempt(7L, 10, 1));
+        when(testTopologyIndex.get(1)).thenReturn(sampleTopology());
+
+        // Act
+        boolean saved = eventLogService.saveQuestionEventLog(new NewQuestionEventLog(5, 1000L, 5000, 3L), userId);
+
+        // Assert
+        assertFalse(saved);
+        verify(userTestQuestionLogRepository, never()).save(any());
+    }
+
+    @Test
+    void saveEventLogBatch_WithoutUnfinishedAttempt_ShouldThrowNotFound() {
+        // Arrange
+        int userId = 1;
+        NewEventLogBatch batch = new NewEventLogBatch(List.of(
+            new NewEventLogBatchItem(null, new NewQuestionEventLog(5, 1000L, 5000, null))
+        ));
+
+        when(activeAttemptRegistry.getVerified(userId))
+            .thenThrow(HttpException.notFound("User has not started an attempt yet"));
+
+        // Act & Assert
+        HttpException exception = assertThrows(HttpException.class,
+            () -> eventLogService.saveEventLogBatch(batch, userId));
+
+        assertTrue(exception.getMessage().contains("User has not started an attempt yet"));
+        verify(userTestLogBatchRepository, never()).insertQuestionLogs(any());
+    }
+
+    @Test
+    void saveEventLogBatch_WithWriteBehindEnabled_ShouldEnqueueValidEvents() {
+        // Arrange
+        int userId = 1;
+        int configVersion = 1;
+        int groupId = 10;
+
+        TestGroupModel group = TestGroupModel.builder().id(groupId).build();
+        UserTestAttemptModel attempt = UserTestAttemptModel.builder().id(7L).group(group).build();
+
+        NewEventLogBatch batch = new NewEventLogBatch(List.of(
+            new NewEventLogBatchItem(new NewOptionEventLog(3, TestOptionEventType.HOVER, 1000L, 10, 20, null), null),
+            new NewEventLogBatchItem(new NewOptionEventLog(999, TestOptionEventType.SELECT, 2000L, 0, 0, null), null)
+        ));
+
+        when(activeAttemptRegistry.getVerified(userId))
+            .thenReturn(new ActiveAttempt(attempt.getId(), groupId, configVersion));
+        when(testTopologyIndex.get(configVersion)).thenReturn(sampleTopology());
+        when(eventLogWriteBuffer.isEnabled()).thenReturn(true);
+
+        // Act
+        EventLogBatchResult result = eventLogService.saveEventLogBatch(batch, userId);
+
+        // Assert
+        assertEquals(0, result.saved());
+        assertEquals(1, result.queued());
+        assertEquals(EventLogBatchItemStatus.QUEUED, result.results().get(0).status());
+        assertEquals(EventLogBatchItemStatus.NOT_FOUND, result.results().get(1).status());
+
+        verify(eventLogWriteBuffer).enqueue(optionRowsCaptor.capture(), eq(List.of()));
+        assertEquals(1, optionRowsCaptor.getValue().size());
+        assertEquals(3, optionRowsCaptor.getValue().getFirst().optionId());
+        verify(userTestLogBatchRepository, never()).insertOptionLogs(any());
+    }
+
+    @Test
+    void saveEventStreamFrame_WithNewSequence_ShouldSaveAndAdvance() {
+        // Arrange
+        int userId = 1;
+        EventStreamFrame frame = new EventStreamFrame(3L, List.of(
+            new NewEventLogBatchItem(null, new NewQuestionEventLog(5, 1000L, 5000, null))
+        ));
+
+        when(activeAttemptRegistry.getVerified(userId)).thenReturn(new ActiveAttempt(7L, 10, 1));
+        when(userTestEventStreamRepository.lockLastSequence(7L)).thenReturn(2L);
+        when(testTopologyIndex.get(1)).thenReturn(sampleTopology());
+        when(userTestLogBatchRepository.insertQuestionLogs(anyList())).thenReturn(new boolean[]{true});
+
+        // Act
+        EventLogBatchResult result = eventLogService.saveEventStreamFrame(frame, userId);
+
+        // Assert
+        assertEquals(1, result.saved());
+        verify(userTestEventStreamRepository).advance(7L, 3L);
+    }
+
+    @Test
+    void saveEventStreamFrame_WithStoredSequence_ShouldSkipFrame() {
+        // Arrange
+        int userId = 1;
+        EventStreamFrame frame = new EventStreamFrame(2L, List.of(
+            new NewEventLogBatchItem(null, new NewQuestionEventLog(5, 1000L, 5000, null))
+        ));
+
+        when(activeAttemptRegistry.getVerified(userId)).thenReturn(new ActiveAttempt(7L, 10, 1));
+        when(userTestEventStreamRepository.lockLastSequence(7L)).thenReturn(2L);
+
+        // Act
+        EventLogBatchResult result = eventLogService.saveEventStreamFrame(frame, userId);
+
+        // Assert
+        assertNull(result);
+        verify(userTestEventStreamRepository, never()).advance(anyLong(), anyLong());
+        verifyNoInteractions(testTopologyIndex, userTestLogBatchRepository, eventLogWriteBuffer);
+    }
 }
@@ -87,60 +87,6 @@ class HomeFaqServiceTest {
         verify(homeFaqRepository, times(1)).findAllByConfigVersion(configVersion);
     }
 
-    // ==================== cloneFaqs Tests ====================
-
-    @Test
-    void cloneFaqs_WithExistingFaqs_ShouldSaveClonedFaqs() {
-        // Arrange
-        int originalConfigVersion = 1;
-        ConfigModel newConfig = ConfigModel.builder()
-            .version(2)
-            .title("New Config")
-            .build();
-
-        HomeFaqModel originalFaq = HomeFaqModel.builder()
-            .id(1)
-            .question("Original Question?")
-            .answer("Original Answer")
-            .order((short) 0)
-            .build();
-
-        when(homeFaqRepository.findAllByConfigVersion(originalConfigVersion))
-            .thenReturn(List.of(originalFaq));
-
-        // Act
-        homeFaqService.cloneFaqs(originalConfigVersion, newConfig);
-
-        // Assert
-        verify(homeFaqRepository, times(1)).findAllByConfigVersion(originalConfigVersion);
-        verify(homeFaqRepository, times(1)).save(faqCaptor.capture());
-
-        HomeFaqModel savedFaq = faqCaptor.getValue();
-        assertEquals(newConfig, savedFaq.getConfig());
-        assertEquals("Original Question?", savedFaq.getQuestion());
-        assertEquals("Original Answer", savedFaq.getAnswer());
-        assertEquals(0, savedFaq.getOrder());
-    }
-
-    @Test
-    void cloneFaqs_WithNoFaqs_ShouldNotSaveAnything() {
-        // Arrange
-        int originalConfigVersion = 1;
-        ConfigModel newConfig = ConfigModel.builder()
-            .version(2)
-            .build();
-
-        when(homeFaqRepository.findAllByConfigVersion(originalConfigVersion))
-            .thenReturn(List.of());
-
-        // Act
-        homeFaqService.cloneFaqs(originalConfigVersion, newConfig);
-
-        // Assert
-        verify(homeFaqRepository, times(1)).findAllByConfigVersion(originalConfigVersion);
-        verify(homeFaqRepository, never()).save(any());
-    }
-
     // ==================== updateFaqs Tests ====================
 
     @Test
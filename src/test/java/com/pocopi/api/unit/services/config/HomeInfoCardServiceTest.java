@@ -88,68 +88,6 @@ class HomeInfoCardServiceTest {
         assertTrue(result.isEmpty());
     }
 
-    // ==================== cloneCards Tests ====================
-
-    @Test
-    void cloneCards_WithExistingCards_ShouldCloneAll() {
-        // Arrange
-        int originalConfigVersion = 1;
-        ConfigModel newConfig = ConfigModel.builder().version(2).build();
-
-        ImageModel originalIcon = ImageModel.builder().id(1).build();
-        ImageModel clonedIcon = ImageModel.builder().id(2).build();
-
-        HomeInfoCardModel originalCard = HomeInfoCardModel.builder()
-            .id(1)
-            .title("Title")
-            .description("Desc")
-            .color(0x000000)
-            .icon(originalIcon)
-            .build();
-
-        when(homeInfoCardRepository.findAllByConfigVersion(originalConfigVersion))
-            .thenReturn(List.of(originalCard));
-        when(imageService.cloneImage(originalIcon)).thenReturn(clonedIcon);
-
-        // Act
-        homeInfoCardService.cloneCards(originalConfigVersion, newConfig);
-
-        // Assert
-        verify(homeInfoCardRepository, times(1)).save(cardCaptor.capture());
-        HomeInfoCardModel savedCard = cardCaptor.getValue();
-
-        assertEquals(newConfig, savedCard.getConfig());
-        assertEquals("Title", savedCard.getTitle());
-        assertEquals(0x000000, savedCard.getColor());
-        assertEquals(clonedIcon, savedCard.getIcon());
-    }
-
-    @Test
-    void cloneCards_WithCardWithoutIcon_ShouldCloneWithoutIcon() {
-        // Arrange
-        int originalConfigVersion = 1;
-        ConfigModel newConfig = ConfigModel.builder().version(2).build();
-
-        HomeInfoCardModel originalCard = HomeInfoCardModel.builder()
-            .id(1)
-            .title("Title")
-            .description("Desc")
-            .color(0xFF0000)
-            .icon(null)
-            .build();
-
-        when(homeInfoCardRepository.findAllByConfigVersion(originalConfigVersion))
-            .thenReturn(List.of(originalCard));
-
-        // Act
-        homeInfoCardService.cloneCards(originalConfigVersion, newConfig);
-
-        // Assert
-        verify(imageService, never()).cloneImage(any());
-        verify(homeInfoCardRepository, times(1)).save(cardCaptor.capture());
-        assertNull(cardCaptor.getValue().getIcon());
-    }
-
 // ==================== updateCards Tests ====================
 
     @Test
@@ -0,0 +1,173 @@
+package com.pocopi.api.unit.services.config;
+
+import com.pocopi.api.config.ImageConfig;
+import com.pocopi.api.repositories.ImageBlobRepository;
+import com.pocopi.api.services.ImageBlobStore;
+import com.pocopi.api.services.ImageBlobStore.StoredBlob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageBlobStoreTest {
+
+    // sha-256 of "hello"
+    private static final String HELLO_HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @Mock
+    private ImageConfig imageConfig;
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path tempDir;
+
+    private ImageBlobStore imageBlobStore;
+
+    @BeforeEach
+    void setUp() {
+        imageBlobStore = new ImageBlobStore(imageConfig, imageBlobRepository, transactionManager);
+        lenient().when(imageConfig.getBasePath()).thenReturn(tempDir.toString());
+    }
+
+    private static ByteArrayInputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long countBlobFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(tempDir.resolve(".blobs"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void write_ShouldNameBlobBySha256() throws Exception {
+        // Act
+        StoredBlob blob = imageBlobStore.write(content("hello"));
+
+        // Assert
+        assertEquals(HELLO_HASH, blob.hash());
+        assertEquals(5, blob.size());
+        assertTrue(Files.exists(tempDir.resolve(".blobs").resolve("2c").resolve(HELLO_HASH)));
+        verify(imageBlobRepository).acquire(HELLO_HASH, 5);
+    }
+
+    @Test
+    void write_WithIdenticalContent_ShouldKeepSingleBlob() throws Exception {
+        // Act
+        StoredBlob first = imageBlobStore.write(content("hello"));
+        StoredBlob second = imageBlobStore.write(content("hello"));
+        StoredBlob other = imageBlobStore.write(content("world"));
+
+        // Assert
+        assertEquals(first, second);
+        assertNotEquals(first.hash(), other.hash());
+        assertEquals(2, countBlobFiles());
+    }
+
+    @Test
+    void link_ShouldExposeBlobContentAtTarget() throws Exception {
+        // Arrange
+        StoredBlob blob = imageBlobStore.write(content("hello"));
+        Path target = tempDir.resolve("icon").resolve("image.png");
+        Files.createDirectories(target.getParent());
+
+        // Act
+        imageBlobStore.link(blob.hash(), target);
+
+        // Assert
+        assertEquals("hello", Files.readString(target));
+        assertEquals(blob.hash(), imageBlobStore.hash(target));
+    }
+
+    @Test
+    void release_WhenLastReference_ShouldDeleteBlobFile() throws Exception {
+        // Arrange
+        StoredBlob blob = imageBlobStore.write(content("hello"));
+        when(imageBlobRepository.release(blob.hash())).thenReturn(true);
+        when(imageBlobRepository.deleteUnreferenced(blob.hash())).thenReturn(true);
+
+        // Act
+        imageBlobStore.release(blob.hash());
+
+        // Assert
+        assertEquals(0, countBlobFiles());
+    }
+
+    @Test
+    void release_WhenLastReference_ShouldDeleteVariants() throws Exception {
+        // Arrange
+        StoredBlob blob = imageBlobStore.write(content("hello"));
+        Path variant = imageBlobStore.variantFile(blob.hash(), 160, "png");
+        Files.createDirectories(variant.getParent());
+        Files.writeString(variant, "variant");
+        when(imageBlobRepository.release(blob.hash())).thenReturn(true);
+        when(imageBlobRepository.deleteUnreferenced(blob.hash())).thenReturn(true);
+
+        // Act
+        imageBlobStore.release(blob.hash());
+
+        // Assert
+        assertFalse(Files.exists(variant));
+    }
+
+    @Test
+    void release_WhenStillReferenced_ShouldKeepBlobFile() throws Exception {
+        // Arrange
+        StoredBlob blob = imageBlobStore.write(content("hello"));
+        when(imageBlobRepository.release(blob.hash())).thenReturn(false);
+
+        // Act
+        imageBlobStore.release(blob.hash());
+
+        // Assert
+        assertEquals(1, countBlobFiles());
+    }
+
+    @Test
+    void release_WhenReferencedAgainBeforeDelete_ShouldKeepBlobFile() throws Exception {
+        // Arrange
+        StoredBlob blob = imageBlobStore.write(content("hello"));
+        when(imageBlobRepository.release(blob.hash())).thenReturn(true);
+        when(imageBlobRepository.deleteUnreferenced(blob.hash())).thenReturn(false);
+
+        // Act
+        imageBlobStore.release(blob.hash());
+
+        // Assert
+        assertEquals(1, countBlobFiles());
+    }
+
+    @Test
+    void write_WhenBlobWasDeletedSinceLastWrite_ShouldWriteItAgain() throws Exception {
+        // Arrange
+        StoredBlob first = imageBlobStore.write(content("hello"));
+        when(imageBlobRepository.release(first.hash())).thenReturn(true);
+        when(imageBlobRepository.deleteUnreferenced(first.hash())).thenReturn(true);
+        imageBlobStore.release(first.hash());
+
+        // Act
+        StoredBlob second = imageBlobStore.write(content("hello"));
+
+        // Assert
+        assertEquals(first, second);
+        assertEquals("hello", Files.readString(imageBlobStore.blobFile(second.hash())));
+    }
+}
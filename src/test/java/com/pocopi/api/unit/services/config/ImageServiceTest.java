@@ -5,16 +5,30 @@ import com.pocopi.api.dto.config.Image;
 import com.pocopi.api.exception.HttpException;
 import com.pocopi.api.models.config.ImageModel;
 import com.pocopi.api.repositories.ImageRepository;
+import com.pocopi.api.services.ImageBlobStore;
 import com.pocopi.api.services.ImageService;
+import com.pocopi.api.services.ImageVariantGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,14 +46,25 @@ class ImageServiceTest {
     @Mock
     private ImageConfig imageConfig;
 
+    @Mock
+    private ImageBlobStore imageBlobStore;
+
+    @Mock
+    private ImageVariantGenerator imageVariantGenerator;
+
     @Mock
     private MultipartFile multipartFile;
 
     private ImageService imageService;
 
+    private static final byte[] PNG_SIGNATURE = {
+        (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A,
+        0x00, 0x00, 0x00, 0x0D, 0x49, 0x48, 0x44, 0x52
+    };
+
     @BeforeEach
     void setUp() {
-        imageService = new ImageService(imageRepository, imageConfig);
+        imageService = new ImageService(imageRepository, imageConfig, imageBlobStore, imageVariantGenerator);
     }
 
     private void configureBasePath(String basePath) {
@@ -83,6 +108,59 @@ class ImageServiceTest {
         verify(imageRepository, times(1)).findById(imageId);
     }
 
+    @Test
+    void getImageById_WithVariants_ShouldReturnUrlOfEverySmallerWidth() {
+        // Arrange
+        configureBaseUrl(DEFAULT_BASE_URL);
+
+        int imageId = 1;
+        String hash = "ab" + "c".repeat(62);
+        ImageModel imageModel = ImageModel.builder()
+            .id(imageId)
+            .path("images/icon/20240101_120000_test.png")
+            .blobHash(hash)
+            .width(800)
+            .variantFormat("png")
+            .alt("Test Alt")
+            .build();
+
+        when(imageRepository.findById(imageId))
+            .thenReturn(Optional.of(imageModel));
+
+        // Act
+        Image result = imageService.getImageById(imageId);
+
+        // Assert
+        assertEquals(List.of(160, 320, 640), List.copyOf(result.variants().keySet()));
+        assertEquals(
+            "http://localhost:8080/images/variants/ab/" + hash + "_320w.png",
+            result.variants().get(320)
+        );
+    }
+
+    @Test
+    void getImageById_WithoutVariants_ShouldReturnEmptyVariants() {
+        // Arrange
+        configureBaseUrl(DEFAULT_BASE_URL);
+
+        int imageId = 1;
+        ImageModel imageModel = ImageModel.builder()
+            .id(imageId)
+            .path("images/icon/20240101_120000_test.gif")
+            .blobHash("a".repeat(64))
+            .alt("Test Alt")
+            .build();
+
+        when(imageRepository.findById(imageId))
+            .thenReturn(Optional.of(imageModel));
+
+        // Act
+        Image result = imageService.getImageById(imageId);
+
+        // Assert
+        assertTrue(result.variants().isEmpty());
+    }
+
     @Test
     void getImageById_WithInvalidId_ShouldThrowException() {
         // Arrange
@@ -128,6 +206,96 @@ class ImageServiceTest {
         assertNull(result.alt());
     }
 
+    @Test
+    void getImageById_CalledTwice_ShouldQueryOnce() {
+        // Arrange
+        configureBaseUrl(DEFAULT_BASE_URL);
+
+        ImageModel imageModel = ImageModel.builder()
+            .id(3)
+            .path("images/icon/test.png")
+            .alt("Icon")
+            .build();
+
+        when(imageRepository.findById(3))
+            .thenReturn(Optional.of(imageModel));
+
+        // Act
+        Image first = imageService.getImageById(3);
+        Image second = imageService.getImageById(3);
+
+        // Assert
+        assertEquals(first, second);
+        verify(imageRepository, times(1)).findById(3);
+    }
+
+    // ==================== getImagesByIds Tests ====================
+
+    @Test
+    void getImagesByIds_ShouldQueryOnlyUncachedIdsOnce() {
+        // Arrange
+        configureBaseUrl(DEFAULT_BASE_URL);
+
+        ImageModel cachedModel = ImageModel.builder().id(1).path("images/icon/a.png").alt("A").build();
+        ImageModel secondModel = ImageModel.builder().id(2).path("images/cards/b.png").alt("B").build();
+        ImageModel thirdModel = ImageModel.builder().id(3).path("images/cards/c.png").alt("C").build();
+
+        when(imageRepository.findById(1))
+            .thenReturn(Optional.of(cachedModel));
+        when(imageRepository.findAllById(Set.of(2, 3)))
+            .thenReturn(List.of(secondModel, thirdModel));
+
+        imageService.getImageById(1);
+
+        // Act
+        Map<Integer, Image> result = imageService.getImagesByIds(List.of(1, 2, 3, 2, 3));
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals("http://localhost:8080/images/icon/a.png", result.get(1).url());
+        assertEquals("B", result.get(2).alt());
+        assertEquals("http://localhost:8080/images/cards/c.png", result.get(3).url());
+        verify(imageRepository, times(1)).findById(1);
+        verify(imageRepository, times(1)).findAllById(any());
+
+        // Act
+        imageService.getImagesByIds(List.of(1, 2, 3));
+
+        // Assert
+        verifyNoMoreInteractions(imageRepository);
+    }
+
+    @Test
+    void getImagesByIds_WithMissingId_ShouldThrowException() {
+        // Arrange
+        when(imageRepository.findAllById(Set.of(5)))
+            .thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> imageService.getImagesByIds(List.of(5)));
+    }
+
+    @Test
+    void getImagesByIds_AfterDelete_ShouldQueryAgain() {
+        // Arrange
+        configureImageConfig(DEFAULT_BASE_PATH, DEFAULT_BASE_URL);
+
+        ImageModel imageModel = ImageModel.builder().id(4).path("images/icon/d.png").alt("D").build();
+
+        when(imageRepository.findAllById(Set.of(4)))
+            .thenReturn(List.of(imageModel));
+        when(imageRepository.isImageUsed(4))
+            .thenReturn(false);
+
+        imageService.getImagesByIds(List.of(4));
+
+        // Act
+        imageService.deleteImageIfUnused(imageModel);
+        imageService.getImagesByIds(List.of(4));
+
+        // Assert
+        verify(imageRepository, times(2)).findAllById(Set.of(4));
+    }
 
     // ==================== deleteImageIfUnused Tests ====================
 
@@ -176,6 +344,78 @@ class ImageServiceTest {
     }
 
 
+    @Test
+    void deleteImageIfUnused_WithBlob_ShouldReleaseBlobAfterDeletingRow() {
+        // Arrange
+        configureBasePath(DEFAULT_BASE_PATH);
+
+        ImageModel imageModel = ImageModel.builder()
+            .id(1)
+            .path("images/icon/test.png")
+            .blobHash("a".repeat(64))
+            .build();
+
+        when(imageRepository.isImageUsed(1))
+            .thenReturn(false);
+
+        // Act
+        imageService.deleteImageIfUnused(imageModel);
+
+        // Assert
+        var inOrder = inOrder(imageRepository, imageBlobStore);
+        inOrder.verify(imageRepository).delete(imageModel);
+        inOrder.verify(imageRepository).flush();
+        inOrder.verify(imageBlobStore).release("a".repeat(64));
+    }
+
+    @Test
+    void deleteImageIfUnused_InsideTransaction_ShouldKeepFileUntilCommit(@TempDir Path basePath) throws IOException {
+        // Arrange
+        configureBasePath(basePath.toString());
+        Path file = Files.createDirectories(basePath.resolve("icon")).resolve("test.png");
+        Files.write(file, PNG_SIGNATURE);
+
+        ImageModel imageModel = ImageModel.builder().id(1).path("images/icon/test.png").build();
+
+        when(imageRepository.isImageUsed(1))
+            .thenReturn(false);
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // Act
+            imageService.deleteImageIfUnused(imageModel);
+            boolean existsBeforeCommit = Files.exists(file);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Assert
+            assertTrue(existsBeforeCommit);
+            assertFalse(Files.exists(file));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deleteImageIfUnused_WithUsedBlobImage_ShouldNotReleaseBlob() {
+        // Arrange
+        ImageModel imageModel = ImageModel.builder()
+            .id(1)
+            .path("images/icon/test.png")
+            .blobHash("a".repeat(64))
+            .build();
+
+        when(imageRepository.isImageUsed(1))
+            .thenReturn(true);
+
+        // Act
+        imageService.deleteImageIfUnused(imageModel);
+
+        // Assert
+        verifyNoInteractions(imageBlobStore);
+    }
+
+
     // ==================== validateFileAndGetExtension Tests ====================
 
     @Test
@@ -198,4 +438,82 @@ class ImageServiceTest {
 
         assertEquals("File cannot be empty", exception.getMessage());
     }
+
+    @Test
+    void saveImageFile_WithStreamLargerThanDeclared_ShouldStopAtSizeLimit() throws IOException {
+        // Arrange
+        byte[] content = Arrays.copyOf(PNG_SIGNATURE, 6_000_000);
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getSize()).thenReturn(1_000L);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+        when(imageBlobStore.write(any())).thenAnswer(invocation -> {
+            invocation.<InputStream>getArgument(0).transferTo(OutputStream.nullOutputStream());
+            return new ImageBlobStore.StoredBlob("a".repeat(64), content.length);
+        });
+
+        // Act & Assert
+        HttpException exception = assertThrows(HttpException.class,
+            () -> imageService.saveImageFile(ImageService.ImageCategory.ICON, multipartFile, "alt"));
+
+        assertEquals(413, exception.getStatus().value());
+        verify(multipartFile, times(1)).getInputStream();
+        verify(multipartFile, never()).getBytes();
+        verify(imageBlobStore, never()).link(any(), any());
+        verifyNoInteractions(imageRepository);
+    }
+
+    @Test
+    void saveImageFile_ShouldDetectTypeAndStoreFromSingleStream(@TempDir Path basePath) throws IOException {
+        // Arrange
+        configureBasePath(basePath.toString());
+
+        ImageBlobStore.StoredBlob blob = new ImageBlobStore.StoredBlob("b".repeat(64), PNG_SIGNATURE.length);
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getSize()).thenReturn((long) PNG_SIGNATURE.length);
+        when(multipartFile.getOriginalFilename()).thenReturn("image.png");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(PNG_SIGNATURE));
+        when(imageBlobStore.write(any())).thenAnswer(invocation -> {
+            byte[] written = invocation.<InputStream>getArgument(0).readAllBytes();
+            assertArrayEquals(PNG_SIGNATURE, written);
+            return blob;
+        });
+        when(imageRepository.save(any(ImageModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        ImageModel result = imageService.saveImageFile(ImageService.ImageCategory.ICON, multipartFile, "alt");
+
+        // Assert
+        assertEquals(blob.hash(), result.getBlobHash());
+        assertTrue(result.getPath().startsWith("images/icon/"));
+        verify(multipartFile, times(1)).getInputStream();
+        verify(multipartFile, never()).getBytes();
+        verify(imageBlobStore, times(1)).write(any());
+        verify(imageBlobStore, times(1)).link(eq(blob.hash()), any());
+    }
+
+    @Test
+    void saveImageFile_ShouldQueueVariantGenerationInsteadOfDecoding(@TempDir Path basePath) throws IOException {
+        // Arrange
+        configureBasePath(basePath.toString());
+
+        ImageBlobStore.StoredBlob blob = new ImageBlobStore.StoredBlob("b".repeat(64), PNG_SIGNATURE.length);
+
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getSize()).thenReturn((long) PNG_SIGNATURE.length);
+        when(multipartFile.getOriginalFilename()).thenReturn("image.png");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(PNG_SIGNATURE));
+        when(imageBlobStore.write(any())).thenReturn(blob);
+        when(imageRepository.save(any(ImageModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        ImageModel result = imageService.saveImageFile(ImageService.ImageCategory.ICON, multipartFile, "alt");
+
+        // Assert
+        assertNull(result.getWidth());
+        assertNull(result.getVariantFormat());
+        verify(imageVariantGenerator).generateAfterCommit(blob.hash(), "image/png");
+        verify(imageVariantGenerator, never()).generate(any(), any());
+    }
 }
@@ -0,0 +1,209 @@
+package com.pocopi.api.unit.services.config;
+
+import com.pocopi.api.config.ImageConfig;
+import com.pocopi.api.repositories.ConfigRepository;
+import com.pocopi.api.repositories.ImageBlobRepository;
+import com.pocopi.api.repositories.ImageRepository;
+import com.pocopi.api.repositories.projections.ImageBlobWithoutVariantsProjection;
+import com.pocopi.api.services.ImageBlobStore;
+import com.pocopi.api.services.ImageBlobStore.StoredBlob;
+import com.pocopi.api.services.ImageVariantGenerator;
+import com.pocopi.api.services.ImageVariantGenerator.ImageVariants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageVariantGeneratorTest {
+
+    @Mock
+    private ImageConfig imageConfig;
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ConfigRepository configRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path tempDir;
+
+    private ImageBlobStore imageBlobStore;
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @BeforeEach
+    void setUp() {
+        imageBlobStore = new ImageBlobStore(imageConfig, imageBlobRepository, transactionManager);
+        imageVariantGenerator = new ImageVariantGenerator(
+            imageBlobStore,
+            imageRepository,
+            configRepository,
+            transactionManager
+        );
+        lenient().when(imageConfig.getBasePath()).thenReturn(tempDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantGenerator.stop();
+    }
+
+    private StoredBlob storeImage(int width, int height, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, output);
+        return imageBlobStore.write(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    @Test
+    void generate_ShouldWriteVariantsSmallerThanOriginal() throws Exception {
+        // Arrange
+        StoredBlob blob = storeImage(1000, 500, "png");
+
+        // Act
+        ImageVariants result = imageVariantGenerator.generate(blob.hash(), "image/png");
+
+        // Assert
+        assertEquals(new ImageVariants(1000, "png"), result);
+
+        for (int width : ImageVariantGenerator.widthsFor(1000)) {
+            BufferedImage variant = ImageIO.read(imageBlobStore.variantFile(blob.hash(), width, "png").toFile());
+            assertEquals(width, variant.getWidth());
+            assertEquals(width / 2, variant.getHeight());
+        }
+
+        assertFalse(Files.exists(imageBlobStore.variantFile(blob.hash(), 1280, "png")));
+    }
+
+    @Test
+    void generate_WithJpeg_ShouldWriteJpegVariants() throws Exception {
+        // Arrange
+        StoredBlob blob = storeImage(400, 400, "jpeg");
+
+        // Act
+        ImageVariants result = imageVariantGenerator.generate(blob.hash(), "image/jpeg");
+
+        // Assert
+        assertEquals(new ImageVariants(400, "jpg"), result);
+        assertTrue(Files.exists(imageBlobStore.variantFile(blob.hash(), 320, "jpg")));
+    }
+
+    @Test
+    void generate_WhenVariantExists_ShouldNotRewriteIt() throws Exception {
+        // Arrange
+        StoredBlob blob = storeImage(400, 400, "png");
+        Path existing = imageBlobStore.variantFile(blob.hash(), 160, "png");
+        Files.createDirectories(existing.getParent());
+        Files.writeString(existing, "existing");
+
+        // Act
+        imageVariantGenerator.generate(blob.hash(), "image/png");
+
+        // Assert
+        assertEquals("existing", Files.readString(existing));
+        assertTrue(Files.exists(imageBlobStore.variantFile(blob.hash(), 320, "png")));
+    }
+
+    @Test
+    void generate_WithGif_ShouldNotWriteVariants() throws Exception {
+        // Arrange
+        StoredBlob blob = storeImage(400, 400, "gif");
+
+        // Act
+        ImageVariants result = imageVariantGenerator.generate(blob.hash(), "image/gif");
+
+        // Assert
+        assertNull(result);
+        assertFalse(Files.exists(tempDir.resolve("variants")));
+    }
+
+    @Test
+    void generateAfterCommit_ShouldStoreVariantsOnImagesInBackground() throws Exception {
+        // Arrange
+        StoredBlob blob = storeImage(1000, 500, "png");
+
+        // Act
+        imageVariantGenerator.generateAfterCommit(blob.hash(), "image/png");
+
+        // Assert
+        verify(imageRepository, timeout(5000)).updateVariants(blob.hash(), 1000, "png");
+        verify(configRepository, timeout(5000)).incrementRevisionsUsingBlob(blob.hash());
+        assertTrue(Files.exists(imageBlobStore.variantFile(blob.hash(), 640, "png")));
+    }
+
+    @Test
+    void backfill_ShouldQueueBlobsWithoutVariantsThatCanHaveThem() throws Exception {
+        // Arrange
+        StoredBlob blob = storeImage(1000, 500, "png");
+        when(imageRepository.findBlobsWithoutVariants()).thenReturn(List.of(
+            blobWithoutVariants(blob.hash(), "png"),
+            blobWithoutVariants("a".repeat(64), "gif")
+        ));
+
+        // Act
+        int queued = imageVariantGenerator.backfill();
+
+        // Assert
+        assertEquals(1, queued);
+        verify(imageRepository, timeout(5000)).updateVariants(blob.hash(), 1000, "png");
+        verify(imageRepository, never()).updateVariants(eq("a".repeat(64)), anyInt(), any());
+    }
+
+    @Test
+    void backfill_ShouldNotRetryBlobsThatFailed() throws Exception {
+        // Arrange
+        String missingHash = "b".repeat(64);
+        StoredBlob blob = storeImage(1000, 500, "png");
+        when(imageRepository.findBlobsWithoutVariants()).thenReturn(
+            List.of(blobWithoutVariants(missingHash, "jpg"), blobWithoutVariants(blob.hash(), "png")),
+            List.of(blobWithoutVariants(missingHash, "jpg"))
+        );
+
+        // Act
+        int firstRun = imageVariantGenerator.backfill();
+        // the worker runs one blob at a time, so the missing one has failed once the other one is stored
+        verify(imageRepository, timeout(5000)).updateVariants(blob.hash(), 1000, "png");
+        int secondRun = imageVariantGenerator.backfill();
+
+        // Assert
+        assertEquals(2, firstRun);
+        assertEquals(0, secondRun);
+        verify(imageRepository, never()).updateVariants(eq(missingHash), anyInt(), any());
+    }
+
+    private static ImageBlobWithoutVariantsProjection blobWithoutVariants(String hash, String extension) {
+        return new ImageBlobWithoutVariantsProjection() {
+            @Override
+            public String getBlobHash() {
+                return hash;
+            }
+
+            @Override
+            public String getExtension() {
+                return extension;
+            }
+        };
+    }
+}
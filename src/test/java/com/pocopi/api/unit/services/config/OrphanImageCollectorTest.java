@@ -0,0 +1,198 @@
+package com.pocopi.api.unit.services.config;
+
+import com.pocopi.api.config.ImageConfig;
+import com.pocopi.api.config.OrphanImageProperties;
+import com.pocopi.api.dto.config.OrphanImageReport;
+import com.pocopi.api.repositories.ImageBlobRepository;
+import com.pocopi.api.repositories.ImageRepository;
+import com.pocopi.api.services.OrphanImageCollector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrphanImageCollectorTest {
+
+    private static final String BLOB_HASH = "ab" + "c".repeat(62);
+    private static final String ORPHAN_HASH = "de" + "f".repeat(62);
+
+    @Mock
+    private ImageConfig imageConfig;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @TempDir
+    private Path tempDir;
+
+    private OrphanImageProperties properties;
+
+    private OrphanImageCollector collector;
+
+    private final Set<String> imagePaths = new HashSet<>();
+    private final Set<String> blobHashes = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new OrphanImageProperties();
+        properties.setGracePeriod(Duration.ZERO);
+        properties.setBatchSize(2);
+        properties.setBatchPause(Duration.ZERO);
+
+        collector = new OrphanImageCollector(imageConfig, properties, imageRepository, imageBlobRepository);
+
+        lenient().when(imageConfig.getBasePath()).thenReturn(tempDir.toString());
+        lenient().when(imageRepository.findExistingPaths(anyCollection())).thenAnswer(invocation ->
+            invocation.<Collection<String>>getArgument(0).stream().filter(imagePaths::contains).toList()
+        );
+        lenient().when(imageBlobRepository.findExistingHashes(anyCollection())).thenAnswer(invocation ->
+            new HashSet<>(invocation.<Collection<String>>getArgument(0).stream().filter(blobHashes::contains).toList())
+        );
+    }
+
+    private Path createFile(String relativePath, String content) throws Exception {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void collect_ShouldQuarantineOnlyUnreferencedFiles() throws Exception {
+        // Arrange
+        Path used = createFile("icon/used.png", "used");
+        Path orphan = createFile("icon/orphan.png", "orphan");
+        Path blob = createFile(".blobs/ab/" + BLOB_HASH, "blob");
+        Path orphanBlob = createFile(".blobs/de/" + ORPHAN_HASH, "orphan blob");
+        Path orphanVariant = createFile("variants/de/" + ORPHAN_HASH + "_160w.png", "variant");
+        imagePaths.add("images/icon/used.png");
+        blobHashes.add(BLOB_HASH);
+
+        // Act
+        OrphanImageReport report = collector.collect(false);
+
+        // Assert
+        assertEquals(5, report.scannedFiles());
+        assertEquals(3, report.quarantinedFiles());
+        assertTrue(Files.exists(used));
+        assertTrue(Files.exists(blob));
+        assertFalse(Files.exists(orphan));
+        assertFalse(Files.exists(orphanBlob));
+        assertFalse(Files.exists(orphanVariant));
+        assertTrue(Files.exists(tempDir.resolve(".quarantine/icon/orphan.png")));
+    }
+
+    @Test
+    void collect_WithinGracePeriod_ShouldKeepUnreferencedFiles() throws Exception {
+        // Arrange
+        properties.setGracePeriod(Duration.ofHours(1));
+        Path orphan = createFile("icon/orphan.png", "orphan");
+
+        // Act
+        OrphanImageReport report = collector.collect(false);
+
+        // Assert
+        assertEquals(0, report.quarantinedFiles());
+        assertTrue(Files.exists(orphan));
+    }
+
+    @Test
+    void collect_OnNextRun_ShouldDeleteQuarantinedFilesAndReportReclaimedBytes() throws Exception {
+        // Arrange
+        createFile("icon/orphan.png", "orphan");
+        collector.collect(false);
+
+        // Act
+        OrphanImageReport report = collector.collect(false);
+
+        // Assert
+        assertEquals(1, report.deletedFiles());
+        assertEquals("orphan".length(), report.reclaimedBytes());
+        assertFalse(Files.exists(tempDir.resolve(".quarantine/icon/orphan.png")));
+    }
+
+    @Test
+    void collect_WhenQuarantinedFileIsReferencedAgain_ShouldRestoreIt() throws Exception {
+        // Arrange
+        Path file = createFile("icon/late.png", "late");
+        collector.collect(false);
+        imagePaths.add("images/icon/late.png");
+
+        // Act
+        OrphanImageReport report = collector.collect(false);
+
+        // Assert
+        assertEquals(1, report.restoredFiles());
+        assertEquals(0, report.deletedFiles());
+        assertEquals("late", Files.readString(file));
+    }
+
+    @Test
+    void collect_WithDryRun_ShouldNotTouchAnyFile() throws Exception {
+        // Arrange
+        Path orphan = createFile("icon/orphan.png", "orphan");
+        Path quarantined = createFile(".quarantine/icon/old.png", "old");
+
+        // Act
+        OrphanImageReport report = collector.collect(true);
+
+        // Assert
+        assertTrue(report.dryRun());
+        assertEquals(1, report.quarantinedFiles());
+        assertEquals(1, report.deletedFiles());
+        assertEquals("old".length(), report.reclaimedBytes());
+        assertTrue(Files.exists(orphan));
+        assertTrue(Files.exists(quarantined));
+    }
+
+    @Test
+    void collect_ShouldStopAfterMaxFilesPerRun() throws Exception {
+        // Arrange
+        properties.setMaxFilesPerRun(2);
+
+        for (int i = 0; i < 5; i++) {
+            createFile("icon/orphan" + i + ".png", "orphan");
+        }
+
+        // Act
+        OrphanImageReport report = collector.collect(false);
+
+        // Assert
+        assertEquals(2, report.quarantinedFiles());
+
+        try (Stream<Path> files = Files.list(tempDir.resolve("icon"))) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    void collect_WithoutImageDirectory_ShouldReportNothing() {
+        // Arrange
+        when(imageConfig.getBasePath()).thenReturn(tempDir.resolve("missing").toString());
+
+        // Act
+        OrphanImageReport report = collector.collect(false);
+
+        // Assert
+        assertEquals(new OrphanImageReport(false, 0, 0, 0, 0, 0), report);
+        verifyNoInteractions(imageRepository, imageBlobRepository);
+    }
+}
@@ -227,35 +227,6 @@ class TranslationServiceTest {
         assertEquals("New Title", storedValue.getValue());
     }
 
-    // ==================== cloneTranslations Tests ====================
-
-    @Test
-    void cloneTranslations_WithExistingTranslations_ShouldCloneAll() {
-        // Arrange
-        int originalConfigVersion = 1;
-        ConfigModel newConfig = ConfigModel.builder().version(2).build();
-
-        TranslationKeyModel key = TranslationKeyModel.builder()
-            .id(1)
-            .key("home.title")
-            .build();
-
-        TranslationValueModel original = TranslationValueModel.builder()
-            .id(1)
-            .key(key)
-            .value("Original Title")
-            .build();
-
-        when(translationValueRepository.findAllByConfigVersion(originalConfigVersion))
-            .thenReturn(List.of(original));
-
-        // Act
-        translationService.cloneTranslations(originalConfigVersion, newConfig);
-
-        // Assert
-        verify(translationValueRepository, times(1)).save(any(TranslationValueModel.class));
-    }
-
     // ==================== Helper Methods ====================
 
     private TranslationProjection createProjection(String key, String value) {
@@ -55,107 +55,6 @@ class FormOptionServiceTest {
         ReflectionTestUtils.setField(entity, "id", id);
     }
 
-    // ==================== cloneOptions Tests ====================
-
-    @Test
-    void cloneOptions_WithExistingOptions_ShouldCloneAll() {
-        // Arrange
-        int originalQuestionId = 1;
-        FormQuestionModel newQuestion = new FormQuestionModel();
-        setEntityId(newQuestion, 2);
-
-        ImageModel originalImage = ImageModel.builder().path("original.png").alt("Original").build();
-        setEntityId(originalImage, 1);
-
-        ImageModel clonedImage = ImageModel.builder().path("cloned.png").alt("Original").build();
-        setEntityId(clonedImage, 2);
-
-        FormQuestionOptionModel originalOption = FormQuestionOptionModel.builder()
-            .text("Option 1")
-            .image(originalImage)
-            .order((short) 0)
-            .build();
-        setEntityId(originalOption, 10);
-
-        when(formQuestionOptionRepository.findAllByFormQuestionId(originalQuestionId))
-            .thenReturn(List.of(originalOption));
-        when(imageService.cloneImage(originalImage)).thenReturn(clonedImage);
-
-        // Act
-        formOptionService.cloneOptions(originalQuestionId, newQuestion);
-
-        // Assert
-        verify(formQuestionOptionRepository, times(1)).save(optionCaptor.capture());
-        FormQuestionOptionModel savedOption = optionCaptor.getValue();
-
-        assertEquals(newQuestion, savedOption.getFormQuestion());
-        assertEquals("Option 1", savedOption.getText());
-        assertEquals(clonedImage, savedOption.getImage());
-        assertEquals(0, savedOption.getOrder());
-    }
-
-    @Test
-    void cloneOptions_WithMultipleOptions_ShouldCloneAllPreservingOrder() {
-        // Arrange
-        int originalQuestionId = 1;
-        FormQuestionModel newQuestion = new FormQuestionModel();
-        setEntityId(newQuestion, 2);
-
-        FormQuestionOptionModel option1 = FormQuestionOptionModel.builder()
-            .text("Option 1")
-            .order((short) 0)
-            .image(null)
-            .build();
-        setEntityId(option1, 1);
-
-        FormQuestionOptionModel option2 = FormQuestionOptionModel.builder()
-            .text("Option 2")
-            .order((short) 1)
-            .image(null)
-            .build();
-        setEntityId(option2, 2);
-
-        when(formQuestionOptionRepository.findAllByFormQuestionId(originalQuestionId))
-            .thenReturn(List.of(option1, option2));
-
-        // Act
-        formOptionService.cloneOptions(originalQuestionId, newQuestion);
-
-        // Assert
-        verify(formQuestionOptionRepository, times(2)).save(optionCaptor.capture());
-        List<FormQuestionOptionModel> savedOptions = optionCaptor.getAllValues();
-
-        assertEquals("Option 1", savedOptions.get(0).getText());
-        assertEquals(0, savedOptions.get(0).getOrder());
-        assertEquals("Option 2", savedOptions.get(1).getText());
-        assertEquals(1, savedOptions.get(1).getOrder());
-    }
-
-    @Test
-    void cloneOptions_WithOptionWithoutImage_ShouldCloneWithoutImage() {
-        // Arrange
-        int originalQuestionId = 1;
-        FormQuestionModel newQuestion = new FormQuestionModel();
-        setEntityId(newQuestion, 2);
-
-        FormQuestionOptionModel originalOption = FormQuestionOptionModel.builder()
-            .text("Option")
-            .image(null)
-            .order((short) 0)
-            .build();
-
-        when(formQuestionOptionRepository.findAllByFormQuestionId(originalQuestionId))
-            .thenReturn(List.of(originalOption));
-
-        // Act
-        formOptionService.cloneOptions(originalQuestionId, newQuestion);
-
-        // Assert
-        verify(imageService, never()).cloneImage(any());
-        verify(formQuestionOptionRepository, times(1)).save(optionCaptor.capture());
-        assertNull(optionCaptor.getValue().getImage());
-    }
-
     // ==================== updateOptions Tests ====================
 
     @Test